@@ -6,6 +6,7 @@ import org.springframework.data.annotation.CreatedBy;
 import org.springframework.data.annotation.CreatedDate;
 import org.springframework.data.annotation.Id;
 import org.springframework.data.annotation.LastModifiedDate;
+import org.springframework.data.mongodb.core.index.Indexed;
 import org.springframework.data.mongodb.core.mapping.Document;
 
 import java.util.Date;
@@ -19,8 +20,10 @@ import java.util.Date;
 public class Channel {
     @Id
     String id;
+    @Indexed                // existsByEventId, findByEventId(In)
     String eventId;
     Number postCount;
+    Long messageSeq;        // seq của tin chat mới nhất (ChannelMessageService cấp theo lô bằng $inc)
     private String name;
     private String type;
 
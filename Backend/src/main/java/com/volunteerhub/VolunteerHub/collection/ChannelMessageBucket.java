@@ -0,0 +1,49 @@
+package com.volunteerhub.VolunteerHub.collection;
+
+import lombok.*;
+import lombok.experimental.FieldDefaults;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.Indexed;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.util.Date;
+import java.util.List;
+
+/**
+ * Tin nhắn chat của 1 channel, gom theo bucket liên tiếp: bucket n chứa các tin có seq trong [n*100, n*100 + 99].
+ * Ghi = $push vào bucket cuối, đọc 1 trang = lấy 1-2 bucket theo _id. from / to là khoảng thời gian bucket phủ.
+ * _id = "{channelId}:{bucket}".
+ */
+@Document(collection = "channel_messages")
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+@FieldDefaults(level = AccessLevel.PRIVATE)
+public class ChannelMessageBucket {
+    @Id
+    String id;
+
+    @Indexed            // xoá theo channel
+    String channelId;
+
+    long bucket;
+    int count;
+    Date from;
+    Date to;
+
+    List<Message> messages;
+
+    @Data
+    @AllArgsConstructor
+    @NoArgsConstructor
+    @Builder
+    @FieldDefaults(level = AccessLevel.PRIVATE)
+    public static class Message {
+        String id;
+        long seq;           // thứ tự trong channel, cấp khi ghi (Channel.messageSeq)
+        String authorId;
+        String content;
+        Date createdAt;
+    }
+}
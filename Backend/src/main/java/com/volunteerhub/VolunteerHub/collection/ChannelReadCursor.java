@@ -0,0 +1,29 @@
+package com.volunteerhub.VolunteerHub.collection;
+
+import lombok.*;
+import lombok.experimental.FieldDefaults;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.Indexed;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+/**
+ * Vị trí đã đọc của 1 user trong 1 channel chat: số tin chưa đọc = Channel.messageSeq - lastReadSeq.
+ * _id = "{channelId}:{userId}".
+ */
+@Document(collection = "channel_read_cursors")
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+@FieldDefaults(level = AccessLevel.PRIVATE)
+public class ChannelReadCursor {
+    @Id
+    String id;
+
+    @Indexed            // xoá theo channel
+    String channelId;
+
+    String userId;
+
+    long lastReadSeq;
+}
@@ -0,0 +1,45 @@
+package com.volunteerhub.VolunteerHub.collection;
+
+import lombok.*;
+import lombok.experimental.FieldDefaults;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.util.Date;
+import java.util.Map;
+
+/**
+ * Read model cho dashboard, duy trì bởi DashboardStatsService.
+ * _id = "global" (toàn hệ thống) hoặc "manager:{userId}" (sự kiện do manager đó tạo).
+ */
+@Document(collection = "dashboard_stats")
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+@FieldDefaults(level = AccessLevel.PRIVATE)
+public class DashboardStats {
+    @Id
+    String id;
+
+    // Event
+    long totalEvents;
+    Map<String, Long> eventsByStatus;   // pending, approved, rejected, completed
+
+    // Phân loại theo thời gian của các event approved (sweeper cập nhật lại định kỳ)
+    long upcomingEvents;                // chưa đến giờ bắt đầu
+    long happeningEvents;               // đã bắt đầu, chưa hết ngày
+    long completedEvents;               // đã qua ngày diễn ra
+    Date bucketedAt;
+
+    // Registration
+    long totalRegistrations;
+    Map<String, Long> registrationsByStatus;
+
+    // Chỉ có ở document global
+    long totalUsers;
+    long activeUsers;
+    long totalVolunteers;
+    long totalPosts;
+    Map<String, Long> postsByDay;       // yyyy-MM-dd (giờ server) -> số bài viết, giữ vài ngày gần nhất
+}
@@ -7,12 +7,23 @@ import org.springframework.data.annotation.CreatedBy;
 import org.springframework.data.annotation.CreatedDate;
 import org.springframework.data.annotation.Id;
 import org.springframework.data.annotation.LastModifiedDate;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
+import org.springframework.data.mongodb.core.index.CompoundIndexes;
+import org.springframework.data.mongodb.core.index.Indexed;
 import org.springframework.data.mongodb.core.mapping.Document;
 
 import java.util.Date;
 import java.util.List;
+import java.util.Map;
 
 @Document(collection = "events")
+// Danh sách sự kiện theo cursor: admin (tất cả) và user (chỉ approved)
+@CompoundIndexes({
+        @CompoundIndex(name = "created_id", def = "{'createdAt': -1, '_id': -1}"),
+        @CompoundIndex(name = "status_created_id", def = "{'status': 1, 'createdAt': -1, '_id': -1}"),
+        @CompoundIndex(name = "status_date", def = "{'status': 1, 'date': 1}"),          // countUpcoming/CompletedEvents
+        @CompoundIndex(name = "created_by_created", def = "{'createdBy': 1, 'createdAt': -1}") // sự kiện của manager
+})
 @Data
 @AllArgsConstructor
 @NoArgsConstructor
@@ -26,16 +37,21 @@ public class Event {
     String title;
     String description;
 
+    @Indexed                // countByDateAfter
     Date date;
     String time;
     String location;
 
+    @Indexed(sparse = true) // đổi URL ảnh tạm -> Cloudinary (CloudinaryUploadWorker)
     String image;
     String category; // VD: "Môi trường", "Giáo dục",...
 
-    int volunteersRegistered; // Số người đã đăng ký
+    int volunteersRegistered; // Số người đã đăng ký (approved + completed), duy trì bởi EventCounterService
     int volunteersNeeded;     // Số người cần
 
+    int activeSeats;                          // Số đăng ký chưa bị từ chối (dùng để kiểm tra đầy chỗ)
+    Map<String, Integer> registrationCounts;  // Số đăng ký theo từng status: pending, approved, ...
+
     List<String> registeredUsers; // Danh sách userId đã đăng ký
 
 
@@ -6,12 +6,16 @@ import org.springframework.data.annotation.CreatedBy;
 import org.springframework.data.annotation.CreatedDate;
 import org.springframework.data.annotation.Id;
 import org.springframework.data.annotation.LastModifiedDate;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
 import org.springframework.data.mongodb.core.mapping.DBRef;
+import org.springframework.data.mongodb.core.index.Indexed;
 import org.springframework.data.mongodb.core.mapping.Document;
 
 import java.util.Date;
 
 @Document(collection = "event_registrations")
+// (eventId, userId): chốt chặn đăng ký trùng + mọi truy vấn theo eventId (tiền tố)
+@CompoundIndex(name = "event_user_unique", def = "{'eventId': 1, 'userId': 1}", unique = true)
 @Data
 @AllArgsConstructor
 @NoArgsConstructor
@@ -22,7 +26,9 @@ public class EventRegistration {
     String id;
 
     String eventId;
+    @Indexed                // findByUserId, existsByUserId
     String  userId;
+    @Indexed                // countByStatus, findByStatus
     String status; // 'pending', 'approved', 'canceled', 'completed'
 
     @CreatedDate
@@ -3,6 +3,7 @@ package com.volunteerhub.VolunteerHub.collection;
 import lombok.*;
 import lombok.experimental.FieldDefaults;
 import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.Indexed;
 import org.springframework.data.mongodb.core.mapping.Document;
 
 import java.util.Date;
@@ -16,5 +17,6 @@ import java.util.Date;
 public class InvalidatedToken {
     @Id
     String id;
+    @Indexed(name = "expiry_ttl", expireAfterSeconds = 0) // Mongo tự xoá token đã hết hạn
     Date expiryTime;
 }
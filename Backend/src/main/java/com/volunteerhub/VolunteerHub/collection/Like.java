@@ -5,11 +5,15 @@ import lombok.experimental.FieldDefaults;
 import org.springframework.data.annotation.CreatedDate;
 import org.springframework.data.annotation.Id;
 import org.springframework.data.annotation.LastModifiedDate;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
+import org.springframework.data.mongodb.core.index.Indexed;
 import org.springframework.data.mongodb.core.mapping.Document;
 
 import java.util.Date;
 
 @Document(collection = "likes")
+// Đếm / liệt kê like của 1 target và kiểm tra "user đã like chưa" (kể cả theo lô targetId)
+@CompoundIndex(name = "target_user", def = "{'targetType': 1, 'targetId': 1, 'userId': 1}")
 @Data
 @AllArgsConstructor
 @NoArgsConstructor
@@ -18,6 +22,7 @@ import java.util.Date;
 public class Like {
     @Id
     String id;
+    @Indexed
     String userId;
     String targetType; // 'post' | 'comment'
     String targetId; // Ref -> posts hoặc comments
@@ -4,11 +4,19 @@ import lombok.*;
 import lombok.experimental.FieldDefaults;
 import org.springframework.data.annotation.CreatedDate;
 import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
+import org.springframework.data.mongodb.core.index.CompoundIndexes;
+import org.springframework.data.mongodb.core.index.Indexed;
 import org.springframework.data.mongodb.core.mapping.Document;
 
 import java.util.Date;
 
 @Document(collection = "notifications")
+@CompoundIndexes({
+        // Hộp thư theo cursor (createdAt, _id)
+        @CompoundIndex(name = "user_created_id", def = "{'userId': 1, 'createdAt': -1, '_id': -1}"),
+        @CompoundIndex(name = "user_read_created_id", def = "{'userId': 1, 'isRead': 1, 'createdAt': -1, '_id': -1}") // hộp thư chưa đọc
+})
 @Data
 @AllArgsConstructor
 @NoArgsConstructor
@@ -24,9 +32,24 @@ public class Notification {
 
     String message;
 
+    String targetId; // post / event mà notification nói tới (null với notification hệ thống)
+
+    // Notification gộp (NotificationCoalescer): userId|type|targetId|cửa sổ thời gian, null nếu không gộp
+    @Indexed(unique = true, sparse = true)
+    String groupKey;
+
+    // Số hoạt động đã gộp vào notification này (null ở dữ liệu cũ = 1)
+    @Builder.Default
+    Integer count = 1;
+
     @Builder.Default
     Boolean isRead = false;
 
+    // Lúc được đánh dấu đã đọc; Mongo tự xoá notification đã đọc sau 30 ngày (chưa đọc thì không có readAt)
+    @Indexed(name = "read_ttl", expireAfterSeconds = 30 * 24 * 60 * 60)
+    Date readAt;
+
+    // Với notification gộp: thời điểm của hoạt động mới nhất (để nổi lên đầu hộp thư)
     @CreatedDate
     Date createdAt;
 }
@@ -0,0 +1,23 @@
+package com.volunteerhub.VolunteerHub.collection;
+
+import lombok.*;
+import lombok.experimental.FieldDefaults;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+/**
+ * Số notification chưa đọc của 1 user, duy trì bởi NotificationCounterService ($inc khi tạo / đọc).
+ * _id = userId.
+ */
+@Document(collection = "notification_counters")
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+@FieldDefaults(level = AccessLevel.PRIVATE)
+public class NotificationCounter {
+    @Id
+    String id;
+
+    long unread;
+}
@@ -5,12 +5,16 @@ import lombok.experimental.FieldDefaults;
 import org.springframework.data.annotation.CreatedDate;
 import org.springframework.data.annotation.Id;
 import org.springframework.data.annotation.LastModifiedDate;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
+import org.springframework.data.mongodb.core.index.Indexed;
+import org.springframework.data.mongodb.core.index.IndexDirection;
 import org.springframework.data.mongodb.core.mapping.Document;
 
 import java.util.Date;
 import java.util.List;
 
 @Document(collection = "posts")
+@CompoundIndex(name = "channel_created_id", def = "{'channelId': 1, 'createdAt': -1, '_id': -1}") // feed channel theo cursor
 @Data
 @AllArgsConstructor
 @NoArgsConstructor
@@ -22,8 +26,10 @@ public class Post {
     String id;
 
     String channelId;
+    @Indexed
     String authorId;
     String authorName;
+    @Indexed(sparse = true) // bản sao avatar_url của tác giả, cũng phải đổi URL ảnh tạm -> Cloudinary
     String authorAvatar;
 
     String title;
@@ -31,14 +37,17 @@ public class Post {
     String category;
     List<String> tags;    
 
+    @Indexed(sparse = true) // đổi URL ảnh tạm -> Cloudinary (CloudinaryUploadWorker)
     List<String> images;
 
+    @Indexed(direction = IndexDirection.DESCENDING) // bài viết nổi bật
     Long likesCount;
     Long commentsCount;
     Long views;            
 
     // Thời gian
     @CreatedDate
+    @Indexed                // countPostsBetween
     Date createdAt;
 
     @LastModifiedDate
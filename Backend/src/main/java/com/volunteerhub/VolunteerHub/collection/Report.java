@@ -5,6 +5,7 @@ import lombok.experimental.FieldDefaults;
 import org.springframework.data.annotation.Id;
 import org.springframework.data.annotation.CreatedDate;
 import org.springframework.data.annotation.LastModifiedDate;
+import org.springframework.data.mongodb.core.index.Indexed;
 import org.springframework.data.mongodb.core.mapping.Document;
 
 import java.util.Date;
@@ -18,11 +19,13 @@ import java.util.Date;
 public class Report {
     @Id
     String id;
+    @Indexed
     String type; // post, event, user, system
     String targetId;
     String authorId;
     String title;
     String description;
+    @Indexed
     String status; // pending, investigating, resolved, rejected
     @CreatedDate
     Date createdAt;
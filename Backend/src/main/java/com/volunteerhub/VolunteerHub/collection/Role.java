@@ -4,6 +4,7 @@ import lombok.*;
 import lombok.experimental.FieldDefaults;
 import org.springframework.data.annotation.Id;
 import org.springframework.data.mongodb.core.mapping.DBRef;
+import org.springframework.data.mongodb.core.index.Indexed;
 import org.springframework.data.mongodb.core.mapping.Document;
 
 import java.util.Set;
@@ -20,5 +21,6 @@ public class Role {
     String name;
     String description;
 
+    @Indexed                // existsByPermissionsContaining (multikey)
     Set<String> permissions;
 }
\ No newline at end of file
@@ -0,0 +1,53 @@
+package com.volunteerhub.VolunteerHub.collection;
+
+import lombok.*;
+import lombok.experimental.FieldDefaults;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
+import org.springframework.data.mongodb.core.index.CompoundIndexes;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.util.Date;
+
+/**
+ * Ảnh đã upload, khoá theo SHA-256 của nội dung (mỗi nội dung chỉ lưu 1 bản). File gốc nằm ở
+ * uploads/images/{id}{extension}; với upload cần đẩy lên Cloudinary, CloudinaryUploadWorker ghi remoteUrl khi xong.
+ * Cả 2 URL đều kết thúc bằng {id}.{ext} nên từ URL tham chiếu suy ra được ảnh.
+ */
+@Document(collection = "stored_images")
+@CompoundIndexes({
+        @CompoundIndex(name = "status_attempts", def = "{'status': 1, 'attempts': 1}"),     // sweeper upload lại
+        @CompoundIndex(name = "refcount_updated", def = "{'refCount': 1, 'updatedAt': 1}")  // GC ảnh không còn dùng
+})
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+@FieldDefaults(level = AccessLevel.PRIVATE)
+public class StoredImage {
+    public static final String STATUS_LOCAL = "local";          // chỉ lưu trên disk
+    public static final String STATUS_PENDING = "pending";      // chờ đẩy lên Cloudinary
+    public static final String STATUS_UPLOADED = "uploaded";
+    public static final String STATUS_FAILED = "failed";        // lỗi, sweeper thử lại tới MAX_ATTEMPTS
+
+    @Id
+    String id;              // sha256 hex
+
+    String extension;       // ".jpg", ".png", ...
+    String contentType;
+    long size;
+
+    String localUrl;        // URL tuyệt đối tới bản trên disk (dùng được ngay khi upload xong)
+    String remoteUrl;       // secure_url Cloudinary
+
+    String status;
+    int attempts;
+    String lastError;
+
+    // Số tham chiếu từ Event.image / Post.images / User.avatar_url, ImageGarbageCollector đếm lại mỗi lượt
+    long refCount;
+    Date countedAt;
+
+    Date createdAt;
+    Date updatedAt;
+}
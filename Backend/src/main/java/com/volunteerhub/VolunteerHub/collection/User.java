@@ -5,6 +5,8 @@ import lombok.experimental.FieldDefaults;
 import org.springframework.data.annotation.CreatedDate;
 import org.springframework.data.annotation.Id;
 import org.springframework.data.annotation.LastModifiedDate;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
+import org.springframework.data.mongodb.core.index.Indexed;
 import org.springframework.data.mongodb.core.mapping.Document;
 import org.springframework.data.mongodb.core.mapping.Field;
 
@@ -12,6 +14,7 @@ import java.util.Date;
 import java.util.Set;
 
 @Document(collection = "users")
+@CompoundIndex(name = "full_name_id", def = "{'full_name': 1, '_id': 1}") // bảng user theo cursor
 @Data
 @AllArgsConstructor
 @NoArgsConstructor
@@ -21,19 +24,23 @@ public class User {
 
     @Id
     String id;
+    @Indexed(unique = true)
     String email; //unique
     @Field("password_hash")
     String password;
 
+    @Indexed                // countByRole (multikey)
     Set<String> roles; //['volunteer', 'event_manager', 'admin']
 
     String full_name;
+    @Indexed(sparse = true) // đổi URL ảnh tạm -> Cloudinary (CloudinaryUploadWorker)
     String avatar_url;
     String phone;
     String address;
     String bio;
 
     @Field("is_active")
+    @Indexed
     Boolean isActive;
 
     @CreatedDate
@@ -7,6 +7,7 @@ import com.volunteerhub.VolunteerHub.collection.Role;
 import com.volunteerhub.VolunteerHub.repository.ChannelRepository; // ✅ Import Repo
 import com.volunteerhub.VolunteerHub.repository.UserRepository;
 import com.volunteerhub.VolunteerHub.repository.RoleRepository;
+import com.volunteerhub.VolunteerHub.service.TypeaheadIndex;
 import lombok.AccessLevel;
 import lombok.RequiredArgsConstructor;
 import lombok.experimental.FieldDefaults;
@@ -45,7 +46,8 @@ public class ApplicationInitConfig {
     @Bean
     ApplicationRunner applicationRunner(UserRepository userRepository,
                                         RoleRepository roleRepository,
-                                        ChannelRepository channelRepository) {
+                                        ChannelRepository channelRepository,
+                                        TypeaheadIndex typeaheadIndex) {
         return args -> {
 
             if(userRepository.findUserByEmail(ADMIN_USER_EMAIL).isEmpty()){
@@ -60,7 +62,7 @@ public class ApplicationInitConfig {
                         .isActive(true)
                         .build();
 
-                userRepository.save(user);
+                typeaheadIndex.indexUser(userRepository.save(user));
                 log.warn("Admin user has been created with default credentials: {} / {}", ADMIN_USER_EMAIL, ADMIN_USER_PASSWORD);
             }
 
@@ -76,7 +78,7 @@ public class ApplicationInitConfig {
                         .isActive(true)
                         .build();
 
-                userRepository.save(user);
+                typeaheadIndex.indexUser(userRepository.save(user));
                 log.warn("Manager user has been created with default credentials: {} / {}", MANAGER_USER_EMAIL, MANAGER_USER_PASSWORD);
             }
 
@@ -88,7 +90,7 @@ public class ApplicationInitConfig {
                 globalChannel.setPostCount(0);
                 globalChannel.setCreatedAt(new Date());
 
-                channelRepository.save(globalChannel);
+                typeaheadIndex.indexChannel(channelRepository.save(globalChannel));
                 log.warn(">>> Channel 'Cộng đồng chung' (GLOBAL_FEED) has been created automatically.");
             } else {
                 log.info(">>> Channel 'GLOBAL_FEED' already exists. Skipping.");
@@ -1,53 +1,93 @@
 package com.volunteerhub.VolunteerHub.config;
 
-import com.nimbusds.jose.JOSEException;
-import com.volunteerhub.VolunteerHub.dto.request.Authentication.IntrospectRequest;
-import com.volunteerhub.VolunteerHub.service.AuthenticationService;
+import com.volunteerhub.VolunteerHub.service.TokenRevocationService;
+import jakarta.annotation.PostConstruct;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
-import org.springframework.expression.ParseException;
 import org.springframework.security.oauth2.jose.jws.MacAlgorithm;
 import org.springframework.security.oauth2.jwt.Jwt;
 import org.springframework.security.oauth2.jwt.JwtDecoder;
 import org.springframework.security.oauth2.jwt.JwtException;
+import org.springframework.security.oauth2.jwt.JwtTimestampValidator;
 import org.springframework.security.oauth2.jwt.NimbusJwtDecoder;
 import org.springframework.stereotype.Component;
 
 import javax.crypto.spec.SecretKeySpec;
-import java.util.Objects;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.LinkedHashMap;
+import java.util.Map;
 
+/**
+ * Giải mã JWT với 1 lần verify HMAC duy nhất (NimbusJwtDecoder).
+ * Token đã verify được cache có giới hạn (LRU + TTL), kiểm tra thu hồi đọc từ bộ nhớ (TokenRevocationService)
+ * nên các request lặp lại với cùng token không tốn HMAC hay round trip DB.
+ */
 @Component
 public class CustomJwtDecoder implements JwtDecoder {
     @Value("${jwt.signerKey}")
     private String signerKey;
 
+    @Value("${app.auth.verified-cache-size:10000}")
+    private int verifiedCacheSize;
+
+    @Value("${app.auth.verified-cache-ttl-seconds:300}")
+    private long verifiedCacheTtlSeconds;
+
     @Autowired
-    private AuthenticationService authenticationService;
+    private TokenRevocationService tokenRevocationService;
+
+    private NimbusJwtDecoder nimbusJwtDecoder;
+
+    // token -> Jwt đã verify, truy cập theo thứ tự LRU
+    private Map<String, CachedJwt> verified;
+
+    private record CachedJwt(Jwt jwt, Instant validUntil) {}
 
-    private NimbusJwtDecoder nimbusJwtDecoder = null;
+    @PostConstruct
+    void init() {
+        SecretKeySpec secretKeySpec = new SecretKeySpec(signerKey.getBytes(), "HS512");
+        nimbusJwtDecoder = NimbusJwtDecoder
+                .withSecretKey(secretKeySpec)
+                .macAlgorithm(MacAlgorithm.HS512)
+                .build();
+        // Giống kiểm tra cũ: hết hạn là từ chối ngay, không cho lệch giờ
+        nimbusJwtDecoder.setJwtValidator(new JwtTimestampValidator(Duration.ZERO));
+
+        verified = new LinkedHashMap<>(256, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, CachedJwt> eldest) {
+                return size() > verifiedCacheSize;
+            }
+        };
+    }
 
     @Override
     public Jwt decode(String token) throws JwtException {
+        Instant now = Instant.now();
 
-        try {
-            var response = authenticationService.introspect(IntrospectRequest.builder()
-                    .token(token)
-                    .build());
-
-            if (!response.isValid())
-                throw new JwtException("Token invalid");
-        } catch (JOSEException | ParseException | java.text.ParseException e) {
-            throw new JwtException(e.getMessage());
+        CachedJwt cached;
+        synchronized (verified) {
+            cached = verified.get(token);
         }
-
-        if (Objects.isNull(nimbusJwtDecoder)) {
-            SecretKeySpec secretKeySpec = new SecretKeySpec(signerKey.getBytes(), "HS512");
-            nimbusJwtDecoder = NimbusJwtDecoder
-                    .withSecretKey(secretKeySpec)
-                    .macAlgorithm(MacAlgorithm.HS512)
-                    .build();
+        Jwt jwt;
+        if (cached != null && now.isBefore(cached.validUntil())) {
+            jwt = cached.jwt();
+        } else {
+            jwt = nimbusJwtDecoder.decode(token);
+            Instant validUntil = now.plusSeconds(verifiedCacheTtlSeconds);
+            if (jwt.getExpiresAt() != null && jwt.getExpiresAt().isBefore(validUntil)) {
+                validUntil = jwt.getExpiresAt();
+            }
+            synchronized (verified) {
+                verified.put(token, new CachedJwt(jwt, validUntil));
+            }
         }
 
-        return nimbusJwtDecoder.decode(token);
+        // Thu hồi được kiểm tra ở mỗi request (kể cả khi trúng cache) để logout có hiệu lực ngay
+        if (tokenRevocationService.isRevoked(jwt.getId()))
+            throw new JwtException("Token invalid");
+
+        return jwt;
     }
 }
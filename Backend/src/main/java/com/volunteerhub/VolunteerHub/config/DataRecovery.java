@@ -6,6 +6,8 @@ import com.volunteerhub.VolunteerHub.collection.Post;
 import com.volunteerhub.VolunteerHub.repository.ChannelRepository;
 import com.volunteerhub.VolunteerHub.repository.EventRepository;
 import com.volunteerhub.VolunteerHub.repository.PostRepository;
+import com.volunteerhub.VolunteerHub.service.PostSearchIndex;
+import com.volunteerhub.VolunteerHub.service.TypeaheadIndex;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.CommandLineRunner;
 import org.springframework.stereotype.Component;
@@ -25,6 +27,12 @@ public class DataRecovery implements CommandLineRunner {
     @Autowired
     private PostRepository postRepository;
 
+    @Autowired
+    private TypeaheadIndex typeaheadIndex;
+
+    @Autowired
+    private PostSearchIndex postSearchIndex;
+
     @Override
     public void run(String... args) throws Exception {
         System.out.println("BẮT ĐẦU QUÉT VÀ KHÔI PHỤC CHANNEL...");
@@ -49,6 +57,7 @@ public class DataRecovery implements CommandLineRunner {
                 newChannel.setPostCount(1);
                 newChannel.setCreatedAt(new Date());
                 Channel savedChannel = channelRepository.save(newChannel);
+                typeaheadIndex.indexChannel(savedChannel);
 
                 // 4. Tạo bài post chào mừng (để không bị trống)
                 Post welcomePost = new Post();
@@ -60,7 +69,7 @@ public class DataRecovery implements CommandLineRunner {
                 welcomePost.setLikesCount(0L);
                 welcomePost.setCommentsCount(0L);
                 welcomePost.setImages(List.of());
-                postRepository.save(welcomePost);
+                postSearchIndex.index(postRepository.save(welcomePost));
 
                 restoredCount++;
             }
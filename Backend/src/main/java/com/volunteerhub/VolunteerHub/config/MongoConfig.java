@@ -3,7 +3,8 @@ package com.volunteerhub.VolunteerHub.config;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.data.mongodb.config.EnableMongoAuditing;
 
+// Index được tạo bởi MongoIndexManager (auto-index-creation đang tắt)
 @Configuration
 @EnableMongoAuditing(auditorAwareRef = "auditorAware")
 public class MongoConfig {
-}
\ No newline at end of file
+}
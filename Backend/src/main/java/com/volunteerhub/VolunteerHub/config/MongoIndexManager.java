@@ -0,0 +1,188 @@
+package com.volunteerhub.VolunteerHub.config;
+
+import lombok.AccessLevel;
+import lombok.RequiredArgsConstructor;
+import lombok.experimental.FieldDefaults;
+import lombok.extern.slf4j.Slf4j;
+import org.bson.Document;
+import org.springframework.beans.factory.config.BeanDefinition;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.context.annotation.ClassPathScanningCandidateComponentProvider;
+import org.springframework.core.type.filter.AnnotationTypeFilter;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.index.IndexDefinition;
+import org.springframework.data.mongodb.core.index.IndexField;
+import org.springframework.data.mongodb.core.index.IndexInfo;
+import org.springframework.data.mongodb.core.index.IndexOperations;
+import org.springframework.data.mongodb.core.index.MongoPersistentEntityIndexResolver;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.*;
+import java.util.stream.Collectors;
+
+/**
+ * Quản lý index Mongo theo khai báo: index của mỗi collection được khai báo bằng @Indexed / @CompoundIndex
+ * ngay trên class trong package collection (cạnh field mà repository truy vấn).
+ * Khi khởi động: tạo các index còn thiếu (idempotent) rồi báo cáo index thiếu / index lạ không khai báo.
+ * Định kỳ: báo cáo index không được dùng (theo $indexStats, tính từ lần khởi động mongod gần nhất).
+ */
+@Component
+@RequiredArgsConstructor
+@FieldDefaults(level = AccessLevel.PRIVATE, makeFinal = true)
+@Slf4j
+public class MongoIndexManager implements ApplicationRunner {
+
+    static final String COLLECTION_PACKAGE = "com.volunteerhub.VolunteerHub.collection";
+    static final String ID_INDEX = "_id_";
+
+    MongoTemplate mongoTemplate;
+
+    /**
+     * @param missing    index đã khai báo nhưng không có trong DB (tạo thất bại, VD dữ liệu trùng với index unique)
+     * @param undeclared index có trong DB nhưng không khai báo trong code
+     * @param unused     index chưa phục vụ truy vấn nào kể từ khi mongod khởi động
+     */
+    public record IndexReport(Map<String, List<String>> missing,
+                              Map<String, List<String>> undeclared,
+                              Map<String, List<String>> unused) {}
+
+    @Override
+    public void run(ApplicationArguments args) {
+        try {
+            ensureIndexes();
+            IndexReport report = report(false);
+            report.missing().forEach((collection, indexes) ->
+                    log.error("Missing indexes on {}: {}", collection, indexes));
+            report.undeclared().forEach((collection, indexes) ->
+                    log.warn("Undeclared indexes on {} (not referenced by any @Indexed/@CompoundIndex): {}", collection, indexes));
+        } catch (Exception e) {
+            log.error("Could not provision Mongo indexes", e);
+        }
+    }
+
+    @Scheduled(cron = "${app.mongo.index-report-cron:0 0 4 * * *}")
+    public void reportUnused() {
+        try {
+            report(true).unused().forEach((collection, indexes) ->
+                    log.warn("Unused indexes on {} since mongod start: {}", collection, indexes));
+        } catch (Exception e) {
+            log.warn("Could not collect index usage stats", e);
+        }
+    }
+
+    // ========================================================================
+    // TẠO INDEX
+    // ========================================================================
+
+    /**
+     * Tạo mọi index đã khai báo. ensureIndex bỏ qua index đã tồn tại nên gọi lại nhiều lần vẫn an toàn.
+     */
+    public void ensureIndexes() {
+        declaredIndexes().forEach((collection, definitions) -> {
+            IndexOperations indexOps = mongoTemplate.indexOps(collection);
+            for (IndexDefinition definition : definitions) {
+                try {
+                    indexOps.ensureIndex(definition);
+                } catch (Exception e) {
+                    // Thường do dữ liệu cũ đã có bản ghi trùng -> cần dọn trước khi index unique được tạo
+                    log.error("Could not create index {} on {}", definition.getIndexKeys(), collection, e);
+                }
+            }
+        });
+    }
+
+    // collection -> index khai báo trên các class @Document của collection đó
+    public Map<String, List<IndexDefinition>> declaredIndexes() {
+        var resolver = new MongoPersistentEntityIndexResolver(mongoTemplate.getConverter().getMappingContext());
+        Map<String, List<IndexDefinition>> declared = new TreeMap<>();
+        for (Class<?> type : documentTypes()) {
+            List<IndexDefinition> definitions = declared.computeIfAbsent(mongoTemplate.getCollectionName(type), k -> new ArrayList<>());
+            resolver.resolveIndexFor(type).forEach(definitions::add);
+        }
+        return declared;
+    }
+
+    static List<Class<?>> documentTypes() {
+        var scanner = new ClassPathScanningCandidateComponentProvider(false);
+        scanner.addIncludeFilter(new AnnotationTypeFilter(org.springframework.data.mongodb.core.mapping.Document.class));
+        List<Class<?>> types = new ArrayList<>();
+        for (BeanDefinition candidate : scanner.findCandidateComponents(COLLECTION_PACKAGE)) {
+            try {
+                types.add(Class.forName(candidate.getBeanClassName()));
+            } catch (ClassNotFoundException e) {
+                throw new IllegalStateException(e);
+            }
+        }
+        types.sort(Comparator.comparing(Class::getName));
+        return types;
+    }
+
+    // ========================================================================
+    // BÁO CÁO
+    // ========================================================================
+
+    /**
+     * So sánh index khai báo với index thực tế theo key (field + chiều).
+     * @param withUsage true để đọc thêm $indexStats (index không được dùng)
+     */
+    public IndexReport report(boolean withUsage) {
+        Map<String, List<String>> missing = new TreeMap<>();
+        Map<String, List<String>> undeclared = new TreeMap<>();
+        Map<String, List<String>> unused = new TreeMap<>();
+
+        declaredIndexes().forEach((collection, definitions) -> {
+            Set<String> declaredKeys = definitions.stream()
+                    .map(definition -> keySignature(definition.getIndexKeys()))
+                    .collect(Collectors.toCollection(LinkedHashSet::new));
+
+            Map<String, String> existingKeys = new LinkedHashMap<>();   // key -> tên index
+            if (mongoTemplate.collectionExists(collection)) {
+                for (IndexInfo info : mongoTemplate.indexOps(collection).getIndexInfo()) {
+                    existingKeys.put(keySignature(info), info.getName());
+                }
+            }
+
+            List<String> missingHere = declaredKeys.stream().filter(key -> !existingKeys.containsKey(key)).toList();
+            if (!missingHere.isEmpty()) missing.put(collection, missingHere);
+
+            List<String> undeclaredHere = existingKeys.entrySet().stream()
+                    .filter(entry -> !ID_INDEX.equals(entry.getValue()) && !declaredKeys.contains(entry.getKey()))
+                    .map(Map.Entry::getValue)
+                    .toList();
+            if (!undeclaredHere.isEmpty()) undeclared.put(collection, undeclaredHere);
+
+            if (withUsage && !existingKeys.isEmpty()) {
+                List<String> unusedHere = new ArrayList<>();
+                for (Document stats : mongoTemplate.getCollection(collection)
+                        .aggregate(List.of(new Document("$indexStats", new Document())))) {
+                    Document accesses = stats.get("accesses", Document.class);
+                    long ops = accesses != null && accesses.get("ops") instanceof Number n ? n.longValue() : 0L;
+                    if (ops == 0 && !ID_INDEX.equals(stats.getString("name"))) unusedHere.add(stats.getString("name"));
+                }
+                if (!unusedHere.isEmpty()) unused.put(collection, unusedHere);
+            }
+        });
+        return new IndexReport(missing, undeclared, unused);
+    }
+
+    // "channelId:1,createdAt:-1,_id:-1"
+    static String keySignature(Document keys) {
+        return keys.entrySet().stream()
+                .map(entry -> entry.getKey() + ":" + (entry.getValue() instanceof Number n ? n.intValue() : entry.getValue()))
+                .collect(Collectors.joining(","));
+    }
+
+    static String keySignature(IndexInfo info) {
+        return info.getIndexFields().stream()
+                .map(field -> field.getKey() + ":" + direction(field))
+                .collect(Collectors.joining(","));
+    }
+
+    private static Object direction(IndexField field) {
+        if (field.getDirection() == null) return field.isGeo() ? "geo" : "text";
+        return field.getDirection() == Sort.Direction.ASC ? 1 : -1;
+    }
+}
@@ -52,7 +52,17 @@ public class SecurityConfig {
     };
     
     private final String[] PUBLIC_GET_ENDPOINTS = {
-            "/events", "/events/**"
+            "/events", "/events/**",
+            "/uploads/images/**"    // ảnh đã upload, thẻ <img> không gửi token
+    };
+
+    // Handshake WebSocket không mang header Authorization -> xác thực ở frame STOMP CONNECT (WebSocketConfig)
+    private final String[] WEBSOCKET_ENDPOINTS = {
+            "/ws", "/ws/**"
+    };
+
+    static final String[] ALLOWED_ORIGINS = {
+            "http://localhost:5173", "http://localhost:3000", "http://localhost:5174"
     };
 
     @Bean
@@ -60,6 +70,7 @@ public class SecurityConfig {
         httpSecurity.authorizeHttpRequests(request->
                 request.requestMatchers(HttpMethod.POST, PUBLIC_POST_ENDPOINTS).permitAll()
                         .requestMatchers(HttpMethod.GET, PUBLIC_GET_ENDPOINTS).permitAll()
+                        .requestMatchers(WEBSOCKET_ENDPOINTS).permitAll()
                         .anyRequest().authenticated());
 
         httpSecurity.oauth2ResourceServer(oauth2 ->
@@ -83,7 +94,7 @@ public class SecurityConfig {
     @Bean
     CorsConfigurationSource corsConfigurationSource() {
         CorsConfiguration configuration = new CorsConfiguration();
-        configuration.setAllowedOrigins(Arrays.asList("http://localhost:5173", "http://localhost:3000", "http://localhost:5174"));
+        configuration.setAllowedOrigins(Arrays.asList(ALLOWED_ORIGINS));
         configuration.setAllowedMethods(Arrays.asList("GET", "POST", "PUT", "DELETE", "PATCH", "OPTIONS"));
         configuration.setAllowedHeaders(Arrays.asList("*"));
         configuration.setAllowCredentials(true);
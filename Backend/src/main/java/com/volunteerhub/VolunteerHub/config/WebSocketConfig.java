@@ -0,0 +1,114 @@
+package com.volunteerhub.VolunteerHub.config;
+
+import com.volunteerhub.VolunteerHub.collection.User;
+import com.volunteerhub.VolunteerHub.repository.UserRepository;
+import com.volunteerhub.VolunteerHub.service.CurrentUserService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageChannel;
+import org.springframework.messaging.MessageDeliveryException;
+import org.springframework.messaging.simp.config.ChannelRegistration;
+import org.springframework.messaging.simp.config.MessageBrokerRegistry;
+import org.springframework.messaging.simp.stomp.StompHeaderAccessor;
+import org.springframework.messaging.support.ChannelInterceptor;
+import org.springframework.messaging.support.MessageHeaderAccessor;
+import org.springframework.security.authentication.AbstractAuthenticationToken;
+import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.security.oauth2.jwt.JwtException;
+import org.springframework.security.oauth2.server.resource.authentication.JwtAuthenticationToken;
+import org.springframework.web.socket.config.annotation.EnableWebSocketMessageBroker;
+import org.springframework.web.socket.config.annotation.StompEndpointRegistry;
+import org.springframework.web.socket.config.annotation.WebSocketMessageBrokerConfigurer;
+
+/**
+ * STOMP over WebSocket tại /ws.
+ * Client gửi JWT trong header "Authorization: Bearer ..." của frame CONNECT (giống REST, cùng CustomJwtDecoder).
+ * Principal của phiên STOMP mang tên = userId nên server gửi thẳng tới /user/{userId}/queue/... được;
+ * client chỉ cần subscribe /user/queue/notifications.
+ * Chat: subscribe /topic/channels/{channelId} để nhận tin mới của channel.
+ * Client chỉ được SEND tới /app/...; /topic, /queue và /user chỉ server gửi.
+ */
+@Configuration
+@EnableWebSocketMessageBroker
+@RequiredArgsConstructor
+@Slf4j
+public class WebSocketConfig implements WebSocketMessageBrokerConfigurer {
+
+    public static final String NOTIFICATION_QUEUE = "/queue/notifications";
+    public static final String CHANNEL_TOPIC_PREFIX = "/topic/channels/";
+    static final String APP_PREFIX = "/app";
+
+    private final CustomJwtDecoder customJwtDecoder;
+    private final JwtAuthenticationConverter jwtAuthenticationConverter;
+    private final UserRepository userRepository;
+
+    @Override
+    public void registerStompEndpoints(StompEndpointRegistry registry) {
+        registry.addEndpoint("/ws").setAllowedOrigins(SecurityConfig.ALLOWED_ORIGINS);
+    }
+
+    @Override
+    public void configureMessageBroker(MessageBrokerRegistry registry) {
+        registry.enableSimpleBroker("/queue", "/topic");
+        registry.setApplicationDestinationPrefixes(APP_PREFIX);
+        registry.setUserDestinationPrefix("/user");
+    }
+
+    @Override
+    public void configureClientInboundChannel(ChannelRegistration registration) {
+        registration.interceptors(new ChannelInterceptor() {
+            @Override
+            public Message<?> preSend(Message<?> message, MessageChannel channel) {
+                StompHeaderAccessor accessor = MessageHeaderAccessor.getAccessor(message, StompHeaderAccessor.class);
+                if (accessor == null || accessor.getCommand() == null) return message;
+
+                switch (accessor.getCommand()) {
+                    case CONNECT -> accessor.setUser(authenticate(accessor));
+                    case SUBSCRIBE -> {
+                        if (accessor.getUser() == null) throw new MessageDeliveryException("Unauthenticated");
+                        // Chỉ cho subscribe hàng đợi của chính mình (/user/...) hoặc topic chung,
+                        // không cho subscribe trực tiếp /queue/...-user{sessionId} của phiên khác
+                        String destination = accessor.getDestination();
+                        if (destination != null && !destination.startsWith("/user/") && !destination.startsWith("/topic/")) {
+                            throw new MessageDeliveryException("Forbidden destination " + destination);
+                        }
+                    }
+                    case SEND -> {
+                        if (accessor.getUser() == null) throw new MessageDeliveryException("Unauthenticated");
+                        // Broker (/topic, /queue) và /user/... chỉ do server gửi: client SEND thẳng vào đó sẽ giả được
+                        // tin chat / notification của người khác. Tin chat đi qua REST (ChannelMessageService).
+                        String destination = accessor.getDestination();
+                        if (destination == null || !destination.startsWith(APP_PREFIX + "/")) {
+                            throw new MessageDeliveryException("Forbidden destination " + destination);
+                        }
+                    }
+                    default -> { }
+                }
+                return message;
+            }
+        });
+    }
+
+    private JwtAuthenticationToken authenticate(StompHeaderAccessor accessor) {
+        String header = accessor.getFirstNativeHeader("Authorization");
+        if (header == null || !header.startsWith("Bearer ")) throw new MessageDeliveryException("Missing bearer token");
+
+        Jwt jwt;
+        try {
+            jwt = customJwtDecoder.decode(header.substring("Bearer ".length()).trim());
+        } catch (JwtException e) {
+            throw new MessageDeliveryException("Invalid token");
+        }
+        AbstractAuthenticationToken authentication = jwtAuthenticationConverter.convert(jwt);
+
+        // Token cũ chưa có claim userId -> tra theo email (1 lần / kết nối)
+        String userId = jwt.getClaimAsString(CurrentUserService.USER_ID_CLAIM);
+        if (userId == null) {
+            userId = userRepository.findUserByEmail(jwt.getSubject()).map(User::getId)
+                    .orElseThrow(() -> new MessageDeliveryException("Unknown user"));
+        }
+        return new JwtAuthenticationToken(jwt, authentication.getAuthorities(), userId);
+    }
+}
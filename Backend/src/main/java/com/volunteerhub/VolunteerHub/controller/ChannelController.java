@@ -1,10 +1,14 @@
 package com.volunteerhub.VolunteerHub.controller;
 
 import com.volunteerhub.VolunteerHub.dto.request.Channel.ChannelCreationRequest;
+import com.volunteerhub.VolunteerHub.dto.request.Channel.ChannelMessageRequest;
 import com.volunteerhub.VolunteerHub.dto.request.Channel.ChannelUpdateRequest;
 import com.volunteerhub.VolunteerHub.dto.response.ApiResponse;
+import com.volunteerhub.VolunteerHub.dto.response.ChannelMessageResponse;
 import com.volunteerhub.VolunteerHub.dto.response.ChannelResponse;
+import com.volunteerhub.VolunteerHub.service.ChannelMessageService;
 import com.volunteerhub.VolunteerHub.service.ChannelService;
+import com.volunteerhub.VolunteerHub.service.CurrentUserService;
 import lombok.AccessLevel;
 import lombok.RequiredArgsConstructor;
 import lombok.experimental.FieldDefaults;
@@ -14,7 +18,6 @@ import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
 
 import java.util.List;
-import java.util.Map;
 
 @RestController
 @RequestMapping("/channels")
@@ -24,6 +27,8 @@ import java.util.Map;
 public class ChannelController {
 
     ChannelService channelService;
+    ChannelMessageService channelMessageService;
+    CurrentUserService currentUserService;
 
     @GetMapping
     @PreAuthorize("hasAuthority('READ_CHANNEL')")
@@ -94,26 +99,31 @@ public class ChannelController {
     }
 
 
+    // Tin mới nhất trước (offset tính từ tin mới nhất), trả về theo thứ tự cũ -> mới.
+    // Tin mới realtime: subscribe /topic/channels/{channelId}
     @GetMapping("/{channelId}/messages")
     @PreAuthorize("hasAuthority('READ_CHANNEL')")
-    public ApiResponse<List<Map<String, Object>>> getMessages(
+    public ApiResponse<List<ChannelMessageResponse>> getMessages(
             @PathVariable String channelId,
             @RequestParam(required = false) Integer limit,
             @RequestParam(required = false) Integer offset){
-        return ApiResponse.<List<Map<String, Object>>>builder()
-                .result(List.of())
+        return ApiResponse.<List<ChannelMessageResponse>>builder()
+                .result(channelMessageService.getMessages(channelId, limit, offset))
                 .build();
     }
 
     @PostMapping("/{channelId}/messages")
     @PreAuthorize("hasAuthority('CREATE_CHANNEL')")
-    public ApiResponse<Void> sendMessage(@PathVariable String channelId, @RequestBody Map<String, Object> body){
-        return ApiResponse.<Void>builder().build();
+    public ApiResponse<ChannelMessageResponse> sendMessage(@PathVariable String channelId, @RequestBody ChannelMessageRequest request){
+        return ApiResponse.<ChannelMessageResponse>builder()
+                .result(channelMessageService.send(channelId, currentUserService.getUserId(), request.getContent()))
+                .build();
     }
 
     @PutMapping("/{channelId}/read")
     @PreAuthorize("hasAuthority('READ_CHANNEL')")
     public ApiResponse<Void> markRead(@PathVariable String channelId){
+        channelMessageService.markRead(channelId, currentUserService.getUserId());
         return ApiResponse.<Void>builder().build();
     }
 
@@ -121,7 +131,7 @@ public class ChannelController {
     @PreAuthorize("hasAuthority('READ_CHANNEL')")
     public ApiResponse<Long> getUnreadCount(@PathVariable String channelId){
         return ApiResponse.<Long>builder()
-                .result(0L)
+                .result(channelMessageService.getUnreadCount(channelId, currentUserService.getUserId()))
                 .build();
     }
-}
\ No newline at end of file
+}
@@ -5,8 +5,11 @@ import com.volunteerhub.VolunteerHub.dto.request.Event.EventCreationRequest;
 import com.volunteerhub.VolunteerHub.dto.request.Event.EventUpdateRequest;
 import com.volunteerhub.VolunteerHub.dto.response.AdminDashboardResponse;
 import com.volunteerhub.VolunteerHub.dto.response.ApiResponse;
+import com.volunteerhub.VolunteerHub.dto.response.CacheStatsResponse;
+import com.volunteerhub.VolunteerHub.dto.response.CursorPage;
 import com.volunteerhub.VolunteerHub.dto.response.DashboardStatsResponse;
 import com.volunteerhub.VolunteerHub.dto.response.EventResponse;
+import com.volunteerhub.VolunteerHub.service.EventCounterService;
 import com.volunteerhub.VolunteerHub.service.EventService;
 import lombok.AccessLevel;
 import lombok.RequiredArgsConstructor;
@@ -29,6 +32,7 @@ import java.util.List;
 public class EventController {
 
     EventService eventService;
+    EventCounterService eventCounterService;
 
     // ==========================================
     // 1. API QUAN TRỌNG NHẤT (SEARCH & PAGINATION)
@@ -40,23 +44,36 @@ public class EventController {
             @RequestParam(defaultValue = "0") int page,
             @RequestParam(defaultValue = "10") int size
     ) {
-        // Tự động kiểm tra xem người gọi API có phải là Admin/Manager không
-        boolean isAdmin = false;
+        // Gọi hàm Service mới (đã hỗ trợ search + phân quyền view)
+        return ApiResponse.<Page<EventResponse>>builder()
+                .result(eventService.getEvents(keyword, page, size, isAdminOrManager()))
+                .build();
+    }
+
+    // Infinite scroll theo cursor (mới nhất trước, không đếm tổng). Bỏ trống cursor cho trang đầu.
+    @GetMapping("/cursor")
+    public ApiResponse<CursorPage<EventResponse>> getEventsCursor(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "10") int size
+    ) {
+        return ApiResponse.<CursorPage<EventResponse>>builder()
+                .result(eventService.getEventsCursor(cursor, size, isAdminOrManager()))
+                .build();
+    }
+
+    // Tự động kiểm tra xem người gọi API có phải là Admin/Manager không
+    private boolean isAdminOrManager() {
         try {
             var auth = SecurityContextHolder.getContext().getAuthentication();
             if (auth != null && auth.isAuthenticated()) {
-                isAdmin = auth.getAuthorities().stream()
+                return auth.getAuthorities().stream()
                         .anyMatch(a -> a.getAuthority().equals("ROLE_ADMIN")
                                 || a.getAuthority().equals("ROLE_EVEN_MANAGER")
                                 || a.getAuthority().equals("SCOPE_ADMIN") // Đề phòng dùng JWT Scope
                                 || a.getAuthority().equals("SCOPE_EVEN_MANAGER"));
             }
         } catch (Exception ignored) {}
-
-        // Gọi hàm Service mới (đã hỗ trợ search + phân quyền view)
-        return ApiResponse.<Page<EventResponse>>builder()
-                .result(eventService.getEvents(keyword, page, size, isAdmin))
-                .build();
+        return false;
     }
 
     // ==========================================
@@ -87,6 +104,24 @@ public class EventController {
                 .build();
     }
 
+    // Hit/miss của cache đọc sự kiện (chi tiết, top, trang công khai)
+    @GetMapping("/admin/cache-stats")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ApiResponse<List<CacheStatsResponse>> getCacheStats() {
+        return ApiResponse.<List<CacheStatsResponse>>builder()
+                .result(eventService.getCacheStats())
+                .build();
+    }
+
+    // Dựng lại counter đăng ký (registrationCounts, activeSeats, volunteersRegistered) từ event_registrations
+    @PostMapping("/admin/rebuild-counters")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ApiResponse<Long> rebuildRegistrationCounters() {
+        return ApiResponse.<Long>builder()
+                .result(eventCounterService.rebuildAll())
+                .build();
+    }
+
     @GetMapping("/manager/dashboard-stats")
     @PreAuthorize("hasRole('EVEN_MANAGER')")
     public ApiResponse<DashboardStatsResponse> getManagerDashboardStats() {
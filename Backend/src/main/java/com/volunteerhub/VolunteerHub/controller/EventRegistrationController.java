@@ -24,12 +24,12 @@ public class EventRegistrationController {
     @Autowired
     EventRegistrationService eventRegistrationService;
     @Autowired
-    com.volunteerhub.VolunteerHub.service.UserService userService;
+    com.volunteerhub.VolunteerHub.service.CurrentUserService currentUserService;
 
     @PostMapping
     @PreAuthorize("hasAuthority('CREATE_REGISTRATION')")
     ApiResponse<EventRegistrationResponse> createRegistration(@RequestBody EventRegistrationCreationRequest request){
-        String userId = userService.getMyInfo().getId();
+        String userId = currentUserService.getUserId();
         request.setUserId(userId);
         return ApiResponse.<EventRegistrationResponse>builder()
                 .result(eventRegistrationService.createRegistration(request))
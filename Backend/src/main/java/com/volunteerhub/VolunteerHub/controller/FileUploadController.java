@@ -1,28 +1,33 @@
 package com.volunteerhub.VolunteerHub.controller;
 
 import com.volunteerhub.VolunteerHub.dto.response.ApiResponse;
+import com.volunteerhub.VolunteerHub.dto.response.ImageUploadResponse;
 import com.volunteerhub.VolunteerHub.service.FileUploadService;
 import lombok.RequiredArgsConstructor;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.multipart.MultipartFile;
 
-import java.util.Map;
-
 @RestController
 @RequestMapping("/file-service")
 @RequiredArgsConstructor
 public class FileUploadController {
     private final FileUploadService fileUploadService;
 
+    // Trả về ngay sau khi lưu trên server, Cloudinary upload ở nền (status = pending).
+    // Gửi kèm sha256 của file: nội dung đã có thì trả URL cũ, không cần gửi file
     @PostMapping("/upload-image")
-    public ApiResponse<Map<String, String>> uploadImage(@RequestParam("file") MultipartFile file) {
-        try {
-            String imageUrl = fileUploadService.uploadImage(file);
-            return ApiResponse.<Map<String, String>>builder()
-                    .result(Map.of("url", imageUrl))
-                    .build();
-        } catch (Exception e) {
-            throw new RuntimeException("Upload failed: " + e.getMessage());
-        }
+    public ApiResponse<ImageUploadResponse> uploadImage(@RequestParam(value = "file", required = false) MultipartFile file,
+                                                        @RequestParam(value = "sha256", required = false) String sha256) {
+        return ApiResponse.<ImageUploadResponse>builder()
+                .result(fileUploadService.storeImage(file, sha256, true))
+                .build();
+    }
+
+    // Kiểm tra trước khi upload: 404 (IMAGE_NOT_EXISTED) -> cần gửi file
+    @GetMapping("/images/{sha256}")
+    public ApiResponse<ImageUploadResponse> getImage(@PathVariable String sha256) {
+        return ApiResponse.<ImageUploadResponse>builder()
+                .result(fileUploadService.getExisting(sha256))
+                .build();
     }
-}
\ No newline at end of file
+}
@@ -25,7 +25,7 @@ public class LikeController {
     LikeService likeService;
 
     @Autowired
-    com.volunteerhub.VolunteerHub.service.UserService userService;
+    com.volunteerhub.VolunteerHub.service.CurrentUserService currentUserService;
 
     @PostMapping
     @PreAuthorize("hasAuthority('CREATE_LIKE')")
@@ -54,7 +54,7 @@ public class LikeController {
     @DeleteMapping("/{likeId}")
     @PreAuthorize("hasAnyAuthority('DELETE_LIKE','READ_LIKE')")
     ApiResponse<Void> deleteLike(@PathVariable String likeId){
-        String currentUserId = userService.getMyInfo().getId();
+        String currentUserId = currentUserService.getUserId();
         var auth = org.springframework.security.core.context.SecurityContextHolder.getContext().getAuthentication();
         boolean hasAdminDelete = auth.getAuthorities().stream().anyMatch(a -> a.getAuthority().equals("DELETE_LIKE") || a.getAuthority().equals("ROLE_ADMIN"));
         try {
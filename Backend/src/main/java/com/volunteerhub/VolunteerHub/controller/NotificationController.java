@@ -2,9 +2,12 @@ package com.volunteerhub.VolunteerHub.controller;
 
 import com.volunteerhub.VolunteerHub.dto.request.Notification.NotificationCreationRequest;
 import com.volunteerhub.VolunteerHub.dto.response.ApiResponse;
+import com.volunteerhub.VolunteerHub.dto.response.CursorPage;
+import com.volunteerhub.VolunteerHub.dto.response.NotificationBusStatsResponse;
 import com.volunteerhub.VolunteerHub.dto.response.NotificationResponse;
 import com.volunteerhub.VolunteerHub.service.NotificationService;
-import com.volunteerhub.VolunteerHub.service.UserService;
+import com.volunteerhub.VolunteerHub.service.CurrentUserService;
+import com.volunteerhub.VolunteerHub.service.NotificationEventBus;
 import lombok.AccessLevel;
 import lombok.RequiredArgsConstructor;
 import lombok.experimental.FieldDefaults;
@@ -27,11 +30,14 @@ public class NotificationController {
     private NotificationService notificationService;
 
     @Autowired
-    private UserService userService;
+    private CurrentUserService currentUserService;
+
+    @Autowired
+    private NotificationEventBus notificationEventBus;
 
     @GetMapping
     public ApiResponse<List<NotificationResponse>> getNotifications() {
-        String userId = userService.getMyInfo().getId();
+        String userId = currentUserService.getUserId();
 
         return ApiResponse.<List<NotificationResponse>>builder()
                 .result(notificationService.getNotifications(userId))
@@ -40,16 +46,30 @@ public class NotificationController {
 
     @GetMapping("/unread")
     public ApiResponse<List<NotificationResponse>> getUnreadNotifications() {
-        String userId = userService.getMyInfo().getId();
+        String userId = currentUserService.getUserId();
 
         return ApiResponse.<List<NotificationResponse>>builder()
                 .result(notificationService.getUnreadNotifications(userId))
                 .build();
     }
 
+    // Infinite scroll: gửi lại nextCursor của trang trước, bỏ trống cho trang đầu
+    @GetMapping("/inbox")
+    public ApiResponse<CursorPage<NotificationResponse>> getInbox(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "20") int size,
+            @RequestParam(defaultValue = "false") boolean unreadOnly
+    ) {
+        String userId = currentUserService.getUserId();
+
+        return ApiResponse.<CursorPage<NotificationResponse>>builder()
+                .result(notificationService.getInbox(userId, cursor, size, unreadOnly))
+                .build();
+    }
+
     @GetMapping("/unread/count")
     public ApiResponse<Long> getUnreadCount() {
-        String userId = userService.getMyInfo().getId();
+        String userId = currentUserService.getUserId();
 
         return ApiResponse.<Long>builder()
                 .result(notificationService.getUnreadCount(userId))
@@ -58,13 +78,22 @@ public class NotificationController {
 
     @PutMapping("/{id}/read")
     public ApiResponse<NotificationResponse> markAsRead(@PathVariable String id) {
-        String userId = userService.getMyInfo().getId();
+        String userId = currentUserService.getUserId();
 
         return ApiResponse.<NotificationResponse>builder()
                 .result(notificationService.markAsRead(id, userId))
                 .build();
     }
 
+    @PutMapping("/read-all")
+    public ApiResponse<Long> markAllAsRead() {
+        String userId = currentUserService.getUserId();
+
+        return ApiResponse.<Long>builder()
+                .result(notificationService.markAllAsRead(userId))
+                .build();
+    }
+
     @PostMapping
     @PreAuthorize("hasAnyAuthority('APPROVE_EVENT', 'UPDATE_EVENT', 'DELETE_USER') or hasRole('ADMIN')")
     public ApiResponse<NotificationResponse> createNotification(@RequestBody NotificationCreationRequest request) {
@@ -72,5 +101,13 @@ public class NotificationController {
                 .result(notificationService.createNotification(request))
                 .build();
     }
-}
 
+    // Độ sâu hàng đợi, độ trễ, số lần retry của fan-out notification
+    @GetMapping("/admin/bus-stats")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ApiResponse<NotificationBusStatsResponse> getBusStats() {
+        return ApiResponse.<NotificationBusStatsResponse>builder()
+                .result(notificationEventBus.stats())
+                .build();
+    }
+}
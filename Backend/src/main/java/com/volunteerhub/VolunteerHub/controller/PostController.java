@@ -8,17 +8,17 @@ import com.volunteerhub.VolunteerHub.dto.request.Post.PostCreationRequest;
 import com.volunteerhub.VolunteerHub.dto.request.Post.PostUpdateRequest;
 import com.volunteerhub.VolunteerHub.dto.response.ApiResponse;
 import com.volunteerhub.VolunteerHub.dto.response.CommentResponse;
+import com.volunteerhub.VolunteerHub.dto.response.CursorPage;
 import com.volunteerhub.VolunteerHub.dto.response.LikeResponse;
 import com.volunteerhub.VolunteerHub.dto.response.PostResponse;
 import com.volunteerhub.VolunteerHub.exception.AppException;
 import com.volunteerhub.VolunteerHub.exception.ErrorCode;
 import com.volunteerhub.VolunteerHub.repository.ChannelRepository;
 import com.volunteerhub.VolunteerHub.repository.EventRepository;
-import com.volunteerhub.VolunteerHub.repository.LikeRepository;
 import com.volunteerhub.VolunteerHub.service.CommentService;
 import com.volunteerhub.VolunteerHub.service.LikeService;
 import com.volunteerhub.VolunteerHub.service.PostService;
-import com.volunteerhub.VolunteerHub.service.UserService;
+import com.volunteerhub.VolunteerHub.service.CurrentUserService;
 import lombok.AccessLevel;
 import lombok.RequiredArgsConstructor;
 import lombok.experimental.FieldDefaults;
@@ -40,8 +40,7 @@ public class PostController {
     PostService postService;
     CommentService commentService;
     LikeService likeService;
-    LikeRepository likeRepository;
-    UserService userService;
+    CurrentUserService currentUserService;
 
     ChannelRepository channelRepository;
     EventRepository eventRepository;
@@ -58,6 +57,19 @@ public class PostController {
                 .build();
     }
 
+    // Infinite scroll: gửi lại nextCursor của trang trước, bỏ trống cho trang đầu
+    @GetMapping("/channel/{channelId}/cursor")
+    @PreAuthorize("hasAuthority('READ_POST')")
+    public ApiResponse<CursorPage<PostResponse>> getPostsByChannelCursor(
+            @PathVariable String channelId,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "10") int size
+    ) {
+        return ApiResponse.<CursorPage<PostResponse>>builder()
+                .result(postService.getPostsByChannelIdCursor(channelId, cursor, size))
+                .build();
+    }
+
     @GetMapping("/author/{authorId}")
     @PreAuthorize("hasAuthority('READ_POST')")
     public ApiResponse<List<PostResponse>> getPostsByAuthor(@PathVariable String authorId){
@@ -85,7 +97,7 @@ public class PostController {
     @PostMapping
     @PreAuthorize("hasAuthority('CREATE_POST')")
     public ApiResponse<PostResponse> createPost(@RequestBody PostCreationRequest request){
-        String userId = userService.getMyInfo().getId();
+        String userId = currentUserService.getUserId();
         request.setAuthorId(userId);
         return ApiResponse.<PostResponse>builder()
                 .result(postService.createPost(request))
@@ -102,7 +114,7 @@ public class PostController {
 
     @DeleteMapping("/{postId}")
     public ApiResponse<Void> deletePost(@PathVariable String postId){
-        String currentUserId = userService.getMyInfo().getId();
+        String currentUserId = currentUserService.getUserId();
         var authentication = SecurityContextHolder.getContext().getAuthentication();
 
         boolean isAdmin = authentication.getAuthorities().stream()
@@ -142,7 +154,7 @@ public class PostController {
     @PostMapping("/{postId}/like")
     @PreAuthorize("hasAuthority('CREATE_LIKE')")
     public ApiResponse<LikeResponse> likePost(@PathVariable String postId){
-        String userId = userService.getMyInfo().getId();
+        String userId = currentUserService.getUserId();
         var req = com.volunteerhub.VolunteerHub.dto.request.Like.LikeCreationRequest.builder()
                 .userId(userId)
                 .targetType("post")
@@ -157,8 +169,8 @@ public class PostController {
     @DeleteMapping("/{postId}/like")
     @PreAuthorize("hasAnyAuthority('READ_LIKE','CREATE_LIKE','DELETE_LIKE')")
     public ApiResponse<Void> unlikePost(@PathVariable String postId){
-        String userId = userService.getMyInfo().getId();
-        likeRepository.deleteByUserIdAndTargetTypeAndTargetId(userId, "post", postId);
+        String userId = currentUserService.getUserId();
+        likeService.deleteLikeByUserAndTarget(userId, "post", postId);
         return ApiResponse.<Void>builder()
                 .build();
     }
@@ -174,7 +186,7 @@ public class PostController {
     @PostMapping("/{postId}/comments")
     @PreAuthorize("hasAuthority('CREATE_COMMENT')")
     public ApiResponse<CommentResponse> createPostComment(@PathVariable String postId, @RequestBody CommentUpdateRequest body){
-        String userId = userService.getMyInfo().getId();
+        String userId = currentUserService.getUserId();
         var req = com.volunteerhub.VolunteerHub.dto.request.Comment.CommentCreationRequest.builder()
                 .postId(postId)
                 .authorId(userId)
@@ -3,7 +3,7 @@ package com.volunteerhub.VolunteerHub.controller;
 import com.volunteerhub.VolunteerHub.collection.Report;
 import com.volunteerhub.VolunteerHub.dto.response.ApiResponse;
 import com.volunteerhub.VolunteerHub.repository.ReportRepository;
-import com.volunteerhub.VolunteerHub.service.UserService;
+import com.volunteerhub.VolunteerHub.service.CurrentUserService;
 import lombok.AccessLevel;
 import lombok.RequiredArgsConstructor;
 import lombok.experimental.FieldDefaults;
@@ -23,7 +23,7 @@ public class ReportController {
     ReportRepository reportRepository;
 
     @Autowired
-    UserService userService;
+    CurrentUserService currentUserService;
 
     @GetMapping
     @PreAuthorize("hasAuthority('READ_REPORT') or hasRole('ADMIN')")
@@ -65,8 +65,7 @@ public class ReportController {
     @PostMapping
     @PreAuthorize("hasAuthority('CREATE_REPORT')")
     ApiResponse<Report> createReport(@RequestBody Report request){
-        var currentUser = userService.getMyInfo();
-        request.setAuthorId(currentUser.getId());
+        request.setAuthorId(currentUserService.getUserId());
         if (request.getStatus() == null) request.setStatus("pending");
         reportRepository.save(request);
         return ApiResponse.<Report>builder().result(request).build();
@@ -2,9 +2,8 @@ package com.volunteerhub.VolunteerHub.controller;
 
 import com.volunteerhub.VolunteerHub.dto.response.ApiResponse;
 import com.volunteerhub.VolunteerHub.dto.response.StatisticsResponse;
-import com.volunteerhub.VolunteerHub.dto.response.UserResponse;
 import com.volunteerhub.VolunteerHub.service.StatisticsService;
-import com.volunteerhub.VolunteerHub.service.UserService;
+import com.volunteerhub.VolunteerHub.service.CurrentUserService;
 import lombok.AccessLevel;
 import lombok.RequiredArgsConstructor;
 import lombok.experimental.FieldDefaults;
@@ -24,7 +23,7 @@ public class StatisticsController {
     private StatisticsService statisticsService;
 
     @Autowired
-    private UserService userService;
+    private CurrentUserService currentUserService;
 
     @GetMapping("/users")
     @PreAuthorize("hasAuthority('USER_LIST') or hasRole('ADMIN')")
@@ -41,13 +40,9 @@ public class StatisticsController {
         // Logic tự động xác định Manager ID nếu không truyền vào
         if (managerId == null) {
             try {
-                UserResponse currentUser = userService.getMyInfo();
                 // Nếu user hiện tại là Manager (và không phải Admin), thì chỉ xem stat của chính mình
-                if (currentUser.getRoles() != null &&
-                        currentUser.getRoles().contains("EVEN_MANAGER") &&
-                        !currentUser.getRoles().contains("ADMIN")) {
-
-                    managerId = currentUser.getId();
+                if (currentUserService.hasRole("EVEN_MANAGER") && !currentUserService.hasRole("ADMIN")) {
+                    managerId = currentUserService.getUserId();
                 }
                 // Nếu là Admin mà không truyền param -> managerId = null -> Xem tất cả (Logic trong Service đã handle)
             } catch (Exception e) {
@@ -1,44 +1,42 @@
 package com.volunteerhub.VolunteerHub.controller;
 
 import com.volunteerhub.VolunteerHub.dto.response.ApiResponse;
+import com.volunteerhub.VolunteerHub.dto.response.ImageUploadResponse;
+import com.volunteerhub.VolunteerHub.service.FileUploadService;
+import com.volunteerhub.VolunteerHub.service.UploadedFileServer;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
 import org.springframework.http.MediaType;
-import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.multipart.MultipartFile;
 
 import java.io.IOException;
-import java.nio.file.Files;
-import java.nio.file.Path;
-import java.nio.file.Paths;
-import java.util.UUID;
 
 @RestController
 @RequestMapping("/uploads")
+@RequiredArgsConstructor
 public class UploadController {
+    private final FileUploadService fileUploadService;
+    private final UploadedFileServer uploadedFileServer;
 
+    // Chỉ lưu trên server (uploads/images), không đẩy Cloudinary. sha256 như /file-service/upload-image
     @PostMapping(value = "/images", consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
     @PreAuthorize("hasAnyRole('ADMIN','EVEN_MANAGER')")
-    public ResponseEntity<ApiResponse<java.util.Map<String, String>>> uploadImage(@RequestParam("file") MultipartFile file) throws IOException {
-        if (file.isEmpty()) {
-            return ResponseEntity.badRequest().body(ApiResponse.<java.util.Map<String, String>>builder()
-                    .message("File is empty")
-                    .build());
-        }
-        String original = file.getOriginalFilename();
-        String ext = "";
-        if (original != null && original.contains(".")) {
-            ext = original.substring(original.lastIndexOf('.'));
-        }
-        String safeName = UUID.randomUUID() + ext;
-        Path dir = Paths.get("uploads", "images");
-        Files.createDirectories(dir);
-        Path target = dir.resolve(safeName);
-        Files.write(target, file.getBytes());
+    public ApiResponse<ImageUploadResponse> uploadImage(@RequestParam(value = "file", required = false) MultipartFile file,
+                                                        @RequestParam(value = "sha256", required = false) String sha256) {
+        return ApiResponse.<ImageUploadResponse>builder()
+                .result(fileUploadService.storeImage(file, sha256, false))
+                .build();
+    }
 
-        String url = "/uploads/images/" + safeName;
-        var res = new java.util.HashMap<String, String>();
-        res.put("url", url);
-        return ResponseEntity.ok(ApiResponse.<java.util.Map<String, String>>builder().result(res).build());
+    // ?w= -> bản thu nhỏ theo chiều rộng (làm tròn lên mốc gần nhất), không có thì trả bản gốc.
+    // ETag + Cache-Control immutable, 304, Range: xem UploadedFileServer
+    @GetMapping("/images/{fileName:.+}")
+    public void getImage(@PathVariable String fileName,
+                         @RequestParam(value = "w", required = false) Integer width,
+                         HttpServletRequest request, HttpServletResponse response) throws IOException {
+        uploadedFileServer.serveImage(fileName, width, request, response);
     }
-}
\ No newline at end of file
+}
@@ -5,6 +5,7 @@ import com.volunteerhub.VolunteerHub.dto.request.User.UserStatusRequest;
 import com.volunteerhub.VolunteerHub.dto.request.User.UserUpdateRequest;
 import com.volunteerhub.VolunteerHub.dto.request.User.ChangePasswordRequest;
 import com.volunteerhub.VolunteerHub.dto.response.ApiResponse;
+import com.volunteerhub.VolunteerHub.dto.response.CursorPage;
 import com.volunteerhub.VolunteerHub.dto.response.UserResponse;
 import com.volunteerhub.VolunteerHub.dto.response.UserStatsResponse;
 import com.volunteerhub.VolunteerHub.service.UserService;
@@ -47,6 +48,18 @@ public class UserController {
     }
 
 
+    // Bảng user theo cursor (cùng thứ tự tên A-Z), không đếm tổng
+    @GetMapping("/cursor")
+    @PreAuthorize("hasAuthority('USER_LIST') or hasRole('ADMIN')")
+    public ApiResponse<CursorPage<UserResponse>> getUsersCursor(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "10") int size
+    ) {
+        return ApiResponse.<CursorPage<UserResponse>>builder()
+                .result(userService.getUsersCursor(cursor, size))
+                .build();
+    }
+
     @PostMapping
     public ApiResponse<UserResponse> createUser(@RequestBody @Validated UserCreationRequest request){
         return ApiResponse.<UserResponse>builder()
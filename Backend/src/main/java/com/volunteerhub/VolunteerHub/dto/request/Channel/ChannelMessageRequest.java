@@ -0,0 +1,13 @@
+package com.volunteerhub.VolunteerHub.dto.request.Channel;
+
+import lombok.*;
+import lombok.experimental.FieldDefaults;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+@FieldDefaults(level = AccessLevel.PRIVATE)
+public class ChannelMessageRequest {
+    String content;
+}
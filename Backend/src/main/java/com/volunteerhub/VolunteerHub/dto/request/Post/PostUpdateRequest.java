@@ -10,9 +10,8 @@ import java.util.List;
 @NoArgsConstructor
 @Builder
 @FieldDefaults(level = AccessLevel.PRIVATE)
+// Không có likesCount/commentsCount: counter chỉ do PostCounterService cập nhật bằng $inc
 public class PostUpdateRequest {
     String content;
     List<String> images;
-    Long likesCount;
-    Long commentsCount;
 }
\ No newline at end of file
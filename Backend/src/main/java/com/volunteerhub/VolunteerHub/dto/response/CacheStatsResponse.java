@@ -0,0 +1,27 @@
+package com.volunteerhub.VolunteerHub.dto.response;
+
+import lombok.*;
+import lombok.experimental.FieldDefaults;
+
+/**
+ * Số liệu của 1 vùng cache đọc (ReadThroughCache), đếm từ lúc khởi động.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@FieldDefaults(level = AccessLevel.PRIVATE)
+public class CacheStatsResponse {
+    String name;
+    int size;
+    int maxEntries;
+    long ttlMs;
+    long hits;
+    long misses;
+    double hitRate;
+    long coalesced;     // miss chờ chung kết quả của request đang đọc, không đọc Mongo thêm
+    long loads;         // số lần đọc Mongo thật
+    long loadFailures;
+    long evictions;     // bị đẩy ra vì vượt maxEntries
+    long invalidations;
+}
@@ -0,0 +1,35 @@
+package com.volunteerhub.VolunteerHub.dto.response;
+
+import lombok.*;
+import lombok.experimental.FieldDefaults;
+
+import java.util.Date;
+
+/**
+ * Tin nhắn chat, trả qua REST và đẩy tới /topic/channels/{channelId}.
+ * seq = null khi tin vừa gửi chưa được ghi xuống Mongo (client khử trùng theo id).
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@FieldDefaults(level = AccessLevel.PRIVATE)
+public class ChannelMessageResponse {
+    String id;
+    String channelId;
+    Long seq;
+    String content;
+    Date createdAt;
+    Author author;
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    @Builder
+    @FieldDefaults(level = AccessLevel.PRIVATE)
+    public static class Author {
+        String id;
+        String full_name;
+        String avatar;
+    }
+}
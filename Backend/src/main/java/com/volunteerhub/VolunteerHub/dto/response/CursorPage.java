@@ -0,0 +1,21 @@
+package com.volunteerhub.VolunteerHub.dto.response;
+
+import lombok.*;
+import lombok.experimental.FieldDefaults;
+
+import java.util.List;
+
+/**
+ * Một trang theo cursor (keyset): không có tổng số / số trang.
+ * nextCursor = null khi đã hết dữ liệu; gửi lại nguyên giá trị để lấy trang tiếp theo.
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+@FieldDefaults(level = AccessLevel.PRIVATE)
+public class CursorPage<T> {
+    List<T> items;
+    String nextCursor;
+    boolean hasMore;
+}
@@ -0,0 +1,19 @@
+package com.volunteerhub.VolunteerHub.dto.response;
+
+import lombok.*;
+import lombok.experimental.FieldDefaults;
+
+/**
+ * Kết quả upload ảnh. url dùng được ngay; với status = "pending" đó là bản trên server,
+ * các tham chiếu tới url này được đổi sang URL Cloudinary khi upload nền xong.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@FieldDefaults(level = AccessLevel.PRIVATE)
+public class ImageUploadResponse {
+    String id;          // sha256 của nội dung
+    String url;
+    String status;
+}
@@ -0,0 +1,27 @@
+package com.volunteerhub.VolunteerHub.dto.response;
+
+import lombok.*;
+import lombok.experimental.FieldDefaults;
+
+/**
+ * Số liệu của hàng đợi fan-out notification (NotificationEventBus).
+ * lagMs = thời gian từ lúc sự kiện vào hàng đợi tới lúc notification được ghi xuống Mongo.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@FieldDefaults(level = AccessLevel.PRIVATE)
+public class NotificationBusStatsResponse {
+    int queueDepth;
+    int capacity;
+    int workers;
+    long published;
+    long delivered;     // số notification (hoạt động) đã ghi
+    long writes;        // số bản ghi thực sự insert/upsert - nhỏ hơn delivered nhờ gộp notification
+    long dropped;       // số sự kiện bỏ sau khi hết lượt retry
+    long retries;
+    long callerRuns;    // số sự kiện xử lý ngay trên request thread vì hàng đợi đầy
+    long lastLagMs;
+    long maxLagMs;      // lớn nhất kể từ lần báo cáo định kỳ gần nhất
+}
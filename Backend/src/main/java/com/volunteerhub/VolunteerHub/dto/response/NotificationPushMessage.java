@@ -0,0 +1,20 @@
+package com.volunteerhub.VolunteerHub.dto.response;
+
+import lombok.*;
+import lombok.experimental.FieldDefaults;
+
+import java.util.List;
+
+/**
+ * Frame STOMP gửi tới /user/queue/notifications: các notification mới của user, gộp trong 1 lần gửi.
+ * truncated = true khi có quá nhiều notification dồn lại -> client nên tải lại danh sách qua REST.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@FieldDefaults(level = AccessLevel.PRIVATE)
+public class NotificationPushMessage {
+    List<NotificationResponse> notifications;
+    boolean truncated;
+}
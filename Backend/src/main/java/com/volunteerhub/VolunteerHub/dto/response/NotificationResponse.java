@@ -16,6 +16,8 @@ public class NotificationResponse {
     String userId;
     String type;
     String message;
+    String targetId;
+    Integer count;
     Boolean isRead;
 
     @CreatedDate
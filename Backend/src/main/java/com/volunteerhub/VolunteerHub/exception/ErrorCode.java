@@ -30,7 +30,15 @@ public enum ErrorCode {
 
     EVENT_NOT_EXISTED(1022, "Event not existed", HttpStatus.NOT_FOUND),
     EVENT_FULL(1023, "Event is full", HttpStatus.BAD_REQUEST),
-    PASSWORD_INCORRECT(1024, "Password incorrect", HttpStatus.BAD_REQUEST)
+    PASSWORD_INCORRECT(1024, "Password incorrect", HttpStatus.BAD_REQUEST),
+    INVALID_CURSOR(1025, "Invalid cursor", HttpStatus.BAD_REQUEST),
+    MESSAGE_INVALID(1026, "Message must not be empty or longer than 2000 characters", HttpStatus.BAD_REQUEST),
+    FILE_EMPTY(1027, "File is empty", HttpStatus.BAD_REQUEST),
+    FILE_TYPE_NOT_SUPPORTED(1028, "Only JPEG, PNG, GIF and WebP images are supported", HttpStatus.BAD_REQUEST),
+    UPLOAD_FAILED(1029, "Could not store uploaded file", HttpStatus.INTERNAL_SERVER_ERROR),
+    IMAGE_NOT_EXISTED(1030, "Image not existed", HttpStatus.NOT_FOUND),
+    REGISTRATION_MODIFIED(1031, "Registration was modified by another request", HttpStatus.CONFLICT),
+    EVENT_MODIFIED(1032, "Event was modified by another request", HttpStatus.CONFLICT)
     ;
 
     ErrorCode(int code, String message, HttpStatusCode statusCode) {
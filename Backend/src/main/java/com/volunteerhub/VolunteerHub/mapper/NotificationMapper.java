@@ -3,16 +3,31 @@ package com.volunteerhub.VolunteerHub.mapper;
 import com.volunteerhub.VolunteerHub.dto.request.Notification.NotificationCreationRequest;
 import com.volunteerhub.VolunteerHub.dto.response.NotificationResponse;
 import com.volunteerhub.VolunteerHub.collection.Notification;
+import com.volunteerhub.VolunteerHub.service.NotificationCoalescer;
+import org.mapstruct.AfterMapping;
 import org.mapstruct.Mapper;
 import org.mapstruct.Mapping;
+import org.mapstruct.MappingTarget;
 
 @Mapper(componentModel = "spring")
 public interface NotificationMapper {
     @Mapping(target = "id", ignore = true)
     @Mapping(target = "isRead", ignore = true)
     @Mapping(target = "createdAt", ignore = true)
+    @Mapping(target = "targetId", ignore = true)
+    @Mapping(target = "groupKey", ignore = true)
+    @Mapping(target = "count", ignore = true)
+    @Mapping(target = "readAt", ignore = true)
     Notification toNotification(NotificationCreationRequest request);
     
     NotificationResponse toNotificationResponse(Notification notification);
+
+    // Notification gộp: nội dung theo số hoạt động ("12 người đã thích bài viết của bạn")
+    @AfterMapping
+    default void applyDigestMessage(Notification notification,
+                                    @MappingTarget NotificationResponse.NotificationResponseBuilder response) {
+        response.message(NotificationCoalescer.digestMessage(
+                notification.getType(), notification.getCount(), notification.getMessage()));
+    }
 }
 
@@ -5,11 +5,14 @@ import com.volunteerhub.VolunteerHub.dto.request.Post.PostCreationRequest;
 import com.volunteerhub.VolunteerHub.dto.request.Post.PostUpdateRequest;
 import com.volunteerhub.VolunteerHub.dto.response.PostResponse;
 import org.mapstruct.Mapper;
+import org.mapstruct.Mapping;
 import org.mapstruct.MappingTarget;
 
 @Mapper(componentModel = "spring")
 public interface PostMapper {
     Post toPost(PostCreationRequest request);
+    @Mapping(target = "likesCount", ignore = true)
+    @Mapping(target = "commentsCount", ignore = true)
     void updatePost(@MappingTarget Post post, PostUpdateRequest request);
     PostResponse toPostResponse(Post post);
 }
\ No newline at end of file
@@ -7,16 +7,19 @@ import org.springframework.data.mongodb.repository.MongoRepository;
 import org.springframework.data.mongodb.repository.Query;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 @Repository
 public interface ChannelRepository extends MongoRepository<Channel, String> {
     boolean existsByEventId(String eventId);
     Optional<Channel> findByEventId(String eventId); // Chuyển sang Optional để an toàn hơn
+    List<Channel> findByEventIdIn(Collection<String> eventIds); // Lấy channel của cả trang sự kiện trong 1 query
 
     // Lấy danh sách kênh có phân trang (Cho Sidebar)
     Page<Channel> findAll(Pageable pageable);
 
-    // Tìm kiếm kênh theo tên (Search Bar trong Community)
+    // Tìm kiếm kênh theo tên (Search Bar trong Community) - regex, chỉ dùng khi TypeaheadIndex chưa sẵn sàng
     @Query("{ 'name': { $regex: ?0, $options: 'i' } }")
     Page<Channel> searchByName(String name, Pageable pageable);
 }
\ No newline at end of file
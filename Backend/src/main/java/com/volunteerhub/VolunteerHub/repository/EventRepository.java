@@ -36,6 +36,7 @@ public interface EventRepository extends MongoRepository<Event, String> {
     // Lấy nhanh top sự kiện mới nhất (Dùng cho phần "Mới công bố")
     List<Event> findTop5ByStatusOrderByCreatedAtDesc(String status);
 
+    // Regex quét cả collection: chỉ còn dùng khi EventSearchIndex chưa dựng xong
     @Query("{$or: [ { 'title': { $regex: ?0, $options: 'i' } }, { 'location': { $regex: ?0, $options: 'i' } } ]}")
     Page<Event> searchAllEvents(String keyword, Pageable pageable);
 
@@ -4,6 +4,7 @@ import com.volunteerhub.VolunteerHub.collection.Like;
 import org.springframework.data.mongodb.repository.MongoRepository;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
 
 @Repository
@@ -11,6 +12,7 @@ public interface LikeRepository extends MongoRepository<Like, String> {
     List<Like> findByUserId(String userId);
     List<Like> findByTargetTypeAndTargetId(String targetType, String targetId);
     boolean existsByUserIdAndTargetTypeAndTargetId(String userId, String targetType, String targetId);
+    List<Like> findByUserIdAndTargetTypeAndTargetIdIn(String userId, String targetType, Collection<String> targetIds); // Các target mà user đã like trong 1 feed
     long countByTargetTypeAndTargetId(String targetType, String targetId);
-    void deleteByUserIdAndTargetTypeAndTargetId(String userId, String targetType, String targetId);
+    long deleteByUserIdAndTargetTypeAndTargetId(String userId, String targetType, String targetId); // Trả về số bản ghi đã xóa
 }
\ No newline at end of file
@@ -9,9 +9,9 @@ import java.util.Optional;
 
 @Repository
 public interface NotificationRepository extends MongoRepository<Notification, String> {
-    List<Notification> findByUserIdOrderByCreatedAtDesc(String userId);
-    List<Notification> findByUserIdAndIsReadFalseOrderByCreatedAtDesc(String userId);
+    // Danh sách cũ chỉ trả trang đầu, phần còn lại qua /notifications/inbox (cursor)
+    List<Notification> findTop50ByUserIdOrderByCreatedAtDescIdDesc(String userId);
+    List<Notification> findTop50ByUserIdAndIsReadFalseOrderByCreatedAtDescIdDesc(String userId);
     Optional<Notification> findByIdAndUserId(String id, String userId);
-    Long countByUserIdAndIsReadFalse(String userId);
 }
 
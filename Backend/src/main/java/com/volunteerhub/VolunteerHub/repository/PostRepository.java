@@ -23,6 +23,7 @@ public interface PostRepository extends MongoRepository<Post, String> {
     @Query(value = "{}", sort = "{ 'likesCount': -1 }")
     List<Post> findTopHotPosts(Pageable pageable);
 
+    // Regex quét cả collection, tìm kiếm bài viết dùng PostSearchIndex
     @Query("{ $or: [ " +
             "   { 'content': { $regex: ?0, $options: 'i' } }, " +
             "   { 'authorName': { $regex: ?0, $options: 'i' } } " +
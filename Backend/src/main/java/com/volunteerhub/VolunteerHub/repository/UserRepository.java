@@ -22,7 +22,7 @@ public interface UserRepository extends MongoRepository<User, String> {
 
     Page<User> findAll(Pageable pageable);
 
-    // Tìm kiếm User theo tên hoặc email (Search Bar)
+    // Tìm kiếm User theo tên hoặc email (Search Bar) - regex, chỉ dùng khi TypeaheadIndex chưa sẵn sàng
     @Query("{ $or: [ { 'full_name': { $regex: ?0, $options: 'i' } }, { 'email': { $regex: ?0, $options: 'i' } } ] }")
     Page<User> searchUsers(String keyword, Pageable pageable);
 
@@ -0,0 +1,153 @@
+package com.volunteerhub.VolunteerHub.search;
+
+import java.util.*;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Predicate;
+
+/**
+ * Inverted index trong bộ nhớ: term (đã bỏ dấu) -> posting list (docId -> trọng số).
+ * Term được giữ trong TreeMap nên mỗi token của câu truy vấn khớp theo tiền tố ("ha" khớp "ha", "hanh", ...).
+ * Một document khớp khi MỌI token đều khớp; điểm = tổng trọng số, khớp trọn từ được tính gấp đôi khớp tiền tố.
+ *
+ * @param <T> dữ liệu đi kèm mỗi document, dùng để lọc và sắp xếp khi bằng điểm (VD: status, createdAt)
+ */
+public class InvertedIndex<T> {
+
+    static final float PREFIX_FACTOR = 0.5f;
+
+    public record Field(String text, float weight) {}
+
+    public record Hits(List<String> ids, long total) {
+        public static final Hits EMPTY = new Hits(List.of(), 0);
+    }
+
+    private record Doc<T>(T payload, Map<String, Float> terms) {}
+
+    private record Candidate<T>(String id, float score, T payload) {}
+
+    private final NavigableMap<String, Map<String, Float>> postings = new TreeMap<>();
+    private final Map<String, Doc<T>> docs = new HashMap<>();
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+    // ========================================================================
+    // GHI
+    // ========================================================================
+
+    /**
+     * Thêm mới hoặc thay thế document.
+     */
+    public void put(String id, T payload, Field... fields) {
+        Map<String, Float> terms = new HashMap<>();
+        for (Field field : fields) {
+            if (field == null) continue;
+            // Mỗi field tính 1 lần cho 1 term, cộng dồn giữa các field
+            for (String term : new HashSet<>(TextNormalizer.tokenize(field.text()))) {
+                terms.merge(term, field.weight(), Float::sum);
+            }
+        }
+
+        lock.writeLock().lock();
+        try {
+            unlink(id);
+            docs.put(id, new Doc<>(payload, terms));
+            terms.forEach((term, weight) -> postings.computeIfAbsent(term, k -> new HashMap<>()).put(id, weight));
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void remove(String id) {
+        lock.writeLock().lock();
+        try {
+            unlink(id);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private void unlink(String id) {
+        Doc<T> old = docs.remove(id);
+        if (old == null) return;
+        for (String term : old.terms().keySet()) {
+            Map<String, Float> posting = postings.get(term);
+            if (posting == null) continue;
+            posting.remove(id);
+            if (posting.isEmpty()) postings.remove(term);
+        }
+    }
+
+    // ========================================================================
+    // ĐỌC
+    // ========================================================================
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return docs.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Tìm và xếp hạng, trả về id của 1 trang cùng tổng số kết quả khớp (sau khi lọc).
+     *
+     * @param filter   chỉ giữ document có payload thoả điều kiện (null = không lọc)
+     * @param tieBreak thứ tự giữa các document bằng điểm (null = theo id)
+     */
+    public Hits search(String query, Predicate<T> filter, Comparator<T> tieBreak, int offset, int limit) {
+        List<String> tokens = TextNormalizer.tokenize(query).stream().distinct().toList();
+        if (tokens.isEmpty()) return Hits.EMPTY;
+
+        List<Candidate<T>> candidates = new ArrayList<>();
+        lock.readLock().lock();
+        try {
+            Map<String, Float> scores = null;
+            for (String token : tokens) {
+                Map<String, Float> matched = match(token);
+                if (scores == null) {
+                    scores = matched;
+                } else {
+                    Map<String, Float> next = new HashMap<>();
+                    for (Map.Entry<String, Float> entry : scores.entrySet()) {
+                        Float score = matched.get(entry.getKey());
+                        if (score != null) next.put(entry.getKey(), entry.getValue() + score);
+                    }
+                    scores = next;
+                }
+                if (scores.isEmpty()) return Hits.EMPTY;
+            }
+
+            for (Map.Entry<String, Float> entry : scores.entrySet()) {
+                T payload = docs.get(entry.getKey()).payload();
+                if (filter == null || filter.test(payload)) {
+                    candidates.add(new Candidate<>(entry.getKey(), entry.getValue(), payload));
+                }
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+
+        Comparator<Candidate<T>> order = Comparator.comparing(Candidate<T>::score).reversed();
+        order = tieBreak != null
+                ? order.thenComparing(Candidate::payload, tieBreak)
+                : order.thenComparing(Candidate::id);
+        candidates.sort(order);
+
+        int from = Math.min(Math.max(offset, 0), candidates.size());
+        int to = Math.min(from + Math.max(limit, 0), candidates.size());
+        List<String> ids = candidates.subList(from, to).stream().map(Candidate::id).toList();
+        return new Hits(ids, candidates.size());
+    }
+
+    // docId -> điểm tốt nhất của token trong document (khớp trọn từ hoặc khớp tiền tố)
+    private Map<String, Float> match(String token) {
+        Map<String, Float> matched = new HashMap<>();
+        for (Map.Entry<String, Map<String, Float>> term
+                : postings.subMap(token, true, token + Character.MAX_VALUE, false).entrySet()) {
+            float factor = term.getKey().equals(token) ? 1f : PREFIX_FACTOR;
+            term.getValue().forEach((id, weight) -> matched.merge(id, weight * factor, Math::max));
+        }
+        return matched;
+    }
+}
@@ -0,0 +1,116 @@
+package com.volunteerhub.VolunteerHub.search;
+
+import java.util.*;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Index tiền tố cho typeahead: các khoá đã chuẩn hoá (bỏ dấu, chữ thường) nằm trong 1 TreeMap,
+ * mỗi truy vấn là 1 phép quét khoảng [prefix, prefix + MAX) thay vì regex trên cả collection.
+ * Mỗi text được index tại mọi vị trí đầu từ, nên "an" khớp "Nguyễn Văn An" và "doe@" khớp "john.doe@gmail.com".
+ * Kết quả sắp theo sortKey rồi theo id (ổn định khi phân trang).
+ */
+public class PrefixIndex {
+
+    private record Doc(String sortKey, Set<String> keys) {}
+
+    private final NavigableMap<String, Set<String>> keys = new TreeMap<>();
+    private final Map<String, Doc> docs = new HashMap<>();
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+    /**
+     * Thêm mới hoặc thay thế document.
+     * @param sortKey thứ tự hiển thị kết quả (VD: tên)
+     * @param texts   các trường cần tra theo tiền tố (VD: tên, email)
+     */
+    public void put(String id, String sortKey, String... texts) {
+        Set<String> docKeys = new HashSet<>();
+        for (String text : texts) docKeys.addAll(suffixes(text));
+        Doc doc = new Doc(TextNormalizer.fold(sortKey), docKeys);
+
+        lock.writeLock().lock();
+        try {
+            unlink(id);
+            docs.put(id, doc);
+            for (String key : docKeys) keys.computeIfAbsent(key, k -> new HashSet<>()).add(id);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void remove(String id) {
+        lock.writeLock().lock();
+        try {
+            unlink(id);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private void unlink(String id) {
+        Doc old = docs.remove(id);
+        if (old == null) return;
+        for (String key : old.keys()) {
+            Set<String> ids = keys.get(key);
+            if (ids == null) continue;
+            ids.remove(id);
+            if (ids.isEmpty()) keys.remove(key);
+        }
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return docs.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * 1 trang id khớp tiền tố (theo sortKey, id) cùng tổng số khớp.
+     */
+    public InvertedIndex.Hits search(String prefix, int offset, int limit) {
+        // Bỏ ký tự đặc biệt ở đầu ("@gmail" -> "gmail") vì khoá luôn bắt đầu tại đầu từ
+        String normalized = normalize(prefix).replaceFirst("^[^\\p{L}\\p{N}]+", "");
+        if (normalized.isEmpty()) return InvertedIndex.Hits.EMPTY;
+
+        List<Map.Entry<String, String>> matched = new ArrayList<>();   // (sortKey, id)
+        lock.readLock().lock();
+        try {
+            Set<String> seen = new HashSet<>();
+            for (Set<String> ids : keys.subMap(normalized, true, normalized + Character.MAX_VALUE, false).values()) {
+                for (String id : ids) {
+                    if (seen.add(id)) matched.add(Map.entry(docs.get(id).sortKey(), id));
+                }
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+
+        matched.sort(Map.Entry.<String, String>comparingByKey().thenComparing(Map.Entry.comparingByValue()));
+        int from = Math.min(Math.max(offset, 0), matched.size());
+        int to = Math.min(from + Math.max(limit, 0), matched.size());
+        List<String> ids = matched.subList(from, to).stream().map(Map.Entry::getValue).toList();
+        return new InvertedIndex.Hits(ids, matched.size());
+    }
+
+    // ========================================================================
+    // CHUẨN HOÁ
+    // ========================================================================
+
+    static String normalize(String text) {
+        return TextNormalizer.fold(text).trim().replaceAll("\\s+", " ");
+    }
+
+    // Chuỗi đã chuẩn hoá bắt đầu từ mỗi đầu từ: "nguyen van an" -> [nguyen van an, van an, an]
+    static List<String> suffixes(String text) {
+        String normalized = normalize(text);
+        List<String> result = new ArrayList<>();
+        for (int i = 0; i < normalized.length(); i++) {
+            boolean wordStart = Character.isLetterOrDigit(normalized.charAt(i))
+                    && (i == 0 || !Character.isLetterOrDigit(normalized.charAt(i - 1)));
+            if (wordStart) result.add(normalized.substring(i));
+        }
+        return result;
+    }
+}
@@ -0,0 +1,71 @@
+package com.volunteerhub.VolunteerHub.search;
+
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+/**
+ * Vòng đời chung của 1 index trong bộ nhớ được dựng lại định kỳ từ Mongo (EventSearchIndex, PostSearchIndex,
+ * TypeaheadIndex): dựng bản mới trong khi bản cũ vẫn phục vụ, thay bản mới vào, rồi đọc lại những id bị ghi
+ * trong lúc đang dựng để không mất cập nhật.
+ * Không phải bean: mỗi index tạo 1 instance, truyền vào cách tạo index rỗng, cách nạp toàn bộ và cách đọc lại 1 id.
+ *
+ * @param <I> kiểu index (InvertedIndex, PrefixIndex)
+ */
+public class RebuildableIndex<I> {
+
+    private final Supplier<I> empty;
+    private final Consumer<I> loadAll;
+    private final BiConsumer<I, String> reload;
+
+    private volatile I current;
+
+    // Id được ghi trong lúc đang rebuild, đọc lại sau khi thay index
+    private volatile Set<String> touchedDuringRebuild;
+
+    /**
+     * @param empty   tạo index rỗng
+     * @param loadAll nạp toàn bộ document từ Mongo vào index mới
+     * @param reload  đọc lại 1 id từ Mongo: put nếu còn, remove nếu đã bị xoá
+     */
+    public RebuildableIndex(Supplier<I> empty, Consumer<I> loadAll, BiConsumer<I, String> reload) {
+        this.empty = empty;
+        this.loadAll = loadAll;
+        this.reload = reload;
+    }
+
+    /**
+     * @return index đang phục vụ, null nếu chưa dựng xong lần đầu
+     */
+    public I current() {
+        return current;
+    }
+
+    /**
+     * Gọi trước khi cập nhật index theo 1 thao tác ghi.
+     * @return index cần cập nhật, null nếu chưa dựng xong (lần dựng đầu sẽ đọc lại id này)
+     */
+    public I touch(String id) {
+        Set<String> touched = touchedDuringRebuild;
+        if (touched != null) touched.add(id);
+        return current;
+    }
+
+    public synchronized I rebuild() {
+        Set<String> touched = ConcurrentHashMap.newKeySet();
+        touchedDuringRebuild = touched;
+        try {
+            I next = empty.get();
+            loadAll.accept(next);
+            current = next;
+            touchedDuringRebuild = null;
+
+            for (String id : touched) reload.accept(next, id);
+            return next;
+        } finally {
+            touchedDuringRebuild = null;
+        }
+    }
+}
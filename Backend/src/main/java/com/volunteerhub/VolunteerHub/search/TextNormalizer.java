@@ -0,0 +1,44 @@
+package com.volunteerhub.VolunteerHub.search;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Chuẩn hoá văn bản cho tìm kiếm: chữ thường, bỏ dấu tiếng Việt (kể cả đ -> d),
+ * tách token theo ký tự không phải chữ/số.
+ * VD: "Hà Nội - Đống Đa" -> [ha, noi, dong, da]
+ */
+public final class TextNormalizer {
+
+    private TextNormalizer() {}
+
+    public static String fold(String text) {
+        if (text == null || text.isEmpty()) return "";
+        String decomposed = Normalizer.normalize(text, Normalizer.Form.NFD);
+        StringBuilder sb = new StringBuilder(decomposed.length());
+        for (int i = 0; i < decomposed.length(); i++) {
+            char c = decomposed.charAt(i);
+            if (Character.getType(c) == Character.NON_SPACING_MARK) continue;
+            if (c == 'đ' || c == 'Đ') c = 'd';
+            sb.append(Character.toLowerCase(c));
+        }
+        return sb.toString();
+    }
+
+    public static List<String> tokenize(String text) {
+        String folded = fold(text);
+        List<String> tokens = new ArrayList<>();
+        int start = -1;
+        for (int i = 0; i <= folded.length(); i++) {
+            boolean wordChar = i < folded.length() && Character.isLetterOrDigit(folded.charAt(i));
+            if (wordChar && start < 0) {
+                start = i;
+            } else if (!wordChar && start >= 0) {
+                tokens.add(folded.substring(start, i));
+                start = -1;
+            }
+        }
+        return tokens;
+    }
+}
@@ -5,7 +5,6 @@ import com.nimbusds.jose.crypto.MACSigner;
 import com.nimbusds.jose.crypto.MACVerifier;
 import com.nimbusds.jwt.JWTClaimsSet;
 import com.nimbusds.jwt.SignedJWT;
-import com.volunteerhub.VolunteerHub.collection.InvalidatedToken;
 import com.volunteerhub.VolunteerHub.dto.request.Authentication.AuthenticationRequest;
 import com.volunteerhub.VolunteerHub.dto.request.Authentication.IntrospectRequest;
 import com.volunteerhub.VolunteerHub.dto.request.Authentication.LogoutRequest;
@@ -15,8 +14,8 @@ import com.volunteerhub.VolunteerHub.dto.response.IntrospectResponse;
 import com.volunteerhub.VolunteerHub.collection.User;
 import com.volunteerhub.VolunteerHub.exception.AppException;
 import com.volunteerhub.VolunteerHub.exception.ErrorCode;
-import com.volunteerhub.VolunteerHub.repository.InvalidatedTokenRepository;
 import com.volunteerhub.VolunteerHub.repository.UserRepository;
+import jakarta.annotation.PostConstruct;
 import lombok.AccessLevel;
 import lombok.RequiredArgsConstructor;
 import lombok.experimental.FieldDefaults;
@@ -42,12 +41,21 @@ public class AuthenticationService {
     @Autowired
     UserRepository userRepository;
 
-    InvalidatedTokenRepository invalidatedTokenRepository;
+    TokenRevocationService tokenRevocationService;
 
     @NonFinal
     @Value("${jwt.signerKey}")
     protected String SIGNER_KEY;
 
+    // MACVerifier không giữ trạng thái -> tạo 1 lần dùng chung
+    @NonFinal
+    JWSVerifier verifier;
+
+    @PostConstruct
+    void initVerifier() throws JOSEException {
+        verifier = new MACVerifier(SIGNER_KEY.getBytes());
+    }
+
     public IntrospectResponse introspect(IntrospectRequest request)
             throws JOSEException, ParseException {
         var token = request.getToken();
@@ -90,18 +98,11 @@ public class AuthenticationService {
         String jti = signToken.getJWTClaimsSet().getJWTID();
         Date expiryTime = signToken.getJWTClaimsSet().getExpirationTime();
 
-        InvalidatedToken invalidatedToken = InvalidatedToken.builder()
-                .id(jti)
-                .expiryTime(expiryTime)
-                .build();
-
-        invalidatedTokenRepository.save(invalidatedToken);
+        tokenRevocationService.revoke(jti, expiryTime);
     }
 
     private SignedJWT verifyToken(String token) throws JOSEException, ParseException {
 
-        JWSVerifier verifier = new MACVerifier(SIGNER_KEY.getBytes());
-
         SignedJWT signedJWT = SignedJWT.parse(token);
 
         Date expirationTime = signedJWT.getJWTClaimsSet().getExpirationTime();
@@ -111,7 +112,7 @@ public class AuthenticationService {
         if (!(verified && expirationTime.after(new Date())))
             throw new AppException(ErrorCode.UNAUTHENTICATED);
 
-        if(invalidatedTokenRepository.existsById(signedJWT.getJWTClaimsSet().getJWTID()))
+        if(tokenRevocationService.isRevoked(signedJWT.getJWTClaimsSet().getJWTID()))
             throw new AppException(ErrorCode.UNAUTHENTICATED);
         return signedJWT;
     }
@@ -128,6 +129,7 @@ public class AuthenticationService {
                 ))
                 .jwtID(UUID.randomUUID().toString())
                 .claim("roles", buildRoles(user))
+                .claim(CurrentUserService.USER_ID_CLAIM, user.getId())
                 .build();
 
         Payload payload = new Payload(jwtClaimsSet.toJSONObject());
@@ -147,12 +149,7 @@ public class AuthenticationService {
         var jti = signJwt.getJWTClaimsSet().getJWTID();
         var expiryTime = signJwt.getJWTClaimsSet().getExpirationTime();
 
-        InvalidatedToken invalidatedToken = InvalidatedToken.builder()
-                .id(jti)
-                .expiryTime(expiryTime)
-                .build();
-
-        invalidatedTokenRepository.save(invalidatedToken);
+        tokenRevocationService.revoke(jti, expiryTime);
 
         var email = signJwt.getJWTClaimsSet().getSubject();
 
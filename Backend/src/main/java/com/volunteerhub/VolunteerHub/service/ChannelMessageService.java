@@ -0,0 +1,398 @@
+package com.volunteerhub.VolunteerHub.service;
+
+import com.volunteerhub.VolunteerHub.collection.Channel;
+import com.volunteerhub.VolunteerHub.collection.ChannelMessageBucket;
+import com.volunteerhub.VolunteerHub.collection.ChannelReadCursor;
+import com.volunteerhub.VolunteerHub.collection.User;
+import com.volunteerhub.VolunteerHub.config.WebSocketConfig;
+import com.volunteerhub.VolunteerHub.dto.response.ChannelMessageResponse;
+import com.volunteerhub.VolunteerHub.exception.AppException;
+import com.volunteerhub.VolunteerHub.exception.ErrorCode;
+import jakarta.annotation.PreDestroy;
+import lombok.AccessLevel;
+import lombok.RequiredArgsConstructor;
+import lombok.experimental.FieldDefaults;
+import lombok.experimental.NonFinal;
+import lombok.extern.slf4j.Slf4j;
+import org.bson.types.ObjectId;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.mongodb.BulkOperationException;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Chat trong channel.
+ * <ul>
+ *   <li>Gửi: tin được cấp id, đẩy ngay tới /topic/channels/{channelId} rồi nằm trong bộ đệm;
+ *       mỗi chu kỳ flush (app.chat.flush-ms) mỗi channel tốn 1 $inc cấp seq cho cả lô + 1 bulk $push vào bucket,
+ *       nên chat dồn dập ngày diễn ra sự kiện không thành 1 lần ghi / tin.</li>
+ *   <li>Đọc: trang tin = khoảng seq -> 1-2 bucket lấy theo _id, không skip / count.</li>
+ *   <li>Chưa đọc: Channel.messageSeq - ChannelReadCursor.lastReadSeq, không đếm tin.</li>
+ * </ul>
+ * Tin trong bộ đệm mất nếu process chết trước lần flush kế tiếp (tối đa flush-ms).
+ * Ghi lỗi (Mongo tắc / mất kết nối) thì lô được đưa lại đầu bộ đệm của channel, giữ nguyên seq đã cấp,
+ * và được ghi lại ở lần flush sau; bucket đã ghi xong không bị $push lặp.
+ */
+@Service
+@RequiredArgsConstructor
+@FieldDefaults(level = AccessLevel.PRIVATE, makeFinal = true)
+@Slf4j
+public class ChannelMessageService {
+
+    static final int BUCKET_SIZE = 100;
+    static final int MAX_CONTENT_LENGTH = 2000;
+    static final int DEFAULT_PAGE_SIZE = 50;
+    static final int MAX_PAGE_SIZE = 200;
+    static final int MAX_ATTEMPTS = 3;
+    static final int DUPLICATE_KEY = 11000;
+
+    MongoTemplate mongoTemplate;
+    SimpMessagingTemplate messagingTemplate;
+
+    @NonFinal
+    @Value("${app.chat.max-buffered:5000}")
+    int maxBuffered;
+
+    // channelId -> tin chờ ghi, theo thứ tự gửi
+    Map<String, List<Pending>> buffer = new ConcurrentHashMap<>();
+    AtomicInteger buffered = new AtomicInteger();
+    AtomicBoolean flushRequested = new AtomicBoolean();
+
+    // seq = null cho tới khi được cấp ở lần persist đầu tiên, giữ nguyên khi phải ghi lại
+    record Pending(String id, String authorId, String content, Date createdAt, Long seq) {
+        Pending withSeq(long seq) {
+            return new Pending(id, authorId, content, createdAt, seq);
+        }
+    }
+
+    // ========================================================================
+    // GỬI
+    // ========================================================================
+
+    public ChannelMessageResponse send(String channelId, String userId, String content) {
+        String text = content != null ? content.trim() : "";
+        if (text.isEmpty() || text.length() > MAX_CONTENT_LENGTH) throw new AppException(ErrorCode.MESSAGE_INVALID);
+        if (!mongoTemplate.exists(Query.query(Criteria.where("_id").is(channelId)), Channel.class)) {
+            throw new AppException(ErrorCode.CHANNEL_NOT_EXISTED);
+        }
+
+        Pending message = new Pending(new ObjectId().toHexString(), userId, text, new Date(), null);
+        buffer.compute(channelId, (key, current) -> {
+            List<Pending> next = current != null ? current : new ArrayList<>();
+            next.add(message);
+            return next;
+        });
+
+        ChannelMessageResponse response = toResponse(channelId, message.id(), null, message.authorId(),
+                message.content(), message.createdAt(), authors(Set.of(userId)));
+        try {
+            messagingTemplate.convertAndSend(WebSocketConfig.CHANNEL_TOPIC_PREFIX + channelId, response);
+        } catch (Exception e) {
+            log.warn("Could not broadcast message {} to channel {}", message.id(), channelId, e);
+        }
+
+        // Bộ đệm đầy (Mongo chậm / tắc) -> flush sớm trên thread riêng, request không chờ ghi Mongo
+        if (buffered.incrementAndGet() >= maxBuffered) requestFlush();
+        return response;
+    }
+
+    private void requestFlush() {
+        if (!flushRequested.compareAndSet(false, true)) return;
+        Thread.ofVirtual().name("chat-flush").start(() -> {
+            try {
+                flush();
+            } catch (Exception e) {
+                log.error("Early chat flush failed", e);
+            } finally {
+                flushRequested.set(false);
+            }
+        });
+    }
+
+    // ========================================================================
+    // GHI THEO LÔ
+    // ========================================================================
+
+    @Scheduled(fixedDelayString = "${app.chat.flush-ms:200}")
+    public synchronized void flush() {
+        for (String channelId : buffer.keySet()) {
+            // remove nguyên tử với compute ở send: lô đã lấy ra không bị ghi thêm
+            List<Pending> batch = buffer.remove(channelId);
+            if (batch == null || batch.isEmpty()) continue;
+            buffered.addAndGet(-batch.size());
+            List<Pending> unwritten;
+            try {
+                unwritten = persist(channelId, batch);
+            } catch (Exception e) {
+                // Lỗi trước khi cấp seq: cả lô chưa được ghi
+                log.error("Could not persist {} chat messages of channel {}", batch.size(), channelId, e);
+                unwritten = batch;
+            }
+            if (!unwritten.isEmpty()) requeue(channelId, unwritten);
+        }
+    }
+
+    // Đưa lô chưa ghi về đầu bộ đệm (trước tin gửi sau đó) để giữ đúng thứ tự seq
+    private void requeue(String channelId, List<Pending> unwritten) {
+        buffer.compute(channelId, (key, current) -> {
+            List<Pending> next = new ArrayList<>(unwritten);
+            if (current != null) next.addAll(current);
+            return next;
+        });
+        buffered.addAndGet(unwritten.size());
+        log.warn("Re-queued {} unwritten chat messages of channel {}", unwritten.size(), channelId);
+    }
+
+    @PreDestroy
+    public void flushOnShutdown() {
+        flush();
+    }
+
+    /**
+     * Ghi 1 lô tin của channel.
+     * @return các tin chưa ghi được (đã có seq) để flush sau ghi lại; rỗng nếu ghi xong hoặc channel đã bị xoá
+     */
+    private List<Pending> persist(String channelId, List<Pending> batch) {
+        List<Pending> sequenced = assignSeq(channelId, batch);
+        if (sequenced == null) {
+            log.warn("Dropped {} chat messages: channel {} no longer exists", batch.size(), channelId);
+            return List.of();
+        }
+
+        Map<Long, List<Pending>> buckets = new LinkedHashMap<>();
+        for (Pending pending : sequenced) {
+            buckets.computeIfAbsent(pending.seq() / BUCKET_SIZE, key -> new ArrayList<>()).add(pending);
+        }
+
+        List<Map.Entry<Long, List<Pending>>> pendingBuckets = new ArrayList<>(buckets.entrySet());
+        for (int attempt = 1; !pendingBuckets.isEmpty() && attempt <= MAX_ATTEMPTS; attempt++) {
+            BulkOperations bulk = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, ChannelMessageBucket.class);
+            for (Map.Entry<Long, List<Pending>> entry : pendingBuckets) {
+                List<ChannelMessageBucket.Message> messages = entry.getValue().stream().map(ChannelMessageService::toMessage).toList();
+                // Bucket đã có tin đầu của nhóm = nhóm đã ghi ở lần trước (1 lệnh $push ghi cả nhóm hoặc không gì cả):
+                // filter không khớp -> upsert trùng _id -> lỗi duplicate key, không $push lặp
+                bulk.upsert(Query.query(Criteria.where("_id").is(bucketId(channelId, entry.getKey()))
+                        .and("messages.id").ne(messages.getFirst().getId())), new Update()
+                        .push("messages").each(messages.toArray())
+                        .inc("count", messages.size())
+                        .min("from", messages.getFirst().getCreatedAt())
+                        .max("to", messages.getLast().getCreatedAt())
+                        .setOnInsert("channelId", channelId)
+                        .setOnInsert("bucket", entry.getKey()));
+            }
+            try {
+                bulk.execute();
+                pendingBuckets = List.of();
+            } catch (BulkOperationException e) {
+                // Chỉ ghi lại bucket lỗi, $push của bucket đã thành công không được lặp
+                List<Map.Entry<Long, List<Pending>>> failed = new ArrayList<>();
+                for (var error : e.getErrors()) {
+                    var entry = pendingBuckets.get(error.getIndex());
+                    if (error.getCode() == DUPLICATE_KEY && isWritten(channelId, entry)) continue;
+                    failed.add(entry);
+                }
+                pendingBuckets = failed;
+            } catch (Exception e) {
+                // Không biết bucket nào đã ghi -> thử lại cả nhóm, bucket đã ghi sẽ bị bỏ qua nhờ filter ở trên
+                log.warn("Could not write chat buckets of channel {} (attempt {})", channelId, attempt, e);
+            }
+        }
+
+        List<Pending> unwritten = new ArrayList<>();
+        pendingBuckets.forEach(entry -> unwritten.addAll(entry.getValue()));
+        Set<String> unwrittenIds = unwritten.stream().map(Pending::id).collect(Collectors.toSet());
+
+        // Người gửi đã "đọc" tới tin của chính mình
+        Map<String, Long> lastSeqByAuthor = new HashMap<>();
+        for (Pending pending : sequenced) {
+            if (!unwrittenIds.contains(pending.id())) lastSeqByAuthor.put(pending.authorId(), pending.seq());
+        }
+        if (!lastSeqByAuthor.isEmpty()) {
+            BulkOperations cursors = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, ChannelReadCursor.class);
+            lastSeqByAuthor.forEach((authorId, lastSeq) -> cursors.upsert(
+                    Query.query(Criteria.where("_id").is(cursorId(channelId, authorId))), cursorUpdate(channelId, authorId, lastSeq)));
+            try {
+                cursors.execute();
+            } catch (Exception e) {
+                log.warn("Could not advance read cursors of channel {}", channelId, e);
+            }
+        }
+        return unwritten;
+    }
+
+    /**
+     * Cấp seq cho các tin chưa có seq bằng 1 lệnh $inc; tin được đưa lại bộ đệm giữ seq cũ.
+     * @return lô đã có đủ seq, hoặc null nếu channel không còn tồn tại
+     */
+    private List<Pending> assignSeq(String channelId, List<Pending> batch) {
+        int unsequenced = (int) batch.stream().filter(pending -> pending.seq() == null).count();
+        Query channelQuery = Query.query(Criteria.where("_id").is(channelId));
+        channelQuery.fields().include("messageSeq");
+        Channel channel = unsequenced == 0
+                ? mongoTemplate.findOne(channelQuery, Channel.class)
+                : mongoTemplate.findAndModify(channelQuery, new Update().inc("messageSeq", unsequenced),
+                        FindAndModifyOptions.options().returnNew(true), Channel.class);
+        if (channel == null || channel.getMessageSeq() == null) return null;
+
+        long seq = channel.getMessageSeq() - unsequenced;
+        List<Pending> sequenced = new ArrayList<>(batch.size());
+        for (Pending pending : batch) {
+            sequenced.add(pending.seq() != null ? pending : pending.withSeq(++seq));
+        }
+        return sequenced;
+    }
+
+    private boolean isWritten(String channelId, Map.Entry<Long, List<Pending>> bucket) {
+        return mongoTemplate.exists(Query.query(Criteria.where("_id").is(bucketId(channelId, bucket.getKey()))
+                .and("messages.id").is(bucket.getValue().getFirst().id())), ChannelMessageBucket.class);
+    }
+
+    private static ChannelMessageBucket.Message toMessage(Pending pending) {
+        return ChannelMessageBucket.Message.builder()
+                .id(pending.id())
+                .seq(pending.seq())
+                .authorId(pending.authorId())
+                .content(pending.content())
+                .createdAt(pending.createdAt())
+                .build();
+    }
+
+    // ========================================================================
+    // ĐỌC
+    // ========================================================================
+
+    /**
+     * Tin mới nhất trước: offset = số tin bỏ qua tính từ tin mới nhất, kết quả xếp cũ -> mới để hiển thị.
+     * Trang đầu kèm các tin vừa gửi còn trong bộ đệm.
+     */
+    public List<ChannelMessageResponse> getMessages(String channelId, Integer limit, Integer offset) {
+        int size = Math.max(1, Math.min(limit != null ? limit : DEFAULT_PAGE_SIZE, MAX_PAGE_SIZE));
+        int skip = Math.max(0, offset != null ? offset : 0);
+        long lastSeq = messageSeq(channelId);
+
+        List<ChannelMessageBucket.Message> messages = new ArrayList<>();
+        long hi = lastSeq - skip;
+        long lo = Math.max(1, hi - size + 1);
+        if (hi >= 1) {
+            List<String> ids = new ArrayList<>();
+            for (long bucket = lo / BUCKET_SIZE; bucket <= hi / BUCKET_SIZE; bucket++) ids.add(bucketId(channelId, bucket));
+            for (ChannelMessageBucket bucket : mongoTemplate.find(Query.query(Criteria.where("_id").in(ids)), ChannelMessageBucket.class)) {
+                if (bucket.getMessages() == null) continue;
+                for (ChannelMessageBucket.Message message : bucket.getMessages()) {
+                    if (message.getSeq() >= lo && message.getSeq() <= hi) messages.add(message);
+                }
+            }
+            messages.sort(Comparator.comparingLong(ChannelMessageBucket.Message::getSeq));
+        }
+
+        List<Pending> pending = new ArrayList<>();
+        if (skip == 0) buffer.computeIfPresent(channelId, (key, current) -> {
+            pending.addAll(current);
+            return current;
+        });
+
+        Set<String> authorIds = new HashSet<>();
+        messages.forEach(message -> authorIds.add(message.getAuthorId()));
+        pending.forEach(message -> authorIds.add(message.authorId()));
+        Map<String, User> authors = authors(authorIds);
+
+        List<ChannelMessageResponse> result = new ArrayList<>(messages.size() + pending.size());
+        for (ChannelMessageBucket.Message message : messages) {
+            result.add(toResponse(channelId, message.getId(), message.getSeq(), message.getAuthorId(),
+                    message.getContent(), message.getCreatedAt(), authors));
+        }
+        for (Pending message : pending) {
+            result.add(toResponse(channelId, message.id(), message.seq(), message.authorId(),
+                    message.content(), message.createdAt(), authors));
+        }
+        // Giữ đúng `size` tin mới nhất
+        return result.size() > size ? new ArrayList<>(result.subList(result.size() - size, result.size())) : result;
+    }
+
+    public void markRead(String channelId, String userId) {
+        long lastSeq = messageSeq(channelId);
+        mongoTemplate.upsert(Query.query(Criteria.where("_id").is(cursorId(channelId, userId))),
+                cursorUpdate(channelId, userId, lastSeq), ChannelReadCursor.class);
+    }
+
+    public long getUnreadCount(String channelId, String userId) {
+        long lastSeq = messageSeq(channelId);
+        ChannelReadCursor cursor = mongoTemplate.findById(cursorId(channelId, userId), ChannelReadCursor.class);
+        return Math.max(0, lastSeq - (cursor != null ? cursor.getLastReadSeq() : 0));
+    }
+
+    public void deleteChannelMessages(String channelId) {
+        List<Pending> dropped = buffer.remove(channelId);
+        if (dropped != null) buffered.addAndGet(-dropped.size());
+        mongoTemplate.remove(Query.query(Criteria.where("channelId").is(channelId)), ChannelMessageBucket.class);
+        mongoTemplate.remove(Query.query(Criteria.where("channelId").is(channelId)), ChannelReadCursor.class);
+    }
+
+    // ========================================================================
+    // HELPER
+    // ========================================================================
+
+    private long messageSeq(String channelId) {
+        Query query = Query.query(Criteria.where("_id").is(channelId));
+        query.fields().include("messageSeq");
+        Channel channel = mongoTemplate.findOne(query, Channel.class);
+        if (channel == null) throw new AppException(ErrorCode.CHANNEL_NOT_EXISTED);
+        return channel.getMessageSeq() != null ? channel.getMessageSeq() : 0;
+    }
+
+    // $max: cursor không bao giờ lùi (markRead cũ đến sau flush mới)
+    private static Update cursorUpdate(String channelId, String userId, long lastReadSeq) {
+        return new Update()
+                .max("lastReadSeq", lastReadSeq)
+                .setOnInsert("channelId", channelId)
+                .setOnInsert("userId", userId);
+    }
+
+    static String bucketId(String channelId, long bucket) {
+        return channelId + ":" + bucket;
+    }
+
+    static String cursorId(String channelId, String userId) {
+        return channelId + ":" + userId;
+    }
+
+    private Map<String, User> authors(Set<String> ids) {
+        ids = ids.stream().filter(Objects::nonNull).collect(Collectors.toSet());
+        if (ids.isEmpty()) return Map.of();
+        Query query = Query.query(Criteria.where("_id").in(ids));
+        query.fields().include("full_name", "avatar_url");
+        return mongoTemplate.find(query, User.class).stream()
+                .collect(Collectors.toMap(User::getId, Function.identity(), (a, b) -> a));
+    }
+
+    private static ChannelMessageResponse toResponse(String channelId, String id, Long seq, String authorId,
+                                                     String content, Date createdAt, Map<String, User> authors) {
+        User author = authors.get(authorId);
+        return ChannelMessageResponse.builder()
+                .id(id)
+                .channelId(channelId)
+                .seq(seq)
+                .content(content)
+                .createdAt(createdAt)
+                .author(ChannelMessageResponse.Author.builder()
+                        .id(authorId)
+                        .full_name(author != null ? author.getFull_name() : null)
+                        .avatar(author != null ? author.getAvatar_url() : null)
+                        .build())
+                .build();
+    }
+}
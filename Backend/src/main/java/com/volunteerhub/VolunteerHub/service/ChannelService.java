@@ -10,17 +10,23 @@ import com.volunteerhub.VolunteerHub.exception.ErrorCode;
 import com.volunteerhub.VolunteerHub.mapper.ChannelMapper;
 import com.volunteerhub.VolunteerHub.repository.ChannelRepository;
 import com.volunteerhub.VolunteerHub.repository.EventRepository;
+import com.volunteerhub.VolunteerHub.search.InvertedIndex;
 import lombok.AccessLevel;
 import lombok.RequiredArgsConstructor;
 import lombok.experimental.FieldDefaults;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
 
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 @Service
 @RequiredArgsConstructor
@@ -31,6 +37,8 @@ public class ChannelService {
     ChannelRepository channelRepository;
     ChannelMapper channelMapper;
     EventRepository eventRepository;
+    TypeaheadIndex typeaheadIndex;
+    ChannelMessageService channelMessageService;
 
 
     /**
@@ -49,8 +57,19 @@ public class ChannelService {
      */
     public Page<ChannelResponse> searchChannels(String keyword, int page, int size) {
         Pageable pageable = PageRequest.of(page, size);
-        return channelRepository.searchByName(keyword, pageable)
-                .map(channelMapper::toChannelResponse);
+        InvertedIndex.Hits hits = typeaheadIndex.searchChannels(keyword, (int) pageable.getOffset(), pageable.getPageSize());
+        if (hits == null) {
+            return channelRepository.searchByName(keyword, pageable)
+                    .map(channelMapper::toChannelResponse);
+        }
+
+        Map<String, Channel> byId = channelRepository.findAllById(hits.ids()).stream()
+                .collect(Collectors.toMap(Channel::getId, Function.identity()));
+        List<ChannelResponse> channels = hits.ids().stream()
+                .map(byId::get).filter(Objects::nonNull)
+                .map(channelMapper::toChannelResponse)
+                .toList();
+        return new PageImpl<>(channels, pageable, hits.total());
     }
 
     /**
@@ -106,6 +125,7 @@ public class ChannelService {
         }
 
         channelRepository.save(channel);
+        typeaheadIndex.indexChannel(channel);
         return channelMapper.toChannelResponse(channel);
     }
 
@@ -114,10 +134,13 @@ public class ChannelService {
                 .orElseThrow(() -> new AppException(ErrorCode.CHANNEL_NOT_EXISTED));
         channelMapper.updateChannel(channel, request);
         channelRepository.save(channel);
+        typeaheadIndex.indexChannel(channel);
         return channelMapper.toChannelResponse(channel);
     }
 
     public void deleteChannel(String channelId){
         channelRepository.deleteById(channelId);
+        typeaheadIndex.removeChannel(channelId);
+        channelMessageService.deleteChannelMessages(channelId);
     }
 }
\ No newline at end of file
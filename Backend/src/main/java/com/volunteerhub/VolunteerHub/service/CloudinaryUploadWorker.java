@@ -0,0 +1,136 @@
+package com.volunteerhub.VolunteerHub.service;
+
+import com.cloudinary.Cloudinary;
+import com.cloudinary.utils.ObjectUtils;
+import com.volunteerhub.VolunteerHub.collection.Event;
+import com.volunteerhub.VolunteerHub.collection.Post;
+import com.volunteerhub.VolunteerHub.collection.StoredImage;
+import com.volunteerhub.VolunteerHub.collection.User;
+import jakarta.annotation.PostConstruct;
+import lombok.AccessLevel;
+import lombok.RequiredArgsConstructor;
+import lombok.experimental.FieldDefaults;
+import lombok.experimental.NonFinal;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Date;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Semaphore;
+
+/**
+ * Đẩy ảnh đã lưu trên disk lên Cloudinary ở nền (virtual thread, tối đa app.uploads.remote-concurrency upload cùng lúc).
+ * Trạng thái nằm ở stored_images nên ảnh chưa kịp đẩy (hết slot, lỗi mạng, restart) được sweeper thử lại.
+ * Xong thì đổi các tham chiếu tới URL tạm (Event.image, Post.images, User.avatar_url) sang URL Cloudinary.
+ */
+@Service
+@RequiredArgsConstructor
+@FieldDefaults(level = AccessLevel.PRIVATE, makeFinal = true)
+@Slf4j
+public class CloudinaryUploadWorker {
+
+    static final int MAX_ATTEMPTS = 5;
+
+    Cloudinary cloudinary;
+    MongoTemplate mongoTemplate;
+
+    @NonFinal
+    @Value("${app.uploads.remote-concurrency:4}")
+    int concurrency;
+
+    @NonFinal
+    Semaphore permits;
+
+    Set<String> inFlight = ConcurrentHashMap.newKeySet();
+
+    @PostConstruct
+    public void init() {
+        permits = new Semaphore(concurrency);
+    }
+
+    /**
+     * Không chặn caller: hết slot thì để sweeper nhận sau.
+     */
+    public void submit(String imageId) {
+        if (imageId == null || !inFlight.add(imageId)) return;
+        if (!permits.tryAcquire()) {
+            inFlight.remove(imageId);
+            return;
+        }
+        Thread.ofVirtual().name("cloudinary-upload-" + imageId.substring(0, Math.min(8, imageId.length()))).start(() -> {
+            try {
+                upload(imageId);
+            } finally {
+                inFlight.remove(imageId);
+                permits.release();
+            }
+        });
+    }
+
+    @Scheduled(fixedDelayString = "${app.uploads.remote-retry-ms:30000}", initialDelayString = "${app.uploads.remote-retry-ms:30000}")
+    public void retryPending() {
+        try {
+            Query query = Query.query(Criteria.where("status").in(StoredImage.STATUS_PENDING, StoredImage.STATUS_FAILED)
+                    .and("attempts").lt(MAX_ATTEMPTS)).limit(concurrency * 4);
+            query.fields().include("_id");
+            for (StoredImage image : mongoTemplate.find(query, StoredImage.class)) {
+                submit(image.getId());
+            }
+        } catch (Exception e) {
+            log.warn("Could not scan pending Cloudinary uploads", e);
+        }
+    }
+
+    void upload(String imageId) {
+        StoredImage image = mongoTemplate.findById(imageId, StoredImage.class);
+        if (image == null || StoredImage.STATUS_UPLOADED.equals(image.getStatus())
+                || StoredImage.STATUS_LOCAL.equals(image.getStatus())) return;
+
+        Path file = FileUploadService.localPath(image);
+        try {
+            if (!Files.exists(file)) throw new IllegalStateException("Local file missing: " + file);
+            // public_id = sha256 -> upload lại cùng nội dung không tạo bản mới trên Cloudinary
+            Map<?, ?> result = cloudinary.uploader().upload(file.toFile(),
+                    ObjectUtils.asMap("public_id", imageId, "overwrite", false, "resource_type", "image"));
+            String remoteUrl = result.get("secure_url").toString();
+
+            mongoTemplate.updateFirst(Query.query(Criteria.where("_id").is(imageId)), new Update()
+                    .set("status", StoredImage.STATUS_UPLOADED)
+                    .set("remoteUrl", remoteUrl)
+                    .set("updatedAt", new Date())
+                    .unset("lastError"), StoredImage.class);
+            rewriteReferences(image.getLocalUrl(), remoteUrl);
+            log.info("Uploaded image {} to Cloudinary", imageId);
+        } catch (Exception e) {
+            mongoTemplate.updateFirst(Query.query(Criteria.where("_id").is(imageId)), new Update()
+                    .set("status", StoredImage.STATUS_FAILED)
+                    .inc("attempts", 1)
+                    .set("lastError", String.valueOf(e.getMessage()))
+                    .set("updatedAt", new Date()), StoredImage.class);
+            log.warn("Cloudinary upload of image {} failed (attempt {})", imageId, image.getAttempts() + 1, e);
+        }
+    }
+
+    // Tham chiếu được lưu trong lúc chờ upload vẫn trỏ tới bản trên server -> đổi sang Cloudinary
+    private void rewriteReferences(String localUrl, String remoteUrl) {
+        if (localUrl == null) return;
+        mongoTemplate.updateMulti(Query.query(Criteria.where("image").is(localUrl)),
+                new Update().set("image", remoteUrl), Event.class);
+        mongoTemplate.updateMulti(Query.query(Criteria.where("images").is(localUrl)),
+                new Update().set("images.$[img]", remoteUrl).filterArray(Criteria.where("img").is(localUrl)), Post.class);
+        mongoTemplate.updateMulti(Query.query(Criteria.where("authorAvatar").is(localUrl)),
+                new Update().set("authorAvatar", remoteUrl), Post.class);
+        mongoTemplate.updateMulti(Query.query(Criteria.where("avatar_url").is(localUrl)),
+                new Update().set("avatar_url", remoteUrl), User.class);
+    }
+}
@@ -9,11 +9,10 @@ import com.volunteerhub.VolunteerHub.exception.ErrorCode;
 import com.volunteerhub.VolunteerHub.mapper.CommentMapper;
 import com.volunteerhub.VolunteerHub.repository.CommentRepository;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
 import com.volunteerhub.VolunteerHub.service.UserService;
-import com.volunteerhub.VolunteerHub.repository.PostRepository;
-import com.volunteerhub.VolunteerHub.repository.ChannelRepository;
-import com.volunteerhub.VolunteerHub.repository.EventRepository;
-import com.volunteerhub.VolunteerHub.collection.Post;
 import org.springframework.stereotype.Service;
 
 import java.util.List;
@@ -27,24 +26,22 @@ public class CommentService {
     CommentMapper commentMapper;
 
     @Autowired
-    NotificationService notificationService;
+    NotificationEventBus notificationEventBus;
 
     @Autowired
-    PostRepository postRepository;
-
-    @Autowired
-    ChannelRepository channelRepository;
+    UserService userService;
 
     @Autowired
-    EventRepository eventRepository;
+    PostCounterService postCounterService;
 
     @Autowired
-    UserService userService;
+    MongoTemplate mongoTemplate;
 
     public CommentResponse createComment(CommentCreationRequest request){
         Comment comment = commentMapper.toComment(request);
 
         commentRepository.save(comment);
+        postCounterService.incrementComments(comment.getPostId());
 
         CommentResponse res = commentMapper.toCommentResponse(comment);
         try {
@@ -53,29 +50,7 @@ public class CommentService {
         } catch (Exception ignored) {}
 
         if (comment.getPostId() != null) {
-            Post post = postRepository.findById(comment.getPostId()).orElse(null);
-            if (post != null) {
-                if (post.getAuthorId() != null) {
-                    notificationService.createNotificationForUser(
-                            post.getAuthorId(),
-                            "post_comment",
-                            "Bài viết của bạn nhận được một bình luận mới"
-                    );
-                }
-                if (post.getChannelId() != null) {
-                    var channel = channelRepository.findById(post.getChannelId()).orElse(null);
-                    if (channel != null && channel.getEventId() != null && !"GLOBAL_FEED".equals(channel.getEventId())) {
-                        var event = eventRepository.findById(channel.getEventId()).orElse(null);
-                        if (event != null && event.getCreatedBy() != null) {
-                            notificationService.createNotificationForUser(
-                                    event.getCreatedBy(),
-                                    "event_post_comment",
-                                    "Có bình luận mới trong bài viết thuộc sự kiện của bạn"
-                            );
-                        }
-                    }
-                }
-            }
+            notificationEventBus.publish(new NotificationEventBus.PostCommented(comment.getPostId()));
         }
 
         return res;
@@ -96,7 +71,11 @@ public class CommentService {
     }
 
     public void deleteComment(String commentId){
-        commentRepository.deleteById(commentId);
+        Comment comment = commentRepository.findById(commentId).orElse(null);
+        if (comment == null) return;
+        // 2 request xóa cùng lúc: chỉ request thực sự xóa được document mới giảm counter
+        long deleted = mongoTemplate.remove(Query.query(Criteria.where("_id").is(commentId)), Comment.class).getDeletedCount();
+        if (deleted > 0) postCounterService.decrementComments(comment.getPostId());
     }
 
     public List<CommentResponse> getCommentsByPostId(String postId){
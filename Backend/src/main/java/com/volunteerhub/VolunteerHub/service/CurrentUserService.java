@@ -0,0 +1,106 @@
+package com.volunteerhub.VolunteerHub.service;
+
+import com.volunteerhub.VolunteerHub.dto.response.UserResponse;
+import com.volunteerhub.VolunteerHub.exception.AppException;
+import com.volunteerhub.VolunteerHub.exception.ErrorCode;
+import com.volunteerhub.VolunteerHub.mapper.UserMapper;
+import com.volunteerhub.VolunteerHub.repository.UserRepository;
+import lombok.AccessLevel;
+import lombok.RequiredArgsConstructor;
+import lombok.experimental.FieldDefaults;
+import org.springframework.security.authentication.AnonymousAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.oauth2.server.resource.authentication.JwtAuthenticationToken;
+import org.springframework.stereotype.Service;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Người dùng hiện tại của request.
+ * userId và roles đọc thẳng từ claim của JWT (không query DB);
+ * hồ sơ đầy đủ chỉ được tải khi cần và được nhớ trong phạm vi 1 request.
+ */
+@Service
+@RequiredArgsConstructor
+@FieldDefaults(level = AccessLevel.PRIVATE, makeFinal = true)
+public class CurrentUserService {
+
+    public static final String USER_ID_CLAIM = "userId";
+    static final String ROLES_CLAIM = "roles";
+    static final String USER_ATTRIBUTE = CurrentUserService.class.getName() + ".user";
+
+    UserRepository userRepository;
+    UserMapper userMapper;
+
+    /**
+     * Id của người dùng hiện tại.
+     * @throws AppException UNAUTHENTICATED nếu request chưa đăng nhập
+     */
+    public String getUserId() {
+        String userId = findUserId();
+        if (userId == null) throw new AppException(ErrorCode.UNAUTHENTICATED);
+        return userId;
+    }
+
+    // Như getUserId nhưng trả null cho khách (endpoint public)
+    public String findUserId() {
+        Authentication authentication = authentication();
+        if (authentication == null) return null;
+        if (authentication instanceof JwtAuthenticationToken jwtAuth) {
+            String userId = jwtAuth.getToken().getClaimAsString(USER_ID_CLAIM);
+            if (userId != null) return userId;
+        }
+        // Token cũ chưa có claim userId -> tra theo email (1 lần / request)
+        try {
+            return getUser().getId();
+        } catch (AppException e) {
+            return null;
+        }
+    }
+
+    public Set<String> getRoles() {
+        Authentication authentication = authentication();
+        if (authentication instanceof JwtAuthenticationToken jwtAuth) {
+            List<String> roles = jwtAuth.getToken().getClaimAsStringList(ROLES_CLAIM);
+            if (roles != null) return Set.copyOf(roles);
+        }
+        if (authentication == null) return Set.of();
+        Set<String> roles = getUser().getRoles();
+        return roles != null ? roles : Set.of();
+    }
+
+    public boolean hasRole(String role) {
+        return getRoles().contains(role);
+    }
+
+    /**
+     * Hồ sơ đầy đủ của người dùng hiện tại, tải tối đa 1 lần cho mỗi request.
+     */
+    public UserResponse getUser() {
+        Authentication authentication = authentication();
+        if (authentication == null) throw new AppException(ErrorCode.UNAUTHENTICATED);
+
+        RequestAttributes attributes = RequestContextHolder.getRequestAttributes();
+        if (attributes != null) {
+            Object cached = attributes.getAttribute(USER_ATTRIBUTE, RequestAttributes.SCOPE_REQUEST);
+            if (cached instanceof UserResponse user) return user;
+        }
+
+        UserResponse user = userRepository.findUserByEmail(authentication.getName())
+                .map(userMapper::toUserResponse)
+                .orElseThrow(() -> new AppException(ErrorCode.USER_NOT_EXISTED));
+        if (attributes != null) attributes.setAttribute(USER_ATTRIBUTE, user, RequestAttributes.SCOPE_REQUEST);
+        return user;
+    }
+
+    private Authentication authentication() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication == null || !authentication.isAuthenticated()
+                || authentication instanceof AnonymousAuthenticationToken) return null;
+        return authentication;
+    }
+}
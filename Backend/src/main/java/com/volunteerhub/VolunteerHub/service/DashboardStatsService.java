@@ -0,0 +1,551 @@
+package com.volunteerhub.VolunteerHub.service;
+
+import com.volunteerhub.VolunteerHub.collection.*;
+import com.volunteerhub.VolunteerHub.constant.Roles;
+import lombok.AccessLevel;
+import lombok.RequiredArgsConstructor;
+import lombok.experimental.FieldDefaults;
+import lombok.experimental.NonFinal;
+import lombok.extern.slf4j.Slf4j;
+import org.bson.Document;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.mongodb.BulkOperationException;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.*;
+
+/**
+ * Duy trì read model dashboard_stats: mỗi lần ghi domain (event, đăng ký, bài viết, user) chỉ $inc
+ * vào document global và document của manager sở hữu sự kiện.
+ * Dashboard đọc đúng 1 document thay vì đếm / tải lại toàn bộ sự kiện.
+ * - sweep(): chuyển upcoming / happening / completed cho các event vừa qua mốc thời gian kể từ lần sweep trước
+ * - rebuild(): dựng lại toàn bộ từ collection gốc (hằng đêm, khởi động nếu bật) để sửa lệch;
+ *   ghi đè có điều kiện từng field nên không làm mất các $inc chạy song song
+ */
+@Service
+@RequiredArgsConstructor
+@FieldDefaults(level = AccessLevel.PRIVATE, makeFinal = true)
+@Slf4j
+public class DashboardStatsService {
+
+    public static final String GLOBAL_ID = "global";
+    static final String MANAGER_PREFIX = "manager:";
+    static final String APPROVED = "approved";
+    static final int POST_DAYS_KEPT = 7;
+
+    MongoTemplate mongoTemplate;
+
+    @NonFinal
+    @Value("${app.counters.reconcile-on-startup:false}")
+    boolean rebuildOnStartup;
+
+    // Mốc thời gian mà các bucket upcoming / happening / completed đang phản ánh (= global.bucketedAt)
+    @NonFinal
+    volatile Date bucketedAt;
+
+    public static String managerId(String userId) {
+        return MANAGER_PREFIX + userId;
+    }
+
+    // ========================================================================
+    // READ
+    // ========================================================================
+
+    public DashboardStats getGlobal() {
+        return find(GLOBAL_ID);
+    }
+
+    public DashboardStats getManager(String userId) {
+        return find(managerId(userId));
+    }
+
+    public static long count(Map<String, Long> counts, String key) {
+        if (counts == null) return 0L;
+        Long value = counts.get(key);
+        return value != null ? value : 0L;
+    }
+
+    public static String dayKey(Date date) {
+        return date.toInstant().atZone(ZoneId.systemDefault()).toLocalDate().toString();
+    }
+
+    private DashboardStats find(String id) {
+        DashboardStats stats = mongoTemplate.findById(id, DashboardStats.class);
+        return stats != null ? stats : DashboardStats.builder().id(id).build();
+    }
+
+    // ========================================================================
+    // INCREMENTAL UPDATES
+    // ========================================================================
+
+    public void onEventCreated(Event event) {
+        Map<String, Long> delta = new HashMap<>();
+        eventDelta(delta, event.getStatus(), event.getDate(), 1);
+        apply(event.getCreatedBy(), delta);
+    }
+
+    /**
+     * Event đổi trạng thái / ngày (update, approve, reject).
+     */
+    public void onEventChanged(String createdBy, String oldStatus, Date oldDate, String newStatus, Date newDate) {
+        if (Objects.equals(oldStatus, newStatus) && Objects.equals(oldDate, newDate)) return;
+        Map<String, Long> delta = new HashMap<>();
+        eventDelta(delta, oldStatus, oldDate, -1);
+        eventDelta(delta, newStatus, newDate, 1);
+        apply(createdBy, delta);
+    }
+
+    public void onEventDeleted(Event event) {
+        Map<String, Long> delta = new HashMap<>();
+        eventDelta(delta, event.getStatus(), event.getDate(), -1);
+        apply(event.getCreatedBy(), delta);
+
+        // Thống kê đăng ký của manager chỉ tính trên sự kiện còn tồn tại
+        if (event.getCreatedBy() != null && event.getRegistrationCounts() != null) {
+            Map<String, Long> registrations = new HashMap<>();
+            event.getRegistrationCounts().forEach((status, n) -> {
+                if (n == null || n == 0) return;
+                registrations.merge("totalRegistrations", (long) -n, Long::sum);
+                registrations.merge("registrationsByStatus." + status, (long) -n, Long::sum);
+            });
+            incrementDoc(managerId(event.getCreatedBy()), registrations);
+        }
+    }
+
+    /**
+     * Đăng ký được tạo (oldStatus = null), đổi trạng thái hoặc bị xoá (newStatus = null).
+     */
+    public void onRegistrationChanged(String eventCreatedBy, String oldStatus, String newStatus) {
+        if (Objects.equals(oldStatus, newStatus)) return;
+        Map<String, Long> delta = new HashMap<>();
+        if (oldStatus != null) {
+            delta.merge("registrationsByStatus." + EventCounterService.statusKey(oldStatus), -1L, Long::sum);
+        } else {
+            delta.merge("totalRegistrations", 1L, Long::sum);
+        }
+        if (newStatus != null) {
+            delta.merge("registrationsByStatus." + EventCounterService.statusKey(newStatus), 1L, Long::sum);
+        } else {
+            delta.merge("totalRegistrations", -1L, Long::sum);
+        }
+        apply(eventCreatedBy, delta);
+    }
+
+    public void onPostCreated(Post post) {
+        Date createdAt = post.getCreatedAt() != null ? post.getCreatedAt() : new Date();
+        incrementDoc(GLOBAL_ID, Map.of("totalPosts", 1L, "postsByDay." + dayKey(createdAt), 1L));
+    }
+
+    public void onPostDeleted(Post post) {
+        Map<String, Long> delta = new HashMap<>();
+        delta.put("totalPosts", -1L);
+        // Chỉ trừ ngày còn được giữ trong postsByDay
+        if (post.getCreatedAt() != null && !isExpiredDay(dayKey(post.getCreatedAt()))) {
+            delta.put("postsByDay." + dayKey(post.getCreatedAt()), -1L);
+        }
+        incrementDoc(GLOBAL_ID, delta);
+    }
+
+    public void onUserCreated(User user) {
+        userDelta(1, null, null, user.getIsActive(), user.getRoles());
+    }
+
+    public void onUserDeleted(User user) {
+        userDelta(-1, user.getIsActive(), user.getRoles(), null, null);
+    }
+
+    // Trạng thái active / roles của user thay đổi
+    public void onUserChanged(Boolean wasActive, Set<String> oldRoles, User user) {
+        userDelta(0, wasActive, oldRoles, user.getIsActive(), user.getRoles());
+    }
+
+    private void userDelta(long total, Boolean wasActive, Set<String> oldRoles, Boolean isActive, Set<String> newRoles) {
+        Map<String, Long> delta = new HashMap<>();
+        delta.put("totalUsers", total);
+        delta.put("activeUsers", (long) ((Boolean.TRUE.equals(isActive) ? 1 : 0) - (Boolean.TRUE.equals(wasActive) ? 1 : 0)));
+        delta.put("totalVolunteers", (long) ((isVolunteer(newRoles) ? 1 : 0) - (isVolunteer(oldRoles) ? 1 : 0)));
+        incrementDoc(GLOBAL_ID, delta);
+    }
+
+    private static boolean isVolunteer(Set<String> roles) {
+        return roles != null && roles.contains(Roles.VOLUNTEER.name());
+    }
+
+    private void eventDelta(Map<String, Long> delta, String status, Date date, long sign) {
+        delta.merge("totalEvents", sign, Long::sum);
+        delta.merge("eventsByStatus." + EventCounterService.statusKey(status), sign, Long::sum);
+        if (APPROVED.equals(status) && date != null) {
+            // Phân loại theo cùng mốc với sweep, lần sweep sau sẽ chuyển event sang bucket hiện tại
+            Date asOf = bucketedAt;
+            delta.merge(bucketOf(date, asOf != null ? asOf : new Date()), sign, Long::sum);
+        }
+    }
+
+    // Cùng quy tắc với dashboard cũ: hết ngày diễn ra mới tính là completed
+    static String bucketOf(Date start, Date now) {
+        if (start.before(startOfDay(now))) return "completedEvents";
+        if (!now.before(start)) return "happeningEvents";
+        return "upcomingEvents";
+    }
+
+    private static Date startOfDay(Date date) {
+        ZoneId zone = ZoneId.systemDefault();
+        return Date.from(date.toInstant().atZone(zone).toLocalDate().atStartOfDay(zone).toInstant());
+    }
+
+    private void apply(String createdBy, Map<String, Long> delta) {
+        incrementDoc(GLOBAL_ID, delta);
+        if (createdBy != null) incrementDoc(managerId(createdBy), delta);
+    }
+
+    private void incrementDoc(String id, Map<String, Long> delta) {
+        Update update = new Update();
+        delta.forEach((field, value) -> {
+            if (value != 0) update.inc(field, value);
+        });
+        if (update.getUpdateObject().isEmpty()) return;
+        try {
+            mongoTemplate.upsert(Query.query(Criteria.where("_id").is(id)), update, DashboardStats.class);
+        } catch (Exception e) {
+            log.warn("Could not update dashboard stats {}", id, e);
+        }
+    }
+
+    // ========================================================================
+    // SWEEPER: PHÂN LOẠI LẠI THEO THỜI GIAN
+    // ========================================================================
+
+    /**
+     * Event chuyển nhóm chỉ vì thời gian trôi qua, không có lượt ghi nào để $inc: mỗi lần sweep chỉ đọc
+     * các event approved có date trong [đầu ngày của lần sweep trước, hiện tại] (range trên index status_date),
+     * so bucket cũ / mới của từng event và $inc phần chênh. Đếm lại toàn bộ chỉ trong rebuild() hằng đêm.
+     * Đồng thời bỏ các ngày cũ khỏi postsByDay.
+     */
+    @Scheduled(fixedDelayString = "${app.dashboard.sweep-ms:60000}", initialDelayString = "${app.dashboard.sweep-ms:60000}")
+    public void sweep() {
+        Date now = new Date();
+        DashboardStats global = mongoTemplate.findById(GLOBAL_ID, DashboardStats.class);
+        Date last = global != null ? global.getBucketedAt() : null;
+        if (last == null) {
+            recountBuckets(now);
+            return;
+        }
+        if (!now.after(last)) return;
+
+        // Giành khoảng [last, now]: instance khác đã sweep khoảng này thì bỏ qua, không chuyển 2 lần
+        long claimed = mongoTemplate.updateFirst(Query.query(Criteria.where("_id").is(GLOBAL_ID).and("bucketedAt").is(last)),
+                new Update().set("bucketedAt", now), DashboardStats.class).getModifiedCount();
+        if (claimed == 0) {
+            DashboardStats current = mongoTemplate.findById(GLOBAL_ID, DashboardStats.class);
+            if (current != null) bucketedAt = current.getBucketedAt();
+            return;
+        }
+
+        Query moved = Query.query(Criteria.where("status").is(APPROVED).and("date").gte(startOfDay(last)).lte(now));
+        moved.fields().include("createdBy", "date");
+        Map<String, Map<String, Long>> deltas = new HashMap<>();
+        for (Event event : mongoTemplate.find(moved, Event.class)) {
+            String from = bucketOf(event.getDate(), last);
+            String to = bucketOf(event.getDate(), now);
+            if (from.equals(to)) continue;
+            for (String id : event.getCreatedBy() != null
+                    ? List.of(GLOBAL_ID, managerId(event.getCreatedBy())) : List.of(GLOBAL_ID)) {
+                Map<String, Long> delta = deltas.computeIfAbsent(id, key -> new HashMap<>());
+                delta.merge(from, -1L, Long::sum);
+                delta.merge(to, 1L, Long::sum);
+            }
+        }
+        bucketedAt = now;
+        deltas.forEach(this::incrementDoc);
+
+        if (global.getPostsByDay() != null) {
+            Update expired = new Update();
+            global.getPostsByDay().keySet().stream()
+                    .filter(this::isExpiredDay)
+                    .forEach(day -> expired.unset("postsByDay." + day));
+            if (!expired.getUpdateObject().isEmpty()) {
+                mongoTemplate.updateFirst(Query.query(Criteria.where("_id").is(GLOBAL_ID)), expired, DashboardStats.class);
+            }
+        }
+    }
+
+    /**
+     * Đếm lại upcoming / happening / completed của toàn bộ event approved bằng 1 $group theo manager
+     * rồi ghi đè (chỉ dùng trong rebuild() hoặc khi chưa có mốc bucketedAt).
+     */
+    private void recountBuckets(Date now) {
+        Date startOfToday = startOfDay(now);
+        Map<String, Document> snapshot = snapshot();
+
+        List<Document> pipeline = List.of(
+                new Document("$match", new Document("status", APPROVED).append("date", new Document("$ne", null))),
+                new Document("$group", new Document("_id", "$createdBy")
+                        .append("total", new Document("$sum", 1))
+                        .append("upcoming", new Document("$sum", new Document("$cond",
+                                List.of(new Document("$gt", List.of("$date", now)), 1, 0))))
+                        .append("completed", new Document("$sum", new Document("$cond",
+                                List.of(new Document("$lt", List.of("$date", startOfToday)), 1, 0))))));
+
+        long[] global = new long[3];
+        Map<String, Map<String, Object>> values = new HashMap<>();
+        for (Document doc : collection(Event.class).aggregate(pipeline).allowDiskUse(true)) {
+            long total = doc.get("total", Number.class).longValue();
+            long upcoming = doc.get("upcoming", Number.class).longValue();
+            long completed = doc.get("completed", Number.class).longValue();
+            long happening = total - upcoming - completed;
+            global[0] += upcoming;
+            global[1] += happening;
+            global[2] += completed;
+            Object createdBy = doc.get("_id");
+            if (createdBy == null) continue;
+            values.put(managerId(createdBy.toString()), buckets(upcoming, happening, completed));
+        }
+        // Manager không còn event approved nào -> về 0
+        snapshot.keySet().stream()
+                .filter(id -> id.startsWith(MANAGER_PREFIX))
+                .forEach(id -> values.putIfAbsent(id, buckets(0, 0, 0)));
+        values.put(GLOBAL_ID, buckets(global[0], global[1], global[2]));
+        long skipped = compareAndSet(snapshot, values);
+        if (skipped > 0) log.info("Dashboard bucket recount left {} fields changed concurrently", skipped);
+
+        Update mark = new Update().set("bucketedAt", now);
+        Document current = snapshot.get(GLOBAL_ID);
+        Document postsByDay = current != null ? current.get("postsByDay", Document.class) : null;
+        if (postsByDay != null) {
+            postsByDay.keySet().stream()
+                    .filter(this::isExpiredDay)
+                    .forEach(day -> mark.unset("postsByDay." + day));
+        }
+        mongoTemplate.upsert(Query.query(Criteria.where("_id").is(GLOBAL_ID)), mark, DashboardStats.class);
+        bucketedAt = now;
+    }
+
+    private boolean isExpiredDay(String day) {
+        return day.compareTo(LocalDate.now().minusDays(POST_DAYS_KEPT).toString()) < 0;
+    }
+
+    private static Map<String, Object> buckets(long upcoming, long happening, long completed) {
+        Map<String, Object> fields = new LinkedHashMap<>();
+        fields.put("upcomingEvents", upcoming);
+        fields.put("happeningEvents", happening);
+        fields.put("completedEvents", completed);
+        return fields;
+    }
+
+    // ========================================================================
+    // REBUILD TỪ COLLECTION GỐC
+    // ========================================================================
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuildOnStartup() {
+        try {
+            if (rebuildOnStartup) {
+                rebuild();
+                return;
+            }
+            // Không rebuild: vẫn lấy mốc bucketedAt để event ghi trước lần sweep đầu được phân loại đúng mốc
+            DashboardStats global = mongoTemplate.findById(GLOBAL_ID, DashboardStats.class);
+            if (global != null) bucketedAt = global.getBucketedAt();
+        } catch (Exception e) {
+            log.error("Dashboard stats rebuild failed on startup", e);
+        }
+    }
+
+    @Scheduled(cron = "${app.counters.reconcile-cron:0 30 3 * * *}")
+    public void rebuild() {
+        // Đọc giá trị đang lưu TRƯỚC khi đếm: field nào bị $inc sau lúc này sẽ không bị ghi đè
+        Map<String, Document> snapshot = snapshot();
+        Map<String, DashboardStats> docs = new HashMap<>();
+        DashboardStats global = docs.computeIfAbsent(GLOBAL_ID, this::empty);
+
+        // Event theo (manager, status)
+        for (Document doc : collection(Event.class).aggregate(List.of(
+                new Document("$group", new Document("_id",
+                        new Document("createdBy", "$createdBy").append("status", "$status"))
+                        .append("n", new Document("$sum", 1)))))) {
+            Document id = doc.get("_id", Document.class);
+            long n = doc.get("n", Number.class).longValue();
+            String status = EventCounterService.statusKey(id.getString("status"));
+            addEvents(global, status, n);
+            if (id.get("createdBy") != null) {
+                addEvents(docs.computeIfAbsent(managerId(id.get("createdBy").toString()), this::empty), status, n);
+            }
+        }
+
+        // Đăng ký toàn hệ thống theo status
+        for (Document doc : collection(EventRegistration.class).aggregate(List.of(
+                new Document("$group", new Document("_id", "$status").append("n", new Document("$sum", 1)))))) {
+            addRegistrations(global, EventCounterService.statusKey(doc.getString("_id")), doc.get("n", Number.class).longValue());
+        }
+
+        // Đăng ký theo manager: gom theo event trước rồi $lookup chủ sự kiện
+        for (Document doc : collection(EventRegistration.class).aggregate(List.of(
+                new Document("$group", new Document("_id", new Document("eventId", "$eventId").append("status", "$status"))
+                        .append("n", new Document("$sum", 1))),
+                new Document("$lookup", new Document("from", mongoTemplate.getCollectionName(Event.class))
+                        .append("let", new Document("eventId", new Document("$convert", new Document("input", "$_id.eventId")
+                                .append("to", "objectId").append("onError", "$_id.eventId").append("onNull", null))))
+                        .append("pipeline", List.of(
+                                new Document("$match", new Document("$expr", new Document("$eq", List.of("$_id", "$$eventId")))),
+                                new Document("$project", new Document("createdBy", 1))))
+                        .append("as", "event")),
+                new Document("$unwind", "$event"),
+                new Document("$match", new Document("event.createdBy", new Document("$ne", null))),
+                new Document("$group", new Document("_id", new Document("createdBy", "$event.createdBy").append("status", "$_id.status"))
+                        .append("n", new Document("$sum", "$n"))))).allowDiskUse(true)) {
+            Document id = doc.get("_id", Document.class);
+            addRegistrations(docs.computeIfAbsent(managerId(id.get("createdBy").toString()), this::empty),
+                    EventCounterService.statusKey(id.getString("status")), doc.get("n", Number.class).longValue());
+        }
+
+        // Bài viết: tổng + theo ngày trong POST_DAYS_KEPT ngày gần nhất
+        global.setTotalPosts(mongoTemplate.count(new Query(), Post.class));
+        Date since = Date.from(LocalDate.now().minusDays(POST_DAYS_KEPT).atStartOfDay(ZoneId.systemDefault()).toInstant());
+        for (Document doc : collection(Post.class).aggregate(List.of(
+                new Document("$match", new Document("createdAt", new Document("$gte", since))),
+                new Document("$group", new Document("_id", new Document("$dateToString", new Document("format", "%Y-%m-%d")
+                        .append("date", "$createdAt").append("timezone", ZoneId.systemDefault().getId())))
+                        .append("n", new Document("$sum", 1)))))) {
+            global.getPostsByDay().put(doc.getString("_id"), doc.get("n", Number.class).longValue());
+        }
+
+        // User
+        global.setTotalUsers(mongoTemplate.count(new Query(), User.class));
+        global.setActiveUsers(mongoTemplate.count(Query.query(Criteria.where("isActive").is(true)), User.class));
+        global.setTotalVolunteers(mongoTemplate.count(Query.query(Criteria.where("roles").is(Roles.VOLUNTEER.name())), User.class));
+
+        // Manager không còn sự kiện nào -> các counter về 0 (giữ document, không xoá để khỏi mất $inc song song)
+        snapshot.keySet().stream()
+                .filter(id -> id.startsWith(MANAGER_PREFIX))
+                .forEach(id -> docs.computeIfAbsent(id, this::empty));
+
+        // Giữ nguyên các bucket thời gian, đếm lại ngay sau đó
+        Map<String, Map<String, Object>> values = new HashMap<>();
+        for (DashboardStats stats : docs.values()) {
+            Map<String, Object> fields = new LinkedHashMap<>();
+            fields.put("totalEvents", stats.getTotalEvents());
+            putEntries(fields, "eventsByStatus", stats.getEventsByStatus(), snapshot.get(stats.getId()));
+            fields.put("totalRegistrations", stats.getTotalRegistrations());
+            putEntries(fields, "registrationsByStatus", stats.getRegistrationsByStatus(), snapshot.get(stats.getId()));
+            fields.put("totalUsers", stats.getTotalUsers());
+            fields.put("activeUsers", stats.getActiveUsers());
+            fields.put("totalVolunteers", stats.getTotalVolunteers());
+            fields.put("totalPosts", stats.getTotalPosts());
+            Map<String, Long> postsByDay = new HashMap<>(stats.getPostsByDay());
+            // Ngày đã hết hạn để sweep() bỏ, không ghi lại
+            postsByDay.keySet().removeIf(this::isExpiredDay);
+            putEntries(fields, "postsByDay", postsByDay, null);
+            values.put(stats.getId(), fields);
+        }
+        long skipped = compareAndSet(snapshot, values);
+
+        recountBuckets(new Date());
+        log.info("Rebuilt dashboard stats for {} documents ({} fields changed concurrently, left as is)", docs.size(), skipped);
+    }
+
+    // Giá trị đang lưu của mọi document dashboard_stats (global + 1 / manager)
+    private Map<String, Document> snapshot() {
+        Map<String, Document> snapshot = new HashMap<>();
+        for (Document doc : collection(DashboardStats.class).find()) snapshot.put(doc.get("_id").toString(), doc);
+        return snapshot;
+    }
+
+    // Ghi từng key của map thành field riêng (eventsByStatus.approved, ...); key chỉ còn trong bản đang lưu -> 0
+    private static void putEntries(Map<String, Object> fields, String field, Map<String, Long> counts, Document stored) {
+        counts.forEach((key, n) -> fields.put(field + "." + key, n));
+        Document storedCounts = stored != null ? stored.get(field, Document.class) : null;
+        if (storedCounts == null) return;
+        storedCounts.keySet().forEach(key -> fields.putIfAbsent(field + "." + key, 0L));
+    }
+
+    /**
+     * Ghi đè từng field bằng giá trị vừa đếm, chỉ khi field vẫn bằng giá trị trong snapshot (đọc trước khi đếm).
+     * Field bị $inc xen giữa thì bỏ qua thay vì làm mất lượt tăng, lần rebuild sau sửa.
+     * Mỗi field 1 điều kiện riêng nên document global (bị ghi liên tục) vẫn sửa được các field không đổi trong lúc đếm.
+     * Document chưa có trong snapshot được tạo bằng 1 upsert, điều kiện mọi field đều chưa có.
+     * @return số field bị bỏ qua
+     */
+    private long compareAndSet(Map<String, Document> snapshot, Map<String, Map<String, Object>> values) {
+        BulkOperations bulk = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, DashboardStats.class);
+        long writes = 0;
+        long fields = 0;
+        for (Map.Entry<String, Map<String, Object>> doc : values.entrySet()) {
+            Document stored = snapshot.get(doc.getKey());
+            if (stored == null) {
+                Criteria missing = Criteria.where("_id").is(doc.getKey());
+                Update update = new Update();
+                doc.getValue().forEach((field, value) -> {
+                    missing.and(field).exists(false);
+                    update.set(field, value);
+                });
+                bulk.upsert(Query.query(missing), update);
+                writes++;
+                fields += doc.getValue().size();
+                continue;
+            }
+            for (Map.Entry<String, Object> field : doc.getValue().entrySet()) {
+                bulk.updateOne(Query.query(Criteria.where("_id").is(doc.getKey())
+                                .and(field.getKey()).is(valueAt(stored, field.getKey()))),
+                        new Update().set(field.getKey(), field.getValue()));
+                writes++;
+                fields++;
+            }
+        }
+        if (writes == 0) return 0;
+
+        com.mongodb.bulk.BulkWriteResult result;
+        try {
+            result = bulk.execute();
+        } catch (BulkOperationException e) {
+            // Upsert trùng _id: document vừa được $inc tạo ra trong lúc đếm
+            result = e.getResult();
+        }
+        long applied = result.getMatchedCount() + result.getUpserts().size();
+        long skippedWrites = writes - applied;
+        if (skippedWrites <= 0) return 0;
+        // Bỏ qua 1 upsert = bỏ qua cả document -> đếm gần đúng theo số lệnh
+        return Math.min(fields, skippedWrites);
+    }
+
+    private static Object valueAt(Document doc, String path) {
+        Object value = doc;
+        for (String key : path.split("\\.")) {
+            if (!(value instanceof Document current)) return null;
+            value = current.get(key);
+        }
+        return value;
+    }
+
+    private DashboardStats empty(String id) {
+        return DashboardStats.builder()
+                .id(id)
+                .eventsByStatus(new HashMap<>())
+                .registrationsByStatus(new HashMap<>())
+                .postsByDay(new HashMap<>())
+                .build();
+    }
+
+    private static void addEvents(DashboardStats stats, String status, long n) {
+        stats.setTotalEvents(stats.getTotalEvents() + n);
+        stats.getEventsByStatus().merge(status, n, Long::sum);
+    }
+
+    private static void addRegistrations(DashboardStats stats, String status, long n) {
+        stats.setTotalRegistrations(stats.getTotalRegistrations() + n);
+        stats.getRegistrationsByStatus().merge(status, n, Long::sum);
+    }
+
+    private com.mongodb.client.MongoCollection<Document> collection(Class<?> entity) {
+        return mongoTemplate.getCollection(mongoTemplate.getCollectionName(entity));
+    }
+}
@@ -0,0 +1,274 @@
+package com.volunteerhub.VolunteerHub.service;
+
+import com.volunteerhub.VolunteerHub.collection.Event;
+import com.volunteerhub.VolunteerHub.collection.EventRegistration;
+import lombok.AccessLevel;
+import lombok.RequiredArgsConstructor;
+import lombok.experimental.FieldDefaults;
+import lombok.experimental.NonFinal;
+import lombok.extern.slf4j.Slf4j;
+import org.bson.Document;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.Aggregation;
+import org.springframework.data.mongodb.core.aggregation.ComparisonOperators;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Service;
+
+import java.util.*;
+
+/**
+ * Duy trì counter đăng ký lưu sẵn trên Event bằng $inc nguyên tử:
+ * - registrationCounts.{status}: số đăng ký theo từng trạng thái
+ * - activeSeats: số đăng ký chưa bị từ chối (dùng cho kiểm tra đầy chỗ)
+ * - volunteersRegistered: approved + completed (hiển thị ở danh sách sự kiện)
+ * Listing và kiểm tra sức chứa đọc các field này trong O(1) thay vì đếm event_registrations.
+ */
+@Service
+@RequiredArgsConstructor
+@FieldDefaults(level = AccessLevel.PRIVATE, makeFinal = true)
+@Slf4j
+public class EventCounterService {
+
+    public static final String REGISTRATION_COUNTS = "registrationCounts";
+    public static final String ACTIVE_SEATS = "activeSeats";
+    public static final String VOLUNTEERS_REGISTERED = "volunteersRegistered";
+    public static final Set<String> COUNTER_FIELDS = Set.of(REGISTRATION_COUNTS, ACTIVE_SEATS, VOLUNTEERS_REGISTERED);
+
+    // Trạng thái được tính vào volunteersRegistered
+    static final Set<String> REGISTERED_STATUSES = Set.of("approved", "completed");
+    static final String REJECTED = "rejected";
+    static final int REBUILD_BATCH_SIZE = 200;
+
+    MongoTemplate mongoTemplate;
+    EventReadCache eventReadCache;
+
+    @NonFinal
+    @Value("${app.counters.reconcile-on-startup:false}")
+    boolean rebuildOnStartup;
+
+    // ========================================================================
+    // INCREMENTAL UPDATES
+    // ========================================================================
+
+    public void onRegistrationCreated(String eventId, String status) {
+        Update update = new Update();
+        applyDelta(update, status, 1);
+        apply(eventId, update);
+    }
+
+    /**
+     * Cập nhật counter khi đổi trạng thái đăng ký.
+     * Nếu đăng ký đang bị từ chối mà được mở lại thì phải giành lại chỗ một cách có điều kiện.
+     * @return false nếu sự kiện đã hết chỗ (không có gì bị thay đổi)
+     */
+    public boolean onRegistrationStatusChanged(String eventId, String oldStatus, String newStatus) {
+        if (Objects.equals(oldStatus, newStatus)) return true;
+        Update update = new Update();
+        applyDelta(update, oldStatus, -1);
+        applyDelta(update, newStatus, 1);
+        if (!isActive(oldStatus) && isActive(newStatus)) {
+            return claimSeat(eventId, update) != null;
+        }
+        apply(eventId, update);
+        return true;
+    }
+
+    // ========================================================================
+    // SEAT RESERVATION (NGUYÊN TỬ, KHÔNG CHECK-THEN-ACT)
+    // ========================================================================
+
+    /**
+     * Giữ 1 chỗ cho đăng ký mới bằng một findAndModify có điều kiện trên document sự kiện:
+     * chỉ $inc khi volunteersNeeded <= 0 (không giới hạn) hoặc activeSeats < volunteersNeeded.
+     * @return sự kiện sau khi giữ chỗ, hoặc null nếu sự kiện không tồn tại / đã đầy
+     */
+    public Event reserveSeat(String eventId, String status) {
+        Update update = new Update();
+        applyDelta(update, status, 1);
+        return claimSeat(eventId, update);
+    }
+
+    // Trả chỗ đã giữ khi không lưu được đăng ký (ví dụ trùng unique index)
+    public void releaseSeat(String eventId, String status) {
+        onRegistrationDeleted(eventId, status);
+    }
+
+    private Event claimSeat(String eventId, Update update) {
+        if (eventId == null) return null;
+        Criteria hasCapacity = new Criteria().orOperator(
+                Criteria.where("volunteersNeeded").lte(0),
+                Criteria.expr(ComparisonOperators.valueOf(ACTIVE_SEATS).lessThan("volunteersNeeded")));
+        Query query = Query.query(new Criteria().andOperator(Criteria.where("_id").is(eventId), hasCapacity));
+        Event event = mongoTemplate.findAndModify(query, update, FindAndModifyOptions.options().returnNew(true), Event.class);
+        if (event != null) eventReadCache.evictDetail(eventId);
+        return event;
+    }
+
+    public void onRegistrationDeleted(String eventId, String status) {
+        if (eventId == null) return;
+        Update update = new Update();
+        applyDelta(update, status, -1);
+        // Không để counter âm khi dữ liệu cũ đang lệch, rebuild sẽ sửa sau
+        Criteria criteria = Criteria.where("_id").is(eventId)
+                .and(REGISTRATION_COUNTS + "." + statusKey(status)).gt(0);
+        if (isActive(status)) criteria.and(ACTIVE_SEATS).gt(0);
+        if (REGISTERED_STATUSES.contains(status)) criteria.and(VOLUNTEERS_REGISTERED).gt(0);
+        apply(Query.query(criteria), eventId, update);
+    }
+
+    public static boolean isActive(String status) {
+        return !REJECTED.equals(status);
+    }
+
+    public static boolean hasFreeSeat(Event event) {
+        return event.getVolunteersNeeded() <= 0 || event.getActiveSeats() < event.getVolunteersNeeded();
+    }
+
+    private void applyDelta(Update update, String status, int delta) {
+        // Gộp các $inc trên cùng field (ví dụ approved -> completed không đổi volunteersRegistered)
+        incMerge(update, REGISTRATION_COUNTS + "." + statusKey(status), delta);
+        if (isActive(status)) incMerge(update, ACTIVE_SEATS, delta);
+        if (REGISTERED_STATUSES.contains(status)) incMerge(update, VOLUNTEERS_REGISTERED, delta);
+    }
+
+    private void incMerge(Update update, String field, int delta) {
+        Document inc = (Document) update.getUpdateObject().get("$inc");
+        Number current = inc != null ? (Number) inc.get(field) : null;
+        update.inc(field, (current == null ? 0 : current.intValue()) + delta);
+    }
+
+    private void apply(String eventId, Update update) {
+        if (eventId == null) return;
+        apply(Query.query(Criteria.where("_id").is(eventId)), eventId, update);
+    }
+
+    private void apply(Query query, String eventId, Update update) {
+        if (update.getUpdateObject().isEmpty()) return;
+        try {
+            mongoTemplate.updateFirst(query, update, Event.class);
+            eventReadCache.evictDetail(eventId);
+        } catch (Exception e) {
+            log.warn("Could not update registration counters of event {}", eventId, e);
+        }
+    }
+
+    static String statusKey(String status) {
+        if (status == null || status.isBlank()) return "unknown";
+        // Tránh key không hợp lệ với Mongo ('.' hoặc '$')
+        return status.replace('.', '_').replace('$', '_');
+    }
+
+    // ========================================================================
+    // REBUILD TỪ event_registrations
+    // ========================================================================
+
+    // Tắt mặc định: counter đã được $inc từ lúc tạo đăng ký, chỉ bật khi cần sửa dữ liệu cũ lệch
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuildOnStartup() {
+        if (!rebuildOnStartup) return;
+        try {
+            rebuildAll();
+        } catch (Exception e) {
+            log.error("Event counter rebuild failed on startup", e);
+        }
+    }
+
+    /**
+     * Dựng lại counter của toàn bộ sự kiện theo từng lô (1 $group cho mỗi lô).
+     * @return số sự kiện bị lệch đã được ghi lại counter
+     */
+    public long rebuildAll() {
+        long rebuilt = 0;
+        Object lastId = null;
+        String collection = mongoTemplate.getCollectionName(Event.class);
+        while (true) {
+            Query batchQuery = new Query().with(Sort.by(Sort.Direction.ASC, "_id")).limit(REBUILD_BATCH_SIZE);
+            if (lastId != null) batchQuery.addCriteria(Criteria.where("_id").gt(lastId));
+            batchQuery.fields().include(REGISTRATION_COUNTS, ACTIVE_SEATS, VOLUNTEERS_REGISTERED);
+
+            List<Document> batch = mongoTemplate.find(batchQuery, Document.class, collection);
+            if (batch.isEmpty()) break;
+            rebuilt += rebuild(batch);
+            lastId = batch.getLast().get("_id");
+        }
+        log.info("Rebuilt registration counters for {} events", rebuilt);
+        return rebuilt;
+    }
+
+    /**
+     * Đếm lại đăng ký của 1 lô sự kiện và ghi đè những sự kiện bị lệch.
+     * Mỗi lệnh ghi có điều kiện counter vẫn đúng bằng giá trị đã đọc trong lô: nếu có đăng ký/huỷ xen giữa
+     * (đã $inc sau lúc đọc) thì bỏ qua sự kiện đó thay vì ghi đè mất thay đổi, lần rebuild sau sẽ sửa.
+     */
+    private long rebuild(List<Document> batch) {
+        // _id lưu dạng ObjectId, eventId trong event_registrations là chuỗi hex
+        List<String> ids = batch.stream().map(doc -> doc.get("_id").toString()).toList();
+
+        Map<String, Map<String, Integer>> countsByEvent = new HashMap<>();
+        var aggregation = Aggregation.newAggregation(EventRegistration.class,
+                Aggregation.match(Criteria.where("eventId").in(ids)),
+                Aggregation.group("eventId", "status").count().as("count"));
+        for (Document doc : mongoTemplate.aggregate(aggregation, Document.class).getMappedResults()) {
+            Document id = doc.get("_id", Document.class);
+            Number count = doc.get("count", Number.class);
+            if (id == null || count == null || id.get("eventId") == null) continue;
+            countsByEvent.computeIfAbsent(id.get("eventId").toString(), k -> new HashMap<>())
+                    .merge(statusKey(id.getString("status")), count.intValue(), Integer::sum);
+        }
+
+        BulkOperations bulk = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, Event.class);
+        List<String> drifted = new ArrayList<>();
+        for (Document current : batch) {
+            Object eventId = current.get("_id");
+            Map<String, Integer> counts = countsByEvent.getOrDefault(eventId.toString(), Map.of());
+            int active = counts.entrySet().stream()
+                    .filter(e -> isActive(e.getKey()))
+                    .mapToInt(Map.Entry::getValue).sum();
+            int registered = counts.entrySet().stream()
+                    .filter(e -> REGISTERED_STATUSES.contains(e.getKey()))
+                    .mapToInt(Map.Entry::getValue).sum();
+            if (!isDrifted(current, counts, active, registered)) continue;
+
+            // Điều kiện = đúng giá trị vừa đọc (field thiếu -> is(null) khớp field không tồn tại)
+            Criteria unchanged = Criteria.where("_id").is(eventId)
+                    .and(REGISTRATION_COUNTS).is(current.get(REGISTRATION_COUNTS))
+                    .and(ACTIVE_SEATS).is(current.get(ACTIVE_SEATS))
+                    .and(VOLUNTEERS_REGISTERED).is(current.get(VOLUNTEERS_REGISTERED));
+            bulk.updateOne(Query.query(unchanged), new Update()
+                    .set(REGISTRATION_COUNTS, new HashMap<>(counts))
+                    .set(ACTIVE_SEATS, active)
+                    .set(VOLUNTEERS_REGISTERED, registered));
+            drifted.add(eventId.toString());
+        }
+        if (drifted.isEmpty()) return 0;
+        long modified = bulk.execute().getModifiedCount();
+        if (modified < drifted.size()) {
+            log.info("Skipped {} event counter rebuilds changed concurrently", drifted.size() - modified);
+        }
+        drifted.forEach(eventReadCache::evictDetail);
+        return modified;
+    }
+
+    private static boolean isDrifted(Document current, Map<String, Integer> counts, int active, int registered) {
+        Map<String, Integer> stored = new HashMap<>();
+        Document storedCounts = current.get(REGISTRATION_COUNTS, Document.class);
+        if (storedCounts != null) {
+            storedCounts.forEach((status, count) -> {
+                if (count instanceof Number n && n.intValue() != 0) stored.put(status, n.intValue());
+            });
+        }
+        Map<String, Integer> expected = new HashMap<>(counts);
+        expected.values().removeIf(count -> count == 0);
+        return !stored.equals(expected)
+                || !Objects.equals(current.get(ACTIVE_SEATS), active)
+                || !Objects.equals(current.get(VOLUNTEERS_REGISTERED), registered);
+    }
+}
@@ -0,0 +1,120 @@
+package com.volunteerhub.VolunteerHub.service;
+
+import com.volunteerhub.VolunteerHub.dto.response.CacheStatsResponse;
+import com.volunteerhub.VolunteerHub.dto.response.EventResponse;
+import jakarta.annotation.PostConstruct;
+import lombok.AccessLevel;
+import lombok.RequiredArgsConstructor;
+import lombok.experimental.FieldDefaults;
+import lombok.experimental.NonFinal;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Page;
+import org.springframework.stereotype.Service;
+
+import java.util.List;
+import java.util.function.Supplier;
+
+/**
+ * Cache cho các API đọc sự kiện công khai nóng nhất (GET /events/{id}, /events/top-new,
+ * /events/admin/top-attractive, GET /events của người dùng thường). 2 tầng:
+ * - chi tiết theo id: TTL dài hơn, EventService ghi đè ngay bản mới sau update/approve, xoá khi delete;
+ * - danh sách (top, trang công khai): TTL ngắn, bỏ toàn bộ khi có sự kiện được tạo/sửa/duyệt/xoá.
+ * Số đăng ký thay đổi liên tục nên chỉ bỏ bản chi tiết của sự kiện đó (EventCounterService), danh sách và
+ * số bình luận chấp nhận trễ tối đa 1 TTL; instance khác cũng chỉ thấy thay đổi sau TTL.
+ */
+@Service
+@RequiredArgsConstructor
+@FieldDefaults(level = AccessLevel.PRIVATE, makeFinal = true)
+@Slf4j
+public class EventReadCache {
+
+    static final String TOP_NEW = "top-new";
+    static final String TOP_ATTRACTIVE = "top-attractive";
+
+    record PageKey(String keyword, int page, int size) {}
+
+    @NonFinal
+    @Value("${app.cache.events.detail-max-entries:5000}")
+    int detailMaxEntries;
+
+    @NonFinal
+    @Value("${app.cache.events.detail-ttl-ms:60000}")
+    long detailTtlMs;
+
+    @NonFinal
+    @Value("${app.cache.events.listing-max-entries:500}")
+    int listingMaxEntries;
+
+    @NonFinal
+    @Value("${app.cache.events.listing-ttl-ms:15000}")
+    long listingTtlMs;
+
+    @NonFinal
+    ReadThroughCache<String, EventResponse> details;
+
+    @NonFinal
+    ReadThroughCache<String, List<EventResponse>> tops;
+
+    @NonFinal
+    ReadThroughCache<PageKey, Page<EventResponse>> pages;
+
+    @PostConstruct
+    public void init() {
+        details = new ReadThroughCache<>("event-detail", detailMaxEntries, detailTtlMs);
+        tops = new ReadThroughCache<>("event-top", 2, listingTtlMs);
+        pages = new ReadThroughCache<>("event-public-pages", listingMaxEntries, listingTtlMs);
+    }
+
+    // ========================================================================
+    // ĐỌC
+    // ========================================================================
+
+    public EventResponse getEvent(String id, Supplier<EventResponse> loader) {
+        return details.get(id, loader);
+    }
+
+    public List<EventResponse> getTopNew(Supplier<List<EventResponse>> loader) {
+        return tops.get(TOP_NEW, loader);
+    }
+
+    public List<EventResponse> getTopAttractive(Supplier<List<EventResponse>> loader) {
+        return tops.get(TOP_ATTRACTIVE, loader);
+    }
+
+    public Page<EventResponse> getPublicPage(String keyword, int page, int size, Supplier<Page<EventResponse>> loader) {
+        return pages.get(new PageKey(keyword, page, size), loader);
+    }
+
+    // ========================================================================
+    // GHI / INVALIDATE
+    // ========================================================================
+
+    // Sau update/approve: bản vừa ghi là bản mới nhất, đặt luôn vào cache thay vì để request sau đọc lại
+    public void onEventChanged(EventResponse response) {
+        if (response == null || response.getId() == null) return;
+        details.invalidate(response.getId());
+        details.put(response.getId(), response);
+        invalidateListings();
+    }
+
+    // Xoá sự kiện / đổi dữ liệu mà không có sẵn response mới (vd. đổi ảnh)
+    public void evictEvent(String id) {
+        details.invalidate(id);
+        invalidateListings();
+    }
+
+    // Counter đăng ký đổi: chỉ bỏ bản chi tiết (người vừa đăng ký mở lại trang thấy ngay), danh sách chờ hết TTL
+    public void evictDetail(String id) {
+        if (id != null) details.invalidate(id);
+    }
+
+    public void invalidateListings() {
+        tops.invalidateAll();
+        pages.invalidateAll();
+    }
+
+    public List<CacheStatsResponse> stats() {
+        return List.of(details.stats(), tops.stats(), pages.stats());
+    }
+}
@@ -11,8 +11,15 @@ import com.volunteerhub.VolunteerHub.mapper.EventRegistrationMapper;
 import com.volunteerhub.VolunteerHub.repository.EventRegistrationRepository;
 import com.volunteerhub.VolunteerHub.repository.EventRepository;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
 import org.springframework.stereotype.Service;
 
+import java.util.Date;
 import java.util.List;
 
 @Service
@@ -27,46 +34,54 @@ public class EventRegistrationService {
     NotificationService notificationService;
 
     @Autowired
-    EventRepository eventRepository;
+    NotificationEventBus notificationEventBus;
 
     @Autowired
-    UserService userService;
+    EventRepository eventRepository;
 
-    public EventRegistrationResponse createRegistration(EventRegistrationCreationRequest request){
-        //Check trùng
-        if(eventRegistrationRepository.existsByEventIdAndUserId(request.getEventId(), request.getUserId())){
-            throw new AppException(ErrorCode.REGISTRATION_EXISTED);
-        }
+    @Autowired
+    CurrentUserService currentUserService;
 
-        //Lấy event (chỉ 1 lần)
-        Event event = eventRepository.findById(request.getEventId())
-                .orElseThrow(() -> new AppException(ErrorCode.EVENT_NOT_EXISTED));
+    @Autowired
+    EventCounterService eventCounterService;
 
-        // Đếm số lượng
-        long currentCount = eventRegistrationRepository.findByEventId(request.getEventId()).stream()
-                .filter(r -> !"rejected".equals(r.getStatus()))
-                .count();
+    @Autowired
+    DashboardStatsService dashboardStatsService;
 
-        //Kiểm tra đầy
-        if (event.getVolunteersNeeded() > 0 && currentCount >= event.getVolunteersNeeded()) {
-            throw new AppException(ErrorCode.EVENT_FULL);
-        }
+    @Autowired
+    MongoTemplate mongoTemplate;
 
-        //Lưu
+    public EventRegistrationResponse createRegistration(EventRegistrationCreationRequest request){
         EventRegistration eventRegistration = eventRegistrationMapper.toEventRegistration(request);
         eventRegistration.setStatus("pending");
-        eventRegistrationRepository.save(eventRegistration);
 
-        //Gửi thông báo
-        try {
-            if (event.getCreatedBy() != null) {
-                notificationService.createNotificationForUser(
-                        event.getCreatedBy(),
-                        "event_registration",
-                        "Có đăng ký mới cho sự kiện của bạn"
-                );
+        //Giữ chỗ nguyên tử trên document Event (không đếm rồi mới lưu)
+        Event event = eventCounterService.reserveSeat(request.getEventId(), eventRegistration.getStatus());
+        if (event == null) {
+            if (request.getEventId() == null || !eventRepository.existsById(request.getEventId())) {
+                throw new AppException(ErrorCode.EVENT_NOT_EXISTED);
             }
-        } catch (Exception ignored) {}
+            //Đã đăng ký rồi thì báo trùng, không báo hết chỗ
+            if (eventRegistrationRepository.existsByEventIdAndUserId(request.getEventId(), request.getUserId())) {
+                throw new AppException(ErrorCode.REGISTRATION_EXISTED);
+            }
+            throw new AppException(ErrorCode.EVENT_FULL);
+        }
+
+        //Lưu, trùng (eventId, userId) bị unique index chặn -> trả lại chỗ đã giữ
+        try {
+            eventRegistrationRepository.insert(eventRegistration);
+        } catch (DuplicateKeyException e) {
+            eventCounterService.releaseSeat(event.getId(), eventRegistration.getStatus());
+            throw new AppException(ErrorCode.REGISTRATION_EXISTED);
+        } catch (RuntimeException e) {
+            eventCounterService.releaseSeat(event.getId(), eventRegistration.getStatus());
+            throw e;
+        }
+        dashboardStatsService.onRegistrationChanged(event.getCreatedBy(), null, eventRegistration.getStatus());
+
+        //Gửi thông báo (ghi ở nền)
+        notificationEventBus.publish(new NotificationEventBus.RegistrationCreated(event.getId(), event.getCreatedBy()));
 
         return eventRegistrationMapper.toEventRegistrationResponse(eventRegistration);
     }
@@ -79,15 +94,37 @@ public class EventRegistrationService {
                 .orElseThrow(() -> new AppException(ErrorCode.EVENT_NOT_EXISTED));
 
         // Lấy user hiện tại đang gọi API
-        var currentUser = userService.getMyInfo();
+        String currentUserId = currentUserService.getUserId();
 
-        if (!event.getCreatedBy().equals(currentUser.getId())) {
+        if (!event.getCreatedBy().equals(currentUserId)) {
             throw new AppException(ErrorCode.UNAUTHORIZED);
         }
 
         String oldStatus = eventRegistration.getStatus();
         eventRegistrationMapper.updateEventRegistration(eventRegistration, request);
-        eventRegistrationRepository.save(eventRegistration);
+        String newStatus = eventRegistration.getStatus();
+
+        //Từ chối -> trả chỗ; mở lại đăng ký đã từ chối -> phải giành lại chỗ (có thể đã đầy)
+        if (!eventCounterService.onRegistrationStatusChanged(event.getId(), oldStatus, newStatus)) {
+            throw new AppException(ErrorCode.EVENT_FULL);
+        }
+        //Chỉ đổi trạng thái nếu chưa ai đổi trước (status vẫn = oldStatus); thua cuộc đua -> hoàn lại counter
+        EventRegistration updated;
+        try {
+            updated = mongoTemplate.findAndModify(
+                    Query.query(Criteria.where("_id").is(registrationId).and("status").is(oldStatus)),
+                    new Update().set("status", newStatus).set("updatedAt", new Date()),
+                    FindAndModifyOptions.options().returnNew(true), EventRegistration.class);
+        } catch (RuntimeException e) {
+            eventCounterService.onRegistrationStatusChanged(event.getId(), newStatus, oldStatus);
+            throw e;
+        }
+        if (updated == null) {
+            eventCounterService.onRegistrationStatusChanged(event.getId(), newStatus, oldStatus);
+            throw new AppException(ErrorCode.REGISTRATION_MODIFIED);
+        }
+        eventRegistration = updated;
+        dashboardStatsService.onRegistrationChanged(event.getCreatedBy(), oldStatus, newStatus);
 
         // Gửi thông báo
         if (!oldStatus.equals(request.getStatus()) &&
@@ -121,20 +158,20 @@ public class EventRegistrationService {
                 .orElseThrow(() -> new AppException(ErrorCode.REGISTRATION_NOT_EXISTED));
 
         // Lấy thông tin người đang thực hiện xóa
-        var currentUser = userService.getMyInfo();
-        String currentUserId = currentUser.getId();
+        String currentUserId = currentUserService.getUserId();
 
         //  Kiểm tra quyền xóa:
         // - Là chính chủ (người đăng ký)
         // - HOẶC là Admin (có role ADMIN)
         // - (Có thể thêm: HOẶC là Manager của sự kiện đó)
         boolean isOwner = registration.getUserId().equals(currentUserId);
-        boolean isAdmin = currentUser.getRoles().contains("ADMIN");
+        boolean isAdmin = currentUserService.hasRole("ADMIN");
 
         // Nếu muốn Manager được xóa người tham gia khỏi sự kiện của họ:
         boolean isEventManager = false;
+        Event event = null;
         try {
-            Event event = eventRepository.findById(registration.getEventId()).orElse(null);
+            event = eventRepository.findById(registration.getEventId()).orElse(null);
             if (event != null && event.getCreatedBy().equals(currentUserId)) {
                 isEventManager = true;
             }
@@ -144,7 +181,12 @@ public class EventRegistrationService {
             throw new AppException(ErrorCode.UNAUTHORIZED);
         }
 
-        eventRegistrationRepository.deleteById(registrationId);
+        //Chỉ request thực sự xóa được bản ghi mới trả chỗ (xóa 2 lần / admin và manager xóa cùng lúc)
+        EventRegistration removed = mongoTemplate.findAndRemove(
+                Query.query(Criteria.where("_id").is(registrationId)), EventRegistration.class);
+        if (removed == null) return;
+        eventCounterService.onRegistrationDeleted(removed.getEventId(), removed.getStatus());
+        dashboardStatsService.onRegistrationChanged(event != null ? event.getCreatedBy() : null, removed.getStatus(), null);
     }
 
     public List<EventRegistrationResponse> getRegistrationsByEvent(String eventId) {
@@ -0,0 +1,106 @@
+package com.volunteerhub.VolunteerHub.service;
+
+import com.volunteerhub.VolunteerHub.collection.Channel;
+import com.volunteerhub.VolunteerHub.collection.Event;
+import com.volunteerhub.VolunteerHub.collection.Post;
+import com.volunteerhub.VolunteerHub.dto.response.EventResponse;
+import com.volunteerhub.VolunteerHub.repository.ChannelRepository;
+import lombok.AccessLevel;
+import lombok.RequiredArgsConstructor;
+import lombok.experimental.FieldDefaults;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.Aggregation;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.stereotype.Component;
+
+import java.util.*;
+import java.util.stream.Collectors;
+
+/**
+ * Enrich cả một trang sự kiện trong một lượt.
+ * Thay vì 4 query / sự kiện, mỗi trang chỉ tốn tối đa 2 query:
+ * 1 lần $in lấy channel và 1 lần $group đếm bài viết.
+ * Số đăng ký đọc từ counter volunteersRegistered trên Event (EventCounterService).
+ */
+@Component
+@RequiredArgsConstructor
+@FieldDefaults(level = AccessLevel.PRIVATE, makeFinal = true)
+@Slf4j
+public class EventResponseEnricher {
+
+    ChannelRepository channelRepository;
+    MongoTemplate mongoTemplate;
+
+    public Page<EventResponse> enrich(Page<Event> page) {
+        return new PageImpl<>(enrich(page.getContent()), page.getPageable(), page.getTotalElements());
+    }
+
+    public EventResponse enrich(Event event) {
+        if (event == null) return null;
+        return enrich(List.of(event)).getFirst();
+    }
+
+    public List<EventResponse> enrich(List<Event> events) {
+        if (events == null || events.isEmpty()) return new ArrayList<>();
+
+        List<String> eventIds = events.stream()
+                .map(Event::getId)
+                .filter(Objects::nonNull)
+                .distinct()
+                .toList();
+
+        Map<String, Long> postCountByEvent = countPostsByEvent(eventIds);
+
+        List<EventResponse> responses = new ArrayList<>(events.size());
+        for (Event event : events) {
+            responses.add(toResponse(event, postCountByEvent.getOrDefault(event.getId(), 0L)));
+        }
+        return responses;
+    }
+
+    // ========================================================================
+    // BATCH LOOKUPS
+    // ========================================================================
+
+    private Map<String, Long> countPostsByEvent(List<String> eventIds) {
+        if (eventIds.isEmpty()) return Map.of();
+        try {
+            List<Channel> channels = channelRepository.findByEventIdIn(eventIds);
+            if (channels.isEmpty()) return Map.of();
+
+            // channelId -> eventId (mỗi event chỉ có 1 channel thảo luận)
+            Map<String, String> eventIdByChannel = channels.stream()
+                    .filter(ch -> ch.getId() != null && ch.getEventId() != null)
+                    .collect(Collectors.toMap(Channel::getId, Channel::getEventId, (a, b) -> a));
+
+            Map<String, Long> postCountByChannel = GroupCounts.of(mongoTemplate, Aggregation.newAggregation(Post.class,
+                    Aggregation.match(Criteria.where("channelId").in(eventIdByChannel.keySet())),
+                    Aggregation.group("channelId").count().as("count")));
+
+            Map<String, Long> result = new HashMap<>();
+            postCountByChannel.forEach((channelId, count) ->
+                    result.merge(eventIdByChannel.get(channelId), count, Long::sum));
+            return result;
+        } catch (Exception e) {
+            log.warn("Could not batch count posts for {} events", eventIds.size(), e);
+            return Map.of();
+        }
+    }
+
+    // ========================================================================
+    // MAPPING (GIỮ NGUYÊN SHAPE CỦA EventResponse)
+    // ========================================================================
+
+    private EventResponse toResponse(Event event, long comments) {
+        return EventResponse.builder()
+                .id(event.getId()).title(event.getTitle()).description(event.getDescription())
+                .date(event.getDate()).location(event.getLocation()).category(event.getCategory())
+                .image(event.getImage()).status(event.getStatus()).createdBy(event.getCreatedBy())
+                .createdAt(event.getCreatedAt()).updatedAt(event.getUpdatedAt())
+                .volunteersNeeded(event.getVolunteersNeeded())
+                .volunteersRegistered(event.getVolunteersRegistered()).likes(0L).comments(comments).build();
+    }
+}
@@ -0,0 +1,141 @@
+package com.volunteerhub.VolunteerHub.service;
+
+import com.volunteerhub.VolunteerHub.collection.Event;
+import com.volunteerhub.VolunteerHub.repository.EventRepository;
+import com.volunteerhub.VolunteerHub.search.InvertedIndex;
+import com.volunteerhub.VolunteerHub.search.RebuildableIndex;
+import lombok.AccessLevel;
+import lombok.RequiredArgsConstructor;
+import lombok.experimental.FieldDefaults;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.util.*;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Tìm kiếm sự kiện theo title / location bằng inverted index trong bộ nhớ (thay cho $regex quét cả collection).
+ * Không phân biệt dấu tiếng Việt, khớp tiền tố từng từ, xếp hạng theo điểm rồi mới nhất trước.
+ * Index được dựng từ Mongo khi khởi động, cập nhật theo EventService và dựng lại định kỳ
+ * (đồng bộ thay đổi từ instance khác). Trước khi dựng xong thì dùng query regex cũ.
+ */
+@Service
+@RequiredArgsConstructor
+@FieldDefaults(level = AccessLevel.PRIVATE, makeFinal = true)
+@Slf4j
+public class EventSearchIndex {
+
+    static final float TITLE_WEIGHT = 3f;
+    static final float LOCATION_WEIGHT = 1f;
+
+    // Dữ liệu đi kèm mỗi document: lọc theo status, bằng điểm thì mới nhất trước (giống sort createdAt DESC cũ)
+    record EventDoc(String status, long createdAt) {}
+
+    static final Comparator<EventDoc> NEWEST_FIRST = Comparator.comparingLong(EventDoc::createdAt).reversed();
+
+    EventRepository eventRepository;
+    MongoTemplate mongoTemplate;
+
+    RebuildableIndex<InvertedIndex<EventDoc>> index = new RebuildableIndex<>(InvertedIndex::new, this::loadAll, this::reload);
+
+    public boolean isReady() {
+        return index.current() != null;
+    }
+
+    /**
+     * Một trang sự kiện khớp keyword, đúng thứ tự xếp hạng.
+     * @param approvedOnly true cho người dùng thường (chỉ sự kiện approved)
+     */
+    public Page<Event> search(String keyword, boolean approvedOnly, Pageable pageable) {
+        InvertedIndex<EventDoc> current = index.current();
+        if (current == null) {
+            return approvedOnly
+                    ? eventRepository.searchApprovedEvents(keyword, pageable)
+                    : eventRepository.searchAllEvents(keyword, pageable);
+        }
+
+        InvertedIndex.Hits hits = current.search(keyword,
+                approvedOnly ? doc -> "approved".equals(doc.status()) : null,
+                NEWEST_FIRST, (int) pageable.getOffset(), pageable.getPageSize());
+        if (hits.ids().isEmpty()) return new PageImpl<>(List.of(), pageable, hits.total());
+
+        // 1 query $in cho cả trang, giữ nguyên thứ tự xếp hạng
+        Map<String, Event> byId = eventRepository.findAllById(hits.ids()).stream()
+                .collect(Collectors.toMap(Event::getId, Function.identity()));
+        List<Event> events = hits.ids().stream().map(byId::get).filter(Objects::nonNull).toList();
+        return new PageImpl<>(events, pageable, hits.total());
+    }
+
+    // ========================================================================
+    // CẬP NHẬT THEO THAO TÁC GHI (EventService)
+    // ========================================================================
+
+    public void index(Event event) {
+        if (event == null || event.getId() == null) return;
+        InvertedIndex<EventDoc> current = index.touch(event.getId());
+        if (current != null) put(current, event);
+    }
+
+    public void remove(String eventId) {
+        if (eventId == null) return;
+        InvertedIndex<EventDoc> current = index.touch(eventId);
+        if (current != null) current.remove(eventId);
+    }
+
+    private static void put(InvertedIndex<EventDoc> target, Event event) {
+        long createdAt = event.getCreatedAt() != null ? event.getCreatedAt().getTime() : 0L;
+        target.put(event.getId(), new EventDoc(event.getStatus(), createdAt),
+                new InvertedIndex.Field(event.getTitle(), TITLE_WEIGHT),
+                new InvertedIndex.Field(event.getLocation(), LOCATION_WEIGHT));
+    }
+
+    // ========================================================================
+    // DỰNG LẠI TỪ MONGO
+    // ========================================================================
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void buildOnStartup() {
+        try {
+            rebuild();
+        } catch (Exception e) {
+            log.error("Could not build event search index on startup", e);
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${app.search.rebuild-ms:900000}", initialDelayString = "${app.search.rebuild-ms:900000}")
+    public void scheduledRebuild() {
+        try {
+            rebuild();
+        } catch (Exception e) {
+            log.warn("Could not rebuild event search index", e);
+        }
+    }
+
+    public void rebuild() {
+        long start = System.currentTimeMillis();
+        InvertedIndex<EventDoc> built = index.rebuild();
+        log.info("Event search index built: {} events in {} ms", built.size(), System.currentTimeMillis() - start);
+    }
+
+    private void loadAll(InvertedIndex<EventDoc> target) {
+        Query query = new Query();
+        query.fields().include("title", "location", "status", "createdAt");
+        try (Stream<Event> events = mongoTemplate.stream(query, Event.class)) {
+            events.forEach(event -> put(target, event));
+        }
+    }
+
+    private void reload(InvertedIndex<EventDoc> target, String id) {
+        eventRepository.findById(id).ifPresentOrElse(event -> put(target, event), () -> target.remove(id));
+    }
+}
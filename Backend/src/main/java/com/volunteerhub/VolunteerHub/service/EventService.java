@@ -1,12 +1,15 @@
 package com.volunteerhub.VolunteerHub.service;
 
 import com.volunteerhub.VolunteerHub.collection.Channel;
+import com.volunteerhub.VolunteerHub.collection.DashboardStats;
 import com.volunteerhub.VolunteerHub.collection.Event;
 import com.volunteerhub.VolunteerHub.collection.Post;
 import com.volunteerhub.VolunteerHub.dto.request.Event.EventApprovalRequest;
 import com.volunteerhub.VolunteerHub.dto.request.Event.EventCreationRequest;
 import com.volunteerhub.VolunteerHub.dto.request.Event.EventUpdateRequest;
 import com.volunteerhub.VolunteerHub.dto.response.AdminDashboardResponse;
+import com.volunteerhub.VolunteerHub.dto.response.CacheStatsResponse;
+import com.volunteerhub.VolunteerHub.dto.response.CursorPage;
 import com.volunteerhub.VolunteerHub.dto.response.DashboardStatsResponse;
 import com.volunteerhub.VolunteerHub.dto.response.EventResponse;
 import com.volunteerhub.VolunteerHub.exception.AppException;
@@ -17,10 +20,16 @@ import lombok.AccessLevel;
 import lombok.RequiredArgsConstructor;
 import lombok.experimental.FieldDefaults;
 import lombok.extern.slf4j.Slf4j;
+import org.bson.Document;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
 import org.springframework.stereotype.Service;
 import org.springframework.web.multipart.MultipartFile;
 
@@ -34,55 +43,39 @@ import java.util.stream.Collectors;
 public class EventService {
 
     EventRepository eventRepository;
-    RegistrationRepository registrationRepository;
-    UserRepository userRepository;
     ChannelRepository channelRepository;
     PostRepository postRepository;
 
     EventMapper eventMapper;
     NotificationService notificationService;
-    UserService userService;
+    CurrentUserService currentUserService;
     FileUploadService fileUploadService;
+    EventResponseEnricher eventResponseEnricher;
+    DashboardStatsService dashboardStatsService;
+    EventSearchIndex eventSearchIndex;
+    PostSearchIndex postSearchIndex;
+    TypeaheadIndex typeaheadIndex;
+    MongoTemplate mongoTemplate;
+    EventReadCache eventReadCache;
 
     // --- HELPER METHODS ---
     private int safeInt(Integer val) { return val == null ? 0 : val; }
     private long safeLong(Long val) { return val == null ? 0L : val; }
 
     // ========================================================================
-    // 1. DASHBOARD STATISTICS (TỐI ƯU HÓA: DÙNG COUNT TRONG DB)
+    // 1. DASHBOARD STATISTICS (ĐỌC 1 DOCUMENT TỪ READ MODEL dashboard_stats)
     // ========================================================================
 
     public AdminDashboardResponse getAdminDashboardStats() {
         try {
-            // 1. User Stats (Dùng count database cực nhanh)
-            long totalUsers = userRepository.count();
-            long activeUsers = userRepository.countByIsActive(true);
-            long totalVolunteers = userRepository.countByRolesContains("VOLUNTEER");
-
-            // 2. Event Stats
-            long totalEvents = eventRepository.count();
-            long pendingEvents = eventRepository.countByStatus("pending");
-
-            Date now = new Date();
-            long upcomingEvents = eventRepository.countUpcomingEvents(now);
-
-            // 3. Post Stats
-            long totalPosts = postRepository.count();
-
-            // Tính bài viết trong ngày hôm nay
-            Calendar cal = Calendar.getInstance();
-            cal.set(Calendar.HOUR_OF_DAY, 0); cal.set(Calendar.MINUTE, 0); cal.set(Calendar.SECOND, 0);
-            Date startOfDay = cal.getTime();
-
-            cal.set(Calendar.HOUR_OF_DAY, 23); cal.set(Calendar.MINUTE, 59); cal.set(Calendar.SECOND, 59);
-            Date endOfDay = cal.getTime();
-
-            long newPostsToday = postRepository.countPostsBetween(startOfDay, endOfDay);
-
+            DashboardStats stats = dashboardStatsService.getGlobal();
             return AdminDashboardResponse.builder()
-                    .totalUsers(totalUsers).totalVolunteers(totalVolunteers).activeUsers(activeUsers)
-                    .totalEvents(totalEvents).pendingEvents(pendingEvents).upcomingEvents(upcomingEvents)
-                    .totalPosts(totalPosts).newPostsToday(newPostsToday)
+                    .totalUsers(stats.getTotalUsers()).totalVolunteers(stats.getTotalVolunteers()).activeUsers(stats.getActiveUsers())
+                    .totalEvents(stats.getTotalEvents())
+                    .pendingEvents(DashboardStatsService.count(stats.getEventsByStatus(), "pending"))
+                    .upcomingEvents(stats.getUpcomingEvents())
+                    .totalPosts(stats.getTotalPosts())
+                    .newPostsToday(DashboardStatsService.count(stats.getPostsByDay(), DashboardStatsService.dayKey(new Date())))
                     .build();
         } catch (Exception e) {
             log.error("Error in Admin Stats: ", e);
@@ -92,10 +85,14 @@ public class EventService {
 
     public DashboardStatsResponse getDashboardStats() {
         try {
-            // Lấy tất cả sự kiện Approved để tính toán thống kê chung cho User
-            List<Event> approvedEvents = eventRepository.findByStatus("approved");
-            // Dùng chung hàm logic "Hết ngày mới kết thúc"
-            return calculateStatsFromList(approvedEvents);
+            // Thống kê chung cho User chỉ tính các sự kiện Approved
+            DashboardStats stats = dashboardStatsService.getGlobal();
+            return DashboardStatsResponse.builder()
+                    .totalEvents(DashboardStatsService.count(stats.getEventsByStatus(), "approved"))
+                    .upcomingEvents(stats.getUpcomingEvents())
+                    .happeningEvents(stats.getHappeningEvents())
+                    .completedEvents(stats.getCompletedEvents())
+                    .build();
         } catch (Exception e) {
             log.error("Error in Dashboard Stats: ", e);
             return new DashboardStatsResponse();
@@ -103,60 +100,20 @@ public class EventService {
     }
 
     public DashboardStatsResponse getManagerDashboardStats() {
-        // Manager cần tính toán trên danh sách sự kiện của chính mình
-        // Vì số lượng sự kiện của 1 manager thường không quá lớn (<100), ta có thể fetch list
-        // Hoặc tối ưu hơn là viết thêm countByCreatedByAndStatus trong Repo (tạm thời dùng list)
         try {
-            var currentUser = userService.getMyInfo();
-            List<Event> events = eventRepository.findByCreatedBy(currentUser.getId());
-            return calculateStatsFromList(events);
+            DashboardStats stats = dashboardStatsService.getManager(currentUserService.getUserId());
+            return DashboardStatsResponse.builder()
+                    .totalEvents(stats.getTotalEvents())
+                    .pendingEvents(DashboardStatsService.count(stats.getEventsByStatus(), "pending"))
+                    .upcomingEvents(stats.getUpcomingEvents())
+                    .happeningEvents(stats.getHappeningEvents())
+                    .completedEvents(stats.getCompletedEvents())
+                    .build();
         } catch (Exception e) {
             return new DashboardStatsResponse();
         }
     }
 
-    private DashboardStatsResponse calculateStatsFromList(List<Event> events) {
-        if (events == null) return new DashboardStatsResponse();
-        long total = events.size();
-        long pending = 0, upcoming = 0, happening = 0, completed = 0;
-        Date now = new Date();
-
-        for (Event ev : events) {
-            if (ev.getStatus() == null) continue;
-            if ("pending".equals(ev.getStatus())) {
-                pending++;
-            } else if ("approved".equals(ev.getStatus())) {
-                Date start = ev.getDate(); // Giả sử là 08:00 sáng
-                if (start == null) continue;
-
-                // 1. Tạo mốc kết thúc ngày: 23:59:59
-                Calendar cal = Calendar.getInstance();
-                cal.setTime(start);
-                cal.set(Calendar.HOUR_OF_DAY, 23);
-                cal.set(Calendar.MINUTE, 59);
-                cal.set(Calendar.SECOND, 59);
-                cal.set(Calendar.MILLISECOND, 999);
-                Date endOfDay = cal.getTime();
-
-                // 2. Phân loại logic:
-                if (now.after(endOfDay)) {
-                    // Thời gian hiện tại đã qua 23:59:59 của ngày diễn ra
-                    completed++;
-                } else if (now.after(start) || now.equals(start)) {
-                    // Thời gian hiện tại đã đến giờ bắt đầu VÀ chưa qua hết ngày
-                    // (Vì điều kiện now.after(endOfDay) đã loại bỏ trường hợp kết thúc ở trên)
-                    happening++;
-                } else {
-                    // Thời gian hiện tại vẫn còn trước giờ start
-                    upcoming++;
-                }
-            }
-        }
-        return DashboardStatsResponse.builder()
-                .totalEvents(total).pendingEvents(pending).upcomingEvents(upcoming)
-                .happeningEvents(happening).completedEvents(completed).build();
-    }
-
     // ========================================================================
     // 2. QUERY EVENTS (TỐI ƯU HÓA: PAGINATION & LIMIT)
     // ========================================================================
@@ -171,59 +128,64 @@ public class EventService {
         if (isAdmin) {
             // Admin: Tìm trong TẤT CẢ sự kiện (kể cả pending, rejected)
             if (searchKey.isEmpty()) {
-                return eventRepository.findAll(pageable).map(this::toEnrichedResponse);
+                return eventResponseEnricher.enrich(eventRepository.findAll(pageable));
             } else {
-                return eventRepository.searchAllEvents(searchKey, pageable).map(this::toEnrichedResponse);
+                return eventResponseEnricher.enrich(eventSearchIndex.search(searchKey, false, pageable));
             }
         } else {
-            // User thường: Chỉ tìm trong APPROVED
-            if (searchKey.isEmpty()) {
-                return eventRepository.findByStatus("approved", pageable).map(this::toEnrichedResponse);
-            } else {
-                return eventRepository.searchApprovedEvents(searchKey, pageable).map(this::toEnrichedResponse);
-            }
+            // User thường: Chỉ tìm trong APPROVED (giống nhau cho mọi người -> cache)
+            return eventReadCache.getPublicPage(searchKey, page, size, () -> searchKey.isEmpty()
+                    ? eventResponseEnricher.enrich(eventRepository.findByStatus("approved", pageable))
+                    : eventResponseEnricher.enrich(eventSearchIndex.search(searchKey, true, pageable)));
         }
     }
 
+    // Danh sách theo cursor (createdAt, _id) cho infinite scroll: không skip, không count
+    public CursorPage<EventResponse> getEventsCursor(String cursor, int size, boolean isAdmin) {
+        int pageSize = KeysetCursor.clampSize(size);
+        Query query = isAdmin ? new Query() : Query.query(Criteria.where("status").is("approved"));
+        KeysetCursor.apply(query, "createdAt", Sort.Direction.DESC, KeysetCursor.decode(cursor), pageSize);
+        return KeysetCursor.page(mongoTemplate.find(query, Event.class), pageSize,
+                Event::getCreatedAt, Event::getId, eventResponseEnricher::enrich);
+    }
+
     // Giữ lại hàm cũ cho Admin nhưng dùng List (cẩn thận nếu dữ liệu lớn)
     public List<EventResponse> getEventsForAdmin() {
-        return eventRepository.findAll(Sort.by(Sort.Direction.DESC, "createdAt"))
-                .stream().map(this::toEnrichedResponse).collect(Collectors.toList());
+        return eventResponseEnricher.enrich(eventRepository.findAll(Sort.by(Sort.Direction.DESC, "createdAt")));
     }
 
     public List<EventResponse> getMyEvents() {
         try {
-            var currentUser = userService.getMyInfo();
             // Lấy list của manager, sắp xếp mới nhất trước
-            return eventRepository.findByCreatedBy(currentUser.getId()).stream()
+            List<Event> events = eventRepository.findByCreatedBy(currentUserService.getUserId()).stream()
                     .sorted(Comparator.comparing(Event::getCreatedAt, Comparator.nullsLast(Comparator.reverseOrder())))
-                    .map(this::toEnrichedResponse)
                     .collect(Collectors.toList());
+            return eventResponseEnricher.enrich(events);
         } catch (Exception e) { return new ArrayList<>(); }
     }
 
     public List<EventResponse> getTopNewEvents() {
         // Sử dụng hàm tối ưu trong Repo: chỉ lấy 5 cái
-        return eventRepository.findTop5ByStatusOrderByCreatedAtDesc("approved").stream()
-                .map(this::toEnrichedResponse)
-                .collect(Collectors.toList());
+        return eventReadCache.getTopNew(() ->
+                eventResponseEnricher.enrich(eventRepository.findTop5ByStatusOrderByCreatedAtDesc("approved")));
     }
 
     public List<EventResponse> getPendingEvents() {
         // Dùng Pagination để giới hạn lấy 20 cái đầu tiên, tránh load cả nghìn cái pending
         Pageable limit = PageRequest.of(0, 20, Sort.by(Sort.Direction.DESC, "createdAt"));
-        return eventRepository.findByStatus("pending", limit)
-                .stream()
-                .map(this::toEnrichedResponse)
-                .collect(Collectors.toList());
+        return eventResponseEnricher.enrich(eventRepository.findByStatus("pending", limit).getContent());
     }
 
     public List<EventResponse> getTopAttractiveEvents() {
+        return eventReadCache.getTopAttractive(this::loadTopAttractiveEvents);
+    }
+
+    private List<EventResponse> loadTopAttractiveEvents() {
         // Lấy top 50 để lọc, đảm bảo hiệu năng
         Pageable limit = PageRequest.of(0, 50, Sort.by(Sort.Direction.DESC, "createdAt"));
 
-        return eventRepository.findByStatus("approved", limit).stream()
-                .map(this::toEnrichedResponse)
+        // Enrich cả 50 sự kiện trong 1 lượt rồi mới chấm điểm
+        return eventResponseEnricher.enrich(eventRepository.findByStatus("approved", limit).getContent()).stream()
                 .sorted((a, b) -> {
                     // Công thức: (TNV * 3) + (Comments * 1)
                     long scoreA = (safeInt(a.getVolunteersRegistered()) * 3L) + (safeLong(a.getComments()) * 1L);
@@ -235,9 +197,8 @@ public class EventService {
     }
 
     public EventResponse getEventById(String id) {
-        Event event = eventRepository.findById(id)
-                .orElseThrow(() -> new AppException(ErrorCode.USER_NOT_EXISTED));
-        return toEnrichedResponse(event);
+        return eventReadCache.getEvent(id, () -> toEnrichedResponse(eventRepository.findById(id)
+                .orElseThrow(() -> new AppException(ErrorCode.USER_NOT_EXISTED))));
     }
 
     // ========================================================================
@@ -250,38 +211,56 @@ public class EventService {
         if (event.getImage() == null || event.getImage().isEmpty()) {
             event.setImage("https://images.unsplash.com/photo-1559027615-cd4628902d4a");
         }
-        try { event.setCreatedBy(userService.getMyInfo().getId()); } catch (Exception ignored) {}
+        try { event.setCreatedBy(currentUserService.getUserId()); } catch (Exception ignored) {}
 
         eventRepository.save(event);
-        return toEnrichedResponse(event);
+        dashboardStatsService.onEventCreated(event);
+        eventSearchIndex.index(event);
+        return cached(toEnrichedResponse(event));
     }
 
     public EventResponse updateEvent(String id, EventUpdateRequest request) {
         Event event = eventRepository.findById(id).orElseThrow(() -> new AppException(ErrorCode.USER_NOT_EXISTED));
+        String oldStatus = event.getStatus();
+        Date oldDate = event.getDate();
         eventMapper.updateEvent(event, request);
         event.setStatus("pending"); // Reset về pending khi sửa
-        eventRepository.save(event);
-        return toEnrichedResponse(event);
+        event = saveDetails(event, oldStatus, oldDate);
+        dashboardStatsService.onEventChanged(event.getCreatedBy(), oldStatus, oldDate, event.getStatus(), event.getDate());
+        eventSearchIndex.index(event);
+        return cached(toEnrichedResponse(event));
     }
 
-    public void deleteEvent(String id) { eventRepository.deleteById(id); }
+    public void deleteEvent(String id) {
+        //Chỉ request thực sự xóa được document mới trừ thống kê (xóa 2 lần / 2 admin xóa cùng lúc)
+        Event removed = mongoTemplate.findAndRemove(Query.query(Criteria.where("_id").is(id)), Event.class);
+        if (removed == null) return;
+        dashboardStatsService.onEventDeleted(removed);
+        eventSearchIndex.remove(id);
+        eventReadCache.evictEvent(id);
+    }
 
     public EventResponse approveEvent(String id, EventApprovalRequest request) {
         Event event = eventRepository.findById(id).orElseThrow(() -> new AppException(ErrorCode.USER_NOT_EXISTED));
+        String oldStatus = event.getStatus();
         event.setStatus(request.getStatus());
-        try { event.setApprovedBy(userService.getMyInfo().getId()); } catch (Exception e) { event.setApprovedBy("admin"); }
+        try { event.setApprovedBy(currentUserService.getUserId()); } catch (Exception e) { event.setApprovedBy("admin"); }
+        if ("approved".equals(request.getStatus())) event.setApprovedAt(new Date());
+
+        //Ghi trước, chỉ request đổi được trạng thái mới cộng thống kê và tạo kênh thảo luận
+        event = saveDetails(event, oldStatus, event.getDate());
+        dashboardStatsService.onEventChanged(event.getCreatedBy(), oldStatus, event.getDate(), event.getStatus(), event.getDate());
 
         if ("approved".equals(request.getStatus())) {
-            event.setApprovedAt(new Date());
             try {
                 if (!channelRepository.existsByEventId(event.getId())) {
-                    Channel ch = new Channel(); ch.setEventId(event.getId()); ch.setName("Thảo luận: " + event.getTitle()); ch.setType("EVENT_DISCUSSION"); ch.setCreatedAt(new Date()); channelRepository.save(ch);
-                    Post p = new Post(); p.setChannelId(ch.getId()); p.setContent("Chào mừng!"); p.setAuthorName("Hệ thống"); p.setCreatedAt(new Date()); postRepository.save(p);
+                    Channel ch = new Channel(); ch.setEventId(event.getId()); ch.setName("Thảo luận: " + event.getTitle()); ch.setType("EVENT_DISCUSSION"); ch.setCreatedAt(new Date()); channelRepository.save(ch); typeaheadIndex.indexChannel(ch);
+                    Post p = new Post(); p.setChannelId(ch.getId()); p.setContent("Chào mừng!"); p.setAuthorName("Hệ thống"); p.setCreatedAt(new Date()); postRepository.save(p); dashboardStatsService.onPostCreated(p); postSearchIndex.index(p);
                 }
             } catch (Exception ignored) {}
         }
-        eventRepository.save(event);
-        return toEnrichedResponse(event);
+        eventSearchIndex.index(event);
+        return cached(toEnrichedResponse(event));
     }
 
     public EventResponse rejectEvent(String id, String reason) {
@@ -291,12 +270,12 @@ public class EventService {
 
     public String uploadEventImage(String eventId, MultipartFile file) {
         Event event = eventRepository.findById(eventId).orElseThrow(() -> new AppException(ErrorCode.USER_NOT_EXISTED));
-        try {
-            String url = fileUploadService.uploadImage(file);
-            event.setImage(url);
-            eventRepository.save(event);
-            return url;
-        } catch (Exception e) { throw new AppException(ErrorCode.UNCATEGORIZED_EXCEPTION); }
+        // URL trên server ngay lập tức, CloudinaryUploadWorker đổi sang URL Cloudinary khi upload nền xong
+        String url = fileUploadService.uploadImage(file);
+        event.setImage(url);
+        saveDetails(event);
+        eventReadCache.evictEvent(eventId);
+        return url;
     }
 
     // ========================================================================
@@ -304,33 +283,42 @@ public class EventService {
     // ========================================================================
 
     private EventResponse toEnrichedResponse(Event event) {
-        if (event == null) return null;
-        Long likes = 0L; Long comments = 0L;
-        try {
-            // Tối ưu: Dùng existsByEventId trước khi find để nhanh hơn nếu ko cần detail
-            if (channelRepository != null && event.getId() != null) {
-                var ch = channelRepository.findByEventId(event.getId()).orElse(null);
-                if (ch != null) {
-                    // Tối ưu: Nếu PostRepository có countByChannelId thì dùng cái đó sẽ nhanh hơn
-                    long count = postRepository.countByChannelId(ch.getId());
-                    comments = count;
-                }
-            }
-        } catch (Exception ignored) {}
+        return eventResponseEnricher.enrich(event);
+    }
 
-        long realReg = 0;
-        try {
-            if (registrationRepository != null && event.getId() != null)
-                realReg = registrationRepository.countByEventIdAndStatus(event.getId(), "approved") +
-                        registrationRepository.countByEventIdAndStatus(event.getId(), "completed");
-        } catch (Exception ignored) {}
-
-        return EventResponse.builder()
-                .id(event.getId()).title(event.getTitle()).description(event.getDescription())
-                .date(event.getDate()).location(event.getLocation()).category(event.getCategory())
-                .image(event.getImage()).status(event.getStatus()).createdBy(event.getCreatedBy())
-                .createdAt(event.getCreatedAt()).updatedAt(event.getUpdatedAt())
-                .volunteersNeeded(safeInt(event.getVolunteersNeeded()))
-                .volunteersRegistered((int) realReg).likes(likes).comments(comments).build();
+    // Ghi xuyên: bản vừa lưu vào cache chi tiết, bỏ cache danh sách
+    private EventResponse cached(EventResponse response) {
+        eventReadCache.onEventChanged(response);
+        return response;
+    }
+
+    public List<CacheStatsResponse> getCacheStats() {
+        return eventReadCache.stats();
+    }
+
+    // Ghi lại thông tin sự kiện bằng $set nhưng bỏ qua các counter đăng ký,
+    // tránh ghi đè các $inc đồng thời của EventCounterService bằng giá trị cũ đã đọc lên
+    private void saveDetails(Event event) {
+        mongoTemplate.updateFirst(Query.query(Criteria.where("_id").is(event.getId())), detailsUpdate(event), Event.class);
+    }
+
+    // Như trên nhưng chỉ ghi nếu status/date vẫn là giá trị đã đọc (delta thống kê tính từ đó),
+    // thua cuộc đua với request khác -> EVENT_MODIFIED, không cộng thống kê 2 lần
+    private Event saveDetails(Event event, String oldStatus, Date oldDate) {
+        Event updated = mongoTemplate.findAndModify(
+                Query.query(Criteria.where("_id").is(event.getId()).and("status").is(oldStatus).and("date").is(oldDate)),
+                detailsUpdate(event), FindAndModifyOptions.options().returnNew(true), Event.class);
+        if (updated == null) throw new AppException(ErrorCode.EVENT_MODIFIED);
+        return updated;
+    }
+
+    private Update detailsUpdate(Event event) {
+        event.setUpdatedAt(new Date());
+        Document doc = new Document();
+        mongoTemplate.getConverter().write(event, doc);
+        doc.remove("_id");
+        doc.remove("_class");
+        EventCounterService.COUNTER_FIELDS.forEach(doc::remove);
+        return Update.fromDocument(new Document("$set", doc));
     }
 }
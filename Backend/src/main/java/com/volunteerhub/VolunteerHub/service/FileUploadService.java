@@ -1,28 +1,271 @@
 package com.volunteerhub.VolunteerHub.service;
 
-import com.cloudinary.Cloudinary;
-import com.cloudinary.utils.ObjectUtils;
+import com.volunteerhub.VolunteerHub.collection.StoredImage;
+import com.volunteerhub.VolunteerHub.dto.response.ImageUploadResponse;
+import com.volunteerhub.VolunteerHub.exception.AppException;
+import com.volunteerhub.VolunteerHub.exception.ErrorCode;
+import lombok.AccessLevel;
 import lombok.RequiredArgsConstructor;
+import lombok.experimental.FieldDefaults;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
 import org.springframework.stereotype.Service;
 import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
 
 import java.io.IOException;
+import java.io.InputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.file.*;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Date;
+import java.util.HexFormat;
+import java.util.Locale;
 import java.util.Map;
+import java.util.Optional;
+import java.util.regex.Pattern;
 
+/**
+ * Upload ảnh: stream phần multipart thẳng xuống file tạm qua FileChannel (không đọc cả file lên heap),
+ * vừa ghi vừa tính SHA-256, rồi đổi tên thành uploads/images/{sha256}{ext} ({ext} của lần upload đầu tiên).
+ * Ảnh cần lên Cloudinary được trả về ngay với URL trên server (status pending);
+ * CloudinaryUploadWorker đẩy lên nền, request thread không chờ Cloudinary.
+ * Mỗi nội dung chỉ lưu 1 bản: upload trùng dùng lại file và bản Cloudinary đã có; ImageGarbageCollector dọn ảnh hết được dùng.
+ */
 @Service
 @RequiredArgsConstructor
+@FieldDefaults(level = AccessLevel.PRIVATE, makeFinal = true)
+@Slf4j
 public class FileUploadService {
-    private final Cloudinary cloudinary;
 
-    public String uploadImage(MultipartFile file) throws IOException {
-        if (file.isEmpty()) throw new RuntimeException("File is empty");
+    public static final Path IMAGE_DIR = Paths.get("uploads", "images");
+    static final Path TMP_DIR = Paths.get("uploads", "tmp");
+    static final String IMAGE_PATH = "/uploads/images/";
+    static final long CHUNK_SIZE = 1 << 20;
+    static final Pattern SHA256_HEX = Pattern.compile("[0-9a-fA-F]{64}");
 
-        // Upload lên Cloudinary
-        Map uploadResult = cloudinary.uploader().upload(file.getBytes(), ObjectUtils.emptyMap());
+    // File được phục vụ công khai dưới /uploads -> chỉ nhận định dạng ảnh (chặn .html, .svg có script)
+    static final Map<String, String> CONTENT_TYPES = Map.of(
+            ".jpg", "image/jpeg",
+            ".jpeg", "image/jpeg",
+            ".png", "image/png",
+            ".gif", "image/gif",
+            ".webp", "image/webp"
+    );
 
-        String cloudUrl = uploadResult.get("secure_url").toString();
+    MongoTemplate mongoTemplate;
+    CloudinaryUploadWorker cloudinaryUploadWorker;
 
-        System.out.println(">>> Cloudinary URL: " + cloudUrl);
-        return cloudUrl;
+    // Giữ chữ ký cũ: URL ảnh (Cloudinary nếu đã có, không thì URL tạm trên server)
+    public String uploadImage(MultipartFile file) {
+        return storeImage(file, true).getUrl();
     }
-}
\ No newline at end of file
+
+    /**
+     * Client tính SHA-256 trước khi gửi: nội dung đã có thì trả URL luôn, không đọc/ghi file, không upload lại.
+     * Đồng thời làm mới updatedAt để GC không dọn ảnh vừa được dùng lại.
+     */
+    public Optional<ImageUploadResponse> findExisting(String sha256, boolean remote) {
+        if (sha256 == null || !SHA256_HEX.matcher(sha256).matches()) return Optional.empty();
+        StoredImage image = mongoTemplate.findAndModify(
+                Query.query(Criteria.where("_id").is(sha256.toLowerCase(Locale.ROOT))),
+                new Update().set("updatedAt", new Date()),
+                FindAndModifyOptions.options().returnNew(true), StoredImage.class);
+        if (image == null) return Optional.empty();
+        return Optional.of(respond(image, remote));
+    }
+
+    public ImageUploadResponse getExisting(String sha256) {
+        return findExisting(sha256, false).orElseThrow(() -> new AppException(ErrorCode.IMAGE_NOT_EXISTED));
+    }
+
+    // Có sha256 đã biết -> trả luôn; chỉ gửi sha256 mà chưa có ảnh -> IMAGE_NOT_EXISTED để client gửi file
+    public ImageUploadResponse storeImage(MultipartFile file, String sha256, boolean remote) {
+        return findExisting(sha256, remote).orElseGet(() -> {
+            if (file == null && sha256 != null) throw new AppException(ErrorCode.IMAGE_NOT_EXISTED);
+            return storeImage(file, remote);
+        });
+    }
+
+    /**
+     * @param remote true để đẩy thêm lên Cloudinary ở nền
+     */
+    public ImageUploadResponse storeImage(MultipartFile file, boolean remote) {
+        if (file == null || file.isEmpty()) throw new AppException(ErrorCode.FILE_EMPTY);
+        String extension = extension(file);
+
+        String hash;
+        long size;
+        StoredImage image;
+        Path temp = null;
+        try {
+            Files.createDirectories(IMAGE_DIR);
+            Files.createDirectories(TMP_DIR);
+            temp = Files.createTempFile(TMP_DIR, "upload-", ".part");
+
+            MessageDigest sha256 = MessageDigest.getInstance("SHA-256");
+            try (InputStream in = new DigestInputStream(file.getInputStream(), sha256);
+                 ReadableByteChannel source = Channels.newChannel(in);
+                 FileChannel target = FileChannel.open(temp, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+                long position = 0;
+                long transferred;
+                while ((transferred = target.transferFrom(source, position, CHUNK_SIZE)) > 0) {
+                    position += transferred;
+                }
+                size = position;
+            }
+            hash = HexFormat.of().formatHex(sha256.digest());
+
+            // Tạo / làm mới bản ghi trước rồi mới đặt file: ImageGarbageCollector chuyển file đi rồi mới kiểm tra
+            // bản ghi, nên file luôn còn sau khi upload xong (xem ImageGarbageCollector.delete)
+            image = record(hash, extension, size, remote);
+
+            // Cùng nội dung -> cùng tên file, theo đuôi của bản ghi (upload lại .jpeg của file đã lưu là .jpg
+            // không sinh file thứ 2 không ai trỏ tới): đã có thì bỏ bản tạm
+            Path stored = localPath(image);
+            if (Files.exists(stored)) {
+                Files.delete(temp);
+            } else {
+                moveIntoPlace(temp, stored);
+            }
+            temp = null;
+        } catch (IOException | NoSuchAlgorithmException e) {
+            log.error("Could not store uploaded file {}", file.getOriginalFilename(), e);
+            throw new AppException(ErrorCode.UPLOAD_FAILED);
+        } finally {
+            deleteQuietly(temp);
+        }
+
+        return respond(image, remote);
+    }
+
+    public static Path localPath(StoredImage image) {
+        return IMAGE_DIR.resolve(image.getId() + image.getExtension());
+    }
+
+    /**
+     * File ảnh trong uploads/images theo tên trên URL (cả ảnh cũ đặt tên UUID). Tên lạ / không tồn tại -> IMAGE_NOT_EXISTED.
+     */
+    public static Path resolveStored(String fileName) {
+        checkImageName(fileName);
+        Path root = IMAGE_DIR.toAbsolutePath().normalize();
+        Path path = root.resolve(fileName).normalize();
+        if (!root.equals(path.getParent()) || !Files.isRegularFile(path)) throw new AppException(ErrorCode.IMAGE_NOT_EXISTED);
+        return path;
+    }
+
+    // Chỉ kiểm tra tên (không đụng disk): đuôi ảnh, không có ký tự đường dẫn
+    public static void checkImageName(String fileName) {
+        if (fileName == null || fileName.contains("/") || fileName.contains("\\") || fileName.startsWith(".")
+                || !CONTENT_TYPES.containsKey(extensionOf(fileName))) {
+            throw new AppException(ErrorCode.IMAGE_NOT_EXISTED);
+        }
+    }
+
+    public static String contentType(Path path) {
+        return CONTENT_TYPES.getOrDefault(extensionOf(path.getFileName().toString()), "application/octet-stream");
+    }
+
+    // ========================================================================
+    // HELPER
+    // ========================================================================
+
+    // Đã có bản Cloudinary thì luôn dùng nó; cần lên Cloudinary mà chưa có thì đẩy nền
+    private ImageUploadResponse respond(StoredImage image, boolean remote) {
+        if (StoredImage.STATUS_UPLOADED.equals(image.getStatus()) && image.getRemoteUrl() != null) {
+            return toResponse(image, image.getRemoteUrl());
+        }
+        if (remote) {
+            if (StoredImage.STATUS_LOCAL.equals(image.getStatus())) promoteToPending(image);
+            cloudinaryUploadWorker.submit(image.getId());
+        }
+        return toResponse(image, image.getLocalUrl());
+    }
+
+    private StoredImage record(String hash, String extension, long size, boolean remote) {
+        Date now = new Date();
+        Query byId = Query.query(Criteria.where("_id").is(hash));
+        return mongoTemplate.findAndModify(byId, new Update()
+                        .setOnInsert("extension", extension)
+                        .setOnInsert("contentType", CONTENT_TYPES.get(extension))
+                        .setOnInsert("size", size)
+                        .setOnInsert("localUrl", localUrl(hash + extension))
+                        .setOnInsert("status", remote ? StoredImage.STATUS_PENDING : StoredImage.STATUS_LOCAL)
+                        .setOnInsert("attempts", 0)
+                        .setOnInsert("createdAt", now)
+                        .set("updatedAt", now),
+                FindAndModifyOptions.options().upsert(true).returnNew(true), StoredImage.class);
+    }
+
+    // Ảnh trước đây chỉ lưu local nay cần lên Cloudinary
+    private void promoteToPending(StoredImage image) {
+        mongoTemplate.updateFirst(Query.query(Criteria.where("_id").is(image.getId()).and("status").is(StoredImage.STATUS_LOCAL)),
+                new Update().set("status", StoredImage.STATUS_PENDING), StoredImage.class);
+        image.setStatus(StoredImage.STATUS_PENDING);
+    }
+
+    private static String extensionOf(String fileName) {
+        int dot = fileName.lastIndexOf('.');
+        return dot < 0 ? "" : fileName.substring(dot).toLowerCase(Locale.ROOT);
+    }
+
+    private static String extension(MultipartFile file) {
+        String original = file.getOriginalFilename();
+        if (original != null) {
+            String extension = extensionOf(original);
+            if (CONTENT_TYPES.containsKey(extension)) return extension;
+        }
+        String contentType = file.getContentType();
+        if (contentType != null) {
+            for (Map.Entry<String, String> entry : CONTENT_TYPES.entrySet()) {
+                if (entry.getValue().equalsIgnoreCase(contentType) && !".jpeg".equals(entry.getKey())) return entry.getKey();
+            }
+        }
+        throw new AppException(ErrorCode.FILE_TYPE_NOT_SUPPORTED);
+    }
+
+    // URL tuyệt đối (gồm context-path) vì frontend dùng thẳng làm src của <img>
+    private static String localUrl(String fileName) {
+        try {
+            return ServletUriComponentsBuilder.fromCurrentContextPath().path(IMAGE_PATH).path(fileName).toUriString();
+        } catch (IllegalStateException noRequest) {
+            return IMAGE_PATH + fileName;
+        }
+    }
+
+    private static void moveIntoPlace(Path temp, Path stored) throws IOException {
+        try {
+            Files.move(temp, stored, StandardCopyOption.ATOMIC_MOVE);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(temp, stored, StandardCopyOption.REPLACE_EXISTING);
+        } catch (FileAlreadyExistsException e) {
+            // Upload đồng thời cùng nội dung đã ghi trước
+            Files.deleteIfExists(temp);
+        }
+    }
+
+    private static void deleteQuietly(Path path) {
+        if (path == null) return;
+        try {
+            Files.deleteIfExists(path);
+        } catch (IOException e) {
+            log.warn("Could not delete temp file {}", path, e);
+        }
+    }
+
+    private static ImageUploadResponse toResponse(StoredImage image, String url) {
+        return ImageUploadResponse.builder()
+                .id(image.getId())
+                .url(url)
+                .status(image.getStatus())
+                .build();
+    }
+}
@@ -0,0 +1,27 @@
+package com.volunteerhub.VolunteerHub.service;
+
+import org.bson.Document;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.TypedAggregation;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Đọc kết quả của aggregation dạng ... $group(key).count().as("count") thành map key -> số lượng.
+ * Dùng chung cho các job đếm lại counter và enrich theo lô.
+ */
+public final class GroupCounts {
+
+    private GroupCounts() {}
+
+    public static Map<String, Long> of(MongoTemplate mongoTemplate, TypedAggregation<?> aggregation) {
+        Map<String, Long> counts = new HashMap<>();
+        for (Document doc : mongoTemplate.aggregate(aggregation, Document.class).getMappedResults()) {
+            Object key = doc.get("_id");
+            Number count = doc.get("count", Number.class);
+            if (key != null && count != null) counts.put(key.toString(), count.longValue());
+        }
+        return counts;
+    }
+}
@@ -0,0 +1,213 @@
+package com.volunteerhub.VolunteerHub.service;
+
+import com.cloudinary.Cloudinary;
+import com.cloudinary.utils.ObjectUtils;
+import com.volunteerhub.VolunteerHub.collection.Event;
+import com.volunteerhub.VolunteerHub.collection.Post;
+import com.volunteerhub.VolunteerHub.collection.StoredImage;
+import com.volunteerhub.VolunteerHub.collection.User;
+import lombok.AccessLevel;
+import lombok.RequiredArgsConstructor;
+import lombok.experimental.FieldDefaults;
+import lombok.experimental.NonFinal;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.Aggregation;
+import org.springframework.data.mongodb.core.aggregation.TypedAggregation;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.nio.file.*;
+import java.util.*;
+
+/**
+ * Đếm tham chiếu tới từng ảnh trong stored_images (Event.image, Post.images, User.avatar_url) và dọn ảnh
+ * không còn ai dùng: xoá file trên disk (cả bản thu nhỏ), bản trên Cloudinary và bản ghi.
+ * Đếm lại từ dữ liệu thật theo từng lô (như PostCounterService.reconcile) thay vì $inc ở mọi chỗ sửa ảnh,
+ * nên không bị lệch khi có đường ghi bị bỏ sót. Ảnh chỉ bị xoá khi không được tham chiếu và không ai
+ * upload lại / dùng lại trong app.uploads.gc-grace-ms - ảnh vừa upload nhưng form chưa lưu vẫn an toàn.
+ */
+@Service
+@RequiredArgsConstructor
+@FieldDefaults(level = AccessLevel.PRIVATE, makeFinal = true)
+@Slf4j
+public class ImageGarbageCollector {
+
+    static final int BATCH_SIZE = 500;
+    static final Path TRASH_DIR = Paths.get("uploads", "trash");
+
+    MongoTemplate mongoTemplate;
+    Cloudinary cloudinary;
+    ImageVariantService imageVariantService;
+
+    @NonFinal
+    @Value("${app.uploads.gc-grace-ms:86400000}")
+    long graceMs;
+
+    public record Result(long scanned, long referenced, long deleted, long freedBytes) {}
+
+    @Scheduled(cron = "${app.uploads.gc-cron:0 0 5 * * *}")
+    public Result collect() {
+        Date cutoff = new Date(System.currentTimeMillis() - graceMs);
+        long scanned = 0, referenced = 0, deleted = 0, freedBytes = 0;
+        String lastId = null;
+        while (true) {
+            Query batchQuery = new Query().with(Sort.by(Sort.Direction.ASC, "_id")).limit(BATCH_SIZE);
+            if (lastId != null) batchQuery.addCriteria(Criteria.where("_id").gt(lastId));
+            batchQuery.fields().include("extension", "size", "localUrl", "remoteUrl", "status", "refCount", "updatedAt");
+
+            List<StoredImage> batch = mongoTemplate.find(batchQuery, StoredImage.class);
+            if (batch.isEmpty()) break;
+            scanned += batch.size();
+
+            Map<String, Long> refs = countReferences(batch);
+            BulkOperations bulk = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, StoredImage.class);
+            Date now = new Date();
+            for (StoredImage image : batch) {
+                long count = refs.getOrDefault(image.getId(), 0L);
+                if (count > 0) referenced++;
+                bulk.updateOne(Query.query(Criteria.where("_id").is(image.getId())),
+                        new Update().set("refCount", count).set("countedAt", now));
+            }
+            bulk.execute();
+
+            for (StoredImage image : batch) {
+                if (refs.getOrDefault(image.getId(), 0L) > 0 || !isCollectable(image, cutoff)) continue;
+                if (delete(image, cutoff)) {
+                    deleted++;
+                    freedBytes += image.getSize();
+                }
+            }
+            lastId = batch.getLast().getId();
+        }
+        Result result = new Result(scanned, referenced, deleted, freedBytes);
+        if (deleted > 0) log.info("Image GC: {}", result);
+        return result;
+    }
+
+    // ========================================================================
+    // ĐẾM THAM CHIẾU
+    // ========================================================================
+
+    /**
+     * Mỗi ảnh có thể được tham chiếu bằng URL trên server hoặc URL Cloudinary (trước/sau khi upload nền xong).
+     * $in theo URL dùng các index sparse trên image / images / avatar_url / authorAvatar.
+     */
+    private Map<String, Long> countReferences(List<StoredImage> batch) {
+        Map<String, String> urlToId = new HashMap<>();
+        for (StoredImage image : batch) {
+            if (image.getLocalUrl() != null) urlToId.put(image.getLocalUrl(), image.getId());
+            if (image.getRemoteUrl() != null) urlToId.put(image.getRemoteUrl(), image.getId());
+        }
+        Set<String> urls = urlToId.keySet();
+
+        Map<String, Long> refs = new HashMap<>();
+        List<TypedAggregation<?>> aggregations = List.of(
+                Aggregation.newAggregation(Event.class,
+                        Aggregation.match(Criteria.where("image").in(urls)),
+                        Aggregation.group("image").count().as("count")),
+                Aggregation.newAggregation(Post.class,
+                        Aggregation.match(Criteria.where("images").in(urls)),
+                        Aggregation.unwind("images"),
+                        Aggregation.match(Criteria.where("images").in(urls)),
+                        Aggregation.group("images").count().as("count")),
+                // Post giữ bản sao avatar của tác giả lúc đăng
+                Aggregation.newAggregation(Post.class,
+                        Aggregation.match(Criteria.where("authorAvatar").in(urls)),
+                        Aggregation.group("authorAvatar").count().as("count")),
+                Aggregation.newAggregation(User.class,
+                        Aggregation.match(Criteria.where("avatar_url").in(urls)),
+                        Aggregation.group("avatar_url").count().as("count")));
+        for (TypedAggregation<?> aggregation : aggregations) {
+            GroupCounts.of(mongoTemplate, aggregation).forEach((url, count) -> {
+                String id = urlToId.get(url);
+                if (id != null) refs.merge(id, count, Long::sum);
+            });
+        }
+        return refs;
+    }
+
+    // ========================================================================
+    // DỌN
+    // ========================================================================
+
+    private static boolean isCollectable(StoredImage image, Date cutoff) {
+        // Đang chờ đẩy lên Cloudinary: để worker xong (hoặc hết lượt -> failed) rồi mới dọn
+        return !StoredImage.STATUS_PENDING.equals(image.getStatus())
+                && image.getUpdatedAt() != null && image.getUpdatedAt().before(cutoff);
+    }
+
+    /**
+     * Xoá bản ghi trước, có điều kiện updatedAt < cutoff: upload trùng nội dung / dùng lại theo hash
+     * chạm updatedAt nên sẽ làm lần xoá này không khớp.
+     * File được chuyển vào uploads/trash rồi mới kiểm tra bản ghi. FileUploadService tạo bản ghi trước khi đặt file,
+     * nên upload trùng nội dung xen giữa hoặc thấy file đã bị chuyển đi và tự ghi lại, hoặc đã tạo lại bản ghi
+     * trước lúc kiểm tra -> trả file về chỗ cũ.
+     */
+    private boolean delete(StoredImage image, Date cutoff) {
+        Query query = Query.query(Criteria.where("_id").is(image.getId()).and("updatedAt").lt(cutoff));
+        if (mongoTemplate.remove(query, StoredImage.class).getDeletedCount() == 0) return false;
+
+        Path file = FileUploadService.localPath(image);
+        Path trashed = moveToTrash(file);
+        if (mongoTemplate.exists(Query.query(Criteria.where("_id").is(image.getId())), StoredImage.class)) {
+            restore(trashed, file);
+            return false;
+        }
+
+        if (trashed != null) {
+            try {
+                Files.deleteIfExists(trashed);
+            } catch (IOException e) {
+                log.warn("Could not delete image file {}", image.getId(), e);
+            }
+        }
+        imageVariantService.deleteVariants(image.getId() + image.getExtension());
+        if (image.getRemoteUrl() != null) {
+            try {
+                cloudinary.uploader().destroy(image.getId(), ObjectUtils.asMap("resource_type", "image", "invalidate", true));
+            } catch (Exception e) {
+                log.warn("Could not delete Cloudinary copy of image {}", image.getId(), e);
+            }
+        }
+        return true;
+    }
+
+    // null nếu file không có (đã bị xoá / chưa từng ghi) hoặc không chuyển được - khi đó để nguyên file
+    private static Path moveToTrash(Path file) {
+        try {
+            Files.createDirectories(TRASH_DIR);
+            Path trashed = TRASH_DIR.resolve(file.getFileName());
+            Files.move(file, trashed, StandardCopyOption.ATOMIC_MOVE);
+            return trashed;
+        } catch (NoSuchFileException e) {
+            return null;
+        } catch (IOException e) {
+            log.warn("Could not move image file {} to trash", file, e);
+            return null;
+        }
+    }
+
+    private static void restore(Path trashed, Path file) {
+        if (trashed == null) return;
+        try {
+            Files.move(trashed, file, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            // Upload xen giữa đã ghi lại file cùng nội dung
+            if (Files.exists(file)) {
+                try {
+                    Files.deleteIfExists(trashed);
+                } catch (IOException ignored) {}
+            } else {
+                log.error("Could not restore image file {} from trash", file, e);
+            }
+        }
+    }
+}
@@ -0,0 +1,217 @@
+package com.volunteerhub.VolunteerHub.service;
+
+import jakarta.annotation.PostConstruct;
+import lombok.AccessLevel;
+import lombok.RequiredArgsConstructor;
+import lombok.experimental.FieldDefaults;
+import lombok.experimental.NonFinal;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import javax.imageio.*;
+import javax.imageio.stream.ImageInputStream;
+import javax.imageio.stream.ImageOutputStream;
+import java.awt.*;
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.nio.file.*;
+import java.util.Iterator;
+import java.util.Locale;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Semaphore;
+
+/**
+ * Ảnh thu nhỏ theo chiều rộng cho /uploads/images/{file}?w=... (feed chỉ cần ảnh ~300px, không cần bản gốc vài MB).
+ * w được làm tròn lên mốc gần nhất trong WIDTHS để số bản sinh ra có hạn; bản thu nhỏ sinh lần đầu có request
+ * và lưu ở uploads/variants/{w}/{file} (cùng tên, cùng định dạng với bản gốc).
+ * Chỉ dùng ImageIO của JDK: JPEG/PNG thu nhỏ được; WebP (JDK không đọc/ghi được) và GIF (mất animation) trả bản gốc.
+ * Mốc trả bản gốc (ảnh gốc hẹp hơn mốc, quá lớn, không đọc được) được ghi nhớ bằng file đánh dấu cạnh chỗ của bản thu nhỏ.
+ */
+@Service
+@RequiredArgsConstructor
+@FieldDefaults(level = AccessLevel.PRIVATE, makeFinal = true)
+@Slf4j
+public class ImageVariantService {
+
+    public static final Path VARIANT_DIR = Paths.get("uploads", "variants");
+    static final int[] WIDTHS = {160, 320, 640, 1080, 1600};
+    static final Set<String> RESIZABLE = Set.of(".jpg", ".jpeg", ".png");
+    static final long MAX_PIXELS = 50_000_000L;     // ảnh lớn hơn thì không giải mã (tránh hết heap)
+    static final float JPEG_QUALITY = 0.82f;
+    static final String ORIGINAL_MARKER = ".original";
+
+    @NonFinal
+    @Value("${app.uploads.variant-concurrency:2}")
+    int concurrency;
+
+    @NonFinal
+    Semaphore permits;
+
+    // Nhiều request cùng 1 bản chưa có -> chỉ 1 request sinh, các request khác chờ kết quả
+    ConcurrentHashMap<Path, CompletableFuture<Path>> inFlight = new ConcurrentHashMap<>();
+
+    @PostConstruct
+    public void init() {
+        permits = new Semaphore(concurrency);
+    }
+
+    /**
+     * @return file cần trả về: bản thu nhỏ, hoặc bản gốc nếu không cần/không thu nhỏ được
+     */
+    public Path resolve(Path original, Integer width) {
+        if (width == null || width <= 0) return original;
+        String fileName = original.getFileName().toString();
+        if (!RESIZABLE.contains(extension(fileName))) return original;
+
+        Path variant = VARIANT_DIR.resolve(String.valueOf(bucket(width))).resolve(fileName);
+        if (Files.exists(variant)) return variant;
+        // Đã biết mốc này trả bản gốc -> không giải mã lại, không chiếm permit
+        if (Files.exists(originalMarker(variant))) return original;
+
+        CompletableFuture<Path> mine = new CompletableFuture<>();
+        CompletableFuture<Path> running = inFlight.putIfAbsent(variant, mine);
+        if (running != null) return running.join();
+        try {
+            Path result = generate(original, variant, bucket(width));
+            if (result.equals(original)) markOriginal(variant);
+            mine.complete(result);
+            return result;
+        } catch (Exception e) {
+            log.warn("Could not generate {}px variant of {}", bucket(width), fileName, e);
+            mine.complete(original);
+            return original;
+        } finally {
+            inFlight.remove(variant, mine);
+        }
+    }
+
+    /**
+     * true nếu đã biết ?w= này trả bản gốc (không thu nhỏ được / ảnh gốc không rộng hơn mốc), không đọc ảnh.
+     * Chưa biết (chưa từng resolve) -> false.
+     */
+    public boolean servesOriginal(String fileName, Integer width) {
+        if (width == null || width <= 0) return false;
+        if (!RESIZABLE.contains(extension(fileName))) return true;
+        return Files.exists(originalMarker(VARIANT_DIR.resolve(String.valueOf(bucket(width))).resolve(fileName)));
+    }
+
+    public void deleteVariants(String fileName) {
+        for (int width : WIDTHS) {
+            try {
+                Path variant = VARIANT_DIR.resolve(String.valueOf(width)).resolve(fileName);
+                Files.deleteIfExists(variant);
+                Files.deleteIfExists(originalMarker(variant));
+            } catch (IOException e) {
+                log.warn("Could not delete {}px variant of {}", width, fileName, e);
+            }
+        }
+    }
+
+    public static int bucket(int width) {
+        for (int bucket : WIDTHS) {
+            if (width <= bucket) return bucket;
+        }
+        return WIDTHS[WIDTHS.length - 1];
+    }
+
+    // ========================================================================
+    // SINH ẢNH
+    // ========================================================================
+
+    private Path generate(Path original, Path variant, int width) throws IOException, InterruptedException {
+        permits.acquire();
+        try (ImageInputStream in = ImageIO.createImageInputStream(original.toFile())) {
+            if (in == null) return original;
+            Iterator<ImageReader> readers = ImageIO.getImageReaders(in);
+            if (!readers.hasNext()) return original;
+            ImageReader reader = readers.next();
+            try {
+                reader.setInput(in, true, true);
+                int sourceWidth = reader.getWidth(0);
+                int sourceHeight = reader.getHeight(0);
+                // Không phóng to; ảnh quá lớn thì để client nhận bản gốc
+                if (width >= sourceWidth || (long) sourceWidth * sourceHeight > MAX_PIXELS) return original;
+
+                // Giải mã bỏ bớt điểm ảnh (vẫn >= 2 lần đích) rồi mới scale mịn -> nhanh và ít bộ nhớ với ảnh lớn
+                ImageReadParam param = reader.getDefaultReadParam();
+                int subsampling = Math.max(1, sourceWidth / (width * 2));
+                param.setSourceSubsampling(subsampling, subsampling, 0, 0);
+                BufferedImage decoded = reader.read(0, param);
+
+                int height = Math.max(1, (int) Math.round((double) sourceHeight * width / sourceWidth));
+                boolean alpha = decoded.getColorModel().hasAlpha();
+                BufferedImage scaled = new BufferedImage(width, height, alpha ? BufferedImage.TYPE_INT_ARGB : BufferedImage.TYPE_INT_RGB);
+                Graphics2D graphics = scaled.createGraphics();
+                try {
+                    graphics.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+                    graphics.setRenderingHint(RenderingHints.KEY_RENDERING, RenderingHints.VALUE_RENDER_QUALITY);
+                    graphics.drawImage(decoded, 0, 0, width, height, null);
+                } finally {
+                    graphics.dispose();
+                }
+                write(scaled, variant);
+                return variant;
+            } finally {
+                reader.dispose();
+            }
+        } finally {
+            permits.release();
+        }
+    }
+
+    // File rỗng uploads/variants/{w}/{file}.original: mốc này trả bản gốc. Tên gốc là hash nội dung nên quyết định không đổi
+    private static Path originalMarker(Path variant) {
+        return variant.resolveSibling(variant.getFileName() + ORIGINAL_MARKER);
+    }
+
+    private static void markOriginal(Path variant) {
+        try {
+            Files.createDirectories(variant.getParent());
+            Files.createFile(originalMarker(variant));
+        } catch (FileAlreadyExistsException ignored) {
+        } catch (IOException e) {
+            log.debug("Could not mark {} as served by the original: {}", variant, e.getMessage());
+        }
+    }
+
+    // Ghi ra file tạm rồi đổi tên: request khác không bao giờ đọc phải file ghi dở
+    private static void write(BufferedImage image, Path variant) throws IOException {
+        Files.createDirectories(variant.getParent());
+        Path temp = Files.createTempFile(variant.getParent(), "variant-", ".part");
+        try {
+            if (".png".equals(extension(variant.getFileName().toString()))) {
+                ImageIO.write(image, "png", temp.toFile());
+            } else {
+                writeJpeg(image, temp);
+            }
+            try {
+                Files.move(temp, variant, StandardCopyOption.ATOMIC_MOVE);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(temp, variant, StandardCopyOption.REPLACE_EXISTING);
+            }
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+    }
+
+    private static void writeJpeg(BufferedImage image, Path target) throws IOException {
+        ImageWriter writer = ImageIO.getImageWritersByFormatName("jpeg").next();
+        ImageWriteParam param = writer.getDefaultWriteParam();
+        param.setCompressionMode(ImageWriteParam.MODE_EXPLICIT);
+        param.setCompressionQuality(JPEG_QUALITY);
+        try (ImageOutputStream out = ImageIO.createImageOutputStream(target.toFile())) {
+            writer.setOutput(out);
+            writer.write(null, new IIOImage(image, null, null), param);
+        } finally {
+            writer.dispose();
+        }
+    }
+
+    private static String extension(String fileName) {
+        int dot = fileName.lastIndexOf('.');
+        return dot < 0 ? "" : fileName.substring(dot).toLowerCase(Locale.ROOT);
+    }
+}
@@ -0,0 +1,123 @@
+package com.volunteerhub.VolunteerHub.service;
+
+import com.volunteerhub.VolunteerHub.dto.response.CursorPage;
+import com.volunteerhub.VolunteerHub.exception.AppException;
+import com.volunteerhub.VolunteerHub.exception.ErrorCode;
+import org.bson.types.ObjectId;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.Date;
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * Phân trang keyset theo cặp (field, _id): thay vì skip N bản ghi + count mỗi trang,
+ * trang sau bắt đầu ngay sau bản ghi cuối của trang trước (seek trên compound index).
+ * Cursor là base64url của (kiểu, giá trị, id) - client chỉ cần gửi lại nguyên văn.
+ */
+public final class KeysetCursor {
+
+    public static final int MAX_PAGE_SIZE = 100;
+
+    private KeysetCursor() {}
+
+    public record Position(Object value, String id) {}
+
+    // ========================================================================
+    // ENCODE / DECODE
+    // ========================================================================
+
+    public static String encode(Object value, String id) {
+        String typed;
+        if (value == null) typed = "n:";
+        else if (value instanceof Date date) typed = "d:" + date.getTime();
+        else typed = "s:" + value;
+        // id là ObjectId hex nên không chứa '\n'
+        String raw = id + "\n" + typed;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * @return null nếu cursor rỗng (trang đầu)
+     * @throws AppException INVALID_CURSOR nếu cursor không đọc được
+     */
+    public static Position decode(String cursor) {
+        if (cursor == null || cursor.isBlank()) return null;
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            int newline = raw.indexOf('\n');
+            String id = raw.substring(0, newline);
+            String typed = raw.substring(newline + 1);
+            Object value = switch (typed.substring(0, 2)) {
+                case "n:" -> null;
+                case "d:" -> new Date(Long.parseLong(typed.substring(2)));
+                case "s:" -> typed.substring(2);
+                default -> throw new IllegalArgumentException(typed);
+            };
+            if (id.isEmpty()) throw new IllegalArgumentException("empty id");
+            return new Position(value, id);
+        } catch (RuntimeException e) {
+            throw new AppException(ErrorCode.INVALID_CURSOR);
+        }
+    }
+
+    // ========================================================================
+    // QUERY
+    // ========================================================================
+
+    /**
+     * Sort (field, _id) + điều kiện seek sau vị trí cursor + limit size + 1 (để biết còn trang sau hay không).
+     */
+    public static Query apply(Query query, String field, Sort.Direction direction, Position after, int size) {
+        if (after != null) query.addCriteria(seek(field, direction, after));
+        return query.with(Sort.by(direction, field).and(Sort.by(direction, "_id"))).limit(size + 1);
+    }
+
+    // Bản ghi đứng sau `after` theo thứ tự (field, _id). Mongo xếp null trước mọi giá trị khi tăng dần.
+    static Criteria seek(String field, Sort.Direction direction, Position after) {
+        Object id = ObjectId.isValid(after.id()) ? new ObjectId(after.id()) : after.id();
+        Object value = after.value();
+        boolean asc = direction.isAscending();
+
+        Criteria sameValueLaterId = asc
+                ? Criteria.where(field).is(value).and("_id").gt(id)
+                : Criteria.where(field).is(value).and("_id").lt(id);
+        if (value == null) {
+            // Tăng dần: sau nhóm null là mọi giá trị khác; giảm dần: null đứng cuối
+            return asc
+                    ? new Criteria().orOperator(sameValueLaterId, Criteria.where(field).ne(null))
+                    : sameValueLaterId;
+        }
+        return asc
+                ? new Criteria().orOperator(Criteria.where(field).gt(value), sameValueLaterId)
+                : new Criteria().orOperator(Criteria.where(field).lt(value), sameValueLaterId, Criteria.where(field).is(null));
+    }
+
+    public static int clampSize(int size) {
+        return Math.max(1, Math.min(size, MAX_PAGE_SIZE));
+    }
+
+    /**
+     * Cắt kết quả đã lấy dư 1 bản ghi thành 1 trang và tạo cursor từ bản ghi cuối.
+     */
+    public static <T, R> CursorPage<R> page(List<T> fetched, int size,
+                                            Function<T, Object> value, Function<T, String> id,
+                                            Function<List<T>, List<R>> mapper) {
+        boolean hasMore = fetched.size() > size;
+        List<T> items = hasMore ? fetched.subList(0, size) : fetched;
+        String nextCursor = null;
+        if (hasMore) {
+            T last = items.getLast();
+            nextCursor = encode(value.apply(last), id.apply(last));
+        }
+        return CursorPage.<R>builder()
+                .items(mapper.apply(items))
+                .nextCursor(nextCursor)
+                .hasMore(hasMore)
+                .build();
+    }
+}
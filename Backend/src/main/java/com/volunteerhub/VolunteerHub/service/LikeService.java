@@ -9,10 +9,9 @@ import com.volunteerhub.VolunteerHub.exception.ErrorCode;
 import com.volunteerhub.VolunteerHub.mapper.LikeMapper;
 import com.volunteerhub.VolunteerHub.repository.LikeRepository;
 import org.springframework.beans.factory.annotation.Autowired;
-import com.volunteerhub.VolunteerHub.repository.PostRepository;
-import com.volunteerhub.VolunteerHub.repository.ChannelRepository;
-import com.volunteerhub.VolunteerHub.repository.EventRepository;
-import com.volunteerhub.VolunteerHub.collection.Post;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
 import org.springframework.stereotype.Service;
 
 import java.util.List;
@@ -26,16 +25,13 @@ public class LikeService {
     LikeMapper likeMapper;
 
     @Autowired
-    NotificationService notificationService;
+    NotificationEventBus notificationEventBus;
 
     @Autowired
-    PostRepository postRepository;
+    PostCounterService postCounterService;
 
     @Autowired
-    ChannelRepository channelRepository;
-
-    @Autowired
-    EventRepository eventRepository;
+    MongoTemplate mongoTemplate;
 
     public LikeResponse createLike(LikeCreationRequest request){
         // Check if user already liked this target
@@ -53,29 +49,9 @@ public class LikeService {
         likeRepository.save(like);
 
         if ("post".equals(request.getTargetType())) {
-            Post post = postRepository.findById(request.getTargetId()).orElse(null);
-            if (post != null) {
-                if (post.getAuthorId() != null) {
-                    notificationService.createNotificationForUser(
-                            post.getAuthorId(),
-                            "post_like",
-                            "Bài viết của bạn nhận được một lượt thích"
-                    );
-                }
-                if (post.getChannelId() != null) {
-                    var channel = channelRepository.findById(post.getChannelId()).orElse(null);
-                    if (channel != null && channel.getEventId() != null && !"GLOBAL_FEED".equals(channel.getEventId())) {
-                        var event = eventRepository.findById(channel.getEventId()).orElse(null);
-                        if (event != null && event.getCreatedBy() != null) {
-                            notificationService.createNotificationForUser(
-                                    event.getCreatedBy(),
-                                    "event_post_like",
-                                    "Có lượt thích mới trong bài viết thuộc sự kiện của bạn"
-                            );
-                        }
-                    }
-                }
-            }
+            postCounterService.incrementLikes(request.getTargetId());
+            // Người nhận (tác giả bài viết, người tạo sự kiện) được tra và ghi ở nền
+            notificationEventBus.publish(new NotificationEventBus.PostLiked(request.getTargetId()));
         }
 
         return likeMapper.toLikeResponse(like);
@@ -102,11 +78,21 @@ public class LikeService {
     }
 
     public void deleteLike(String likeId){
-        likeRepository.deleteById(likeId);
+        Like like = likeRepository.findById(likeId).orElse(null);
+        if (like == null) return;
+        // 2 request xóa cùng lúc: chỉ request thực sự xóa được document mới giảm counter
+        long deleted = mongoTemplate.remove(Query.query(Criteria.where("_id").is(likeId)), Like.class).getDeletedCount();
+        if (deleted > 0 && "post".equals(like.getTargetType())) {
+            postCounterService.decrementLikes(like.getTargetId());
+        }
     }
 
     public void deleteLikeByUserAndTarget(String userId, String targetType, String targetId){
-        likeRepository.deleteByUserIdAndTargetTypeAndTargetId(userId, targetType, targetId);
+        long deleted = likeRepository.deleteByUserIdAndTargetTypeAndTargetId(userId, targetType, targetId);
+        // Chỉ giảm counter khi thực sự có like bị xóa
+        if (deleted > 0 && "post".equals(targetType)) {
+            postCounterService.decrementLikes(targetId);
+        }
     }
 
     public List<LikeResponse> getLikesByUserId(String userId){
@@ -0,0 +1,151 @@
+package com.volunteerhub.VolunteerHub.service;
+
+import com.volunteerhub.VolunteerHub.collection.Notification;
+import lombok.AccessLevel;
+import lombok.RequiredArgsConstructor;
+import lombok.experimental.FieldDefaults;
+import lombok.experimental.NonFinal;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Service;
+
+import java.util.*;
+
+/**
+ * Gộp notification cùng loại cho cùng (người nhận, đối tượng) trong 1 cửa sổ thời gian thành 1 bản ghi:
+ * 300 lượt thích cho 1 bài viết trong 1 giờ -> 1 notification "300 người đã thích bài viết của bạn"
+ * thay vì 300 bản ghi. Bản gộp được cộng dồn bằng $inc (upsert theo groupKey, unique),
+ * mỗi lần có hoạt động mới thì chuyển lại thành chưa đọc và nổi lên đầu hộp thư.
+ */
+@Service
+@RequiredArgsConstructor
+@FieldDefaults(level = AccessLevel.PRIVATE, makeFinal = true)
+@Slf4j
+public class NotificationCoalescer {
+
+    // Loại gộp được -> nội dung khi đã gộp >= 2 hoạt động
+    static final Map<String, String> DIGEST_MESSAGES = Map.of(
+            "post_like", "%d người đã thích bài viết của bạn",
+            "event_post_like", "Có %d lượt thích mới trong bài viết thuộc sự kiện của bạn",
+            "post_comment", "Bài viết của bạn nhận được %d bình luận mới",
+            "event_post_comment", "Có %d bình luận mới trong bài viết thuộc sự kiện của bạn",
+            "event_registration", "Có %d đăng ký mới cho sự kiện của bạn"
+    );
+
+    MongoTemplate mongoTemplate;
+
+    @NonFinal
+    @Value("${app.notifications.coalesce-window-ms:3600000}")
+    long windowMs;
+
+    /**
+     * @param aggregated  bản gộp sau khi ghi (đọc lại từ Mongo, count đã cộng dồn)
+     * @param remaining   notification không gộp được, caller tự insert
+     * @param unreadDelta userId -> số notification vừa chuyển sang chưa đọc (bản gộp mới hoặc bản đã đọc nay có hoạt động mới)
+     * @param retries     số lần ghi lại các upsert bị trùng khoá
+     */
+    public record Result(List<Notification> aggregated, List<Notification> remaining,
+                         Map<String, Long> unreadDelta, int retries) {}
+
+    static final class Group {
+        final Notification first;
+        int count;
+        Date latest;
+
+        Group(Notification first) {
+            this.first = first;
+        }
+    }
+
+    public static boolean isCoalescable(Notification notification) {
+        return notification.getUserId() != null && notification.getTargetId() != null
+                && DIGEST_MESSAGES.containsKey(notification.getType());
+    }
+
+    public static String digestMessage(String type, Integer count, String message) {
+        String template = DIGEST_MESSAGES.get(type);
+        return template != null && count != null && count > 1 ? String.format(template, count) : message;
+    }
+
+    String groupKey(Notification notification) {
+        long bucket = notification.getCreatedAt().getTime() / windowMs;
+        return notification.getUserId() + "|" + notification.getType() + "|" + notification.getTargetId() + "|" + bucket;
+    }
+
+    // ========================================================================
+    // GHI
+    // ========================================================================
+
+    public Result coalesce(List<Notification> drafts) {
+        // Gộp trước trong batch: N hoạt động cùng groupKey -> 1 upsert $inc N
+        Map<String, Group> groups = new LinkedHashMap<>();
+        List<Notification> remaining = new ArrayList<>();
+        for (Notification draft : drafts) {
+            if (!isCoalescable(draft)) {
+                remaining.add(draft);
+                continue;
+            }
+            if (draft.getCreatedAt() == null) draft.setCreatedAt(new Date());
+            Group group = groups.computeIfAbsent(groupKey(draft), key -> new Group(draft));
+            group.count++;
+            if (group.latest == null || draft.getCreatedAt().after(group.latest)) group.latest = draft.getCreatedAt();
+        }
+        if (groups.isEmpty()) return new Result(List.of(), remaining, Map.of(), 0);
+
+        Map<String, Long> unreadDelta = new HashMap<>();
+        int retries = 0;
+        for (Map.Entry<String, Group> entry : groups.entrySet()) {
+            UpsertOutcome outcome = upsertWithRetry(entry.getKey(), entry.getValue());
+            retries += outcome.retries();
+            // Bản trước đó không tồn tại hoặc đã đọc -> thêm 1 notification chưa đọc cho user
+            Notification before = outcome.before();
+            if (before == null || Boolean.TRUE.equals(before.getIsRead())) {
+                unreadDelta.merge(entry.getValue().first.getUserId(), 1L, Long::sum);
+            }
+        }
+        List<Notification> aggregated = mongoTemplate.find(
+                Query.query(Criteria.where("groupKey").in(groups.keySet())), Notification.class);
+        return new Result(aggregated, remaining, unreadDelta, retries);
+    }
+
+    record UpsertOutcome(Notification before, int retries) {}
+
+    /**
+     * findAndModify trả về bản trước khi cập nhật để biết notification có vừa chuyển sang chưa đọc không
+     * (counter chưa đọc). Chỉ retry khi trùng khoá (2 worker cùng tạo 1 groupKey mới -> lần sau thành update):
+     * lỗi khác có thể xảy ra sau khi $inc đã được ghi nên không tự ghi lại, để lỗi đi lên.
+     */
+    private UpsertOutcome upsertWithRetry(String groupKey, Group group) {
+        for (int attempt = 1; ; attempt++) {
+            try {
+                Notification before = mongoTemplate.findAndModify(
+                        Query.query(Criteria.where("groupKey").is(groupKey)), toUpdate(group),
+                        FindAndModifyOptions.options().upsert(true).returnNew(false), Notification.class);
+                return new UpsertOutcome(before, attempt - 1);
+            } catch (DuplicateKeyException e) {
+                // Upsert thua cuộc đua tạo document: bản kia đã có, thử lại ngay là update
+                if (attempt >= NotificationEventBus.MAX_ATTEMPTS) throw e;
+                log.debug("Retrying notification digest upsert {} after duplicate key", groupKey);
+            }
+        }
+    }
+
+    private static Update toUpdate(Group group) {
+        Notification first = group.first;
+        return new Update()
+                .inc("count", group.count)
+                .set("isRead", false)
+                .unset("readAt")    // chưa đọc lại -> không để TTL xoá
+                .set("createdAt", group.latest)
+                .setOnInsert("userId", first.getUserId())
+                .setOnInsert("type", first.getType())
+                .setOnInsert("targetId", first.getTargetId())
+                .setOnInsert("message", first.getMessage());
+    }
+}
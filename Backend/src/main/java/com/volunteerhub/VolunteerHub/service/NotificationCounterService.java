@@ -0,0 +1,168 @@
+package com.volunteerhub.VolunteerHub.service;
+
+import com.mongodb.bulk.BulkWriteResult;
+import com.volunteerhub.VolunteerHub.collection.Notification;
+import com.volunteerhub.VolunteerHub.collection.NotificationCounter;
+import com.volunteerhub.VolunteerHub.collection.User;
+import lombok.AccessLevel;
+import lombok.RequiredArgsConstructor;
+import lombok.experimental.FieldDefaults;
+import lombok.experimental.NonFinal;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.BulkOperationException;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.Aggregation;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Duy trì số notification chưa đọc của mỗi user bằng $inc nguyên tử (notification_counters),
+ * để badge chuông không phải count lại notifications ở mỗi lần poll.
+ * Job reconcile định kỳ sửa lệch (nếu có) từ collection gốc.
+ */
+@Service
+@RequiredArgsConstructor
+@FieldDefaults(level = AccessLevel.PRIVATE, makeFinal = true)
+@Slf4j
+public class NotificationCounterService {
+
+    static final String UNREAD = "unread";
+    static final int RECONCILE_BATCH_SIZE = 500;
+
+    MongoTemplate mongoTemplate;
+
+    @NonFinal
+    @Value("${app.counters.reconcile-on-startup:false}")
+    boolean reconcileOnStartup;
+
+    public long getUnread(String userId) {
+        NotificationCounter counter = mongoTemplate.findById(userId, NotificationCounter.class);
+        // Có thể âm tạm thời nếu counter lệch trước khi reconcile
+        return counter != null ? Math.max(0, counter.getUnread()) : 0;
+    }
+
+    public void increment(String userId, long delta) {
+        if (userId == null || delta == 0) return;
+        try {
+            mongoTemplate.upsert(Query.query(Criteria.where("_id").is(userId)),
+                    new Update().inc(UNREAD, delta), NotificationCounter.class);
+        } catch (Exception e) {
+            log.warn("Could not update unread counter of user {}", userId, e);
+        }
+    }
+
+    public void decrement(String userId, long delta) {
+        increment(userId, -delta);
+    }
+
+    // userId -> số cần cộng, 1 round-trip cho cả batch của NotificationEventBus
+    public void incrementAll(Map<String, Long> deltas) {
+        BulkOperations bulk = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, NotificationCounter.class);
+        int ops = 0;
+        for (Map.Entry<String, Long> entry : deltas.entrySet()) {
+            if (entry.getKey() == null || entry.getValue() == 0) continue;
+            bulk.upsert(Query.query(Criteria.where("_id").is(entry.getKey())), new Update().inc(UNREAD, entry.getValue()));
+            ops++;
+        }
+        if (ops == 0) return;
+        try {
+            bulk.execute();
+        } catch (Exception e) {
+            log.warn("Could not update unread counters of {} users", ops, e);
+        }
+    }
+
+    // ========================================================================
+    // RECONCILIATION
+    // ========================================================================
+
+    // Notification cũ có trước khi có counter -> đếm một lượt khi khởi động
+    @EventListener(ApplicationReadyEvent.class)
+    public void reconcileOnStartup() {
+        if (!reconcileOnStartup) return;
+        try {
+            reconcile();
+        } catch (Exception e) {
+            log.error("Notification counter reconciliation failed on startup", e);
+        }
+    }
+
+    /**
+     * Quét users theo từng lô: đọc counter đã lưu, đếm lại notification chưa đọc của lô ($group trên index userId + isRead)
+     * rồi ghi đè counter bị lệch, có điều kiện counter vẫn bằng giá trị đã đọc.
+     * Bộ nhớ chỉ phụ thuộc kích thước lô, không phụ thuộc số user / notification.
+     */
+    @Scheduled(cron = "${app.counters.reconcile-cron:0 30 3 * * *}")
+    public long reconcile() {
+        long repaired = 0;
+        String lastId = null;
+        while (true) {
+            Query batchQuery = new Query().with(Sort.by(Sort.Direction.ASC, "_id")).limit(RECONCILE_BATCH_SIZE);
+            if (lastId != null) batchQuery.addCriteria(Criteria.where("_id").gt(lastId));
+            batchQuery.fields().include("_id");
+
+            List<User> batch = mongoTemplate.find(batchQuery, User.class);
+            if (batch.isEmpty()) break;
+            repaired += reconcileBatch(batch.stream().map(User::getId).toList());
+            lastId = batch.getLast().getId();
+        }
+        if (repaired > 0) log.warn("Notification counters reconciled: {} users repaired", repaired);
+        return repaired;
+    }
+
+    private long reconcileBatch(List<String> userIds) {
+        // Đọc counter trước khi đếm: $inc xen giữa làm điều kiện bên dưới không khớp
+        Map<String, Long> stored = new HashMap<>();
+        for (NotificationCounter counter : mongoTemplate.find(
+                Query.query(Criteria.where("_id").in(userIds)), NotificationCounter.class)) {
+            stored.put(counter.getId(), counter.getUnread());
+        }
+        Map<String, Long> real = GroupCounts.of(mongoTemplate, Aggregation.newAggregation(Notification.class,
+                Aggregation.match(Criteria.where("userId").in(userIds).and("isRead").is(false)),
+                Aggregation.group("userId").count().as("count")));
+
+        BulkOperations bulk = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, NotificationCounter.class);
+        long drifted = 0;
+        for (String userId : userIds) {
+            long count = real.getOrDefault(userId, 0L);
+            Long current = stored.get(userId);
+            if (current == null) {
+                if (count == 0) continue;
+                // Chưa có counter: tạo mới, trùng _id nếu $inc vừa tạo trong lúc đếm -> bỏ qua
+                bulk.upsert(Query.query(Criteria.where("_id").is(userId).and(UNREAD).exists(false)),
+                        new Update().set(UNREAD, count));
+            } else if (current != count) {
+                bulk.updateOne(Query.query(Criteria.where("_id").is(userId).and(UNREAD).is(current)),
+                        new Update().set(UNREAD, count));
+            } else {
+                continue;
+            }
+            drifted++;
+        }
+        if (drifted == 0) return 0;
+
+        BulkWriteResult result;
+        try {
+            result = bulk.execute();
+        } catch (BulkOperationException e) {
+            result = e.getResult();
+        }
+        long applied = result.getModifiedCount() + result.getUpserts().size();
+        if (applied < drifted) {
+            log.info("Skipped {} unread counter repairs changed concurrently", drifted - applied);
+        }
+        return applied;
+    }
+}
@@ -0,0 +1,361 @@
+package com.volunteerhub.VolunteerHub.service;
+
+import com.volunteerhub.VolunteerHub.collection.Channel;
+import com.volunteerhub.VolunteerHub.collection.Event;
+import com.volunteerhub.VolunteerHub.collection.Notification;
+import com.volunteerhub.VolunteerHub.collection.Post;
+import com.volunteerhub.VolunteerHub.dto.response.NotificationBusStatsResponse;
+import com.volunteerhub.VolunteerHub.mapper.NotificationMapper;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.AccessLevel;
+import lombok.RequiredArgsConstructor;
+import lombok.experimental.FieldDefaults;
+import lombok.experimental.NonFinal;
+import lombok.extern.slf4j.Slf4j;
+import org.bson.types.ObjectId;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.mongodb.BulkOperationException;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.util.*;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+
+/**
+ * Fan-out notification ngoài request path: like / comment / đăng ký chỉ phát 1 sự kiện nhỏ vào hàng đợi,
+ * một nhóm worker (virtual thread, số lượng cố định) gom sự kiện thành batch, tra người nhận cho cả batch
+ * (post -> channel -> event, mỗi tầng 1 query) rồi ghi tất cả notification bằng 1 lệnh bulk insert.
+ * <p>
+ * Hàng đợi có giới hạn: khi đầy, request thread chờ tối đa bus-offer-timeout-ms rồi tự xử lý sự kiện
+ * (caller-runs) - chậm lại thay vì mất notification hay phình bộ nhớ.
+ * Lỗi Mongo được retry có backoff; id notification sinh trước khi ghi nên retry không tạo bản trùng.
+ */
+@Service
+@RequiredArgsConstructor
+@FieldDefaults(level = AccessLevel.PRIVATE, makeFinal = true)
+@Slf4j
+public class NotificationEventBus {
+
+    static final long POLL_MS = 200;
+    static final int MAX_ATTEMPTS = 3;
+    static final long RETRY_BACKOFF_MS = 200;
+    static final int DUPLICATE_KEY = 11000;
+
+    MongoTemplate mongoTemplate;
+    NotificationMapper notificationMapper;
+    NotificationPushService notificationPushService;
+    NotificationCoalescer notificationCoalescer;
+    NotificationCounterService notificationCounterService;
+
+    @NonFinal
+    @Value("${app.notifications.bus-capacity:10000}")
+    int capacity;
+
+    @NonFinal
+    @Value("${app.notifications.bus-workers:4}")
+    int workerCount;
+
+    @NonFinal
+    @Value("${app.notifications.bus-batch-size:200}")
+    int batchSize;
+
+    @NonFinal
+    @Value("${app.notifications.bus-offer-timeout-ms:50}")
+    long offerTimeoutMs;
+
+    @NonFinal
+    BlockingQueue<Envelope> queue;
+
+    @NonFinal
+    List<Thread> workers = List.of();
+
+    @NonFinal
+    volatile boolean running;
+
+    AtomicLong published = new AtomicLong();
+    AtomicLong delivered = new AtomicLong();
+    AtomicLong writes = new AtomicLong();
+    AtomicLong dropped = new AtomicLong();
+    AtomicLong retries = new AtomicLong();
+    AtomicLong callerRuns = new AtomicLong();
+    AtomicLong lastLagMs = new AtomicLong();
+    AtomicLong maxLagMs = new AtomicLong();
+    AtomicLong reportedCallerRuns = new AtomicLong();
+
+    // ========================================================================
+    // SỰ KIỆN
+    // ========================================================================
+
+    public sealed interface NotificationEvent permits PostLiked, PostCommented, RegistrationCreated {}
+
+    // Người nhận: tác giả bài viết + người tạo sự kiện chứa channel của bài viết
+    public record PostLiked(String postId) implements NotificationEvent {}
+
+    public record PostCommented(String postId) implements NotificationEvent {}
+
+    // Người tạo sự kiện đã có sẵn ở write path (reserveSeat trả về Event)
+    public record RegistrationCreated(String eventId, String eventOwnerId) implements NotificationEvent {}
+
+    record Envelope(NotificationEvent event, long enqueuedAt) {}
+
+    // ========================================================================
+    // PHÁT SỰ KIỆN
+    // ========================================================================
+
+    /**
+     * Không bao giờ ném lỗi ra write path: notification là phụ, thao tác chính đã thành công.
+     */
+    public void publish(NotificationEvent event) {
+        if (event == null) return;
+        published.incrementAndGet();
+        Envelope envelope = new Envelope(event, System.currentTimeMillis());
+        try {
+            if (running && queue.offer(envelope, offerTimeoutMs, TimeUnit.MILLISECONDS)) return;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        // Hàng đợi đầy hoặc bus chưa chạy / đã dừng -> xử lý ngay trên thread gọi
+        callerRuns.incrementAndGet();
+        process(List.of(envelope));
+    }
+
+    // ========================================================================
+    // WORKER
+    // ========================================================================
+
+    @PostConstruct
+    public void start() {
+        queue = new ArrayBlockingQueue<>(capacity);
+        running = true;
+        List<Thread> started = new ArrayList<>(workerCount);
+        for (int i = 0; i < workerCount; i++) {
+            started.add(Thread.ofVirtual().name("notification-bus-" + i).start(this::runWorker));
+        }
+        workers = started;
+    }
+
+    // Dừng nhận sự kiện mới, worker xả nốt hàng đợi rồi thoát
+    @PreDestroy
+    public void stop() {
+        running = false;
+        for (Thread worker : workers) {
+            try {
+                worker.join(TimeUnit.SECONDS.toMillis(10));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+        }
+        if (!queue.isEmpty()) {
+            log.warn("Notification bus stopped with {} events still queued", queue.size());
+        }
+    }
+
+    private void runWorker() {
+        List<Envelope> batch = new ArrayList<>(batchSize);
+        while (running || !queue.isEmpty()) {
+            try {
+                Envelope first = queue.poll(POLL_MS, TimeUnit.MILLISECONDS);
+                if (first == null) continue;
+                batch.add(first);
+                queue.drainTo(batch, batchSize - 1);
+                process(batch);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (Exception e) {
+                log.error("Notification bus worker failed on a batch of {} events", batch.size(), e);
+            } finally {
+                batch.clear();
+            }
+        }
+    }
+
+    void process(List<Envelope> batch) {
+        try {
+            List<Notification> notifications = withRetry(() -> resolve(batch));
+            if (!notifications.isEmpty()) {
+                // Like / comment / đăng ký dồn dập -> cộng dồn vào notification gộp thay vì mỗi hoạt động 1 bản ghi
+                NotificationCoalescer.Result coalesced = notificationCoalescer.coalesce(notifications);
+                retries.addAndGet(coalesced.retries());
+                if (!coalesced.remaining().isEmpty()) withRetry(() -> insert(coalesced.remaining()));
+                Map<String, Long> unreadDelta = new HashMap<>(coalesced.unreadDelta());
+                coalesced.remaining().forEach(notification -> unreadDelta.merge(notification.getUserId(), 1L, Long::sum));
+                notificationCounterService.incrementAll(unreadDelta);
+                delivered.addAndGet(notifications.size());
+                writes.addAndGet(coalesced.aggregated().size() + coalesced.remaining().size());
+                push(coalesced.aggregated());
+                push(coalesced.remaining());
+            }
+            recordLag(batch);
+        } catch (Exception e) {
+            dropped.addAndGet(batch.size());
+            log.error("Dropped {} notification events after {} attempts", batch.size(), MAX_ATTEMPTS, e);
+        }
+    }
+
+    private void push(List<Notification> notifications) {
+        for (Notification notification : notifications) {
+            notificationPushService.push(notification.getUserId(),
+                    notificationMapper.toNotificationResponse(notification));
+        }
+    }
+
+    private <T> T withRetry(Supplier<T> action) {
+        for (int attempt = 1; ; attempt++) {
+            try {
+                return action.get();
+            } catch (RuntimeException e) {
+                if (attempt >= MAX_ATTEMPTS) throw e;
+                retries.incrementAndGet();
+                log.warn("Notification bus attempt {} failed, retrying: {}", attempt, e.getMessage());
+                try {
+                    Thread.sleep(RETRY_BACKOFF_MS << (attempt - 1));
+                } catch (InterruptedException interrupted) {
+                    Thread.currentThread().interrupt();
+                    throw e;
+                }
+            }
+        }
+    }
+
+    private void recordLag(List<Envelope> batch) {
+        long oldest = batch.stream().mapToLong(Envelope::enqueuedAt).min().orElse(System.currentTimeMillis());
+        long lag = System.currentTimeMillis() - oldest;
+        lastLagMs.set(lag);
+        maxLagMs.accumulateAndGet(lag, Math::max);
+    }
+
+    // ========================================================================
+    // TRA NGƯỜI NHẬN + GHI
+    // ========================================================================
+
+    List<Notification> resolve(List<Envelope> batch) {
+        Set<String> postIds = new HashSet<>();
+        for (Envelope envelope : batch) {
+            switch (envelope.event()) {
+                case PostLiked liked -> postIds.add(liked.postId());
+                case PostCommented commented -> postIds.add(commented.postId());
+                case RegistrationCreated ignored -> { }
+            }
+        }
+        postIds.remove(null);
+
+        Map<String, Post> posts = findByIds(postIds, Post.class, Post::getId, "authorId", "channelId");
+        Map<String, Channel> channels = findByIds(
+                posts.values().stream().map(Post::getChannelId).filter(Objects::nonNull).collect(Collectors.toSet()),
+                Channel.class, Channel::getId, "eventId");
+        Map<String, Event> events = findByIds(
+                channels.values().stream().map(Channel::getEventId)
+                        .filter(id -> id != null && !"GLOBAL_FEED".equals(id))
+                        .collect(Collectors.toSet()),
+                Event.class, Event::getId, "createdBy");
+
+        List<Notification> notifications = new ArrayList<>();
+        for (Envelope envelope : batch) {
+            // Thời điểm hoạt động (không phải lúc worker xử lý) -> quyết định cửa sổ gộp
+            Date at = new Date(envelope.enqueuedAt());
+            switch (envelope.event()) {
+                case PostLiked liked -> addPostActivity(notifications, at, posts.get(liked.postId()), channels, events,
+                        "post_like", "Bài viết của bạn nhận được một lượt thích",
+                        "event_post_like", "Có lượt thích mới trong bài viết thuộc sự kiện của bạn");
+                case PostCommented commented -> addPostActivity(notifications, at, posts.get(commented.postId()), channels, events,
+                        "post_comment", "Bài viết của bạn nhận được một bình luận mới",
+                        "event_post_comment", "Có bình luận mới trong bài viết thuộc sự kiện của bạn");
+                case RegistrationCreated registration -> add(notifications, at, registration.eventOwnerId(), registration.eventId(),
+                        "event_registration", "Có đăng ký mới cho sự kiện của bạn");
+            }
+        }
+        return notifications;
+    }
+
+    private static void addPostActivity(List<Notification> target, Date now, Post post,
+                                        Map<String, Channel> channels, Map<String, Event> events,
+                                        String authorType, String authorMessage,
+                                        String ownerType, String ownerMessage) {
+        if (post == null) return;
+        add(target, now, post.getAuthorId(), post.getId(), authorType, authorMessage);
+        Channel channel = post.getChannelId() != null ? channels.get(post.getChannelId()) : null;
+        Event event = channel != null && channel.getEventId() != null ? events.get(channel.getEventId()) : null;
+        if (event != null) add(target, now, event.getCreatedBy(), post.getId(), ownerType, ownerMessage);
+    }
+
+    private static void add(List<Notification> target, Date now, String userId, String targetId,
+                            String type, String message) {
+        if (userId == null) return;
+        target.add(Notification.builder()
+                // Sinh id trước để lần retry ghi lại đúng các bản ghi này
+                .id(new ObjectId().toHexString())
+                .userId(userId)
+                .type(type)
+                .message(message)
+                .targetId(targetId)
+                .isRead(false)
+                .createdAt(now)
+                .build());
+    }
+
+    private <T> Map<String, T> findByIds(Set<String> ids, Class<T> type, Function<T, String> idOf, String... fields) {
+        if (ids.isEmpty()) return Map.of();
+        Query query = Query.query(Criteria.where("_id").in(ids));
+        query.fields().include(fields);
+        return mongoTemplate.find(query, type).stream()
+                .collect(Collectors.toMap(idOf, Function.identity(), (a, b) -> a));
+    }
+
+    // Bulk unordered: 1 round-trip cho cả batch; khi retry, bản ghi đã ghi ở lần trước báo trùng khoá -> bỏ qua
+    private Void insert(List<Notification> notifications) {
+        try {
+            mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, Notification.class)
+                    .insert(notifications)
+                    .execute();
+        } catch (BulkOperationException e) {
+            boolean onlyDuplicates = e.getErrors().stream().allMatch(error -> error.getCode() == DUPLICATE_KEY);
+            if (!onlyDuplicates) throw e;
+        }
+        return null;
+    }
+
+    // ========================================================================
+    // SỐ LIỆU
+    // ========================================================================
+
+    public NotificationBusStatsResponse stats() {
+        return NotificationBusStatsResponse.builder()
+                .queueDepth(queue != null ? queue.size() : 0)
+                .capacity(capacity)
+                .workers(workers.size())
+                .published(published.get())
+                .delivered(delivered.get())
+                .writes(writes.get())
+                .dropped(dropped.get())
+                .retries(retries.get())
+                .callerRuns(callerRuns.get())
+                .lastLagMs(lastLagMs.get())
+                .maxLagMs(maxLagMs.get())
+                .build();
+    }
+
+    @Scheduled(fixedDelayString = "${app.notifications.bus-report-ms:60000}", initialDelayString = "${app.notifications.bus-report-ms:60000}")
+    public void report() {
+        NotificationBusStatsResponse stats = stats();
+        maxLagMs.set(0);
+        long newCallerRuns = stats.getCallerRuns() - reportedCallerRuns.getAndSet(stats.getCallerRuns());
+        if (stats.getQueueDepth() > capacity / 2 || newCallerRuns > 0) {
+            log.warn("Notification bus under pressure: {}", stats);
+        } else {
+            log.debug("Notification bus: {}", stats);
+        }
+    }
+}
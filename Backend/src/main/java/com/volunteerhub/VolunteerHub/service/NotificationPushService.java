@@ -0,0 +1,78 @@
+package com.volunteerhub.VolunteerHub.service;
+
+import com.volunteerhub.VolunteerHub.config.WebSocketConfig;
+import com.volunteerhub.VolunteerHub.dto.response.NotificationPushMessage;
+import com.volunteerhub.VolunteerHub.dto.response.NotificationResponse;
+import lombok.AccessLevel;
+import lombok.RequiredArgsConstructor;
+import lombok.experimental.FieldDefaults;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.messaging.simp.user.SimpUserRegistry;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Đẩy notification mới tới /user/queue/notifications của người nhận qua STOMP.
+ * Notification của cùng 1 user được gom lại và gửi thành 1 frame mỗi chu kỳ flush (app.notifications.push-flush-ms),
+ * nên 1 loạt like/comment dồn dập chỉ tạo 1 lần gửi. User không có phiên WebSocket nào thì bỏ qua
+ * (client tải lại qua REST khi kết nối).
+ */
+@Service
+@RequiredArgsConstructor
+@FieldDefaults(level = AccessLevel.PRIVATE, makeFinal = true)
+@Slf4j
+public class NotificationPushService {
+
+    static final int MAX_PENDING_PER_USER = 50;
+
+    SimpMessagingTemplate messagingTemplate;
+    SimpUserRegistry simpUserRegistry;
+
+    // userId -> notification chờ gửi
+    Map<String, Pending> pending = new ConcurrentHashMap<>();
+
+    static final class Pending {
+        final List<NotificationResponse> notifications = new ArrayList<>();
+        boolean truncated;
+    }
+
+    public void push(String userId, NotificationResponse notification) {
+        if (userId == null || notification == null) return;
+        if (simpUserRegistry.getUser(userId) == null) return;
+
+        pending.compute(userId, (key, current) -> {
+            Pending next = current != null ? current : new Pending();
+            // Giữ các notification mới nhất, phần cũ hơn client tự tải lại
+            if (next.notifications.size() >= MAX_PENDING_PER_USER) {
+                next.notifications.removeFirst();
+                next.truncated = true;
+            }
+            next.notifications.add(notification);
+            return next;
+        });
+    }
+
+    @Scheduled(fixedDelayString = "${app.notifications.push-flush-ms:250}")
+    public void flush() {
+        for (String userId : pending.keySet()) {
+            // remove là nguyên tử với compute ở push: batch đã lấy ra không bị ghi thêm
+            Pending batch = pending.remove(userId);
+            if (batch == null || batch.notifications.isEmpty()) continue;
+            try {
+                messagingTemplate.convertAndSendToUser(userId, WebSocketConfig.NOTIFICATION_QUEUE,
+                        NotificationPushMessage.builder()
+                                .notifications(batch.notifications)
+                                .truncated(batch.truncated)
+                                .build());
+            } catch (Exception e) {
+                log.warn("Could not push {} notifications to user {}", batch.notifications.size(), userId, e);
+            }
+        }
+    }
+}
@@ -2,6 +2,7 @@ package com.volunteerhub.VolunteerHub.service;
 
 import com.volunteerhub.VolunteerHub.collection.Notification;
 import com.volunteerhub.VolunteerHub.dto.request.Notification.NotificationCreationRequest;
+import com.volunteerhub.VolunteerHub.dto.response.CursorPage;
 import com.volunteerhub.VolunteerHub.dto.response.NotificationResponse;
 import com.volunteerhub.VolunteerHub.exception.AppException;
 import com.volunteerhub.VolunteerHub.exception.ErrorCode;
@@ -12,6 +13,12 @@ import lombok.RequiredArgsConstructor;
 import lombok.experimental.FieldDefaults;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
 import org.springframework.stereotype.Service;
 
 import java.util.Date;
@@ -29,41 +36,85 @@ public class NotificationService {
     @Autowired
     private NotificationMapper notificationMapper;
 
+    @Autowired
+    private NotificationPushService notificationPushService;
+
+    @Autowired
+    private NotificationCounterService notificationCounterService;
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
     public List<NotificationResponse> getNotifications(String userId) {
-        return notificationRepository.findByUserIdOrderByCreatedAtDesc(userId)
+        return notificationRepository.findTop50ByUserIdOrderByCreatedAtDescIdDesc(userId)
                 .stream()
                 .map(notificationMapper::toNotificationResponse)
                 .toList();
     }
 
     public List<NotificationResponse> getUnreadNotifications(String userId) {
-        return notificationRepository.findByUserIdAndIsReadFalseOrderByCreatedAtDesc(userId)
+        return notificationRepository.findTop50ByUserIdAndIsReadFalseOrderByCreatedAtDescIdDesc(userId)
                 .stream()
                 .map(notificationMapper::toNotificationResponse)
                 .toList();
     }
 
+    /**
+     * Hộp thư theo cursor (createdAt, _id) giảm dần. Notification gộp nhảy lên đầu khi có hoạt động mới
+     * nên có thể xuất hiện lại ở trang đầu khi client tải lại.
+     */
+    public CursorPage<NotificationResponse> getInbox(String userId, String cursor, int size, boolean unreadOnly) {
+        int pageSize = KeysetCursor.clampSize(size);
+        Criteria criteria = Criteria.where("userId").is(userId);
+        if (unreadOnly) criteria.and("isRead").is(false);
+        Query query = KeysetCursor.apply(Query.query(criteria),
+                "createdAt", Sort.Direction.DESC, KeysetCursor.decode(cursor), pageSize);
+        return KeysetCursor.page(mongoTemplate.find(query, Notification.class), pageSize,
+                Notification::getCreatedAt, Notification::getId,
+                notifications -> notifications.stream().map(notificationMapper::toNotificationResponse).toList());
+    }
+
     public Long getUnreadCount(String userId) {
-        return notificationRepository.countByUserIdAndIsReadFalse(userId);
+        return notificationCounterService.getUnread(userId);
     }
 
     public NotificationResponse markAsRead(String notificationId, String userId) {
-        Notification notification = notificationRepository.findByIdAndUserId(notificationId, userId)
-                .orElseThrow(() -> new AppException(ErrorCode.NOTIFICATION_NOT_EXISTED));
-
-        notification.setIsRead(true);
-        notificationRepository.save(notification);
+        // Chỉ giảm counter khi thực sự chuyển chưa đọc -> đã đọc (gọi lại nhiều lần không trừ thêm)
+        Notification notification = mongoTemplate.findAndModify(
+                Query.query(Criteria.where("_id").is(notificationId).and("userId").is(userId).and("isRead").is(false)),
+                new Update().set("isRead", true).set("readAt", new Date()),
+                FindAndModifyOptions.options().returnNew(true), Notification.class);
+        if (notification != null) {
+            notificationCounterService.decrement(userId, 1);
+        } else {
+            notification = notificationRepository.findByIdAndUserId(notificationId, userId)
+                    .orElseThrow(() -> new AppException(ErrorCode.NOTIFICATION_NOT_EXISTED));
+        }
 
         return notificationMapper.toNotificationResponse(notification);
     }
 
+    // 1 updateMulti cho cả hộp thư, trả về số notification vừa được đánh dấu
+    public long markAllAsRead(String userId) {
+        long modified = mongoTemplate.updateMulti(
+                Query.query(Criteria.where("userId").is(userId).and("isRead").is(false)),
+                new Update().set("isRead", true).set("readAt", new Date()),
+                Notification.class).getModifiedCount();
+        notificationCounterService.decrement(userId, modified);
+        return modified;
+    }
+
     public NotificationResponse createNotification(NotificationCreationRequest request) {
         Notification notification = notificationMapper.toNotification(request);
         notification.setIsRead(false);
         notification.setCreatedAt(new Date());
 
         notificationRepository.save(notification);
-        return notificationMapper.toNotificationResponse(notification);
+        notificationCounterService.increment(notification.getUserId(), 1);
+        NotificationResponse response = notificationMapper.toNotificationResponse(notification);
+        // Đẩy realtime cho người nhận đang online (thay cho việc client poll /notifications)
+        notificationPushService.push(notification.getUserId(), response);
+        return response;
     }
 
     public void createNotificationForUser(String userId, String type, String message) {
@@ -0,0 +1,138 @@
+package com.volunteerhub.VolunteerHub.service;
+
+import com.volunteerhub.VolunteerHub.collection.Comment;
+import com.volunteerhub.VolunteerHub.collection.Like;
+import com.volunteerhub.VolunteerHub.collection.Post;
+import lombok.AccessLevel;
+import lombok.RequiredArgsConstructor;
+import lombok.experimental.FieldDefaults;
+import lombok.experimental.NonFinal;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.Aggregation;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * Duy trì likesCount / commentsCount lưu sẵn trên Post bằng $inc nguyên tử,
+ * để đọc feed không phải đếm lại từ likes / comments.
+ * Job reconcile định kỳ sửa lệch (nếu có) từ collection gốc.
+ */
+@Service
+@RequiredArgsConstructor
+@FieldDefaults(level = AccessLevel.PRIVATE, makeFinal = true)
+@Slf4j
+public class PostCounterService {
+
+    static final String LIKES_COUNT = "likesCount";
+    static final String COMMENTS_COUNT = "commentsCount";
+    static final int RECONCILE_BATCH_SIZE = 500;
+
+    MongoTemplate mongoTemplate;
+
+    @NonFinal
+    @Value("${app.counters.reconcile-on-startup:false}")
+    boolean reconcileOnStartup;
+
+    public void incrementLikes(String postId) { inc(postId, LIKES_COUNT, 1); }
+
+    public void decrementLikes(String postId) { inc(postId, LIKES_COUNT, -1); }
+
+    public void incrementComments(String postId) { inc(postId, COMMENTS_COUNT, 1); }
+
+    public void decrementComments(String postId) { inc(postId, COMMENTS_COUNT, -1); }
+
+    private void inc(String postId, String field, int delta) {
+        if (postId == null) return;
+        Criteria criteria = Criteria.where("_id").is(postId);
+        // Không để counter âm khi dữ liệu cũ đang lệch, job reconcile sẽ sửa sau
+        if (delta < 0) criteria.and(field).gt(0);
+        try {
+            mongoTemplate.updateFirst(Query.query(criteria), new Update().inc(field, delta), Post.class);
+        } catch (Exception e) {
+            log.warn("Could not update {} of post {}", field, postId, e);
+        }
+    }
+
+    // ========================================================================
+    // RECONCILIATION
+    // ========================================================================
+
+    // Dữ liệu cũ chưa từng được duy trì counter -> sửa một lượt khi khởi động
+    @EventListener(ApplicationReadyEvent.class)
+    public void reconcileOnStartup() {
+        if (!reconcileOnStartup) return;
+        try {
+            reconcile();
+        } catch (Exception e) {
+            log.error("Post counter reconciliation failed on startup", e);
+        }
+    }
+
+    /**
+     * Quét posts theo từng lô, đếm lại like/comment của lô bằng $group và ghi đè những post bị lệch.
+     * Bộ nhớ chỉ phụ thuộc kích thước lô, không phụ thuộc kích thước collection.
+     */
+    @Scheduled(cron = "${app.counters.reconcile-cron:0 30 3 * * *}")
+    public long reconcile() {
+        long repaired = 0;
+        String lastId = null;
+        while (true) {
+            Query batchQuery = new Query().with(Sort.by(Sort.Direction.ASC, "_id")).limit(RECONCILE_BATCH_SIZE);
+            if (lastId != null) batchQuery.addCriteria(Criteria.where("_id").gt(lastId));
+            batchQuery.fields().include(LIKES_COUNT, COMMENTS_COUNT);
+
+            List<Post> batch = mongoTemplate.find(batchQuery, Post.class);
+            if (batch.isEmpty()) break;
+            repaired += reconcileBatch(batch);
+            lastId = batch.getLast().getId();
+        }
+        if (repaired > 0) log.warn("Post counters reconciled: {} posts repaired", repaired);
+        return repaired;
+    }
+
+    private long reconcileBatch(List<Post> batch) {
+        List<String> ids = batch.stream().map(Post::getId).toList();
+
+        Map<String, Long> likes = GroupCounts.of(mongoTemplate, Aggregation.newAggregation(Like.class,
+                Aggregation.match(Criteria.where("targetType").is("post").and("targetId").in(ids)),
+                Aggregation.group("targetId").count().as("count")));
+        Map<String, Long> comments = GroupCounts.of(mongoTemplate, Aggregation.newAggregation(Comment.class,
+                Aggregation.match(Criteria.where("postId").in(ids)),
+                Aggregation.group("postId").count().as("count")));
+
+        BulkOperations bulk = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, Post.class);
+        long drifted = 0;
+        for (Post post : batch) {
+            long realLikes = likes.getOrDefault(post.getId(), 0L);
+            long realComments = comments.getOrDefault(post.getId(), 0L);
+            if (!Objects.equals(post.getLikesCount(), realLikes) || !Objects.equals(post.getCommentsCount(), realComments)) {
+                // Điều kiện = đúng giá trị đã đọc trước khi đếm: post vừa được like/comment thì bỏ qua, lượt sau sửa
+                Criteria unchanged = Criteria.where("_id").is(post.getId())
+                        .and(LIKES_COUNT).is(post.getLikesCount())
+                        .and(COMMENTS_COUNT).is(post.getCommentsCount());
+                bulk.updateOne(Query.query(unchanged),
+                        new Update().set(LIKES_COUNT, realLikes).set(COMMENTS_COUNT, realComments));
+                drifted++;
+            }
+        }
+        if (drifted == 0) return 0;
+        long modified = bulk.execute().getModifiedCount();
+        if (modified < drifted) {
+            log.info("Skipped {} post counter repairs changed concurrently", drifted - modified);
+        }
+        return modified;
+    }
+}
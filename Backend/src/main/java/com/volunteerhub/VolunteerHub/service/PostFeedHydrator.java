@@ -0,0 +1,162 @@
+package com.volunteerhub.VolunteerHub.service;
+
+import com.volunteerhub.VolunteerHub.collection.*;
+import com.volunteerhub.VolunteerHub.dto.response.PostResponse;
+import com.volunteerhub.VolunteerHub.mapper.PostMapper;
+import com.volunteerhub.VolunteerHub.repository.ChannelRepository;
+import com.volunteerhub.VolunteerHub.repository.EventRepository;
+import com.volunteerhub.VolunteerHub.repository.LikeRepository;
+import com.volunteerhub.VolunteerHub.repository.UserRepository;
+import lombok.AccessLevel;
+import lombok.RequiredArgsConstructor;
+import lombok.experimental.FieldDefaults;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.stereotype.Component;
+
+import java.util.*;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Hydrate cả một feed bài viết trong một lượt.
+ * Số like / comment đọc thẳng từ counter trên Post; mỗi feed chỉ tốn cố định
+ * 1 $in lấy danh sách đã like, 1 $in lấy channel, 1 $in lấy event và 1 $in lấy tác giả (chỉ khi thiếu tên).
+ */
+@Component
+@RequiredArgsConstructor
+@FieldDefaults(level = AccessLevel.PRIVATE, makeFinal = true)
+@Slf4j
+public class PostFeedHydrator {
+
+    static final String POST_TARGET = "post";
+
+    PostMapper postMapper;
+    LikeRepository likeRepository;
+    ChannelRepository channelRepository;
+    EventRepository eventRepository;
+    UserRepository userRepository;
+
+    public Page<PostResponse> hydrate(Page<Post> page, String currentUserId) {
+        return new PageImpl<>(hydrate(page.getContent(), currentUserId), page.getPageable(), page.getTotalElements());
+    }
+
+    public PostResponse hydrate(Post post, String currentUserId) {
+        return hydrate(List.of(post), currentUserId).getFirst();
+    }
+
+    public List<PostResponse> hydrate(List<Post> posts, String currentUserId) {
+        if (posts == null || posts.isEmpty()) return new ArrayList<>();
+
+        List<String> postIds = distinct(posts, Post::getId);
+
+        Set<String> likedByMe = findLikedPostIds(currentUserId, postIds);
+        Map<String, User> authors = findMissingAuthors(posts);
+
+        Map<String, Channel> channels = findChannels(posts);
+        Map<String, Event> events = findEvents(channels.values());
+
+        List<PostResponse> responses = new ArrayList<>(posts.size());
+        for (Post post : posts) {
+            PostResponse res = postMapper.toPostResponse(post);
+
+            // 1. Fallback thông tin tác giả
+            if (res.getAuthorName() == null && post.getAuthorId() != null) {
+                User author = authors.get(post.getAuthorId());
+                if (author != null) {
+                    res.setAuthorName(author.getFull_name());
+                    res.setAuthorAvatar(author.getAvatar_url());
+                }
+            }
+
+            // 2. Like/Comment đọc từ counter lưu sẵn trên Post (PostCounterService), IsLiked từ $in
+            res.setLikesCount(post.getLikesCount() != null ? post.getLikesCount() : 0L);
+            res.setCommentsCount(post.getCommentsCount() != null ? post.getCommentsCount() : 0L);
+            res.setIsLiked(likedByMe.contains(post.getId()));
+
+            // 3. EventId + tiêu đề sự kiện từ Channel
+            Channel channel = post.getChannelId() != null ? channels.get(post.getChannelId()) : null;
+            if (channel != null) {
+                res.setEventId(channel.getEventId());
+                Event event = channel.getEventId() != null ? events.get(channel.getEventId()) : null;
+                if (event != null) res.setTitle(event.getTitle());
+            }
+
+            responses.add(res);
+        }
+        return responses;
+    }
+
+    // ========================================================================
+    // BATCH LOOKUPS
+    // ========================================================================
+
+    private Set<String> findLikedPostIds(String userId, List<String> postIds) {
+        if (userId == null || postIds.isEmpty()) return Set.of();
+        try {
+            return likeRepository.findByUserIdAndTargetTypeAndTargetIdIn(userId, POST_TARGET, postIds).stream()
+                    .map(Like::getTargetId)
+                    .collect(Collectors.toSet());
+        } catch (Exception e) {
+            log.warn("Could not resolve liked posts for user {}", userId, e);
+            return Set.of();
+        }
+    }
+
+    private Map<String, User> findMissingAuthors(List<Post> posts) {
+        List<String> authorIds = posts.stream()
+                .filter(p -> p.getAuthorName() == null && p.getAuthorId() != null)
+                .map(Post::getAuthorId)
+                .distinct()
+                .toList();
+        if (authorIds.isEmpty()) return Map.of();
+        try {
+            return index(userRepository.findAllById(authorIds), User::getId);
+        } catch (Exception e) {
+            return Map.of();
+        }
+    }
+
+    private Map<String, Channel> findChannels(List<Post> posts) {
+        List<String> channelIds = distinct(posts, Post::getChannelId);
+        if (channelIds.isEmpty()) return Map.of();
+        try {
+            return index(channelRepository.findAllById(channelIds), Channel::getId);
+        } catch (Exception e) {
+            return Map.of();
+        }
+    }
+
+    private Map<String, Event> findEvents(Collection<Channel> channels) {
+        List<String> eventIds = channels.stream()
+                .map(Channel::getEventId)
+                .filter(Objects::nonNull)
+                .filter(id -> !"GLOBAL_FEED".equals(id))
+                .distinct()
+                .toList();
+        if (eventIds.isEmpty()) return Map.of();
+        try {
+            return index(eventRepository.findAllById(eventIds), Event::getId);
+        } catch (Exception e) {
+            return Map.of();
+        }
+    }
+
+    // ========================================================================
+    // HELPERS
+    // ========================================================================
+
+    private static <T> List<String> distinct(Collection<T> items, Function<T, String> key) {
+        return items.stream().map(key).filter(Objects::nonNull).distinct().toList();
+    }
+
+    private static <T> Map<String, T> index(Iterable<T> items, Function<T, String> key) {
+        Map<String, T> map = new HashMap<>();
+        for (T item : items) {
+            String k = key.apply(item);
+            if (k != null) map.putIfAbsent(k, item);
+        }
+        return map;
+    }
+}
@@ -0,0 +1,127 @@
+package com.volunteerhub.VolunteerHub.service;
+
+import com.volunteerhub.VolunteerHub.collection.Post;
+import com.volunteerhub.VolunteerHub.search.InvertedIndex;
+import com.volunteerhub.VolunteerHub.search.RebuildableIndex;
+import lombok.AccessLevel;
+import lombok.RequiredArgsConstructor;
+import lombok.experimental.FieldDefaults;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.util.Comparator;
+import java.util.stream.Stream;
+
+/**
+ * Tìm kiếm bài viết theo nội dung / tên tác giả bằng inverted index trong bộ nhớ.
+ * Trả về id đã xếp hạng của 1 trang cùng tổng số chính xác, không cần query count thứ hai.
+ * Vòng đời giống EventSearchIndex (RebuildableIndex): dựng khi khởi động, cập nhật theo PostService, dựng lại định kỳ.
+ */
+@Service
+@RequiredArgsConstructor
+@FieldDefaults(level = AccessLevel.PRIVATE, makeFinal = true)
+@Slf4j
+public class PostSearchIndex {
+
+    static final float AUTHOR_WEIGHT = 2f;
+    static final float CONTENT_WEIGHT = 1f;
+
+    record PostDoc(String channelId, long createdAt) {}
+
+    static final Comparator<PostDoc> NEWEST_FIRST = Comparator.comparingLong(PostDoc::createdAt).reversed();
+
+    MongoTemplate mongoTemplate;
+
+    RebuildableIndex<InvertedIndex<PostDoc>> index = new RebuildableIndex<>(InvertedIndex::new, this::loadAll, this::reload);
+
+    public boolean isReady() {
+        return index.current() != null;
+    }
+
+    /**
+     * Id bài viết khớp keyword (đã xếp hạng) + tổng số khớp.
+     * @param channelId chỉ lấy bài trong channel này (null = mọi channel)
+     * @return null nếu index chưa dựng xong (caller tự dùng query Mongo)
+     */
+    public InvertedIndex.Hits search(String keyword, String channelId, int offset, int limit) {
+        InvertedIndex<PostDoc> current = index.current();
+        if (current == null) return null;
+        return current.search(keyword,
+                channelId != null ? doc -> channelId.equals(doc.channelId()) : null,
+                NEWEST_FIRST, offset, limit);
+    }
+
+    // ========================================================================
+    // CẬP NHẬT THEO THAO TÁC GHI (PostService, EventService)
+    // ========================================================================
+
+    public void index(Post post) {
+        if (post == null || post.getId() == null) return;
+        InvertedIndex<PostDoc> current = index.touch(post.getId());
+        if (current != null) put(current, post);
+    }
+
+    public void remove(String postId) {
+        if (postId == null) return;
+        InvertedIndex<PostDoc> current = index.touch(postId);
+        if (current != null) current.remove(postId);
+    }
+
+    private static void put(InvertedIndex<PostDoc> target, Post post) {
+        long createdAt = post.getCreatedAt() != null ? post.getCreatedAt().getTime() : 0L;
+        target.put(post.getId(), new PostDoc(post.getChannelId(), createdAt),
+                new InvertedIndex.Field(post.getAuthorName(), AUTHOR_WEIGHT),
+                new InvertedIndex.Field(post.getContent(), CONTENT_WEIGHT));
+    }
+
+    // ========================================================================
+    // DỰNG LẠI TỪ MONGO
+    // ========================================================================
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void buildOnStartup() {
+        try {
+            rebuild();
+        } catch (Exception e) {
+            log.error("Could not build post search index on startup", e);
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${app.search.rebuild-ms:900000}", initialDelayString = "${app.search.rebuild-ms:900000}")
+    public void scheduledRebuild() {
+        try {
+            rebuild();
+        } catch (Exception e) {
+            log.warn("Could not rebuild post search index", e);
+        }
+    }
+
+    public void rebuild() {
+        long start = System.currentTimeMillis();
+        InvertedIndex<PostDoc> built = index.rebuild();
+        log.info("Post search index built: {} posts in {} ms", built.size(), System.currentTimeMillis() - start);
+    }
+
+    private void loadAll(InvertedIndex<PostDoc> target) {
+        try (Stream<Post> posts = mongoTemplate.stream(fields(new Query()), Post.class)) {
+            posts.forEach(post -> put(target, post));
+        }
+    }
+
+    private void reload(InvertedIndex<PostDoc> target, String id) {
+        Post post = mongoTemplate.findOne(fields(Query.query(Criteria.where("_id").is(id))), Post.class);
+        if (post != null) put(target, post);
+        else target.remove(id);
+    }
+
+    private static Query fields(Query query) {
+        query.fields().include("channelId", "authorName", "content", "createdAt");
+        return query;
+    }
+}
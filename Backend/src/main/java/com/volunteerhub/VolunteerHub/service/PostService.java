@@ -4,15 +4,14 @@ import com.volunteerhub.VolunteerHub.collection.Channel;
 import com.volunteerhub.VolunteerHub.collection.Post;
 import com.volunteerhub.VolunteerHub.dto.request.Post.PostCreationRequest;
 import com.volunteerhub.VolunteerHub.dto.request.Post.PostUpdateRequest;
+import com.volunteerhub.VolunteerHub.dto.response.CursorPage;
 import com.volunteerhub.VolunteerHub.dto.response.PostResponse;
-import com.volunteerhub.VolunteerHub.dto.response.UserResponse;
 import com.volunteerhub.VolunteerHub.exception.AppException;
 import com.volunteerhub.VolunteerHub.exception.ErrorCode;
 import com.volunteerhub.VolunteerHub.mapper.PostMapper;
 import com.volunteerhub.VolunteerHub.repository.ChannelRepository;
-import com.volunteerhub.VolunteerHub.repository.CommentRepository;
-import com.volunteerhub.VolunteerHub.repository.LikeRepository;
 import com.volunteerhub.VolunteerHub.repository.PostRepository;
+import com.volunteerhub.VolunteerHub.search.InvertedIndex;
 import lombok.AccessLevel;
 import lombok.RequiredArgsConstructor;
 import lombok.experimental.FieldDefaults;
@@ -21,12 +20,16 @@ import org.springframework.data.domain.*;
 import org.springframework.data.mongodb.core.MongoTemplate;
 import org.springframework.data.mongodb.core.query.Criteria;
 import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
 import org.springframework.stereotype.Service;
 import com.volunteerhub.VolunteerHub.repository.EventRepository;
 import java.util.Objects;
 
+import java.util.Date;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 @Service
@@ -37,12 +40,14 @@ public class PostService {
 
     PostRepository postRepository;
     PostMapper postMapper;
-    LikeRepository likeRepository;
-    CommentRepository commentRepository;
     ChannelRepository channelRepository;
     UserService userService;
+    CurrentUserService currentUserService;
     MongoTemplate mongoTemplate;
     EventRepository eventRepository;
+    PostFeedHydrator postFeedHydrator;
+    DashboardStatsService dashboardStatsService;
+    PostSearchIndex postSearchIndex;
 
     /**
      * Lấy bài viết của channel có phân trang.
@@ -51,7 +56,19 @@ public class PostService {
         Pageable pageable = PageRequest.of(page, size, Sort.by("createdAt").descending());
         String currentUserId = getSafeCurrentUserId();
         Page<Post> postsPage = postRepository.findByChannelId(channelId, pageable);
-        return postsPage.map(post -> enrichPostResponse(post, currentUserId));
+        return postFeedHydrator.hydrate(postsPage, currentUserId);
+    }
+
+    /**
+     * Feed của channel theo cursor (createdAt, _id) cho infinite scroll: không skip, không count.
+     */
+    public CursorPage<PostResponse> getPostsByChannelIdCursor(String channelId, String cursor, int size) {
+        int pageSize = KeysetCursor.clampSize(size);
+        Query query = KeysetCursor.apply(Query.query(Criteria.where("channelId").is(channelId)),
+                "createdAt", Sort.Direction.DESC, KeysetCursor.decode(cursor), pageSize);
+        String currentUserId = getSafeCurrentUserId();
+        return KeysetCursor.page(mongoTemplate.find(query, Post.class), pageSize,
+                Post::getCreatedAt, Post::getId, posts -> postFeedHydrator.hydrate(posts, currentUserId));
     }
 
     /**
@@ -59,9 +76,7 @@ public class PostService {
      */
     public List<PostResponse> getPostsByAuthorId(String authorId) {
         String currentUserId = getSafeCurrentUserId();
-        return postRepository.findByAuthorId(authorId).stream()
-                .map(post -> enrichPostResponse(post, currentUserId))
-                .collect(Collectors.toList());
+        return postFeedHydrator.hydrate(postRepository.findByAuthorId(authorId), currentUserId);
     }
 
     /**
@@ -71,9 +86,7 @@ public class PostService {
         Pageable limit = PageRequest.of(0, 5);
         String currentUserId = getSafeCurrentUserId();
         // Fallback: Dùng findAll có limit nếu chưa có hàm custom query
-        return postRepository.findAll(limit).stream()
-                .map(post -> enrichPostResponse(post, currentUserId))
-                .collect(Collectors.toList());
+        return postFeedHydrator.hydrate(postRepository.findAll(limit).getContent(), currentUserId);
     }
 
     public PostResponse getPost(String postId){
@@ -105,6 +118,8 @@ public class PostService {
         } catch (Exception ignored) {}
 
         postRepository.save(post);
+        dashboardStatsService.onPostCreated(post);
+        postSearchIndex.index(post);
         return enrichPostResponse(post, getSafeCurrentUserId());
     }
 
@@ -123,7 +138,15 @@ public class PostService {
             }
         } catch (Exception ignored) {}
 
-        postRepository.save(post);
+        // Chỉ $set các field sửa được, không ghi đè likesCount/commentsCount đang được $inc đồng thời
+        post.setUpdatedAt(new Date());
+        mongoTemplate.updateFirst(Query.query(Criteria.where("_id").is(postId)), new Update()
+                .set("content", post.getContent())
+                .set("images", post.getImages())
+                .set("authorName", post.getAuthorName())
+                .set("authorAvatar", post.getAuthorAvatar())
+                .set("updatedAt", post.getUpdatedAt()), Post.class);
+        postSearchIndex.index(post);
         return enrichPostResponse(post, getSafeCurrentUserId());
     }
 
@@ -132,12 +155,9 @@ public class PostService {
         Post post = postRepository.findById(postId)
                 .orElseThrow(() -> new AppException(ErrorCode.POST_NOT_EXISTED));
 
-        // 2. Lấy thông tin user hiện tại
-        UserResponse currentUser = userService.getMyInfo();
-
-        // Lấy danh sách roles (tránh null pointer nếu user chưa có role nào)
-        Set<String> userRoles = currentUser.getRoles();
-        if (userRoles == null) userRoles = Set.of();
+        // 2. Lấy thông tin user hiện tại (id + roles từ JWT)
+        String currentUserId = currentUserService.getUserId();
+        Set<String> userRoles = currentUserService.getRoles();
 
         boolean isAuthorized = false;
 
@@ -148,7 +168,7 @@ public class PostService {
         }
 
         // --- CASE B: Chính chủ (Tác giả bài viết) ---
-        else if (Objects.equals(post.getAuthorId(), currentUser.getId())) {
+        else if (Objects.equals(post.getAuthorId(), currentUserId)) {
             isAuthorized = true;
         }
 
@@ -162,7 +182,7 @@ public class PostService {
                 if (channel != null) {
                     var event = eventRepository.findById(channel.getEventId()).orElse(null);
                     // Nếu user hiện tại là người tạo ra Event này
-                    if (event != null && Objects.equals(event.getCreatedBy(), currentUser.getId())) {
+                    if (event != null && Objects.equals(event.getCreatedBy(), currentUserId)) {
                         isAuthorized = true;
                     }
                 }
@@ -175,7 +195,11 @@ public class PostService {
         }
 
         // 5. Xóa
-        postRepository.deleteById(postId);
+        //Chỉ request thực sự xóa được document mới trừ thống kê
+        Post removed = mongoTemplate.findAndRemove(Query.query(Criteria.where("_id").is(postId)), Post.class);
+        if (removed == null) return;
+        dashboardStatsService.onPostDeleted(removed);
+        postSearchIndex.remove(postId);
     }
 
     /**
@@ -184,10 +208,18 @@ public class PostService {
      */
     public Page<PostResponse> searchPosts(String search, String eventId, int page, int size) {
         Pageable pageable = PageRequest.of(page, size, Sort.by(Sort.Direction.DESC, "createdAt"));
+        boolean hasSearch = search != null && !search.trim().isEmpty();
+
+        // Có từ khoá -> tra inverted index (xếp hạng + tổng số trong 1 lượt), không quét regex
+        if (hasSearch && postSearchIndex.isReady() && !"global".equals(eventId)) {
+            Page<Post> posts = searchIndexed(search, eventId, pageable);
+            if (posts != null) return postFeedHydrator.hydrate(posts, null);
+        }
+
         Query query = new Query();
 
         // 1. Tìm kiếm (Search)
-        if (search != null && !search.trim().isEmpty()) {
+        if (hasSearch) {
             Criteria searchCriteria = new Criteria().orOperator(
                     Criteria.where("content").regex(search, "i"),
                     Criteria.where("authorName").regex(search, "i")
@@ -213,67 +245,41 @@ public class PostService {
         query.with(pageable);
         List<Post> posts = mongoTemplate.find(query, Post.class);
 
-        return new PageImpl<>(posts, pageable, total)
-                .map(post -> enrichPostResponse(post, null));
+        return postFeedHydrator.hydrate(new PageImpl<>(posts, pageable, total), null);
     }
 
     // ========================================================================
     // PRIVATE HELPERS
     // ========================================================================
 
+    private Page<Post> searchIndexed(String search, String eventId, Pageable pageable) {
+        String channelId = null;
+        if (eventId != null && !eventId.equals("all")) {
+            Channel channel = channelRepository.findByEventId(eventId).orElse(null);
+            if (channel == null) return new PageImpl<>(List.of(), pageable, 0);
+            channelId = channel.getId();
+        }
+
+        InvertedIndex.Hits hits = postSearchIndex.search(search, channelId, (int) pageable.getOffset(), pageable.getPageSize());
+        if (hits == null) return null;
+        if (hits.ids().isEmpty()) return new PageImpl<>(List.of(), pageable, hits.total());
+
+        // 1 query $in cho cả trang, giữ nguyên thứ tự xếp hạng
+        Map<String, Post> byId = postRepository.findAllById(hits.ids()).stream()
+                .collect(Collectors.toMap(Post::getId, Function.identity()));
+        List<Post> posts = hits.ids().stream().map(byId::get).filter(Objects::nonNull).toList();
+        return new PageImpl<>(posts, pageable, hits.total());
+    }
+
     private String getSafeCurrentUserId() {
         try {
-            UserResponse myInfo = userService.getMyInfo();
-            return myInfo != null ? myInfo.getId() : null;
+            return currentUserService.findUserId();
         } catch (Exception e) {
             return null;
         }
     }
 
     private PostResponse enrichPostResponse(Post post, String currentUserId) {
-        PostResponse res = postMapper.toPostResponse(post);
-
-        // 1. Fallback thông tin tác giả
-        if (res.getAuthorName() == null && post.getAuthorId() != null) {
-            try {
-                var a = userService.getUserById(post.getAuthorId());
-                res.setAuthorName(a.getFull_name());
-                res.setAuthorAvatar(a.getAvatar_url());
-            } catch (Exception ignored) {}
-        }
-
-        // 2. Map Like/Comment/IsLiked
-        try {
-            res.setLikesCount(likeRepository.countByTargetTypeAndTargetId("post", post.getId()));
-            res.setCommentsCount(commentRepository.countByPostId(post.getId()));
-
-            if (currentUserId != null) {
-                res.setIsLiked(likeRepository.existsByUserIdAndTargetTypeAndTargetId(currentUserId, "post", post.getId()));
-            } else {
-                res.setIsLiked(false);
-            }
-        } catch (Exception ignored) {
-            res.setLikesCount(0L);
-            res.setCommentsCount(0L);
-            res.setIsLiked(false);
-        }
-
-        // 3. Map EventId từ Channel
-        try {
-            if (post.getChannelId() != null) {
-                channelRepository.findById(post.getChannelId()).ifPresent(channel -> {
-                    res.setEventId(channel.getEventId());
-
-
-                    if (channel.getEventId() != null) {
-                        eventRepository.findById(channel.getEventId()).ifPresent(event -> {
-                            res.setTitle(event.getTitle());
-                        });
-                    }
-                });
-            }
-        } catch (Exception ignored) {}
-
-        return res;
+        return postFeedHydrator.hydrate(post, currentUserId);
     }
-}
\ No newline at end of file
+}
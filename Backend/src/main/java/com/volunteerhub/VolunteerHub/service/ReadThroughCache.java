@@ -0,0 +1,165 @@
+package com.volunteerhub.VolunteerHub.service;
+
+import com.volunteerhub.VolunteerHub.dto.response.CacheStatsResponse;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * Cache đọc-qua trong process: giới hạn số entry (LRU), TTL theo entry, gộp request khi miss
+ * (N request cùng key chỉ 1 request đọc Mongo, còn lại chờ kết quả), có đếm hit/miss.
+ * Giá trị đọc xong chỉ được lưu nếu trong lúc đọc key đó không bị invalidate (invalidate / invalidateAll đánh dấu
+ * lần đọc đang chạy của key) -> không ghi đè bản mới bằng bản cũ, còn invalidate key khác không ảnh hưởng.
+ * Không phải bean: mỗi vùng cache (EventReadCache) tạo 1 instance.
+ */
+public class ReadThroughCache<K, V> {
+
+    record Entry<V>(V value, long expiresAt) {}
+
+    // Lần đọc đang chạy của 1 key, bị đánh dấu nếu key bị invalidate trong lúc đọc
+    static final class Load<V> extends CompletableFuture<V> {
+        volatile boolean invalidated;
+    }
+
+    final String name;
+    final int maxEntries;
+    final long ttlNanos;
+
+    final LinkedHashMap<K, Entry<V>> entries;
+    final ConcurrentHashMap<K, Load<V>> loading = new ConcurrentHashMap<>();
+
+    final AtomicLong hits = new AtomicLong();
+    final AtomicLong misses = new AtomicLong();
+    final AtomicLong coalesced = new AtomicLong();
+    final AtomicLong loads = new AtomicLong();
+    final AtomicLong loadFailures = new AtomicLong();
+    final AtomicLong evictions = new AtomicLong();
+    final AtomicLong invalidations = new AtomicLong();
+
+    public ReadThroughCache(String name, int maxEntries, long ttlMs) {
+        this.name = name;
+        this.maxEntries = maxEntries;
+        this.ttlNanos = ttlMs * 1_000_000L;
+        // accessOrder = true -> thứ tự LRU, tràn thì bỏ entry lâu nhất không được đọc
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<K, Entry<V>> eldest) {
+                if (size() <= ReadThroughCache.this.maxEntries) return false;
+                evictions.incrementAndGet();
+                return true;
+            }
+        };
+    }
+
+    public V get(K key, Supplier<V> loader) {
+        V cached = getIfPresent(key);
+        if (cached != null) {
+            hits.incrementAndGet();
+            return cached;
+        }
+        misses.incrementAndGet();
+
+        Load<V> mine = new Load<>();
+        Load<V> running = loading.putIfAbsent(key, mine);
+        if (running != null) {
+            coalesced.incrementAndGet();
+            return join(running);
+        }
+        try {
+            loads.incrementAndGet();
+            V value = loader.get();
+            if (value != null) {
+                // Kiểm tra và lưu cùng khoá với invalidate: không lọt invalidate nào vào giữa
+                synchronized (entries) {
+                    if (!mine.invalidated) entries.put(key, new Entry<>(value, System.nanoTime() + ttlNanos));
+                }
+            }
+            mine.complete(value);
+            return value;
+        } catch (RuntimeException e) {
+            // Không cache lỗi (vd. không tìm thấy), request sau đọc lại
+            loadFailures.incrementAndGet();
+            mine.completeExceptionally(e);
+            throw e;
+        } finally {
+            loading.remove(key, mine);
+        }
+    }
+
+    public void put(K key, V value) {
+        synchronized (entries) {
+            entries.put(key, new Entry<>(value, System.nanoTime() + ttlNanos));
+        }
+    }
+
+    public void invalidate(K key) {
+        invalidations.incrementAndGet();
+        synchronized (entries) {
+            Load<V> running = loading.get(key);
+            if (running != null) running.invalidated = true;
+            entries.remove(key);
+        }
+    }
+
+    public void invalidateAll() {
+        invalidations.incrementAndGet();
+        synchronized (entries) {
+            loading.values().forEach(running -> running.invalidated = true);
+            entries.clear();
+        }
+    }
+
+    public CacheStatsResponse stats() {
+        int size;
+        synchronized (entries) {
+            size = entries.size();
+        }
+        long hitCount = hits.get();
+        long missCount = misses.get();
+        return CacheStatsResponse.builder()
+                .name(name)
+                .size(size)
+                .maxEntries(maxEntries)
+                .ttlMs(ttlNanos / 1_000_000L)
+                .hits(hitCount)
+                .misses(missCount)
+                .hitRate(hitCount + missCount == 0 ? 0 : (double) hitCount / (hitCount + missCount))
+                .coalesced(coalesced.get())
+                .loads(loads.get())
+                .loadFailures(loadFailures.get())
+                .evictions(evictions.get())
+                .invalidations(invalidations.get())
+                .build();
+    }
+
+    // ========================================================================
+    // HELPER
+    // ========================================================================
+
+    private V getIfPresent(K key) {
+        synchronized (entries) {
+            Entry<V> entry = entries.get(key);
+            if (entry == null) return null;
+            if (System.nanoTime() - entry.expiresAt() >= 0) {
+                entries.remove(key);
+                return null;
+            }
+            return entry.value();
+        }
+    }
+
+    // Request chờ nhận đúng exception gốc của request đang đọc (AppException -> mã lỗi như cũ)
+    private static <V> V join(CompletableFuture<V> future) {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) throw cause;
+            throw e;
+        }
+    }
+}
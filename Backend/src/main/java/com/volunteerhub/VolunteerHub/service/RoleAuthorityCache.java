@@ -0,0 +1,96 @@
+package com.volunteerhub.VolunteerHub.service;
+
+import com.volunteerhub.VolunteerHub.collection.Role;
+import com.volunteerhub.VolunteerHub.repository.RoleRepository;
+import lombok.AccessLevel;
+import lombok.RequiredArgsConstructor;
+import lombok.experimental.FieldDefaults;
+import lombok.experimental.NonFinal;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.stereotype.Service;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Snapshot bất biến role -> permissions, nạp 1 lần và dựng lại khi role thay đổi (RoleService).
+ * Mỗi tổ hợp role trong JWT được tính sẵn 1 Set<GrantedAuthority> dùng chung cho mọi request.
+ */
+@Service
+@RequiredArgsConstructor
+@FieldDefaults(level = AccessLevel.PRIVATE, makeFinal = true)
+@Slf4j
+public class RoleAuthorityCache {
+
+    RoleRepository roleRepository;
+
+    // Permissions theo role + cache authority theo tổ hợp role, thay cả cụm khi reload
+    record Snapshot(Map<String, Set<String>> permissionsByRole,
+                    Map<Set<String>, Set<GrantedAuthority>> authoritiesByRoles) {}
+
+    @NonFinal
+    volatile Snapshot snapshot;
+
+    public Set<GrantedAuthority> authoritiesFor(Collection<String> roles) {
+        Set<String> key = roles == null ? Set.of() : Set.copyOf(roles);
+        Snapshot current = snapshot();
+        return current.authoritiesByRoles().computeIfAbsent(key, k -> {
+            Set<GrantedAuthority> authorities = new HashSet<>();
+            for (String roleName : k) {
+                current.permissionsByRole().getOrDefault(roleName, Set.of())
+                        .forEach(permission -> authorities.add(new SimpleGrantedAuthority(permission)));
+                authorities.add(new SimpleGrantedAuthority("ROLE_" + roleName));
+            }
+            return Set.copyOf(authorities);
+        });
+    }
+
+    // ========================================================================
+    // LOAD / INVALIDATE
+    // ========================================================================
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void loadOnStartup() {
+        try {
+            reload();
+        } catch (Exception e) {
+            log.error("Could not load role authorities on startup", e);
+        }
+    }
+
+    // Đồng bộ thay đổi role từ instance khác
+    @Scheduled(fixedDelayString = "${app.auth.role-refresh-ms:300000}", initialDelayString = "${app.auth.role-refresh-ms:300000}")
+    public void scheduledReload() {
+        try {
+            reload();
+        } catch (Exception e) {
+            log.warn("Could not refresh role authorities", e);
+        }
+    }
+
+    public synchronized void reload() {
+        Map<String, Set<String>> permissions = new HashMap<>();
+        for (Role role : roleRepository.findAll()) {
+            if (role.getName() == null) continue;
+            permissions.put(role.getName(), role.getPermissions() == null ? Set.of() : Set.copyOf(role.getPermissions()));
+        }
+        Map<String, Set<String>> next = Map.copyOf(permissions);
+        if (snapshot != null && next.equals(snapshot.permissionsByRole())) return;
+        snapshot = new Snapshot(next, new ConcurrentHashMap<>());
+        log.debug("Role authorities loaded for {} roles", next.size());
+    }
+
+    private Snapshot snapshot() {
+        Snapshot current = snapshot;
+        if (current != null) return current;
+        synchronized (this) {
+            if (snapshot == null) reload();
+            return snapshot;
+        }
+    }
+}
@@ -25,6 +25,7 @@ import java.util.List;
 public class RoleService {
     RoleRepository roleRepository;
     RoleMapper roleMapper;
+    RoleAuthorityCache roleAuthorityCache;
 
     public RoleResponse create(RoleCreationRequest request){
         if (roleRepository.existsById(request.getName())){
@@ -35,6 +36,7 @@ public class RoleService {
         var permissions = request.getPermissions();
         role.setPermissions(new HashSet<>(permissions));
         roleRepository.save(role);
+        roleAuthorityCache.reload();
         return roleMapper.toRoleResponse(role);
     }
 
@@ -50,10 +52,13 @@ public class RoleService {
                         .orElseThrow(()-> new AppException(ErrorCode.ROLE_NOT_EXISTED));
         var permissions = request.getPermissions();
         roleName.getPermissions().addAll(permissions);
-        return roleMapper.toRoleResponse(roleRepository.save(roleName));
+        var saved = roleRepository.save(roleName);
+        roleAuthorityCache.reload();
+        return roleMapper.toRoleResponse(saved);
     }
 
     public void delete(String role){
         roleRepository.deleteById(role);
+        roleAuthorityCache.reload();
     }
 }
@@ -1,18 +1,19 @@
 package com.volunteerhub.VolunteerHub.service;
 
+import com.volunteerhub.VolunteerHub.collection.DashboardStats;
 import com.volunteerhub.VolunteerHub.collection.Event;
 import com.volunteerhub.VolunteerHub.collection.EventRegistration;
 import com.volunteerhub.VolunteerHub.collection.User;
 import com.volunteerhub.VolunteerHub.constant.Roles;
 import com.volunteerhub.VolunteerHub.dto.response.StatisticsResponse;
-import com.volunteerhub.VolunteerHub.repository.EventRegistrationRepository;
-import com.volunteerhub.VolunteerHub.repository.EventRepository;
 import com.volunteerhub.VolunteerHub.repository.UserRepository;
 import lombok.AccessLevel;
 import lombok.RequiredArgsConstructor;
 import lombok.experimental.FieldDefaults;
 import lombok.extern.slf4j.Slf4j;
+import org.bson.Document;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.mongodb.core.MongoTemplate;
 import org.springframework.stereotype.Service;
 
 import java.util.*;
@@ -27,11 +28,9 @@ public class StatisticsService {
     @Autowired
     private UserRepository userRepository;
 
-    @Autowired
-    private EventRepository eventRepository;
+    private MongoTemplate mongoTemplate;
 
-    @Autowired
-    private EventRegistrationRepository eventRegistrationRepository;
+    private DashboardStatsService dashboardStatsService;
 
     // Thống kê User
     public StatisticsResponse getUserStatistics() {
@@ -62,70 +61,32 @@ public class StatisticsService {
     }
 
     // Thống kê Event (Phân biệt Admin và Manager)
+    // Đọc 1 document của read model dashboard_stats (global hoặc manager:{id})
     public StatisticsResponse getEventStatistics(String managerId) {
         try {
-            long totalEvents, pendingEvents, approvedEvents, rejectedEvents, completedEvents;
-            long totalRegistrations, pendingRegistrations, approvedRegistrations, completedRegistrations;
+            DashboardStats stats = (managerId != null && !managerId.isEmpty())
+                    ? dashboardStatsService.getManager(managerId)
+                    : dashboardStatsService.getGlobal();
 
-            Map<String, Long> eventsByStatus = new HashMap<>();
+            Map<String, Long> events = stats.getEventsByStatus();
+            Map<String, Long> registrations = stats.getRegistrationsByStatus();
 
-            // TRƯỜNG HỢP 1: MANAGER (Xem dữ liệu của chính mình)
-            if (managerId != null && !managerId.isEmpty()) {
-                // Lấy tất cả sự kiện của Manager này
-                List<Event> managerEvents = eventRepository.findByCreatedBy(managerId);
-
-                // Lấy danh sách ID các sự kiện đó (Ví dụ: [id1, id2, id3])
-                List<String> eventIds = managerEvents.stream().map(Event::getId).collect(Collectors.toList());
-
-                // Tính toán thống kê Event (Logic Java)
-                totalEvents = managerEvents.size();
-                pendingEvents = managerEvents.stream().filter(e -> "pending".equals(e.getStatus())).count();
-                approvedEvents = managerEvents.stream().filter(e -> "approved".equals(e.getStatus())).count();
-                rejectedEvents = managerEvents.stream().filter(e -> "rejected".equals(e.getStatus())).count();
-                completedEvents = managerEvents.stream().filter(e -> "completed".equals(e.getStatus())).count();
-
-                // Tính toán thống kê Registration dựa trên danh sách eventIds
-                if (eventIds.isEmpty()) {
-                    totalRegistrations = 0; pendingRegistrations = 0; approvedRegistrations = 0; completedRegistrations = 0;
-                } else {
-                    totalRegistrations = eventRegistrationRepository.countByEventIdIn(eventIds);
-                    pendingRegistrations = eventRegistrationRepository.countByStatusAndEventIdIn("pending", eventIds);
-                    approvedRegistrations = eventRegistrationRepository.countByStatusAndEventIdIn("approved", eventIds);
-                    completedRegistrations = eventRegistrationRepository.countByStatusAndEventIdIn("completed", eventIds);
-                }
-            }
-            // TRƯỜNG HỢP 2: ADMIN (Xem toàn bộ hệ thống)
-            else {
-                // Thống kê Event
-                totalEvents = eventRepository.count();
-                pendingEvents = eventRepository.countByStatus("pending");
-                approvedEvents = eventRepository.countByStatus("approved");
-                rejectedEvents = eventRepository.countByStatus("rejected");
-                completedEvents = eventRepository.countByStatus("completed");
-
-                // Thống kê Registration
-                totalRegistrations = eventRegistrationRepository.count();
-                pendingRegistrations = eventRegistrationRepository.countByStatus("pending");
-                approvedRegistrations = eventRegistrationRepository.countByStatus("approved");
-                completedRegistrations = eventRegistrationRepository.countByStatus("completed");
+            Map<String, Long> eventsByStatus = new HashMap<>();
+            for (String status : List.of("pending", "approved", "rejected", "completed")) {
+                eventsByStatus.put(status, DashboardStatsService.count(events, status));
             }
 
-            eventsByStatus.put("pending", pendingEvents);
-            eventsByStatus.put("approved", approvedEvents);
-            eventsByStatus.put("rejected", rejectedEvents);
-            eventsByStatus.put("completed", completedEvents);
-
             return StatisticsResponse.builder()
-                    .totalEvents(totalEvents)
-                    .pendingEvents(pendingEvents)
-                    .approvedEvents(approvedEvents)
-                    .rejectedEvents(rejectedEvents)
-                    .completedEvents(completedEvents)
+                    .totalEvents(stats.getTotalEvents())
+                    .pendingEvents(eventsByStatus.get("pending"))
+                    .approvedEvents(eventsByStatus.get("approved"))
+                    .rejectedEvents(eventsByStatus.get("rejected"))
+                    .completedEvents(eventsByStatus.get("completed"))
                     .eventsByStatus(eventsByStatus)
-                    .totalRegistrations(totalRegistrations)
-                    .pendingRegistrations(pendingRegistrations)
-                    .approvedRegistrations(approvedRegistrations)
-                    .completedRegistrations(completedRegistrations)
+                    .totalRegistrations(stats.getTotalRegistrations())
+                    .pendingRegistrations(DashboardStatsService.count(registrations, "pending"))
+                    .approvedRegistrations(DashboardStatsService.count(registrations, "approved"))
+                    .completedRegistrations(DashboardStatsService.count(registrations, "completed"))
                     .build();
         } catch (Exception e) {
             log.error("Error in getEventStatistics", e);
@@ -134,99 +95,118 @@ public class StatisticsService {
     }
 
     // 3. Overview Dashboard
+    // Toàn bộ được tính trên Mongo: 1 $facet trên events + 1 $facet trên event_registrations
+    // ($group cho top volunteer / sự kiện thu hút, $lookup lấy tên). Bộ nhớ ứng dụng chỉ giữ vài chục document.
+
+    static final int OVERVIEW_LIMIT = 5;
 
     public StatisticsResponse getOverviewStatistics() {
         try {
-
-            long totalEvents = eventRepository.count();
-            long pendingEventsCount = eventRepository.countByStatus("pending");
-
-            Date sevenDaysAgo = new Date(System.currentTimeMillis() - 7 * 24 * 60 * 60 * 1000L);
-            long recentEvents = eventRepository.countByCreatedAtAfter(sevenDaysAgo);
-            long upcomingEvents = eventRepository.countByDateAfter(new Date());
-
-
-            List<EventRegistration> allRegistrations = eventRegistrationRepository.findAll();
-
-            Set<String> activeVolunteerIds = allRegistrations.stream()
-                    .map(EventRegistration::getUserId)
-                    .filter(Objects::nonNull)
-                    .collect(Collectors.toSet());
-            long activeVolunteers = activeVolunteerIds.size();
-
-
-            List<Event> top5NewEvents = eventRepository.findTop5ByOrderByCreatedAtDesc();
-            List<StatisticsResponse.EventSummary> recentEventSummaries = top5NewEvents.stream()
-                    .map(e -> {
-                        long registrationCount = eventRegistrationRepository.countByEventId(e.getId());
+            Date now = new Date();
+            Date sevenDaysAgo = new Date(now.getTime() - 7 * 24 * 60 * 60 * 1000L);
+
+            // --- COUNTERS + 5 SỰ KIỆN MỚI NHẤT ---
+            Document eventFacet = aggregateOne(Event.class, List.of(new Document("$facet", new Document()
+                    .append("total", List.of(count()))
+                    .append("pending", List.of(match(new Document("status", "pending")), count()))
+                    .append("recent", List.of(match(new Document("createdAt", new Document("$gt", sevenDaysAgo))), count()))
+                    .append("upcoming", List.of(match(new Document("date", new Document("$gt", now))), count()))
+                    .append("newest", List.of(
+                            new Document("$sort", new Document("createdAt", -1)),
+                            new Document("$limit", OVERVIEW_LIMIT),
+                            new Document("$project", new Document("title", 1).append("status", 1)))))));
+
+            List<Document> newest = eventFacet.getList("newest", Document.class, List.of());
+            List<String> newestIds = newest.stream().map(d -> String.valueOf(d.get("_id"))).toList();
+
+            // --- REGISTRATIONS: volunteer hoạt động, top volunteer, sự kiện thu hút, số đăng ký của 5 sự kiện mới ---
+            Document notNullUser = new Document("userId", new Document("$ne", null));
+            Document registrationFacet = aggregateOne(EventRegistration.class, List.of(new Document("$facet", new Document()
+                    .append("volunteers", List.of(
+                            match(notNullUser),
+                            new Document("$group", new Document("_id", "$userId")),
+                            count()))
+                    .append("topVolunteers", List.of(
+                            match(notNullUser),
+                            new Document("$group", new Document("_id", "$userId")
+                                    .append("eventCount", new Document("$sum", 1))
+                                    .append("completedCount", new Document("$sum", new Document("$cond",
+                                            List.of(new Document("$eq", List.of("$status", "completed")), 1, 0))))),
+                            match(new Document("completedCount", new Document("$gt", 0))),
+                            new Document("$sort", new Document("completedCount", -1).append("_id", 1)),
+                            new Document("$limit", OVERVIEW_LIMIT),
+                            lookupById(mongoTemplate.getCollectionName(User.class), "user",
+                                    new Document("full_name", 1))))
+                    .append("newestCounts", List.of(
+                            match(new Document("eventId", new Document("$in", newestIds))),
+                            new Document("$group", new Document("_id", "$eventId").append("n", new Document("$sum", 1)))))
+                    .append("attractive", List.of(
+                            match(new Document("eventId", new Document("$ne", null))),
+                            new Document("$group", new Document("_id", "$eventId").append("n", new Document("$sum", 1))),
+                            new Document("$sort", new Document("n", -1).append("_id", 1)),
+                            // $lookup chạy lần lượt theo thứ tự đã sort, $limit dừng ngay khi đủ 5 sự kiện approved
+                            lookupById(mongoTemplate.getCollectionName(Event.class), "event",
+                                    new Document("title", 1).append("status", 1), new Document("status", "approved")),
+                            match(new Document("event", new Document("$ne", List.of()))),
+                            new Document("$limit", OVERVIEW_LIMIT))))));
+
+            Map<String, Long> newestCounts = new HashMap<>();
+            for (Document d : registrationFacet.getList("newestCounts", Document.class, List.of())) {
+                newestCounts.put(String.valueOf(d.get("_id")), d.get("n", Number.class).longValue());
+            }
+            List<StatisticsResponse.EventSummary> recentEventSummaries = newest.stream()
+                    .map(d -> {
+                        String id = String.valueOf(d.get("_id"));
                         return StatisticsResponse.EventSummary.builder()
-                                .id(e.getId())
-                                .title(e.getTitle())
-                                .registrationCount(registrationCount)
-                                .status(e.getStatus())
+                                .id(id)
+                                .title(d.getString("title"))
+                                .registrationCount(newestCounts.getOrDefault(id, 0L))
+                                .status(d.getString("status"))
                                 .build();
                     })
                     .collect(Collectors.toList());
 
             // ---ATTRACTIVE EVENTS (Sự kiện thu hút - Sidebar) ---
             // Logic: Lấy top 5 sự kiện Approved có nhiều người đăng ký nhất
-            List<Event> allApprovedEvents = eventRepository.findAll().stream()
-                    .filter(e -> "approved".equals(e.getStatus()))
-                    .collect(Collectors.toList());
-
-            List<StatisticsResponse.EventSummary> attractiveEvents = allApprovedEvents.stream()
-                    .map(e -> {
-                        long regCount = eventRegistrationRepository.countByEventId(e.getId());
-                        return StatisticsResponse.EventSummary.builder()
-                                .id(e.getId())
-                                .title(e.getTitle())
-                                .registrationCount(regCount)
-                                .score(regCount * 10)
-                                .status(e.getStatus())
-                                .build();
-                    })
-                    .sorted((e1, e2) -> Long.compare(e2.getScore(), e1.getScore())) // Sắp xếp giảm dần
-                    .limit(5)
-                    .collect(Collectors.toList());
+            List<StatisticsResponse.EventSummary> attractiveEvents = new ArrayList<>();
+            List<Object> attractiveIds = new ArrayList<>();
+            for (Document d : registrationFacet.getList("attractive", Document.class, List.of())) {
+                Document event = d.getList("event", Document.class).getFirst();
+                long regCount = d.get("n", Number.class).longValue();
+                attractiveIds.add(event.get("_id"));
+                attractiveEvents.add(attractiveSummary(event, regCount));
+            }
+            // Chưa đủ 5 -> bù bằng sự kiện approved chưa có đăng ký nào (giống kết quả cũ)
+            if (attractiveEvents.size() < OVERVIEW_LIMIT) {
+                mongoTemplate.getCollection(mongoTemplate.getCollectionName(Event.class))
+                        .find(new Document("status", "approved").append("_id", new Document("$nin", attractiveIds)))
+                        .projection(new Document("title", 1).append("status", 1))
+                        .limit(OVERVIEW_LIMIT - attractiveEvents.size())
+                        .forEach(event -> attractiveEvents.add(attractiveSummary(event, 0)));
+            }
 
             // TOP VOLUNTEERS (Tình nguyện viên tích cực)
-            List<EventRegistration> completedRegistrations = allRegistrations.stream()
-                    .filter(r -> "completed".equals(r.getStatus()))
-                    .filter(r -> r.getUserId() != null)
-                    .collect(Collectors.toList());
-
-            // Gom nhóm theo UserId và đếm số lượng
-            Map<String, Long> volunteerCompletedCount = completedRegistrations.stream()
-                    .collect(Collectors.groupingBy(EventRegistration::getUserId, Collectors.counting()));
-
-            // Sắp xếp top 5 và lấy thông tin user
-            List<StatisticsResponse.TopVolunteer> topVolunteers = volunteerCompletedCount.entrySet().stream()
-                    .sorted(Map.Entry.<String, Long>comparingByValue().reversed())
-                    .limit(5)
-                    .map(entry -> {
-                        String userId = entry.getKey();
-                        User user = userRepository.findById(userId).orElse(null);
-
-                        long totalEventCount = allRegistrations.stream()
-                                .filter(r -> userId.equals(r.getUserId()))
-                                .count();
-
+            List<StatisticsResponse.TopVolunteer> topVolunteers = registrationFacet
+                    .getList("topVolunteers", Document.class, List.of()).stream()
+                    .map(d -> {
+                        List<Document> user = d.getList("user", Document.class, List.of());
+                        String fullName = user.isEmpty() ? null : user.getFirst().getString("full_name");
                         return StatisticsResponse.TopVolunteer.builder()
-                                .userId(userId)
-                                .fullName(user != null ? user.getFull_name() : "Unknown User")
-                                .eventCount(totalEventCount)
-                                .completedCount(entry.getValue())
+                                .userId(String.valueOf(d.get("_id")))
+                                .fullName(fullName != null ? fullName : "Unknown User")
+                                .eventCount(d.get("eventCount", Number.class).longValue())
+                                .completedCount(d.get("completedCount", Number.class).longValue())
                                 .build();
                     })
                     .collect(Collectors.toList());
 
             // --- TRẢ VỀ KẾT QUẢ ĐẦY ĐỦ ---
             return StatisticsResponse.builder()
-                    .totalEvents(totalEvents)
-                    .pendingEvents(pendingEventsCount)
-                    .recentEvents(recentEvents)
-                    .upcomingEvents(upcomingEvents)
-                    .activeVolunteers(activeVolunteers)
+                    .totalEvents(facetCount(eventFacet, "total"))
+                    .pendingEvents(facetCount(eventFacet, "pending"))
+                    .recentEvents(facetCount(eventFacet, "recent"))
+                    .upcomingEvents(facetCount(eventFacet, "upcoming"))
+                    .activeVolunteers(facetCount(registrationFacet, "volunteers"))
                     .recentEventSummaries(recentEventSummaries)
                     .attractiveEvents(attractiveEvents)
                     .topVolunteers(topVolunteers)
@@ -244,4 +224,60 @@ public class StatisticsService {
                     .build();
         }
     }
-}
\ No newline at end of file
+
+    // ========================================================================
+    // AGGREGATION HELPERS
+    // ========================================================================
+
+    private Document aggregateOne(Class<?> entity, List<Document> pipeline) {
+        Document result = mongoTemplate.getCollection(mongoTemplate.getCollectionName(entity))
+                .aggregate(pipeline)
+                .allowDiskUse(true)
+                .first();
+        return result != null ? result : new Document();
+    }
+
+    private static Document match(Document filter) {
+        return new Document("$match", filter);
+    }
+
+    private static Document count() {
+        return new Document("$count", "n");
+    }
+
+    private static long facetCount(Document facet, String key) {
+        List<Document> docs = facet.getList(key, Document.class, List.of());
+        return docs.isEmpty() ? 0L : docs.getFirst().get("n", Number.class).longValue();
+    }
+
+    private static Document lookupById(String from, String as, Document projection) {
+        return lookupById(from, as, projection, new Document());
+    }
+
+    /**
+     * $lookup theo _id của collection khác. Các field tham chiếu (userId, eventId) lưu dạng String
+     * còn _id là ObjectId nên phải $convert trước khi so sánh (id không phải ObjectId thì giữ nguyên).
+     */
+    private static Document lookupById(String from, String as, Document projection, Document filter) {
+        Document id = new Document("$convert", new Document("input", "$_id")
+                .append("to", "objectId")
+                .append("onError", "$_id")
+                .append("onNull", null));
+        Document matchId = new Document("$expr", new Document("$eq", List.of("$_id", "$$refId")));
+        matchId.putAll(filter);
+        return new Document("$lookup", new Document("from", from)
+                .append("let", new Document("refId", id))
+                .append("pipeline", List.of(match(matchId), new Document("$project", projection)))
+                .append("as", as));
+    }
+
+    private static StatisticsResponse.EventSummary attractiveSummary(Document event, long regCount) {
+        return StatisticsResponse.EventSummary.builder()
+                .id(String.valueOf(event.get("_id")))
+                .title(event.getString("title"))
+                .registrationCount(regCount)
+                .score(regCount * 10)
+                .status(event.getString("status"))
+                .build();
+    }
+}
@@ -0,0 +1,87 @@
+package com.volunteerhub.VolunteerHub.service;
+
+import com.volunteerhub.VolunteerHub.collection.InvalidatedToken;
+import com.volunteerhub.VolunteerHub.repository.InvalidatedTokenRepository;
+import lombok.AccessLevel;
+import lombok.RequiredArgsConstructor;
+import lombok.experimental.FieldDefaults;
+import lombok.experimental.NonFinal;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.util.Date;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Danh sách token đã thu hồi (logout / refresh) giữ trong bộ nhớ: jti -> thời điểm hết hạn.
+ * Token sống tối đa 1 giờ nên tập này luôn nhỏ; kiểm tra thu hồi là 1 lookup hash thay vì 1 query Mongo.
+ * Collection tokens vẫn là nguồn gốc: nạp lúc khởi động và đồng bộ định kỳ (cho trường hợp chạy nhiều instance).
+ */
+@Service
+@RequiredArgsConstructor
+@FieldDefaults(level = AccessLevel.PRIVATE, makeFinal = true)
+@Slf4j
+public class TokenRevocationService {
+
+    InvalidatedTokenRepository invalidatedTokenRepository;
+    MongoTemplate mongoTemplate;
+
+    Map<String, Long> revoked = new ConcurrentHashMap<>();
+
+    @NonFinal
+    volatile boolean loaded = false;
+
+    public boolean isRevoked(String jti) {
+        if (jti == null) return false;
+        // Chưa nạp xong (ngay sau khi khởi động) -> hỏi thẳng DB
+        if (!loaded) return invalidatedTokenRepository.existsById(jti);
+        return revoked.containsKey(jti);
+    }
+
+    public void revoke(String jti, Date expiryTime) {
+        if (jti == null) return;
+        invalidatedTokenRepository.save(InvalidatedToken.builder()
+                .id(jti)
+                .expiryTime(expiryTime)
+                .build());
+        revoked.put(jti, expiryTime != null ? expiryTime.getTime() : Long.MAX_VALUE);
+    }
+
+    // ========================================================================
+    // ĐỒNG BỘ VỚI COLLECTION tokens
+    // ========================================================================
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void loadOnStartup() {
+        try {
+            refresh();
+        } catch (Exception e) {
+            log.error("Could not load revoked tokens, falling back to database lookups", e);
+        }
+    }
+
+    /**
+     * Nạp các token bị thu hồi còn hạn và bỏ những token đã hết hạn khỏi bộ nhớ.
+     */
+    @Scheduled(fixedDelayString = "${app.auth.revocation-refresh-ms:60000}", initialDelayString = "${app.auth.revocation-refresh-ms:60000}")
+    public void refresh() {
+        Date now = new Date();
+        Query query = Query.query(new Criteria().orOperator(
+                Criteria.where("expiryTime").gt(now),
+                Criteria.where("expiryTime").is(null)));
+        for (InvalidatedToken token : mongoTemplate.find(query, InvalidatedToken.class)) {
+            revoked.put(token.getId(), token.getExpiryTime() != null ? token.getExpiryTime().getTime() : Long.MAX_VALUE);
+        }
+        // Token đã hết hạn thì bị từ chối bởi kiểm tra exp, không cần giữ lại
+        revoked.values().removeIf(expiry -> expiry <= now.getTime());
+        loaded = true;
+        log.debug("Revoked token registry holds {} entries", revoked.size());
+    }
+}
@@ -0,0 +1,154 @@
+package com.volunteerhub.VolunteerHub.service;
+
+import com.volunteerhub.VolunteerHub.collection.Channel;
+import com.volunteerhub.VolunteerHub.collection.User;
+import com.volunteerhub.VolunteerHub.search.InvertedIndex;
+import com.volunteerhub.VolunteerHub.search.PrefixIndex;
+import com.volunteerhub.VolunteerHub.search.RebuildableIndex;
+import lombok.AccessLevel;
+import lombok.RequiredArgsConstructor;
+import lombok.experimental.FieldDefaults;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.util.stream.Stream;
+
+/**
+ * Typeahead cho thanh tìm kiếm user (bảng Admin, theo tên / email) và channel (Community, theo tên).
+ * Dựa trên PrefixIndex trong bộ nhớ: mỗi truy vấn là 1 phép quét khoảng trên khoá đã sắp xếp.
+ * Dựng khi khởi động, cập nhật theo UserService / ChannelService, dựng lại định kỳ.
+ * Trả về null khi index chưa sẵn sàng để caller dùng query regex cũ.
+ */
+@Service
+@RequiredArgsConstructor
+@FieldDefaults(level = AccessLevel.PRIVATE, makeFinal = true)
+@Slf4j
+public class TypeaheadIndex {
+
+    MongoTemplate mongoTemplate;
+
+    RebuildableIndex<PrefixIndex> users = new RebuildableIndex<>(PrefixIndex::new, this::loadUsers, this::reloadUser);
+
+    RebuildableIndex<PrefixIndex> channels = new RebuildableIndex<>(PrefixIndex::new, this::loadChannels, this::reloadChannel);
+
+    // ========================================================================
+    // TRA CỨU
+    // ========================================================================
+
+    // Sắp theo full_name rồi id (giống bảng user cũ)
+    public InvertedIndex.Hits searchUsers(String keyword, int offset, int limit) {
+        PrefixIndex current = users.current();
+        return current != null ? current.search(keyword, offset, limit) : null;
+    }
+
+    public InvertedIndex.Hits searchChannels(String keyword, int offset, int limit) {
+        PrefixIndex current = channels.current();
+        return current != null ? current.search(keyword, offset, limit) : null;
+    }
+
+    // ========================================================================
+    // CẬP NHẬT THEO THAO TÁC GHI
+    // ========================================================================
+
+    public void indexUser(User user) {
+        if (user == null || user.getId() == null) return;
+        PrefixIndex current = users.touch(user.getId());
+        if (current != null) putUser(current, user);
+    }
+
+    public void removeUser(String userId) {
+        if (userId == null) return;
+        PrefixIndex current = users.touch(userId);
+        if (current != null) current.remove(userId);
+    }
+
+    public void indexChannel(Channel channel) {
+        if (channel == null || channel.getId() == null) return;
+        PrefixIndex current = channels.touch(channel.getId());
+        if (current != null) putChannel(current, channel);
+    }
+
+    public void removeChannel(String channelId) {
+        if (channelId == null) return;
+        PrefixIndex current = channels.touch(channelId);
+        if (current != null) current.remove(channelId);
+    }
+
+    private static void putUser(PrefixIndex target, User user) {
+        target.put(user.getId(), user.getFull_name(), user.getFull_name(), user.getEmail());
+    }
+
+    private static void putChannel(PrefixIndex target, Channel channel) {
+        target.put(channel.getId(), channel.getName(), channel.getName());
+    }
+
+    // ========================================================================
+    // DỰNG LẠI TỪ MONGO
+    // ========================================================================
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void buildOnStartup() {
+        try {
+            rebuild();
+        } catch (Exception e) {
+            log.error("Could not build typeahead index on startup", e);
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${app.search.rebuild-ms:900000}", initialDelayString = "${app.search.rebuild-ms:900000}")
+    public void scheduledRebuild() {
+        try {
+            rebuild();
+        } catch (Exception e) {
+            log.warn("Could not rebuild typeahead index", e);
+        }
+    }
+
+    public synchronized void rebuild() {
+        long start = System.currentTimeMillis();
+        PrefixIndex builtUsers = users.rebuild();
+        PrefixIndex builtChannels = channels.rebuild();
+        log.info("Typeahead index built: {} users, {} channels in {} ms",
+                builtUsers.size(), builtChannels.size(), System.currentTimeMillis() - start);
+    }
+
+    private void loadUsers(PrefixIndex target) {
+        try (Stream<User> stream = mongoTemplate.stream(userFields(new Query()), User.class)) {
+            stream.forEach(user -> putUser(target, user));
+        }
+    }
+
+    private void reloadUser(PrefixIndex target, String id) {
+        User user = mongoTemplate.findOne(userFields(Query.query(Criteria.where("_id").is(id))), User.class);
+        if (user != null) putUser(target, user);
+        else target.remove(id);
+    }
+
+    private void loadChannels(PrefixIndex target) {
+        try (Stream<Channel> stream = mongoTemplate.stream(channelFields(new Query()), Channel.class)) {
+            stream.forEach(channel -> putChannel(target, channel));
+        }
+    }
+
+    private void reloadChannel(PrefixIndex target, String id) {
+        Channel channel = mongoTemplate.findOne(channelFields(Query.query(Criteria.where("_id").is(id))), Channel.class);
+        if (channel != null) putChannel(target, channel);
+        else target.remove(id);
+    }
+
+    private static Query userFields(Query query) {
+        query.fields().include("full_name", "email");
+        return query;
+    }
+
+    private static Query channelFields(Query query) {
+        query.fields().include("name");
+        return query;
+    }
+}
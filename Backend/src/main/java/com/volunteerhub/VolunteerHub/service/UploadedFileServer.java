@@ -0,0 +1,195 @@
+package com.volunteerhub.VolunteerHub.service;
+
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.AccessLevel;
+import lombok.RequiredArgsConstructor;
+import lombok.experimental.FieldDefaults;
+import lombok.experimental.NonFinal;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Phục vụ ảnh trong uploads/images (và bản thu nhỏ ?w=).
+ * Tên file là SHA-256 của nội dung (ảnh cũ: UUID) nên nội dung dưới 1 URL không bao giờ đổi:
+ * ETag mạnh suy ra từ tên, Cache-Control immutable, If-None-Match khớp -> 304 mà không đụng tới file.
+ * Riêng ?w= mà chưa có / không tạo được bản thu nhỏ: trả bản gốc với ETag của bản gốc và max-age ngắn,
+ * để lần sau client vẫn hỏi lại và nhận bản thu nhỏ khi đã có.
+ * Body gửi bằng sendfile của Tomcat nếu connector hỗ trợ, không thì FileChannel.transferTo; hỗ trợ 1 khoảng Range.
+ */
+@Service
+@RequiredArgsConstructor
+@FieldDefaults(level = AccessLevel.PRIVATE, makeFinal = true)
+@Slf4j
+public class UploadedFileServer {
+
+    static final String SENDFILE_SUPPORT = "org.apache.tomcat.sendfile.support";
+    static final String SENDFILE_FILENAME = "org.apache.tomcat.sendfile.filename";
+    static final String SENDFILE_START = "org.apache.tomcat.sendfile.start";
+    static final String SENDFILE_END = "org.apache.tomcat.sendfile.end";
+
+    ImageVariantService imageVariantService;
+
+    @NonFinal
+    @Value("${app.uploads.cache-max-age:31536000}")
+    long cacheMaxAge;
+
+    @NonFinal
+    @Value("${app.uploads.fallback-max-age:300}")
+    long fallbackMaxAge;
+
+    record Range(long start, long end) {     // end tính cả byte cuối
+        long length() {
+            return end - start + 1;
+        }
+    }
+
+    static final Range UNSATISFIABLE = new Range(-1, -2);
+
+    public void serveImage(String fileName, Integer width, HttpServletRequest request, HttpServletResponse response) throws IOException {
+        FileUploadService.checkImageName(fileName);
+        // ETag của đúng URL này chỉ được gửi kèm khi đã trả đúng bản đó -> khớp thì 304 luôn, không cần resolve
+        String etag = etag(fileName, width);
+        if (notModified(request, response, etag, true)) return;
+        // Đã biết ?w= này trả bản gốc -> so luôn với ETag của bản gốc, không resolve
+        if (imageVariantService.servesOriginal(fileName, width)
+                && notModified(request, response, etag(fileName, null), false)) return;
+
+        // Header cache chỉ ghi sau khi chắc chắn có file: lỗi 404 không được cache
+        Path original = FileUploadService.resolveStored(fileName);
+        Path file = imageVariantService.resolve(original, width);
+        boolean exact = width == null || width <= 0 || !file.equals(original);
+        if (!exact) {
+            // Trả bản gốc thay cho bản thu nhỏ: ETag của bản gốc, không immutable
+            etag = etag(fileName, null);
+            if (notModified(request, response, etag, false)) return;
+        }
+        long length = Files.size(file);
+        writeCacheHeaders(response, etag, exact);
+        response.setHeader(HttpHeaders.ACCEPT_RANGES, "bytes");
+        response.setContentType(FileUploadService.contentType(file));
+
+        Range range = null;
+        String rangeHeader = request.getHeader(HttpHeaders.RANGE);
+        // If-Range khác ETag -> client đang giữ bản khác, gửi cả file
+        if (rangeHeader != null && (request.getHeader(HttpHeaders.IF_RANGE) == null
+                || etag.equals(request.getHeader(HttpHeaders.IF_RANGE)))) {
+            range = parseRange(rangeHeader, length);
+            if (range == UNSATISFIABLE) {
+                response.setStatus(HttpServletResponse.SC_REQUESTED_RANGE_NOT_SATISFIABLE);
+                response.setHeader(HttpHeaders.CONTENT_RANGE, "bytes */" + length);
+                return;
+            }
+        }
+        if (range == null) {
+            range = new Range(0, length - 1);
+        } else {
+            response.setStatus(HttpServletResponse.SC_PARTIAL_CONTENT);
+            response.setHeader(HttpHeaders.CONTENT_RANGE, "bytes " + range.start() + "-" + range.end() + "/" + length);
+        }
+        response.setContentLengthLong(range.length());
+        if ("HEAD".equalsIgnoreCase(request.getMethod()) || range.length() <= 0) return;
+
+        if (Boolean.TRUE.equals(request.getAttribute(SENDFILE_SUPPORT))) {
+            // Tomcat tự gửi bằng sendfile sau khi handler trả về, dữ liệu không qua heap
+            request.setAttribute(SENDFILE_FILENAME, file.toAbsolutePath().toString());
+            request.setAttribute(SENDFILE_START, range.start());
+            request.setAttribute(SENDFILE_END, range.end() + 1);
+            return;
+        }
+        transfer(file, range, response);
+    }
+
+    // ========================================================================
+    // HELPER
+    // ========================================================================
+
+    private boolean notModified(HttpServletRequest request, HttpServletResponse response, String etag, boolean immutable) {
+        if (!matches(request.getHeader(HttpHeaders.IF_NONE_MATCH), etag)) return false;
+        writeCacheHeaders(response, etag, immutable);
+        response.setStatus(HttpServletResponse.SC_NOT_MODIFIED);
+        return true;
+    }
+
+    private void writeCacheHeaders(HttpServletResponse response, String etag, boolean immutable) {
+        response.setHeader(HttpHeaders.ETAG, etag);
+        response.setHeader(HttpHeaders.CACHE_CONTROL, immutable
+                ? "public, max-age=" + cacheMaxAge + ", immutable"
+                : "public, max-age=" + fallbackMaxAge);
+    }
+
+    static String etag(String fileName, Integer width) {
+        int dot = fileName.lastIndexOf('.');
+        String name = dot < 0 ? fileName : fileName.substring(0, dot);
+        return "\"" + name + (width != null && width > 0 ? "-w" + ImageVariantService.bucket(width) : "") + "\"";
+    }
+
+    // If-None-Match so sánh yếu: bỏ tiền tố W/
+    static boolean matches(String ifNoneMatch, String etag) {
+        if (ifNoneMatch == null) return false;
+        for (String candidate : ifNoneMatch.split(",")) {
+            String tag = candidate.trim();
+            if (tag.startsWith("W/")) tag = tag.substring(2);
+            if (tag.equals("*") || tag.equals(etag)) return true;
+        }
+        return false;
+    }
+
+    /**
+     * Chỉ hỗ trợ 1 khoảng "bytes=a-b", "bytes=a-", "bytes=-n". Nhiều khoảng / sai cú pháp -> null (gửi cả file),
+     * khoảng nằm ngoài file -> UNSATISFIABLE (416).
+     */
+    static Range parseRange(String header, long length) {
+        if (!header.startsWith("bytes=") || header.contains(",")) return null;
+        String spec = header.substring("bytes=".length()).trim();
+        int dash = spec.indexOf('-');
+        if (dash < 0) return null;
+        try {
+            long start;
+            long end;
+            if (dash == 0) {
+                long suffix = Long.parseLong(spec.substring(1).trim());
+                if (suffix <= 0) return UNSATISFIABLE;
+                start = Math.max(0, length - suffix);
+                end = length - 1;
+            } else {
+                start = Long.parseLong(spec.substring(0, dash).trim());
+                if (start >= length) return UNSATISFIABLE;
+                String last = spec.substring(dash + 1).trim();
+                end = last.isEmpty() ? length - 1 : Long.parseLong(last);
+                if (end < start) return null;
+                end = Math.min(end, length - 1);
+            }
+            return length > 0 ? new Range(start, end) : UNSATISFIABLE;
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    private static void transfer(Path file, Range range, HttpServletResponse response) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            WritableByteChannel out = Channels.newChannel(response.getOutputStream());
+            long position = range.start();
+            long remaining = range.length();
+            while (remaining > 0) {
+                long sent = channel.transferTo(position, remaining, out);
+                if (sent <= 0) break;
+                position += sent;
+                remaining -= sent;
+            }
+        } catch (IOException e) {
+            // Thường là client đóng kết nối giữa chừng (cuộn qua ảnh, huỷ tải)
+            log.debug("Stopped sending {}: {}", file.getFileName(), e.getMessage());
+        }
+    }
+}
@@ -4,12 +4,14 @@ import com.volunteerhub.VolunteerHub.constant.Roles;
 import com.volunteerhub.VolunteerHub.dto.request.User.UserCreationRequest;
 import com.volunteerhub.VolunteerHub.dto.request.User.UserStatusRequest;
 import com.volunteerhub.VolunteerHub.dto.request.User.UserUpdateRequest;
+import com.volunteerhub.VolunteerHub.dto.response.CursorPage;
 import com.volunteerhub.VolunteerHub.dto.response.UserResponse;
 import com.volunteerhub.VolunteerHub.collection.User;
 import com.volunteerhub.VolunteerHub.exception.AppException;
 import com.volunteerhub.VolunteerHub.exception.ErrorCode;
 import com.volunteerhub.VolunteerHub.mapper.UserMapper;
 import com.volunteerhub.VolunteerHub.repository.*;
+import com.volunteerhub.VolunteerHub.search.InvertedIndex;
 import com.volunteerhub.VolunteerHub.dto.response.UserStatsResponse;
 import com.volunteerhub.VolunteerHub.dto.request.User.ChangePasswordRequest;
 import lombok.AccessLevel;
@@ -17,15 +19,19 @@ import lombok.RequiredArgsConstructor;
 import lombok.experimental.FieldDefaults;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
 
-import java.util.HashSet;
-import java.util.List;
+import java.util.*;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 @Service
 @RequiredArgsConstructor
@@ -40,6 +46,10 @@ public class UserService {
     LikeRepository likeRepository;
 
     UserMapper userMapper;
+    CurrentUserService currentUserService;
+    DashboardStatsService dashboardStatsService;
+    TypeaheadIndex typeaheadIndex;
+    MongoTemplate mongoTemplate;
     PasswordEncoder passwordEncoder;
 
 
@@ -52,13 +62,33 @@ public class UserService {
                 .map(userMapper::toUserResponse);
     }
 
+    // Bảng user theo cursor (full_name, _id) - cùng thứ tự với getUsers nhưng không skip, không count
+    public CursorPage<UserResponse> getUsersCursor(String cursor, int size) {
+        int pageSize = KeysetCursor.clampSize(size);
+        Query query = KeysetCursor.apply(new Query(), "full_name", Sort.Direction.ASC, KeysetCursor.decode(cursor), pageSize);
+        return KeysetCursor.page(mongoTemplate.find(query, User.class), pageSize,
+                User::getFull_name, User::getId, users -> users.stream().map(userMapper::toUserResponse).toList());
+    }
+
     // Tìm kiếm user (Cho thanh Search Admin)
     public Page<UserResponse> searchUsers(String keyword, int page, int size) {
         Pageable pageable = PageRequest.of(page, size,
                 Sort.by("full_name").ascending().and(Sort.by("id").ascending()));
 
-        return userRepository.searchUsers(keyword, pageable)
-                .map(userMapper::toUserResponse);
+        // Tra index tiền tố trong bộ nhớ; regex chỉ dùng khi index chưa dựng xong
+        InvertedIndex.Hits hits = typeaheadIndex.searchUsers(keyword, (int) pageable.getOffset(), pageable.getPageSize());
+        if (hits == null) {
+            return userRepository.searchUsers(keyword, pageable)
+                    .map(userMapper::toUserResponse);
+        }
+
+        Map<String, User> byId = userRepository.findAllById(hits.ids()).stream()
+                .collect(Collectors.toMap(User::getId, Function.identity()));
+        List<UserResponse> users = hits.ids().stream()
+                .map(byId::get).filter(Objects::nonNull)
+                .map(userMapper::toUserResponse)
+                .toList();
+        return new PageImpl<>(users, pageable, hits.total());
     }
 
     // Giữ lại hàm cũ cho các logic nội bộ khác (nếu cần), nhưng hạn chế dùng
@@ -73,11 +103,7 @@ public class UserService {
     }
 
     public UserResponse getMyInfo() {
-        var context = SecurityContextHolder.getContext();
-        String email = context.getAuthentication().getName();
-        User user = userRepository.findUserByEmail(email)
-                .orElseThrow(() -> new AppException(ErrorCode.USER_NOT_EXISTED));
-        return userMapper.toUserResponse(user);
+        return currentUserService.getUser();
     }
 
 
@@ -100,6 +126,8 @@ public class UserService {
         user.setRoles(roles);
 
         userRepository.save(user);
+        dashboardStatsService.onUserCreated(user);
+        typeaheadIndex.indexUser(user);
         return userMapper.toUserResponse(user);
     }
 
@@ -130,11 +158,15 @@ public class UserService {
         if (request.getAddress() != null) user.setAddress(request.getAddress());
         if (request.getBio() != null) user.setBio(request.getBio());
 
-        return userMapper.toUserResponse(userRepository.save(user));
+        User saved = userRepository.save(user);
+        typeaheadIndex.indexUser(saved);
+        return userMapper.toUserResponse(saved);
     }
 
     public UserResponse updateUser(String id, UserUpdateRequest request) {
         User user = userRepository.findById(id).orElseThrow(() -> new AppException(ErrorCode.USER_NOT_EXISTED));
+        Boolean wasActive = user.getIsActive();
+        Set<String> oldRoles = user.getRoles() != null ? new HashSet<>(user.getRoles()) : null;
 
         userMapper.updateUser(user, request);
 
@@ -144,12 +176,16 @@ public class UserService {
 
         if(request.getIsActive() != null) user.setIsActive(request.getIsActive());
 
-        return userMapper.toUserResponse(userRepository.save(user));
+        User saved = userRepository.save(user);
+        dashboardStatsService.onUserChanged(wasActive, oldRoles, saved);
+        typeaheadIndex.indexUser(saved);
+        return userMapper.toUserResponse(saved);
     }
 
     public UserResponse updateUserStatus(String id, UserStatusRequest request){
         User user = userRepository.findById(id)
                 .orElseThrow(() -> new AppException(ErrorCode.USER_NOT_EXISTED));
+        Boolean wasActive = user.getIsActive();
 
         if (request.getIsActive() != null) {
             user.setIsActive(request.getIsActive());
@@ -157,7 +193,9 @@ public class UserService {
             log.warn("Warning: 'active' field is null in payload.");
         }
 
-        return userMapper.toUserResponse(userRepository.save(user));
+        User saved = userRepository.save(user);
+        dashboardStatsService.onUserChanged(wasActive, saved.getRoles(), saved);
+        return userMapper.toUserResponse(saved);
     }
 
     public void deleteUser(String id){
@@ -167,6 +205,8 @@ public class UserService {
             throw new RuntimeException("Không thể xóa tài khoản Quản trị viên!");
         }
         userRepository.deleteById(id);
+        dashboardStatsService.onUserDeleted(user);
+        typeaheadIndex.removeUser(id);
     }
 
 
@@ -0,0 +1,223 @@
+package com.volunteerhub.VolunteerHub.config;
+
+import com.mongodb.client.MongoClient;
+import com.mongodb.client.MongoClients;
+import com.volunteerhub.VolunteerHub.collection.*;
+import com.volunteerhub.VolunteerHub.repository.*;
+import org.bson.Document;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.junit.jupiter.api.condition.EnabledIfEnvironmentVariable;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.repository.support.MongoRepositoryFactory;
+
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Gọi từng query method của repository trên database tạm đã tạo index bằng MongoIndexManager,
+ * đọc plan thực tế từ profiler (system.profile) và fail nếu query nào phải quét cả collection (COLLSCAN).
+ * Cần Mongo thật (standalone hoặc replica set): MONGO_URI=mongodb://... mvn test -Dtest=RepositoryIndexCoverageTest
+ *
+ * Không kiểm tra: findAll và các query $regex không neo đầu chuỗi (chỉ còn là fallback khi index tìm kiếm
+ * trong bộ nhớ chưa sẵn sàng - regex kiểu này không dùng được index).
+ */
+@EnabledIfEnvironmentVariable(named = "MONGO_URI", matches = ".+")
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class RepositoryIndexCoverageTest {
+
+    static final int DOCS = 200;
+
+    MongoClient client;
+    MongoTemplate mongoTemplate;
+    String database;
+    MongoIndexManager indexManager;
+
+    @BeforeAll
+    void setUp() {
+        client = MongoClients.create(System.getenv("MONGO_URI"));
+        database = "vh_index_" + UUID.randomUUID().toString().substring(0, 8);
+        mongoTemplate = new MongoTemplate(client, database);
+        indexManager = new MongoIndexManager(mongoTemplate);
+        seed();
+        indexManager.ensureIndexes();
+    }
+
+    @AfterAll
+    void dropDatabase() {
+        if (client != null) {
+            client.getDatabase(database).drop();
+            client.close();
+        }
+    }
+
+    // Đủ dữ liệu để planner phải chọn giữa index và quét collection
+    private void seed() {
+        Date now = new Date();
+        List<User> users = new ArrayList<>();
+        List<Event> events = new ArrayList<>();
+        List<Post> posts = new ArrayList<>();
+        List<EventRegistration> registrations = new ArrayList<>();
+        List<Like> likes = new ArrayList<>();
+        List<Comment> comments = new ArrayList<>();
+        List<Notification> notifications = new ArrayList<>();
+        List<Report> reports = new ArrayList<>();
+        List<Channel> channels = new ArrayList<>();
+        for (int i = 0; i < DOCS; i++) {
+            users.add(User.builder().email("u" + i + "@x.local").full_name("User " + i)
+                    .roles(Set.of(i % 2 == 0 ? "VOLUNTEER" : "EVEN_MANAGER")).isActive(i % 3 != 0).build());
+            events.add(Event.builder().title("Event " + i).status(i % 2 == 0 ? "approved" : "pending")
+                    .createdBy("u" + (i % 10)).date(new Date(now.getTime() + (i - DOCS / 2) * 86_400_000L))
+                    .createdAt(new Date(now.getTime() - i * 60_000L)).build());
+            channels.add(Channel.builder().eventId("e" + i).name("Channel " + i).build());
+            posts.add(Post.builder().channelId("c" + (i % 20)).authorId("u" + (i % 10)).content("post " + i)
+                    .likesCount((long) i).createdAt(new Date(now.getTime() - i * 60_000L)).build());
+            registrations.add(EventRegistration.builder().eventId("e" + (i % 20)).userId("u" + i)
+                    .status(i % 2 == 0 ? "approved" : "pending").build());
+            likes.add(Like.builder().userId("u" + (i % 10)).targetType("post").targetId("p" + i).build());
+            comments.add(Comment.builder().postId("p" + (i % 20)).authorId("u" + (i % 10)).content("c").build());
+            notifications.add(Notification.builder().userId("u" + (i % 10)).isRead(i % 2 == 0)
+                    .createdAt(new Date(now.getTime() - i * 60_000L)).build());
+            reports.add(Report.builder().type(i % 2 == 0 ? "post" : "event").status(i % 2 == 0 ? "pending" : "resolved").build());
+        }
+        mongoTemplate.insertAll(users);
+        mongoTemplate.insertAll(events);
+        mongoTemplate.insertAll(channels);
+        mongoTemplate.insertAll(posts);
+        mongoTemplate.insertAll(registrations);
+        mongoTemplate.insertAll(likes);
+        mongoTemplate.insertAll(comments);
+        mongoTemplate.insertAll(notifications);
+        mongoTemplate.insertAll(reports);
+        mongoTemplate.insert(Role.builder().name("VOLUNTEER").permissions(Set.of("READ_POST")).build());
+        mongoTemplate.insert(Permission.builder().name("READ_POST").build());
+    }
+
+    @Test
+    void declaredIndexesAreProvisioned() {
+        MongoIndexManager.IndexReport report = indexManager.report(false);
+        assertTrue(report.missing().isEmpty(), "missing: " + report.missing());
+        assertTrue(report.undeclared().isEmpty(), "undeclared: " + report.undeclared());
+
+        // Idempotent: chạy lại không lỗi, không sinh index mới
+        indexManager.ensureIndexes();
+        assertEquals(report.toString(), indexManager.report(false).toString());
+    }
+
+    @Test
+    void repositoryQueriesDoNotScanCollections() {
+        var factory = new MongoRepositoryFactory(mongoTemplate);
+        ChannelRepository channels = factory.getRepository(ChannelRepository.class);
+        CommentRepository comments = factory.getRepository(CommentRepository.class);
+        EventRegistrationRepository registrations = factory.getRepository(EventRegistrationRepository.class);
+        EventRepository events = factory.getRepository(EventRepository.class);
+        LikeRepository likes = factory.getRepository(LikeRepository.class);
+        NotificationRepository notifications = factory.getRepository(NotificationRepository.class);
+        PermissionRepository permissions = factory.getRepository(PermissionRepository.class);
+        PostRepository posts = factory.getRepository(PostRepository.class);
+        RegistrationRepository legacyRegistrations = factory.getRepository(RegistrationRepository.class);
+        ReportRepository reports = factory.getRepository(ReportRepository.class);
+        RoleRepository roles = factory.getRepository(RoleRepository.class);
+        UserRepository users = factory.getRepository(UserRepository.class);
+
+        Date now = new Date();
+        var page = PageRequest.of(0, 10, Sort.by(Sort.Direction.DESC, "createdAt"));
+        Map<String, Runnable> queries = new LinkedHashMap<>();
+
+        queries.put("Channel.existsByEventId", () -> channels.existsByEventId("e1"));
+        queries.put("Channel.findByEventId", () -> channels.findByEventId("e1"));
+        queries.put("Channel.findByEventIdIn", () -> channels.findByEventIdIn(List.of("e1", "e2")));
+
+        queries.put("Comment.findByPostId", () -> comments.findByPostId("p1"));
+        queries.put("Comment.findByAuthorId", () -> comments.findByAuthorId("u1"));
+        queries.put("Comment.countByPostId", () -> comments.countByPostId("p1"));
+
+        queries.put("EventRegistration.existsByEventId", () -> registrations.existsByEventId("e1"));
+        queries.put("EventRegistration.existsByUserId", () -> registrations.existsByUserId("u1"));
+        queries.put("EventRegistration.existsByEventIdAndUserId", () -> registrations.existsByEventIdAndUserId("e1", "u1"));
+        queries.put("EventRegistration.findByEventId", () -> registrations.findByEventId("e1"));
+        queries.put("EventRegistration.findByUserId", () -> registrations.findByUserId("u1"));
+        queries.put("EventRegistration.countByStatus", () -> registrations.countByStatus("approved"));
+        queries.put("EventRegistration.findByStatus", () -> registrations.findByStatus("approved"));
+        queries.put("EventRegistration.countByEventId", () -> registrations.countByEventId("e1"));
+        queries.put("EventRegistration.countByStatusAndEventIdIn", () -> registrations.countByStatusAndEventIdIn("approved", List.of("e1", "e2")));
+        queries.put("EventRegistration.countByEventIdIn", () -> registrations.countByEventIdIn(List.of("e1", "e2")));
+
+        queries.put("Event.findByCreatedBy", () -> events.findByCreatedBy("u1"));
+        queries.put("Event.findByCreatedBy(page)", () -> events.findByCreatedBy("u1", page));
+        queries.put("Event.countByStatus", () -> events.countByStatus("pending"));
+        queries.put("Event.countByDateAfter", () -> events.countByDateAfter(now));
+        queries.put("Event.countByCreatedAtAfter", () -> events.countByCreatedAtAfter(now));
+        queries.put("Event.findTop5ByOrderByCreatedAtDesc", events::findTop5ByOrderByCreatedAtDesc);
+        queries.put("Event.findByStatus", () -> events.findByStatus("approved"));
+        queries.put("Event.findByStatus(page)", () -> events.findByStatus("approved", page));
+        queries.put("Event.findByTitleContainingIgnoreCaseAndStatus", () -> events.findByTitleContainingIgnoreCaseAndStatus("event", "approved", page));
+        queries.put("Event.countUpcomingEvents", () -> events.countUpcomingEvents(now));
+        queries.put("Event.countCompletedEvents", () -> events.countCompletedEvents(now));
+        queries.put("Event.findTop5ByStatusOrderByCreatedAtDesc", () -> events.findTop5ByStatusOrderByCreatedAtDesc("approved"));
+
+        queries.put("Like.findByUserId", () -> likes.findByUserId("u1"));
+        queries.put("Like.findByTargetTypeAndTargetId", () -> likes.findByTargetTypeAndTargetId("post", "p1"));
+        queries.put("Like.existsByUserIdAndTargetTypeAndTargetId", () -> likes.existsByUserIdAndTargetTypeAndTargetId("u1", "post", "p1"));
+        queries.put("Like.findByUserIdAndTargetTypeAndTargetIdIn", () -> likes.findByUserIdAndTargetTypeAndTargetIdIn("u1", "post", List.of("p1", "p2")));
+        queries.put("Like.countByTargetTypeAndTargetId", () -> likes.countByTargetTypeAndTargetId("post", "p1"));
+        queries.put("Like.deleteByUserIdAndTargetTypeAndTargetId", () -> likes.deleteByUserIdAndTargetTypeAndTargetId("u1", "post", "p1"));
+
+        queries.put("Notification.findTop50ByUserIdOrderByCreatedAtDescIdDesc", () -> notifications.findTop50ByUserIdOrderByCreatedAtDescIdDesc("u1"));
+        queries.put("Notification.findTop50ByUserIdAndIsReadFalseOrderByCreatedAtDescIdDesc", () -> notifications.findTop50ByUserIdAndIsReadFalseOrderByCreatedAtDescIdDesc("u1"));
+        queries.put("Notification.findByIdAndUserId", () -> notifications.findByIdAndUserId("000000000000000000000000", "u1"));
+
+        queries.put("Permission.findAllByNameIn", () -> permissions.findAllByNameIn(List.of(Permission.builder().name("READ_POST").build())));
+        queries.put("Permission.deleteByName", () -> permissions.deleteByName("NOT_THERE"));
+
+        queries.put("Post.findByChannelId", () -> posts.findByChannelId("c1", page));
+        queries.put("Post.findByAuthorId", () -> posts.findByAuthorId("u1"));
+        queries.put("Post.existsByChannelIdAndAuthorId", () -> posts.existsByChannelIdAndAuthorId("c1", "u1"));
+        queries.put("Post.countByChannelId", () -> posts.countByChannelId("c1"));
+        queries.put("Post.countPostsBetween", () -> posts.countPostsBetween(new Date(now.getTime() - 3_600_000L), now));
+        queries.put("Post.findTopHotPosts", () -> posts.findTopHotPosts(PageRequest.of(0, 5)));
+
+        queries.put("Registration.countByEventId", () -> legacyRegistrations.countByEventId("e1"));
+        queries.put("Registration.countByEventIdAndStatus", () -> legacyRegistrations.countByEventIdAndStatus("e1", "approved"));
+        queries.put("Registration.findByEventId", () -> legacyRegistrations.findByEventId("e1"));
+        queries.put("Registration.existsByEventIdAndUserId", () -> legacyRegistrations.existsByEventIdAndUserId("e1", "u1"));
+        queries.put("Registration.findByEventIdAndUserId", () -> legacyRegistrations.findByEventIdAndUserId("e1", "u1"));
+
+        queries.put("Report.findByStatus", () -> reports.findByStatus("pending"));
+        queries.put("Report.findByType", () -> reports.findByType("post"));
+
+        queries.put("Role.findByName", () -> roles.findByName("VOLUNTEER"));
+        queries.put("Role.existsByPermissionsContaining", () -> roles.existsByPermissionsContaining("READ_POST"));
+
+        queries.put("User.findUserById", () -> users.findUserById("000000000000000000000000"));
+        queries.put("User.findUserByEmail", () -> users.findUserByEmail("u1@x.local"));
+        queries.put("User.existsByEmail", () -> users.existsByEmail("u1@x.local"));
+        queries.put("User.countByRolesContains", () -> users.countByRolesContains("VOLUNTEER"));
+        queries.put("User.countByIsActive", () -> users.countByIsActive(true));
+        queries.put("User.countByRole", () -> users.countByRole("VOLUNTEER"));
+
+        var db = client.getDatabase(database);
+        List<String> scans = new ArrayList<>();
+        for (Map.Entry<String, Runnable> query : queries.entrySet()) {
+            db.runCommand(new Document("profile", 0));
+            db.getCollection("system.profile").drop();
+            db.runCommand(new Document("profile", 2));
+            query.getValue().run();
+            db.runCommand(new Document("profile", 0));
+
+            for (Document entry : db.getCollection("system.profile").find()) {
+                String plan = entry.getString("planSummary");
+                if (plan != null && plan.contains("COLLSCAN")) {
+                    scans.add(query.getKey() + " -> " + entry.getString("ns") + " " + plan);
+                }
+            }
+        }
+        assertTrue(scans.isEmpty(), "Queries scanning whole collections:\n" + String.join("\n", scans));
+    }
+}
@@ -0,0 +1,286 @@
+package com.volunteerhub.VolunteerHub.service;
+
+import com.mongodb.client.MongoClient;
+import com.mongodb.client.MongoClients;
+import com.volunteerhub.VolunteerHub.collection.Event;
+import com.volunteerhub.VolunteerHub.collection.EventRegistration;
+import com.volunteerhub.VolunteerHub.dto.request.EventRegistration.EventRegistrationCreationRequest;
+import com.volunteerhub.VolunteerHub.dto.request.EventRegistration.EventRegistrationUpdateRequest;
+import com.volunteerhub.VolunteerHub.exception.AppException;
+import com.volunteerhub.VolunteerHub.exception.ErrorCode;
+import com.volunteerhub.VolunteerHub.mapper.EventRegistrationMapper;
+import com.volunteerhub.VolunteerHub.repository.EventRegistrationRepository;
+import com.volunteerhub.VolunteerHub.repository.EventRepository;
+import org.junit.jupiter.api.*;
+import org.junit.jupiter.api.condition.EnabledIfEnvironmentVariable;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.index.Index;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.repository.support.MongoRepositoryFactory;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.IntFunction;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+/**
+ * Đăng ký / đổi trạng thái / xóa song song trên Mongo thật: điều kiện $expr giữ chỗ, unique index (eventId, userId),
+ * findAndModify có điều kiện status và findAndRemove phải giữ activeSeats đúng bằng số đăng ký chưa bị từ chối.
+ * Cần Mongo thật: chạy với MONGO_URI=mongodb://... mvn test -Dtest=EventRegistrationConcurrencyTest
+ * (dùng database tạm, xoá sau khi chạy).
+ */
+@EnabledIfEnvironmentVariable(named = "MONGO_URI", matches = ".+")
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class EventRegistrationConcurrencyTest {
+
+    static final String MANAGER_ID = "manager-1";
+
+    MongoClient client;
+    MongoTemplate mongoTemplate;
+    String database;
+    EventRegistrationRepository registrationRepository;
+    EventRegistrationService service;
+
+    String eventId;
+
+    @BeforeAll
+    void connect() {
+        client = MongoClients.create(System.getenv("MONGO_URI"));
+        database = "vh_test_" + UUID.randomUUID().toString().substring(0, 8);
+        mongoTemplate = new MongoTemplate(client, database);
+        mongoTemplate.indexOps(EventRegistration.class).ensureIndex(new Index()
+                .on("eventId", Sort.Direction.ASC).on("userId", Sort.Direction.ASC).unique().named("event_user_unique"));
+
+        MongoRepositoryFactory factory = new MongoRepositoryFactory(mongoTemplate);
+        registrationRepository = factory.getRepository(EventRegistrationRepository.class);
+        EventRepository eventRepository = factory.getRepository(EventRepository.class);
+
+        EventRegistrationMapper mapper = mock(EventRegistrationMapper.class);
+        when(mapper.toEventRegistration(any())).thenAnswer(inv -> {
+            EventRegistrationCreationRequest req = inv.getArgument(0);
+            return EventRegistration.builder().eventId(req.getEventId()).userId(req.getUserId()).build();
+        });
+        doAnswer(inv -> {
+            EventRegistration reg = inv.getArgument(0);
+            EventRegistrationUpdateRequest req = inv.getArgument(1);
+            reg.setStatus(req.getStatus());
+            return null;
+        }).when(mapper).updateEventRegistration(any(), any());
+
+        CurrentUserService currentUserService = mock(CurrentUserService.class);
+        when(currentUserService.getUserId()).thenReturn(MANAGER_ID);
+
+        service = new EventRegistrationService();
+        ReflectionTestUtils.setField(service, "eventRegistrationRepository", registrationRepository);
+        ReflectionTestUtils.setField(service, "eventRegistrationMapper", mapper);
+        ReflectionTestUtils.setField(service, "notificationService", mock(NotificationService.class));
+        ReflectionTestUtils.setField(service, "notificationEventBus", mock(NotificationEventBus.class));
+        ReflectionTestUtils.setField(service, "eventRepository", eventRepository);
+        ReflectionTestUtils.setField(service, "currentUserService", currentUserService);
+        ReflectionTestUtils.setField(service, "eventCounterService", new EventCounterService(mongoTemplate, mock(EventReadCache.class)));
+        ReflectionTestUtils.setField(service, "dashboardStatsService", mock(DashboardStatsService.class));
+        ReflectionTestUtils.setField(service, "mongoTemplate", mongoTemplate);
+    }
+
+    @AfterAll
+    void dropDatabase() {
+        if (client == null) return;
+        client.getDatabase(database).drop();
+        client.close();
+    }
+
+    @BeforeEach
+    void resetRepository() {
+        ReflectionTestUtils.setField(service, "eventRegistrationRepository", registrationRepository);
+    }
+
+    @Test
+    void parallelSignupRushNeverOverbooks() throws Exception {
+        createEvent(50);
+
+        Outcome outcome = register(500, i -> "user-" + i);
+
+        assertEquals(50, outcome.ok.get());
+        assertEquals(450, outcome.full.get());
+        assertEquals(0, outcome.other.get());
+        assertEquals(50, registrations());
+        assertEquals(50, activeSeats());
+    }
+
+    @Test
+    void duplicateSignupsKeepOneRegistrationAndReleaseSeats() throws Exception {
+        // Đủ chỗ cho mọi request -> chỉ unique index quyết định ai bị trùng
+        createEvent(1000);
+
+        // 3 request song song cho mỗi user
+        Outcome outcome = register(300, i -> "user-" + (i % 100));
+
+        assertEquals(100, outcome.ok.get());
+        assertEquals(200, outcome.duplicate.get());
+        assertEquals(0, outcome.other.get());
+        assertEquals(100, registrations());
+        assertEquals(100, activeSeats());
+    }
+
+    @Test
+    void unlimitedEventAcceptsEveryone() throws Exception {
+        createEvent(0);
+
+        Outcome outcome = register(200, i -> "user-" + i);
+
+        assertEquals(200, outcome.ok.get());
+        assertEquals(200, activeSeats());
+    }
+
+    @Test
+    void duplicateSignupOnFullEventReportsExistingRegistration() {
+        createEvent(1);
+        service.createRegistration(request("user-1"));
+
+        AppException error = assertThrows(AppException.class, () -> service.createRegistration(request("user-1")));
+        assertEquals(ErrorCode.REGISTRATION_EXISTED, error.getErrorCode());
+        assertThrows(AppException.class, () -> service.createRegistration(request("user-2")));
+        assertEquals(1, activeSeats());
+    }
+
+    @Test
+    void concurrentDeletesReleaseSeatOnce() throws Exception {
+        createEvent(2);
+        service.createRegistration(request("user-a"));
+        service.createRegistration(request("user-b"));
+        String registrationId = registrationOf("user-a");
+
+        parallel(10, i -> () -> {
+            try {
+                service.deleteRegistration(registrationId);
+            } catch (AppException e) {
+                // Request đến sau khi bản ghi đã bị xoá
+                if (e.getErrorCode() != ErrorCode.REGISTRATION_NOT_EXISTED) throw e;
+            }
+        });
+
+        assertEquals(1, registrations());
+        assertEquals(1, activeSeats());
+        // Chỉ còn đúng 1 chỗ trống
+        Outcome outcome = register(20, i -> "late-" + i);
+        assertEquals(1, outcome.ok.get());
+        assertEquals(2, activeSeats());
+    }
+
+    @Test
+    void concurrentRejectsReleaseSeatOnce() throws Exception {
+        createEvent(2);
+        service.createRegistration(request("user-a"));
+        service.createRegistration(request("user-b"));
+        String registrationId = registrationOf("user-a");
+        EventRegistrationUpdateRequest reject = EventRegistrationUpdateRequest.builder().status("rejected").build();
+
+        AtomicInteger modified = new AtomicInteger();
+        parallel(10, i -> () -> {
+            try {
+                service.updateRegistration(registrationId, reject);
+            } catch (AppException e) {
+                if (e.getErrorCode() != ErrorCode.REGISTRATION_MODIFIED) throw e;
+                modified.incrementAndGet();
+            }
+        });
+
+        assertEquals(1, activeSeats());
+        assertEquals(Integer.valueOf(1), event().getRegistrationCounts().get("rejected"));
+        assertEquals(Integer.valueOf(1), event().getRegistrationCounts().get("pending"));
+        assertTrue(modified.get() <= 9);
+    }
+
+    @Test
+    void failedInsertReleasesSeat() {
+        createEvent(10);
+        EventRegistrationRepository failing = mock(EventRegistrationRepository.class);
+        when(failing.insert(any(EventRegistration.class))).thenThrow(new IllegalStateException("down"));
+        ReflectionTestUtils.setField(service, "eventRegistrationRepository", failing);
+
+        assertThrows(IllegalStateException.class, () -> service.createRegistration(request("user-1")));
+        assertEquals(0, activeSeats());
+    }
+
+    // ========================================================================
+    // HELPERS
+    // ========================================================================
+
+    private void createEvent(int volunteersNeeded) {
+        Event event = mongoTemplate.insert(Event.builder()
+                .title("Concurrency").status("approved").createdBy(MANAGER_ID)
+                .volunteersNeeded(volunteersNeeded).build());
+        eventId = event.getId();
+    }
+
+    private Event event() {
+        return mongoTemplate.findById(eventId, Event.class);
+    }
+
+    private int activeSeats() {
+        return event().getActiveSeats();
+    }
+
+    private long registrations() {
+        return mongoTemplate.count(Query.query(Criteria.where("eventId").is(eventId)), EventRegistration.class);
+    }
+
+    private String registrationOf(String userId) {
+        return mongoTemplate.findOne(Query.query(Criteria.where("eventId").is(eventId).and("userId").is(userId)),
+                EventRegistration.class).getId();
+    }
+
+    private Outcome register(int registrants, IntFunction<String> userOf) throws Exception {
+        Outcome outcome = new Outcome();
+        parallel(registrants, i -> () -> {
+            try {
+                service.createRegistration(request(userOf.apply(i)));
+                outcome.ok.incrementAndGet();
+            } catch (AppException e) {
+                if (e.getErrorCode() == ErrorCode.EVENT_FULL) outcome.full.incrementAndGet();
+                else if (e.getErrorCode() == ErrorCode.REGISTRATION_EXISTED) outcome.duplicate.incrementAndGet();
+                else outcome.other.incrementAndGet();
+            } catch (RuntimeException e) {
+                outcome.other.incrementAndGet();
+            }
+        });
+        return outcome;
+    }
+
+    private static void parallel(int tasks, IntFunction<Runnable> taskOf) throws Exception {
+        ExecutorService pool = Executors.newFixedThreadPool(64);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<?>> futures = new ArrayList<>();
+        for (int i = 0; i < tasks; i++) {
+            Runnable task = taskOf.apply(i);
+            futures.add(pool.submit(() -> {
+                start.await();
+                task.run();
+                return null;
+            }));
+        }
+        start.countDown();
+        for (Future<?> f : futures) f.get(30, TimeUnit.SECONDS);
+        pool.shutdown();
+    }
+
+    private EventRegistrationCreationRequest request(String userId) {
+        return EventRegistrationCreationRequest.builder().eventId(eventId).userId(userId).build();
+    }
+
+    static class Outcome {
+        final AtomicInteger ok = new AtomicInteger();
+        final AtomicInteger full = new AtomicInteger();
+        final AtomicInteger duplicate = new AtomicInteger();
+        final AtomicInteger other = new AtomicInteger();
+    }
+}
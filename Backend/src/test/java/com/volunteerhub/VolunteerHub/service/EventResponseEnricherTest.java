@@ -0,0 +1,98 @@
+package com.volunteerhub.VolunteerHub.service;
+
+import com.volunteerhub.VolunteerHub.collection.Channel;
+import com.volunteerhub.VolunteerHub.collection.Event;
+import com.volunteerhub.VolunteerHub.dto.response.EventResponse;
+import com.volunteerhub.VolunteerHub.repository.ChannelRepository;
+import org.bson.Document;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.AggregationResults;
+import org.springframework.data.mongodb.core.aggregation.TypedAggregation;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+class EventResponseEnricherTest {
+
+    ChannelRepository channelRepository;
+    MongoTemplate mongoTemplate;
+    EventResponseEnricher enricher;
+
+    @BeforeEach
+    void setUp() {
+        channelRepository = mock(ChannelRepository.class);
+        mongoTemplate = mock(MongoTemplate.class);
+        enricher = new EventResponseEnricher(channelRepository, mongoTemplate);
+    }
+
+    @ParameterizedTest
+    @ValueSource(ints = {1, 10, 50, 200})
+    void queryCountIsConstantRegardlessOfPageSize(int pageSize) {
+        List<Event> events = events(pageSize);
+        when(channelRepository.findByEventIdIn(anyCollection())).thenReturn(channelsFor(events));
+        when(mongoTemplate.aggregate(any(TypedAggregation.class), eq(Document.class)))
+                .thenReturn(new AggregationResults<>(List.of(), new Document()));
+
+        Page<Event> page = new PageImpl<>(events, PageRequest.of(0, pageSize), 1000);
+        Page<EventResponse> result = enricher.enrich(page);
+
+        assertEquals(pageSize, result.getContent().size());
+        assertEquals(1000, result.getTotalElements());
+        verify(channelRepository, times(1)).findByEventIdIn(anyCollection());
+        verify(mongoTemplate, times(1)).aggregate(any(TypedAggregation.class), eq(Document.class));
+        verifyNoMoreInteractions(channelRepository, mongoTemplate);
+    }
+
+    @Test
+    void mapsGroupedCountsBackToEachEvent() {
+        List<Event> events = events(3);
+        when(channelRepository.findByEventIdIn(anyCollection())).thenReturn(channelsFor(events));
+        when(mongoTemplate.aggregate(any(TypedAggregation.class), eq(Document.class)))
+                .thenReturn(new AggregationResults<>(List.of(
+                        new Document("_id", "ch-0").append("count", 4),
+                        new Document("_id", "ch-2").append("count", 1)), new Document()));
+        events.get(1).setVolunteersRegistered(7);
+
+        List<EventResponse> result = enricher.enrich(events);
+
+        assertEquals(List.of("ev-0", "ev-1", "ev-2"), result.stream().map(EventResponse::getId).toList());
+        assertEquals(List.of(4L, 0L, 1L), result.stream().map(EventResponse::getComments).toList());
+        assertEquals(List.of(0, 7, 0), result.stream().map(EventResponse::getVolunteersRegistered).toList());
+        assertEquals(List.of(0L, 0L, 0L), result.stream().map(EventResponse::getLikes).toList());
+    }
+
+    @Test
+    void skipsPostAggregationWhenNoChannelExists() {
+        when(channelRepository.findByEventIdIn(anyCollection())).thenReturn(List.of());
+
+        enricher.enrich(events(5));
+
+        verifyNoInteractions(mongoTemplate);
+    }
+
+    private List<Event> events(int n) {
+        return new ArrayList<>(IntStream.range(0, n)
+                .mapToObj(i -> Event.builder().id("ev-" + i).title("Event " + i).status("approved").volunteersNeeded(10).build())
+                .toList());
+    }
+
+    private List<Channel> channelsFor(List<Event> events) {
+        return events.stream()
+                .map(e -> Channel.builder().id(e.getId().replace("ev-", "ch-")).eventId(e.getId()).build())
+                .toList();
+    }
+}
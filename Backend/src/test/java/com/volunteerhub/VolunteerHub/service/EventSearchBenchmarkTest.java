@@ -0,0 +1,118 @@
+package com.volunteerhub.VolunteerHub.service;
+
+import com.mongodb.client.MongoClient;
+import com.mongodb.client.MongoClients;
+import com.volunteerhub.VolunteerHub.collection.Event;
+import com.volunteerhub.VolunteerHub.repository.EventRepository;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.junit.jupiter.api.condition.EnabledIfEnvironmentVariable;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.repository.support.MongoRepositoryFactory;
+
+import java.util.*;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * So sánh tìm kiếm sự kiện bằng EventSearchIndex với query $regex cũ trên 100k sự kiện.
+ * Cần Mongo thật: chạy với MONGO_URI=mongodb://... mvn test -Dtest=EventSearchBenchmarkTest
+ * (dùng database tạm, xoá sau khi chạy).
+ */
+@EnabledIfEnvironmentVariable(named = "MONGO_URI", matches = ".+")
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class EventSearchBenchmarkTest {
+
+    static final int EVENTS = 100_000;
+    static final int ROUNDS = 5;
+    static final List<String> ACTIONS = List.of("Dọn rác", "Trồng cây", "Hiến máu", "Dạy học", "Quyên góp", "Nấu cơm", "Sơn tường");
+    static final List<String> PLACES = List.of("Hà Nội", "Đà Nẵng", "Huế", "Cần Thơ", "Hải Phòng", "Quảng Ninh", "Nghệ An");
+    static final List<String> STATUSES = List.of("pending", "approved", "approved", "rejected", "completed");
+    static final List<String> KEYWORDS = List.of("Hà Nội", "Trồng cây", "Hiến máu tại Huế", "Quảng");
+
+    MongoClient client;
+    MongoTemplate mongoTemplate;
+    String database;
+    EventRepository eventRepository;
+    EventSearchIndex eventSearchIndex;
+
+    @BeforeAll
+    void seed() {
+        client = MongoClients.create(System.getenv("MONGO_URI"));
+        database = "vh_bench_" + UUID.randomUUID().toString().substring(0, 8);
+        mongoTemplate = new MongoTemplate(client, database);
+        eventRepository = new MongoRepositoryFactory(mongoTemplate).getRepository(EventRepository.class);
+        eventSearchIndex = new EventSearchIndex(eventRepository, mongoTemplate);
+
+        Random random = new Random(42);
+        long now = System.currentTimeMillis();
+        List<Event> batch = new ArrayList<>();
+        for (int i = 0; i < EVENTS; i++) {
+            String place = PLACES.get(random.nextInt(PLACES.size()));
+            batch.add(Event.builder()
+                    .title(ACTIONS.get(random.nextInt(ACTIONS.size())) + " tại " + place + " #" + i)
+                    .location("Quận " + (1 + random.nextInt(12)) + ", " + place)
+                    .status(STATUSES.get(random.nextInt(STATUSES.size())))
+                    .createdAt(new Date(now - i * 60_000L))
+                    .build());
+            if (batch.size() == 5_000) {
+                mongoTemplate.insertAll(batch);
+                batch.clear();
+            }
+        }
+        if (!batch.isEmpty()) mongoTemplate.insertAll(batch);
+
+        long start = System.nanoTime();
+        eventSearchIndex.rebuild();
+        System.out.printf("Index build over %d events: %.1f ms%n", EVENTS, (System.nanoTime() - start) / 1e6);
+    }
+
+    @AfterAll
+    void dropDatabase() {
+        if (client != null) {
+            client.getDatabase(database).drop();
+            client.close();
+        }
+    }
+
+    @Test
+    void indexCoversRegexMatchesAndIsFaster() {
+        Pageable pageable = PageRequest.of(0, 20, Sort.by(Sort.Direction.DESC, "createdAt"));
+
+        for (String keyword : KEYWORDS) {
+            Page<Event> regex = eventRepository.searchApprovedEvents(keyword, pageable);
+            Page<Event> indexed = eventSearchIndex.search(keyword, true, pageable);
+
+            // Từ vựng seed không có từ nào là chuỗi con giữa từ khác -> 2 cách phải đếm giống nhau
+            assertEquals(regex.getTotalElements(), indexed.getTotalElements(), keyword);
+            assertEquals(pageable.getPageSize(), indexed.getContent().size(), keyword);
+            assertTrue(indexed.getContent().stream().allMatch(e -> "approved".equals(e.getStatus())), keyword);
+
+            long regexNanos = time(() -> eventRepository.searchApprovedEvents(keyword, pageable));
+            long indexNanos = time(() -> eventSearchIndex.search(keyword, true, pageable));
+            System.out.printf("search '%s' (%d hits): regex %.1f ms, index %.1f ms%n",
+                    keyword, indexed.getTotalElements(), regexNanos / 1e6, indexNanos / 1e6);
+        }
+
+        // Không dấu / gõ dở vẫn tìm được
+        assertEquals(eventSearchIndex.search("Hà Nội", false, pageable).getTotalElements(),
+                eventSearchIndex.search("ha no", false, pageable).getTotalElements());
+    }
+
+    private long time(Supplier<?> search) {
+        long best = Long.MAX_VALUE;
+        for (int i = 0; i < ROUNDS; i++) {
+            long start = System.nanoTime();
+            search.get();
+            best = Math.min(best, System.nanoTime() - start);
+        }
+        return best;
+    }
+}
@@ -0,0 +1,126 @@
+package com.volunteerhub.VolunteerHub.service;
+
+import com.volunteerhub.VolunteerHub.exception.AppException;
+import com.volunteerhub.VolunteerHub.exception.ErrorCode;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Cache đọc của sự kiện: miss đồng loạt chỉ đọc 1 lần, invalidate trong lúc đọc không để lại bản cũ
+ * (chỉ của đúng key đó), giới hạn số entry và TTL.
+ */
+class ReadThroughCacheTest {
+
+    @Test
+    void missStampedeTriggersSingleLoad() throws Exception {
+        ReadThroughCache<String, String> cache = new ReadThroughCache<>("test", 100, 60_000);
+        AtomicInteger loads = new AtomicInteger();
+        CountDownLatch loading = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+
+        int callers = 50;
+        ExecutorService pool = Executors.newFixedThreadPool(callers);
+        List<Future<String>> futures = new ArrayList<>();
+        for (int i = 0; i < callers; i++) {
+            futures.add(pool.submit(() -> cache.get("ev-1", () -> {
+                loads.incrementAndGet();
+                loading.countDown();
+                await(release);
+                return "event";
+            })));
+        }
+        assertTrue(loading.await(5, TimeUnit.SECONDS));
+        // Chờ các request còn lại vào hàng chờ của lần đọc đang chạy
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (cache.stats().getCoalesced() < callers - 1 && System.nanoTime() < deadline) Thread.sleep(5);
+        release.countDown();
+
+        for (Future<String> future : futures) assertEquals("event", future.get(5, TimeUnit.SECONDS));
+        pool.shutdown();
+
+        assertEquals(1, loads.get());
+        assertEquals(callers - 1, cache.stats().getCoalesced());
+        assertEquals("event", cache.get("ev-1", () -> "reloaded"));
+        assertEquals(1, cache.stats().getHits());
+    }
+
+    @Test
+    void invalidationDuringLoadDoesNotCacheStaleValue() {
+        ReadThroughCache<String, String> cache = new ReadThroughCache<>("test", 100, 60_000);
+
+        String first = cache.get("ev-1", () -> {
+            cache.invalidate("ev-1");     // sự kiện được cập nhật trong lúc đang đọc
+            return "old";
+        });
+
+        assertEquals("old", first);
+        assertEquals("new", cache.get("ev-1", () -> "new"));
+    }
+
+    @Test
+    void invalidatingOtherKeyDuringLoadStillCaches() {
+        ReadThroughCache<String, String> cache = new ReadThroughCache<>("test", 100, 60_000);
+
+        cache.get("ev-1", () -> {
+            cache.invalidate("ev-2");     // sự kiện khác được cập nhật trong lúc đang đọc
+            return "first";
+        });
+
+        assertEquals("first", cache.get("ev-1", () -> "reloaded"));
+        assertEquals(1, cache.stats().getHits());
+    }
+
+    @Test
+    void invalidateAllDuringLoadDoesNotCacheStaleValue() {
+        ReadThroughCache<String, String> cache = new ReadThroughCache<>("test", 100, 60_000);
+
+        cache.get("top", () -> {
+            cache.invalidateAll();
+            return "old";
+        });
+
+        assertEquals("new", cache.get("top", () -> "new"));
+    }
+
+    @Test
+    void failuresAreSharedButNotCached() {
+        ReadThroughCache<String, String> cache = new ReadThroughCache<>("test", 100, 60_000);
+
+        AppException error = assertThrows(AppException.class,
+                () -> cache.get("missing", () -> { throw new AppException(ErrorCode.USER_NOT_EXISTED); }));
+        assertEquals(ErrorCode.USER_NOT_EXISTED, error.getErrorCode());
+        assertEquals("found", cache.get("missing", () -> "found"));
+    }
+
+    @Test
+    void evictsLeastRecentlyUsedAndExpiresByTtl() throws Exception {
+        ReadThroughCache<String, String> cache = new ReadThroughCache<>("test", 2, 60_000);
+        cache.get("a", () -> "a");
+        cache.get("b", () -> "b");
+        cache.get("a", () -> "a2");       // a vừa được đọc -> b là entry lâu nhất
+        cache.get("c", () -> "c");
+
+        assertEquals(1, cache.stats().getEvictions());
+        assertEquals("a", cache.get("a", () -> "a3"));
+        assertEquals("b2", cache.get("b", () -> "b2"));
+
+        ReadThroughCache<String, String> shortLived = new ReadThroughCache<>("ttl", 10, 20);
+        shortLived.get("x", () -> "x1");
+        Thread.sleep(40);
+        assertEquals("x2", shortLived.get("x", () -> "x2"));
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,190 @@
+package com.volunteerhub.VolunteerHub.service;
+
+import com.mongodb.client.MongoClient;
+import com.mongodb.client.MongoClients;
+import com.volunteerhub.VolunteerHub.collection.Event;
+import com.volunteerhub.VolunteerHub.collection.EventRegistration;
+import com.volunteerhub.VolunteerHub.collection.User;
+import com.volunteerhub.VolunteerHub.dto.response.StatisticsResponse;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.junit.jupiter.api.condition.EnabledIfEnvironmentVariable;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+
+import java.util.*;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * So sánh getOverviewStatistics (aggregation) với cách cũ (findAll + đếm từng sự kiện) trên dữ liệu seed.
+ * Cần Mongo thật: chạy với MONGO_URI=mongodb://... mvn test -Dtest=StatisticsOverviewBenchmarkTest
+ * (dùng database tạm, xoá sau khi chạy).
+ */
+@EnabledIfEnvironmentVariable(named = "MONGO_URI", matches = ".+")
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class StatisticsOverviewBenchmarkTest {
+
+    static final int USERS = 2_000;
+    static final int EVENTS = 500;
+    static final int REGISTRATIONS = 30_000;
+    static final int ROUNDS = 5;
+    static final List<String> EVENT_STATUSES = List.of("pending", "approved", "approved", "rejected", "completed");
+    static final List<String> REGISTRATION_STATUSES = List.of("pending", "approved", "completed", "rejected");
+
+    MongoClient client;
+    MongoTemplate mongoTemplate;
+    String database;
+    StatisticsService statisticsService;
+
+    @BeforeAll
+    void seed() {
+        client = MongoClients.create(System.getenv("MONGO_URI"));
+        database = "vh_bench_" + UUID.randomUUID().toString().substring(0, 8);
+        mongoTemplate = new MongoTemplate(client, database);
+        statisticsService = new StatisticsService(null, mongoTemplate, null);
+
+        Random random = new Random(42);
+        List<User> users = new ArrayList<>();
+        for (int i = 0; i < USERS; i++) {
+            users.add(User.builder().email("user" + i + "@bench.local").full_name("User " + i).build());
+        }
+        users = new ArrayList<>(mongoTemplate.insertAll(users));
+
+        long now = System.currentTimeMillis();
+        List<Event> events = new ArrayList<>();
+        for (int i = 0; i < EVENTS; i++) {
+            events.add(Event.builder()
+                    .title("Event " + i)
+                    .status(EVENT_STATUSES.get(random.nextInt(EVENT_STATUSES.size())))
+                    .date(new Date(now + (random.nextInt(120) - 60) * 86_400_000L))
+                    .createdAt(new Date(now - random.nextInt(60) * 86_400_000L - i))
+                    .build());
+        }
+        events = new ArrayList<>(mongoTemplate.insertAll(events));
+
+        List<EventRegistration> registrations = new ArrayList<>();
+        for (int i = 0; i < REGISTRATIONS; i++) {
+            registrations.add(EventRegistration.builder()
+                    .eventId(events.get((int) Math.abs(random.nextGaussian() * EVENTS / 4) % EVENTS).getId())
+                    .userId(users.get(random.nextInt(USERS)).getId())
+                    .status(REGISTRATION_STATUSES.get(random.nextInt(REGISTRATION_STATUSES.size())))
+                    .build());
+        }
+        mongoTemplate.insertAll(registrations);
+    }
+
+    @AfterAll
+    void dropDatabase() {
+        if (client != null) {
+            client.getDatabase(database).drop();
+            client.close();
+        }
+    }
+
+    @Test
+    void aggregationMatchesLegacyAndIsFaster() {
+        // warm up
+        StatisticsResponse expected = legacyOverview();
+        StatisticsResponse actual = statisticsService.getOverviewStatistics();
+
+        assertEquals(expected.getTotalEvents(), actual.getTotalEvents());
+        assertEquals(expected.getPendingEvents(), actual.getPendingEvents());
+        assertEquals(expected.getRecentEvents(), actual.getRecentEvents());
+        assertEquals(expected.getUpcomingEvents(), actual.getUpcomingEvents());
+        assertEquals(expected.getActiveVolunteers(), actual.getActiveVolunteers());
+        assertEquals(ids(expected.getRecentEventSummaries()), ids(actual.getRecentEventSummaries()));
+        assertEquals(counts(expected.getRecentEventSummaries()), counts(actual.getRecentEventSummaries()));
+        // Thứ tự khi bằng điểm có thể khác nhau -> so sánh dãy số đăng ký / số completed
+        assertEquals(counts(expected.getAttractiveEvents()), counts(actual.getAttractiveEvents()));
+        assertEquals(expected.getTopVolunteers().stream().map(StatisticsResponse.TopVolunteer::getCompletedCount).toList(),
+                actual.getTopVolunteers().stream().map(StatisticsResponse.TopVolunteer::getCompletedCount).toList());
+
+        long legacyNanos = time(this::legacyOverview);
+        long aggregationNanos = time(statisticsService::getOverviewStatistics);
+        System.out.printf("getOverviewStatistics over %d events / %d registrations: legacy %.1f ms, aggregation %.1f ms%n",
+                EVENTS, REGISTRATIONS, legacyNanos / 1e6, aggregationNanos / 1e6);
+    }
+
+    private long time(Runnable runnable) {
+        long best = Long.MAX_VALUE;
+        for (int i = 0; i < ROUNDS; i++) {
+            long start = System.nanoTime();
+            runnable.run();
+            best = Math.min(best, System.nanoTime() - start);
+        }
+        return best;
+    }
+
+    private static List<String> ids(List<StatisticsResponse.EventSummary> summaries) {
+        return summaries.stream().map(StatisticsResponse.EventSummary::getId).toList();
+    }
+
+    private static List<Long> counts(List<StatisticsResponse.EventSummary> summaries) {
+        return summaries.stream().map(StatisticsResponse.EventSummary::getRegistrationCount).toList();
+    }
+
+    // ========================================================================
+    // CÁCH CŨ (giữ lại để đối chiếu): tải toàn bộ rồi đếm trong Java
+    // ========================================================================
+
+    private StatisticsResponse legacyOverview() {
+        long totalEvents = mongoTemplate.count(new Query(), Event.class);
+        long pendingEvents = mongoTemplate.count(Query.query(Criteria.where("status").is("pending")), Event.class);
+        Date sevenDaysAgo = new Date(System.currentTimeMillis() - 7 * 24 * 60 * 60 * 1000L);
+        long recentEvents = mongoTemplate.count(Query.query(Criteria.where("createdAt").gt(sevenDaysAgo)), Event.class);
+        long upcomingEvents = mongoTemplate.count(Query.query(Criteria.where("date").gt(new Date())), Event.class);
+
+        List<EventRegistration> allRegistrations = mongoTemplate.findAll(EventRegistration.class);
+        long activeVolunteers = allRegistrations.stream()
+                .map(EventRegistration::getUserId).filter(Objects::nonNull).collect(Collectors.toSet()).size();
+
+        List<StatisticsResponse.EventSummary> recent = mongoTemplate
+                .find(new Query().with(Sort.by(Sort.Direction.DESC, "createdAt")).limit(5), Event.class).stream()
+                .map(e -> StatisticsResponse.EventSummary.builder().id(e.getId()).title(e.getTitle())
+                        .registrationCount(countByEventId(e.getId())).status(e.getStatus()).build())
+                .toList();
+
+        List<StatisticsResponse.EventSummary> attractive = mongoTemplate.findAll(Event.class).stream()
+                .filter(e -> "approved".equals(e.getStatus()))
+                .map(e -> {
+                    long regCount = countByEventId(e.getId());
+                    return StatisticsResponse.EventSummary.builder().id(e.getId()).title(e.getTitle())
+                            .registrationCount(regCount).score(regCount * 10).status(e.getStatus()).build();
+                })
+                .sorted((a, b) -> Long.compare(b.getScore(), a.getScore()))
+                .limit(5)
+                .toList();
+
+        Map<String, Long> completedByUser = allRegistrations.stream()
+                .filter(r -> "completed".equals(r.getStatus()) && r.getUserId() != null)
+                .collect(Collectors.groupingBy(EventRegistration::getUserId, Collectors.counting()));
+        List<StatisticsResponse.TopVolunteer> top = completedByUser.entrySet().stream()
+                .sorted(Map.Entry.<String, Long>comparingByValue().reversed())
+                .limit(5)
+                .map(entry -> {
+                    User user = mongoTemplate.findById(entry.getKey(), User.class);
+                    long total = allRegistrations.stream().filter(r -> entry.getKey().equals(r.getUserId())).count();
+                    return StatisticsResponse.TopVolunteer.builder().userId(entry.getKey())
+                            .fullName(user != null ? user.getFull_name() : "Unknown User")
+                            .eventCount(total).completedCount(entry.getValue()).build();
+                })
+                .toList();
+
+        return StatisticsResponse.builder()
+                .totalEvents(totalEvents).pendingEvents(pendingEvents)
+                .recentEvents(recentEvents).upcomingEvents(upcomingEvents)
+                .activeVolunteers(activeVolunteers)
+                .recentEventSummaries(recent).attractiveEvents(attractive).topVolunteers(top)
+                .build();
+    }
+
+    private long countByEventId(String eventId) {
+        return mongoTemplate.count(Query.query(Criteria.where("eventId").is(eventId)), EventRegistration.class);
+    }
+}